@@ -202,8 +202,10 @@ public class BootstrapSamplePlots {
         FitResult showFitResult = null;
         ExperimentResult currentResInfo = pyController.getResidueInfo();
         String currentEquationName = "";
+        String resultEquationName = "";
         if (currentResInfo != null) {
             currentEquationName = pyController.getParametersEquation();
+            resultEquationName = currentEquationName;
             showFitResult = currentResInfo.getFitResult(currentEquationName);
         }
         if (showFitResult == null) {
@@ -212,7 +214,12 @@ public class BootstrapSamplePlots {
         }
         if (showFitResult != null) {
             simsMap = showFitResult.getSimsMap();
-        } else {
+        } else if (currentResInfo != null) {
+            // results loaded from a file keep their replicates in a separate store
+            simsMap = currentResInfo.getReplicates(resultEquationName).orElse(null);
+            currentEquationName = resultEquationName;
+        }
+        if (simsMap == null) {
             System.out.println("no results");
         }
         stage.setTitle("Monte Carlo Results: " + currentEquationName);
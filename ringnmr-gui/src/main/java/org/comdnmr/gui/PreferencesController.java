@@ -117,6 +117,7 @@ public class PreferencesController implements Initializable {
         ArrayList<String> optimizers = new ArrayList<>();
         optimizers.add("CMA-ES");
         optimizers.add("BOBYQA");
+        optimizers.add("LM");
         maxFreqItem = new DoubleRangeOperationItem(prefSheet, (obs, oldV, newV) -> {
             CoMDPreferences.setCPMGMaxFreq((Double) newV);
         }, CoMDPreferences.getCPMGMaxFreq(), 100.0, 5000.0, 100.0, 20000.0, "Limits", "CPMG/CEST/R1Rho Max Freq", "Max Frequency");
@@ -133,15 +134,39 @@ public class PreferencesController implements Initializable {
         IntRangeOperationItem nSamplesItem = new IntRangeOperationItem(prefSheet, (obs, oldV, newV) -> {
             CoMDPreferences.setSampleSize((Integer) newV);
         }, CoMDPreferences.getSampleSize(), 10, 500, "Optimizer", "Bootstrap Samples", "Number of bootstrap samples");
+        IntRangeOperationItem multiStartConvergedItem = new IntRangeOperationItem(prefSheet, (obs, oldV, newV) -> {
+            CoMDPreferences.setMultiStartConverged((Integer) newV);
+        }, CoMDPreferences.getMultiStartConverged(), 0, 20, "Optimizer", "Multi-Start Converged", "Stop the multi-start search once this many tries reach the best value (0 runs all tries)");
         ChoiceOperationItem optimizerChoiceItem = new ChoiceOperationItem(prefSheet, optimizerListener,
                 CoMDPreferences.getOptimizer(), optimizers, "Optimizer", "Refine Optimizer", "Optimizer for refinement");
         ChoiceOperationItem bootStrapOptimizerrChoiceItem = new ChoiceOperationItem(prefSheet, bootStrapOptimizerListener,
                 CoMDPreferences.getBootStrapOptimizer(), optimizers, "Optimizer", "Bootstrap Optimizer", "Optimizer for bootstrap");
+        BooleanOperationItem warmStartItem = new BooleanOperationItem(prefSheet,
+                (obs, oldV, newV) -> {
+                    CoMDPreferences.setWarmStartBootstrap((Boolean) newV);
+                }, CoMDPreferences.getWarmStartBootstrap(), "Optimizer", "Warm Start Bootstrap",
+                "Refine bootstrap samples locally (LM or BOBYQA) from the best fit, using the bootstrap optimizer only if that fails");
+        DoubleRangeOperationItem warmStartRadiusItem = new DoubleRangeOperationItem(prefSheet, (obs, oldV, newV) -> {
+            CoMDPreferences.setWarmStartRadius((Double) newV);
+        }, CoMDPreferences.getWarmStartRadius(), 0.1, 20.0, "Optimizer", "Warm Start Radius", "Initial search radius for warm started bootstrap refinement");
 
         DirectoryOperationItem locationFileItem = new DirectoryOperationItem(prefSheet, datasetListener, getDatasetDirectory().getPath(), "File Locations", "Datasets", "desc");
 
         int nProcessesDefault = Runtime.getRuntime().availableProcessors() / 2;
         IntRangeOperationItem nProcessesItem = new IntRangeOperationItem(prefSheet, nprocessListener, nProcessesDefault, 1, 32, "Processor", "NProcesses", "How many parallel processes to run during processing");
+        IntRangeOperationItem fitThreadsItem = new IntRangeOperationItem(prefSheet, (obs, oldV, newV) -> {
+            CoMDPreferences.setFitThreads((Integer) newV);
+        }, CoMDPreferences.getFitThreads(), 1, 64, "Processor", "Fit Threads", "How many residue groups to fit in parallel");
+        BooleanOperationItem parallelEquationsItem = new BooleanOperationItem(prefSheet,
+                (obs, oldV, newV) -> {
+                    CoMDPreferences.setParallelEquations((Boolean) newV);
+                }, CoMDPreferences.getParallelEquations(), "Processor", "Parallel Equations",
+                "Fit the candidate equations for each residue in parallel");
+        BooleanOperationItem fitProfilingItem = new BooleanOperationItem(prefSheet,
+                (obs, oldV, newV) -> {
+                    CoMDPreferences.setFitProfiling((Boolean) newV);
+                }, CoMDPreferences.getFitProfiling(), "Processor", "Fit Profiling",
+                "Record optimizer evaluations, iterations, tries and bootstrap timings for each fit");
 
         ArrayList<String> cestEqnChoices = new ArrayList<>();
         cestEqnChoices.addAll(Arrays.asList("NOEX", "TROTT_PALMER", "SD", "BALDWINKAY", "LAGUERRE",
@@ -209,9 +234,15 @@ public class PreferencesController implements Initializable {
             RelaxEquations.setSigma("C", (Double) newV * -1.0e-6);
         }, RelaxEquations.getSigma("C") * -1.0e6, 10, 220, "ModelFree", "C CSA", "C Chemical Shift Anisotropy (* -1.0)");
 
-        prefSheet.getItems().addAll(nProcessesItem, refFieldItem, maxFreqItem, rexRatioItem, deltaABdiffItem,
-                absValueItem, nonParametricItem, nSamplesItem, optimizerChoiceItem, bootStrapOptimizerrChoiceItem,
-                startingRadiusItem, toleranceItem, finalRadiusItem, weightFitItem, neuralNetworkGuessItem, corrR1RhoItem, hnDistanceItem, hcDistanceItem, nSigmaItem, cSigmaItem);
+        BooleanOperationItem modelFreeCacheItem = new BooleanOperationItem(prefSheet,
+                (obs, oldV, newV) -> {
+                    CoMDPreferences.setModelFreeCache((Boolean) newV);
+                }, CoMDPreferences.getModelFreeCache(), "ModelFree", "Result Cache",
+                "Reuse stored fits of residues whose data and fit settings are unchanged");
+
+        prefSheet.getItems().addAll(nProcessesItem, fitThreadsItem, parallelEquationsItem, fitProfilingItem, refFieldItem, maxFreqItem, rexRatioItem, deltaABdiffItem,
+                absValueItem, nonParametricItem, nSamplesItem, multiStartConvergedItem, optimizerChoiceItem, bootStrapOptimizerrChoiceItem, warmStartItem, warmStartRadiusItem,
+                startingRadiusItem, toleranceItem, finalRadiusItem, weightFitItem, neuralNetworkGuessItem, corrR1RhoItem, hnDistanceItem, hcDistanceItem, nSigmaItem, cSigmaItem, modelFreeCacheItem);
         for (String eqn : cestEqnChoices) {
             boolean defaultState = CoMDPreferences.getCESTEquationState(eqn);
             BooleanOperationItem cestEqnListItem = new BooleanOperationItem(prefSheet, cestEqnListener, defaultState, "CEST Equations", eqn, "List of equations to use during CEST Fitting");
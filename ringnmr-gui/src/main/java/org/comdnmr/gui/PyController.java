@@ -27,6 +27,7 @@ import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -1697,16 +1698,23 @@ public class PyController implements Initializable {
 
         MoietyType moietyType = moietyTypeChoiceBox.getValue();
         switch (moietyType) {
+            // The fitter is kept between fits so that only residues whose data
+            // changed since the last fit with the same settings are refit
             case AMIDE -> {
-                modelFitter = new FitR1R2NOEModel();
+                if ((modelFitter == null) || (modelFitter.getClass() != FitR1R2NOEModel.class)) {
+                    modelFitter = new FitR1R2NOEModel();
+                }
             }
             case DEUTERATED_METHYL -> {
                 // FIXME: Encapsulate in FitSpec. Will need some thinking... only applicable to deuterated methyl data
                 SpectralDensityCalculator.setUseRQ(useRQCheckBox.isSelected());
-                modelFitter = new FitDeuteriumModel();
+                if ((modelFitter == null) || (modelFitter.getClass() != FitDeuteriumModel.class)) {
+                    modelFitter = new FitDeuteriumModel();
+                }
             }
             default -> throw new AssertionError("Unsupported moiety");
         };
+        modelFitter.setIncremental(true);
         fitIsotropicModel(modelFitter);
     }
 
@@ -1753,6 +1761,7 @@ public class PyController implements Initializable {
             .build();
 
         fitModel.setFitSpec(fitSpec);
+        fitModel.setCache(new CoMDOptions(true).getModelFreeCache() ? new ModelFitCache(ModelFitCache.getDefaultDirectory()) : null);
         preFitActiveStates = DataIO.getOrderParSetFromMolecule().entrySet().stream()
             .collect(java.util.stream.Collectors.toMap(Map.Entry::getKey, e -> e.getValue().active()));
         try {
@@ -2556,6 +2565,7 @@ public class PyController implements Initializable {
             try {
                 BasicFitter equationFitter = getFitter();
                 ResonanceSource[] resNums = {chartInfo.getSource()};
+                getCurrentExperimentSet().setupMaps();
                 equationFitter.setData(getCurrentExperimentSet(), resNums);
                 String equationName = simControls.getEquation();
                 List<ParValueInterface> guesses = equationFitter.guessPars(equationName);
@@ -2578,6 +2588,7 @@ public class PyController implements Initializable {
             try {
                 if (chartInfo.hasResult()) {
                     ResonanceSource[] resNums = {chartInfo.getSource()};
+                    getCurrentExperimentSet().setupMaps();
                     equationFitter.setData(getCurrentExperimentSet(), resNums);
                     String equationName = simControls.getEquation();
                     equationFitter.setupFit(equationName);
@@ -2617,6 +2628,7 @@ public class PyController implements Initializable {
             } else {
                 if (basicFitter instanceof EquationFitter equationFitter) {
                     ResonanceSource[] resNums = {chartInfo.getSource()};
+                    getCurrentExperimentSet().setupMaps();
                     equationFitter.setData(getCurrentExperimentSet(), resNums);
                     String equationName = simControls.getEquation();
                     equationFitter.setupFit(equationName);
@@ -2758,6 +2770,9 @@ public class PyController implements Initializable {
         if (file != null) {
             try {
                 OrderPar.writeToFile(file, ",");
+                if ((modelFitter != null) && !modelFitter.getLastResults().isEmpty()) {
+                    modelFitter.saveReplicates(ReplicateStore.pathFor(file.getPath()));
+                }
             } catch (IOException e) {
                 ExceptionDialog exceptionDialog = new ExceptionDialog(e);
                 exceptionDialog.showAndWait();
@@ -3662,7 +3677,27 @@ public class PyController implements Initializable {
     }
 
     public void calculateSpectralDensities() {
-        OrderParameterTool.calculateSpectralDensities();
+        // the mapping runs in the background and only the atoms are updated
+        // on the FX thread
+        Task<List<OrderParameterTool.AtomSpectralDensity>> task = new Task<>() {
+            @Override
+            protected List<OrderParameterTool.AtomSpectralDensity> call() {
+                return OrderParameterTool.computeSpectralDensities();
+            }
+        };
+        task.setOnSucceeded(e -> {
+            OrderParameterTool.setSpectralDensities(task.getValue());
+            statusBar.setText("Done: spectral densities of " + task.getValue().size() + " residues");
+        });
+        task.setOnFailed(e -> {
+            statusBar.setText("");
+            ExceptionDialog exceptionDialog = new ExceptionDialog(task.getException());
+            exceptionDialog.showAndWait();
+        });
+        statusBar.setText("Calculating spectral densities");
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
     }
 
     private record RelaxInfo(Nuclei nuclei, double tau) {}
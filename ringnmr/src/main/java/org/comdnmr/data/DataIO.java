@@ -23,7 +23,6 @@ import org.comdnmr.modelfree.CorrelationTime;
 import org.nmrfx.chemistry.*;
 import org.nmrfx.chemistry.io.*;
 import org.nmrfx.chemistry.relax.*;
-import org.nmrfx.chemistry.utilities.CSVRE;
 import org.nmrfx.datasets.DatasetBase;
 import org.nmrfx.datasets.Nuclei;
 import org.nmrfx.peaks.InvalidPeakException;
@@ -40,6 +39,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 /**
  * @author Bruce Johnson
@@ -158,6 +158,49 @@ public class DataIO {
     record XArrayYErrValue(double[] x, double y, double err) {
     }
 
+    record ResidueFile(String fileName, String residueNum, String atomName, double refIntensity) {
+    }
+
+    /**
+     * Growable primitive columns of x, y and error values, filled as a file
+     * is parsed.
+     */
+    static final class XYErrColumns {
+
+        double[] x = new double[16];
+        double[] y = new double[16];
+        double[] err = new double[16];
+        int size = 0;
+
+        void add(double xValue, double yValue, double errValue) {
+            if (size == x.length) {
+                x = Arrays.copyOf(x, size * 2);
+                y = Arrays.copyOf(y, size * 2);
+                err = Arrays.copyOf(err, size * 2);
+            }
+            x[size] = xValue;
+            y[size] = yValue;
+            err[size] = errValue;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        double[] x() {
+            return Arrays.copyOf(x, size);
+        }
+
+        double[] y() {
+            return Arrays.copyOf(y, size);
+        }
+
+        double[] err() {
+            return Arrays.copyOf(err, size);
+        }
+    }
+
     public record ErrorMode(String mode, double percent) {
         public double percentFrac() {
             return percent / 100.0;
@@ -293,7 +336,19 @@ public class DataIO {
                                     ExperimentSet experimientSet, XCONV xConv, YCONV yConv,
                                     HashMap<String, Object> errorPars, double[] delayCalc,
                                     DynamicsSource dynamicsSourceFactory)
-            throws IOException, IllegalArgumentException { //(String fileName, ExperimentSet resProp, String nucleus,
+            throws IOException, IllegalArgumentException {
+        readPeakFile(fileName, experiment, xConv, yConv, errorPars, delayCalc)
+                .attach(experimientSet, dynamicsSourceFactory);
+    }
+
+    /**
+     * Reads a peak file into a section of data that is not yet attached to
+     * an experiment set, see {@link #loadPeakFile}.
+     */
+    static DataSection readPeakFile(String fileName, Experiment experiment,
+                                    XCONV xConv, YCONV yConv,
+                                    HashMap<String, Object> errorPars, double[] delayCalc)
+            throws IOException, IllegalArgumentException {
         Path path = Paths.get(fileName);
         if (Files.notExists(path, LinkOption.NOFOLLOW_LINKS)) {
             throw new FileNotFoundException(fileName);
@@ -310,7 +365,7 @@ public class DataIO {
         if (experiment instanceof DoubleArrayExperiment doubleArrayExperiment) {
             xVals = doubleArrayExperiment.getXVals();
         }
-        experimientSet.addExperimentData(experiment.getName(), experiment);
+        DataSection section = new DataSection(experiment.getName(), experiment);
         boolean eSet = false;
         double errF = 0.05;
         double noise = 1.0;
@@ -345,23 +400,20 @@ public class DataIO {
         int fakeRes = 1;
         Map<String, List<Integer>> xValIndices = new HashMap<>();
         List<List<Integer>> repIndices = new ArrayList<>();
-        try (BufferedReader fileReader = Files.newBufferedReader(path)) {
-            while (true) {
-                String line = fileReader.readLine();
-                if (line == null) {
-                    break;
-                }
-                String sline = line.trim();
-                if (sline.isEmpty()) {
-                    continue;
-                }
-                if (sline.charAt(0) == '#') {
+        XYErrColumns xyErrColumns = new XYErrColumns();
+        try (LineTokenizer tokenizer = LineTokenizer.open(path)) {
+            while (tokenizer.next()) {
+                char firstChar = tokenizer.firstChar();
+                if ((firstChar == 0) || (firstChar == '#')) {
                     continue;
                 }
-                String[] sfields = line.split("\t", -1);
+                int nfields = tokenizer.split('\t');
                 if (!gotHeader) {
-                    int nfields = sfields.length;
-                    if (fileName.endsWith(".mpk2")) {
+                    String[] sfields = new String[nfields];
+                    for (int i = 0; i < nfields; i++) {
+                        sfields[i] = tokenizer.get(i);
+                    }
+                    if (LineTokenizer.uncompressedName(fileName).endsWith(".mpk2")) {
                         // find last B0field that starts with "lab"
                         //   .mpk2 files have peak labels in columns like "lab1", "lab2"
                         //   intensities start in next column
@@ -433,7 +485,7 @@ public class DataIO {
                         // fixme. need to explicitly account for alternating x-value, errorHeader fields
                         if (xVals == null) {
                             try {
-                                double x = Double.parseDouble(sfields[i].trim());
+                                double x = Double.parseDouble(sfields[i]);
                                 if (hasErrColumns) {
                                     i++;
                                 }
@@ -456,10 +508,10 @@ public class DataIO {
                     String residueNum = "";
                     int peakNum = -1;
                     if (residueField != -1) {
-                        residueNum = sfields[residueField].trim();
+                        residueNum = tokenizer.get(residueField);
                     }
                     if (peakField != -1) {
-                        peakNum = (int) Double.parseDouble(sfields[peakField].trim());
+                        peakNum = (int) tokenizer.getDouble(peakField);
                     }
                     if (residueNum.equals("")) {
                         residueNum = String.valueOf(fakeRes);
@@ -475,16 +527,16 @@ public class DataIO {
                         int refOffset = offset - 1;
                         if (hasErrColumns) {
                             refOffset = offset - 2;
-                            refError = Double.parseDouble(sfields[offset - 1].trim());
+                            refError = tokenizer.getDouble(offset - 1);
                         }
-                        refIntensity = Double.parseDouble(sfields[refOffset].trim());
+                        refIntensity = tokenizer.getDouble(refOffset);
                         for (List<Integer> list : repIndices) {
                             if (list.contains(refOffset)) {
                                 double sum = 0.0;
                                 double refSum = 0.0;
                                 for (int index : list) {
-                                    sum += Double.parseDouble(sfields[index].trim());
-                                    refSum += Double.parseDouble(sfields[refOffset].trim());
+                                    sum += tokenizer.getDouble(index);
+                                    refSum += tokenizer.getDouble(refOffset);
                                 }
                                 avgIntensity = sum / list.size();
                                 avgRefIntensity = refSum / list.size();
@@ -492,18 +544,17 @@ public class DataIO {
                         }
 
                     }
-                    List<XYErrValue> xyErrValueList = new ArrayList<>();
+                    xyErrColumns.clear();
                     boolean ok = true;
                     int iX = 0;
-                    for (int i = offset; i < sfields.length; i++) {
-                        String valueStr = sfields[i].trim();
-                        if ((valueStr.isEmpty()) || valueStr.equalsIgnoreCase("NA")) {
+                    for (int i = offset; i < nfields; i++) {
+                        if (tokenizer.isEmpty(i) || tokenizer.equalsIgnoreCase(i, "NA")) {
                             continue;
                         }
                         Double yValue;
                         double intensity;
                         try {
-                            intensity = Double.parseDouble(sfields[i].trim());
+                            intensity = tokenizer.getDouble(i);
                             yValue = yConv.convert(intensity, refIntensity, tau);
                         } catch (NumberFormatException nFE) {
                             ok = false;
@@ -525,15 +576,15 @@ public class DataIO {
                             if (list.contains(i)) {
                                 nReps = list.size();
                                 for (int index : list) {
-                                    diffSum += Double.parseDouble(sfields[index].trim()) - avgIntensity;
-                                    refDiffSum += Double.parseDouble(sfields[index - 1].trim()) - avgRefIntensity;
+                                    diffSum += tokenizer.getDouble(index) - avgIntensity;
+                                    refDiffSum += tokenizer.getDouble(index - 1) - avgRefIntensity;
                                 }
                             }
                         }
                         double normIntensity = diffSum / (nReps - 1);
                         double normRefIntensity = refDiffSum / (nReps - 1);
                         if (hasErrColumns && errorMode.equalsIgnoreCase("measured")) {
-                            eValue = Double.parseDouble(sfields[i].trim());
+                            eValue = tokenizer.getDouble(i);
                             eSet = true;
                             if (expMode.equalsIgnoreCase("cpmg")) {
                                 if (normIntensity != 0) {
@@ -579,34 +630,26 @@ public class DataIO {
                                 eValue = noise;
                             }
                         }
-                        XYErrValue xyErrValue = new XYErrValue(xValues[iX], yValue, eValue);
-                        xyErrValueList.add(xyErrValue);
+                        xyErrColumns.add(xValues[iX], yValue, eValue);
                         iX++;
                     }
                     if (!ok) {
                         continue;
                     }
-                    Optional<ResonanceSource> resSourceOpt = dynamicsSourceFactory.createFromSpecifiers(expMode + "." + peakNum, residueNum, "H", "N");
-                    if (!resSourceOpt.isPresent()) {
-                        throw new IllegalArgumentException("Can't generate resonance source from peak " + expMode + "." + peakNum);
-                    }
-                    ResonanceSource dynSource = resSourceOpt.get();
+                    String peakSpecifier = expMode + "." + peakNum;
+                    ExperimentData residueData;
                     if (expMode.equalsIgnoreCase("cest")) {
-                        processCESTData((CESTExperiment) experiment, dynSource, xyErrValueList);
+                        residueData = newCESTData((CESTExperiment) experiment, null,
+                                xyErrColumns.x(), xyErrColumns.y(), xyErrColumns.err());
                     } else {
-                        ExperimentData residueData = new ExperimentData(experiment, dynSource, xyErrValueList);
-                        experiment.addResidueData(dynSource, residueData);
-                    }
-                    ExperimentResult residueInfo = experimientSet.getExperimentResult(dynSource);
-                    // DynamicsSource dynSource = expData.getSource();
-
-                    if (residueInfo == null) {
-                        residueInfo = new ExperimentResult(experimientSet, dynSource, 0, 0, 0);
-                        experimientSet.addExperimentResult(dynSource, residueInfo);
+                        residueData = new ExperimentData(experiment, null,
+                                new double[][]{xyErrColumns.x()}, xyErrColumns.y(), xyErrColumns.err());
                     }
                     if (expMode.equalsIgnoreCase("noe")) {
-                        residueInfo.value = xyErrValueList.get(0).x();
-                        residueInfo.err = xyErrValueList.get(0).err();
+                        section.add(residueData, xyErrColumns.x[0], xyErrColumns.err[0],
+                                peakSpecifier, residueNum, "H", "N");
+                    } else {
+                        section.add(residueData, peakSpecifier, residueNum, "H", "N");
                     }
 
                     fakeRes++;
@@ -614,36 +657,54 @@ public class DataIO {
             }
         }
         if (!eSet) {
-            double errValue = estimateErrors(experiment);
-            setErrors(experiment, errValue);
+            List<ExperimentData> residueData = section.getData();
+            double errValue = estimateErrors(residueData);
+            setErrors(residueData, errValue);
         }
+        return section;
     }
 
     public static void processCESTData(OffsetExperiment expData, ResonanceSource dynSource, List<XYErrValue> xyErrValueList) {
-        Double B1field = expData.getB1Field();
-        List<Double> B1fieldList = new ArrayList<>();
-        xyErrValueList.forEach((_item) -> B1fieldList.add(B1field));
-        double tau = expData.getTau();
-        List<Double> tauList = new ArrayList<>();
-        xyErrValueList.forEach(_item -> tauList.add(tau));
-        List<Double> bFieldUniqueValue = new ArrayList<>();
-        bFieldUniqueValue.add(B1fieldList.get(0));
-        List<Double> tauList1 = new ArrayList<>();
-        tauList1.add(tauList.get(0));
-        List<XArrayYErrValue> xArrayYErrValues = new ArrayList<>();
-        for (XYErrValue xyErrValue : xyErrValueList) {
-            double[] xvalues = {xyErrValue.x(), B1field, tau};
-            XArrayYErrValue xArrayYErrValue = new XArrayYErrValue(xvalues, xyErrValue.y(), xyErrValue.err());
-            xArrayYErrValues.add(xArrayYErrValue);
-
+        int nValues = xyErrValueList.size();
+        double[] x = new double[nValues];
+        double[] y = new double[nValues];
+        double[] err = new double[nValues];
+        for (int i = 0; i < nValues; i++) {
+            XYErrValue xyErrValue = xyErrValueList.get(i);
+            x[i] = xyErrValue.x();
+            y[i] = xyErrValue.y();
+            err[i] = xyErrValue.err();
         }
+        processCESTData(expData, dynSource, x, y, err);
+    }
 
-        ExperimentData residueData = new ExperimentData(expData, dynSource, xArrayYErrValues, 3);
+    public static void processCESTData(OffsetExperiment expData, ResonanceSource dynSource, double[] x, double[] y, double[] err) {
+        ExperimentData residueData = newCESTData(expData, dynSource, x, y, err);
         expData.addResidueData(dynSource, residueData);
-        expData.getExtras().clear();
-        expData.setExtras(bFieldUniqueValue);
-        expData.setExtras(tauList1);
+    }
 
+    static ExperimentData newCESTData(OffsetExperiment expData, ResonanceSource dynSource, double[] x, double[] y, double[] err) {
+        double B1field = expData.getB1Field();
+        double tau = expData.getTau();
+        List<Double> bFieldUniqueValue = new ArrayList<>();
+        bFieldUniqueValue.add(B1field);
+        List<Double> tauList1 = new ArrayList<>();
+        tauList1.add(tau);
+        double[][] xValues = new double[3][];
+        xValues[0] = x;
+        xValues[1] = new double[x.length];
+        xValues[2] = new double[x.length];
+        Arrays.fill(xValues[1], B1field);
+        Arrays.fill(xValues[2], tau);
+
+        ExperimentData residueData = new ExperimentData(expData, dynSource, xValues, y, err);
+        // the files of residues of one experiment may be read in parallel
+        synchronized (expData) {
+            expData.getExtras().clear();
+            expData.setExtras(bFieldUniqueValue);
+            expData.setExtras(tauList1);
+        }
+        return residueData;
     }
 
     /**
@@ -681,53 +742,47 @@ public class DataIO {
                                            HashMap<String, Object> errorPars, XCONV xConv, YCONV yConv,
                                            double refIntensity, DynamicsSource dynamicsSourceFactory)
             throws IOException, IllegalArgumentException {
+        readResidueDataFile(fileName, expData, residueNum, atomName, xConv, yConv, refIntensity)
+                .attach(experimentSet, dynamicsSourceFactory);
+    }
+
+    /**
+     * Reads the data of one residue into a section of data that is not yet
+     * attached to an experiment set, see {@link #loadResidueDataFile}.
+     */
+    static DataSection readResidueDataFile(String fileName, Experiment expData,
+                                           String residueNum, String atomName,
+                                           XCONV xConv, YCONV yConv, double refIntensity) {
         boolean gotHeader = false;
         int nValues = 0;
-        List<XYErrValue> xyErrValueList = new ArrayList<>();
+        XYErrColumns xyErrColumns = new XYErrColumns();
 
-        experimentSet.addExperimentData(expData.getName(), expData);
-        String splitPattern = "\t";
-        String[] sfields;
+        DataSection section = new DataSection(expData.getName(), expData);
+        char delimiter = '\t';
 
-        try (BufferedReader fileReader = new BufferedReader(new FileReader(fileName))) {
-            while (true) {
-                String line = fileReader.readLine();
-                if (line == null) {
-                    break;
-                }
-
-//            String line = fileReader.readLine();
-                String sline = line.trim();
-                if (sline.isEmpty()) {
-                    continue;
-                }
-                if (sline.charAt(0) == '#') {
+        try (LineTokenizer tokenizer = LineTokenizer.open(Paths.get(fileName))) {
+            while (tokenizer.next()) {
+                char firstChar = tokenizer.firstChar();
+                if ((firstChar == 0) || (firstChar == '#')) {
                     continue;
                 }
                 if (!gotHeader) {
-                    if (!line.contains("\t")) {
-                        splitPattern = ",";
-                        if (!line.contains(",")) {
-                            splitPattern = " +";
-                        }
-                    }
-                    sfields = line.split(splitPattern, -1);
-                    nValues = sfields.length;
+                    delimiter = tokenizer.detectDelimiter();
+                    nValues = tokenizer.split(delimiter);
                     gotHeader = true;
                 } else {
-                    sfields = line.split(splitPattern, -1);
+                    tokenizer.split(delimiter);
                     try {
 
-                        double offsetFreq = Double.parseDouble(sfields[0].trim());
-                        double intensity = Double.parseDouble(sfields[1].trim());
+                        double offsetFreq = tokenizer.getDouble(0);
+                        double intensity = tokenizer.getDouble(1);
                         double error = 0.01;
                         if (nValues > 2) {
-                            error = Double.parseDouble(sfields[2].trim());
+                            error = tokenizer.getDouble(2);
                         }
                         offsetFreq = xConv.convert(offsetFreq, null, expData);
                         intensity = yConv.convert(intensity, refIntensity, 0.0);
-                        XYErrValue xyErrValue = new XYErrValue(offsetFreq, intensity, error);
-                        xyErrValueList.add(xyErrValue);
+                        xyErrColumns.add(offsetFreq, intensity, error);
                     } catch (NumberFormatException nFE) {
                         System.out.println(nFE.getMessage());
 //                        continue;
@@ -739,91 +794,75 @@ public class DataIO {
 
             Logger.getLogger(DataIO.class.getName()).log(Level.SEVERE, null, ex);
         }
-        Optional<ResonanceSource> resSourceOpt = dynamicsSourceFactory.createFromSpecifiers(expData.getExpMode() + "." + 0, residueNum, atomName);
-        if (!resSourceOpt.isPresent()) {
-            throw new IllegalArgumentException("Can't generate resonance source from data " + expData.getName() + "." + 0);
-        }
-        ResonanceSource resSource = resSourceOpt.get();
-
-        processCESTData((OffsetExperiment) expData, resSource, xyErrValueList);
-        ExperimentResult expResult = experimentSet.getExperimentResult(resSource);
-        if (expResult == null) {
-            expResult = new ExperimentResult(experimentSet, resSource, 0, 0, 0);
-            experimentSet.addExperimentResult(resSource, expResult);
-        }
-
+        ExperimentData residueData = newCESTData((OffsetExperiment) expData, null,
+                xyErrColumns.x(), xyErrColumns.y(), xyErrColumns.err());
+        section.add(residueData, expData.getExpMode() + "." + 0, residueNum, atomName);
+        return section;
     }
 
     public static void loadTextFile(Experiment expData, String fileName, ExperimentSet experimentSet,
                                     String nucleus, double temperature, double field, XCONV xConv,
                                     String expMode, DynamicsSource dynamicsSourceFactory)
             throws IOException, IllegalArgumentException {
+        readTextFile(expData, fileName, xConv, expMode).attach(experimentSet, dynamicsSourceFactory);
+    }
+
+    /**
+     * Reads a text file into a section of data that is not yet attached to an
+     * experiment set, see {@link #loadTextFile}.
+     */
+    static DataSection readTextFile(Experiment expData, String fileName, XCONV xConv, String expMode)
+            throws IOException, IllegalArgumentException {
         Path path = Paths.get(fileName);
         String fileTail = path.getFileName().toString();
         fileTail = fileTail.substring(0, fileTail.indexOf('.'));
 
 //        ExperimentData expData = new ExperimentData(fileTail, nucleus, B0field, temperature);
-        experimentSet.addExperimentData(fileTail, expData);
+        DataSection section = new DataSection(fileTail, expData);
         boolean gotHeader = false;
         String[] peakRefs;
         double[][] xValues = null;
 //        List<Double> xValues = new ArrayList<>();
         int peakNum = 0;
-        try (BufferedReader fileReader = Files.newBufferedReader(path)) {
-            while (true) {
-                String line = fileReader.readLine();
-                if (line == null) {
-                    break;
-                }
-//            String line = fileReader.readLine();
-                String sline = line.trim();
-                if (sline.length() == 0) {
+        try (LineTokenizer tokenizer = LineTokenizer.open(path)) {
+            while (tokenizer.next()) {
+                if (tokenizer.isBlank()) {
                     continue;
                 }
-                String[] sfields = line.split("\t", -1);
+                int nFields = tokenizer.split('\t');
                 if (!gotHeader) {
                     int j = 0;
-                    int nValues = (sfields.length - 1) / 2;
+                    int nValues = (nFields - 1) / 2;
                     xValues = new double[1][nValues];
                     peakRefs = new String[nValues];
-                    for (int i = 1; i < sfields.length - 1; i += 2) {
-                        double xValue = Double.parseDouble(sfields[i].trim());
+                    for (int i = 1; i < nFields - 1; i += 2) {
+                        double xValue = tokenizer.getDouble(i);
                         xValues[0][j] = xConv.convert(xValue, null, expData);
                         peakRefs[j] = String.valueOf(j);
                         j++;
                     }
                     gotHeader = true;
                 } else {
-                    int nValues = (sfields.length - 1) / 2;
-                    String residueNum = sfields[0].trim();
+                    int nValues = (nFields - 1) / 2;
+                    String residueNum = tokenizer.get(0);
                     double[] yValues = new double[nValues];
                     double[] errValues = new double[nValues];
                     int j = 0;
-                    for (int i = 1; i < sfields.length - 1; i += 2) {
-                        double r2Eff = Double.parseDouble(sfields[i].trim());
-                        double r2EffErr = Double.parseDouble(sfields[i + 1].trim());
+                    for (int i = 1; i < nFields - 1; i += 2) {
+                        double r2Eff = tokenizer.getDouble(i);
+                        double r2EffErr = tokenizer.getDouble(i + 1);
                         yValues[j] = r2Eff;
                         errValues[j] = r2EffErr;
                         j++;
                     }
 
-                    Optional<ResonanceSource> resSourceOpt = dynamicsSourceFactory.createFromSpecifiers(expMode + "." + peakNum, residueNum, "H", "N");
-                    if (!resSourceOpt.isPresent()) {
-                        throw new IllegalArgumentException("Can't generate resonance source from peak " + expMode + "." + peakNum);
-                    }
-                    ResonanceSource dynSource = resSourceOpt.get();
-                    ExperimentData residueData = new ExperimentData(expData, dynSource, xValues, yValues, errValues);
-                    expData.addResidueData(dynSource, residueData);
-
-                    ExperimentResult residueInfo = experimentSet.getExperimentResult(dynSource);
-                    if (residueInfo == null) {
-                        residueInfo = new ExperimentResult(experimentSet, dynSource, 0, 0, 0);
-                        experimentSet.addExperimentResult(dynSource, residueInfo);
-                    }
+                    ExperimentData residueData = new ExperimentData(expData, null, xValues, yValues, errValues);
+                    section.add(residueData, expMode + "." + peakNum, residueNum, "H", "N");
                     peakNum++;
                 }
             }
         }
+        return section;
     }
 
     public static void setPercentileErrors(Experiment expData, double fraction) {
@@ -836,7 +875,11 @@ public class DataIO {
     }
 
     public static void setErrors(Experiment expData, double error) {
-        for (ExperimentData residueData : expData.experimentalDataSets.values()) {
+        setErrors(expData.experimentalDataSets.values(), error);
+    }
+
+    static void setErrors(Collection<ExperimentData> experimentData, double error) {
+        for (ExperimentData residueData : experimentData) {
             double[] errValues = residueData.getErrValues();
             if (error < 1.0e-9) {
                 double[] yValues = residueData.getYValues();
@@ -866,10 +909,14 @@ public class DataIO {
     }
 
     public static double estimateErrors(Experiment expData) {
+        return estimateErrors(expData.experimentalDataSets.values());
+    }
+
+    static double estimateErrors(Collection<ExperimentData> experimentData) {
         int nDups = 0;
         double sumDelta2 = 0.0;
         double sumAbs = 0.0;
-        for (ExperimentData residueData : expData.experimentalDataSets.values()) {
+        for (ExperimentData residueData : experimentData) {
             double[][] xValues = residueData.getXValues();
             double[] yValues = residueData.getYValues();
             for (int i = 0; i < yValues.length - 1; i++) {
@@ -1048,6 +1095,14 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
             }
 
         }
+        Path replicatePath = ReplicateStore.pathFor(fileName);
+        if (Files.exists(replicatePath)) {
+            try {
+                experimentSet.setReplicateStore(ReplicateStore.open(replicatePath));
+            } catch (IOException ex) {
+                Logger.getLogger(DataIO.class.getName()).log(Level.WARNING, "Can't read replicates " + replicatePath, ex);
+            }
+        }
         return experimentSet;
     }
 
@@ -1158,170 +1213,218 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
 
     }
 
+    /**
+     * Loads the data sections of a project. The sections, and the files of a
+     * section, are read in parallel; the data are then attached to the
+     * experiment set on the calling thread, in the order of the sections, so
+     * resonances are created in the molecule in the same order as when the
+     * sections are read one at a time. The time to read and attach each
+     * section is logged at {@link Level#FINE}.
+     */
     public static void processYAMLDataSections(ExperimentSet experimentSet, Path dirPath, String expMode, List<HashMap<String, Object>> dataList) throws IOException {
-        for (HashMap<String, Object> dataMap3 : dataList) {
-            Double temperature = getDoubleValue(dataMap3, "temperature", null);
-            if (temperature != null) {
-                temperature += 273.15;
-            } else {
-                temperature = getDoubleValue(dataMap3, "temperatureK", null);
-            }
-
-            XCONV xConv;
-            YCONV yConv;
-            switch (expMode) {
-                case "cpmg":
-                    xConv = XCONV.TAU2;
-                    yConv = YCONV.RATE;
-                    break;
-                case "cest":
-                    xConv = XCONV.IDENTITY;
-                    yConv = YCONV.NORMALIZE;
-                    break;
-                default:
-                    xConv = XCONV.IDENTITY;
-                    yConv = YCONV.IDENTITY;
-            }
-            if (dataMap3.containsKey("xconv")) {
-                String xConvStr = dataMap3.get("xconv").toString();
-                xConv = XCONV.valueOf(xConvStr.toUpperCase());
-                if (xConv == null) {
-                    throw new IOException("Bad xconversion type");
+        int nSections = dataList.size();
+        long[] readTimes = new long[nSections];
+        List<List<DataSection>> sectionList;
+        try {
+            sectionList = IntStream.range(0, nSections).parallel().mapToObj(i -> {
+                long start = System.nanoTime();
+                try {
+                    List<DataSection> sections = readYAMLDataSection(experimentSet, dirPath, expMode, dataList.get(i));
+                    readTimes[i] = System.nanoTime() - start;
+                    return sections;
+                } catch (IOException ioE) {
+                    throw new UncheckedIOException(ioE);
                 }
+            }).toList();
+        } catch (UncheckedIOException uioE) {
+            throw uioE.getCause();
+        }
+        DynamicsSource dynamicsSourceFactory = new DynamicsSource(true, true, true, true);
+        for (int i = 0; i < nSections; i++) {
+            long start = System.nanoTime();
+            List<DataSection> sections = sectionList.get(i);
+            for (DataSection section : sections) {
+                section.attach(experimentSet, dynamicsSourceFactory);
             }
-            if (dataMap3.containsKey("yconv")) {
-                String xConvStr = dataMap3.get("yconv").toString();
-                yConv = YCONV.valueOf(xConvStr.toUpperCase());
-                if (yConv == null) {
-                    throw new IOException("Bad yconversion type");
-                }
+            long attachTime = System.nanoTime() - start;
+            Logger logger = Logger.getLogger(DataIO.class.getName());
+            if (logger.isLoggable(Level.FINE)) {
+                String sectionName = sections.isEmpty() ? String.valueOf(i) : sections.get(0).getExperiment().getName();
+                logger.fine(String.format("loaded section %s read %.1f ms attach %.1f ms", sectionName,
+                        readTimes[i] / 1.0e6, attachTime / 1.0e6));
             }
+        }
+    }
 
-            Double B0field = ((Number) dataMap3.get("B0")).doubleValue();
-            String nucleus = (String) dataMap3.get("nucleus");
-            List<Number> vcpmgList = (List<Number>) dataMap3.get("vcpmg");
-            Double tau = getDoubleValue(dataMap3, "tau", 1.0);
-            Double B1field = getDoubleValue(dataMap3, "B1", null);
-
-            String fileFormat = (String) dataMap3.get("format");
-
-            HashMap<String, Object> errorPars = (HashMap<String, Object>) dataMap3.get("error");
-            Object delayField = dataMap3.get("delays");
-            double[] delayCalc = {0.0, 0.0, 1.0};
-            if (delayField instanceof Map) {
-                Map<String, Object> delayMap = (Map<String, Object>) delayField;
-                delayCalc[0] = getDoubleValue(delayMap, "delta0", 0.0);
-                delayCalc[1] = getDoubleValue(delayMap, "c0", 0.0);
-                delayCalc[2] = getDoubleValue(delayMap, "delta", 1.0);
-            }
-            String dataFileName = (String) dataMap3.get("file");
-            File dataFile = null;
-            String fileTail = null;
-            if (dataFileName != null) {
-                dataFile = new File(dataFileName);
-                fileTail = dataFile.getName();
-                int dot = fileTail.lastIndexOf(".");
-                if (dot != -1) {
-                    fileTail = fileTail.substring(0, dot);
-                }
+    /**
+     * Creates the experiment of one data section and reads its files.
+     */
+    static List<DataSection> readYAMLDataSection(ExperimentSet experimentSet, Path dirPath, String expMode, Map<String, Object> dataMap3) throws IOException {
+        Double temperature = getDoubleValue(dataMap3, "temperature", null);
+        if (temperature != null) {
+            temperature += 273.15;
+        } else {
+            temperature = getDoubleValue(dataMap3, "temperatureK", null);
+        }
+
+        XCONV xConv;
+        YCONV yConv;
+        switch (expMode) {
+            case "cpmg":
+                xConv = XCONV.TAU2;
+                yConv = YCONV.RATE;
+                break;
+            case "cest":
+                xConv = XCONV.IDENTITY;
+                yConv = YCONV.NORMALIZE;
+                break;
+            default:
+                xConv = XCONV.IDENTITY;
+                yConv = YCONV.IDENTITY;
+        }
+        if (dataMap3.containsKey("xconv")) {
+            String xConvStr = dataMap3.get("xconv").toString();
+            xConv = XCONV.valueOf(xConvStr.toUpperCase());
+            if (xConv == null) {
+                throw new IOException("Bad xconversion type");
             }
-            String expName = (String) dataMap3.get("name");
-            if ((expName == null) && (fileTail != null)) {
-                expName = fileTail;
+        }
+        if (dataMap3.containsKey("yconv")) {
+            String xConvStr = dataMap3.get("yconv").toString();
+            yConv = YCONV.valueOf(xConvStr.toUpperCase());
+            if (yConv == null) {
+                throw new IOException("Bad yconversion type");
             }
+        }
 
-            if (expName == null) {
-                throw new IOException("No file or name entry in yaml file");
+        Double B0field = ((Number) dataMap3.get("B0")).doubleValue();
+        String nucleus = (String) dataMap3.get("nucleus");
+        List<Number> vcpmgList = (List<Number>) dataMap3.get("vcpmg");
+        Double tau = getDoubleValue(dataMap3, "tau", 1.0);
+        Double B1field = getDoubleValue(dataMap3, "B1", null);
+
+        String fileFormat = (String) dataMap3.get("format");
+
+        HashMap<String, Object> errorPars = (HashMap<String, Object>) dataMap3.get("error");
+        Object delayField = dataMap3.get("delays");
+        double[] delayCalc = {0.0, 0.0, 1.0};
+        if (delayField instanceof Map) {
+            Map<String, Object> delayMap = (Map<String, Object>) delayField;
+            delayCalc[0] = getDoubleValue(delayMap, "delta0", 0.0);
+            delayCalc[1] = getDoubleValue(delayMap, "c0", 0.0);
+            delayCalc[2] = getDoubleValue(delayMap, "delta", 1.0);
+        }
+        String dataFileName = (String) dataMap3.get("file");
+        File dataFile = null;
+        String fileTail = null;
+        if (dataFileName != null) {
+            dataFile = new File(dataFileName);
+            fileTail = dataFile.getName();
+            int dot = fileTail.lastIndexOf(".");
+            if (dot != -1) {
+                fileTail = fileTail.substring(0, dot);
             }
+        }
+        String expName = (String) dataMap3.get("name");
+        if ((expName == null) && (fileTail != null)) {
+            expName = fileTail;
+        }
 
-            Experiment experiment;
-            switch (expMode) {
-                case "r1":
-                    experiment = new T1Experiment(experimentSet, expName, nucleus, B0field, temperature);
-                    break;
-                case "r2":
-                    experiment = new T2Experiment(experimentSet, expName, nucleus, B0field, temperature);
-                    break;
-                case "rap":
-                case "rq":
-                    experiment = new T1orT2Experiment(experimentSet, expName, nucleus, B0field, temperature, expMode);
-                    break;
-                case "cest":
-                    experiment = new CESTExperiment(experimentSet, expName, nucleus, B0field, temperature, tau, B1field);
-                    break;
-                case "r1rho":
-                    experiment = new R1rhoOffsetExperiment(experimentSet, expName, nucleus, B0field, temperature, tau, B1field);
-                    break;
-                case "cpmg":
-                    experiment = new CPMGExperiment(experimentSet, expName, nucleus, B0field, tau, temperature);
-                    if (vcpmgList != null) {
-                        double[] vcpmgs = new double[vcpmgList.size()];
-                        for (int i = 0; i < vcpmgs.length; i++) {
-                            vcpmgs[i] = vcpmgList.get(i).doubleValue();
-                        }
-                        CPMGExperiment cpmgExp = (CPMGExperiment) experiment;
-                        cpmgExp.setXVals(vcpmgs);
+        if (expName == null) {
+            throw new IOException("No file or name entry in yaml file");
+        }
+
+        Experiment experiment;
+        switch (expMode) {
+            case "r1":
+                experiment = new T1Experiment(experimentSet, expName, nucleus, B0field, temperature);
+                break;
+            case "r2":
+                experiment = new T2Experiment(experimentSet, expName, nucleus, B0field, temperature);
+                break;
+            case "rap":
+            case "rq":
+                experiment = new T1orT2Experiment(experimentSet, expName, nucleus, B0field, temperature, expMode);
+                break;
+            case "cest":
+                experiment = new CESTExperiment(experimentSet, expName, nucleus, B0field, temperature, tau, B1field);
+                break;
+            case "r1rho":
+                experiment = new R1rhoOffsetExperiment(experimentSet, expName, nucleus, B0field, temperature, tau, B1field);
+                break;
+            case "cpmg":
+                experiment = new CPMGExperiment(experimentSet, expName, nucleus, B0field, tau, temperature);
+                if (vcpmgList != null) {
+                    double[] vcpmgs = new double[vcpmgList.size()];
+                    for (int i = 0; i < vcpmgs.length; i++) {
+                        vcpmgs[i] = vcpmgList.get(i).doubleValue();
                     }
-                    break;
-                case "noe":
-                    experiment = new NOEExperiment(experimentSet, expName, nucleus, B0field, temperature);
-                    break;
-                default:
-                    throw new IOException("Invalid expMode in .yaml file " + expMode);
+                    CPMGExperiment cpmgExp = (CPMGExperiment) experiment;
+                    cpmgExp.setXVals(vcpmgs);
+                }
+                break;
+            case "noe":
+                experiment = new NOEExperiment(experimentSet, expName, nucleus, B0field, temperature);
+                break;
+            default:
+                throw new IOException("Invalid expMode in .yaml file " + expMode);
+        }
+        List<DataSection> sections = new ArrayList<>();
+        if ((fileFormat != null) && fileFormat.equalsIgnoreCase("mpk2")) {
+            if (dataFile == null) {
+                throw new IllegalArgumentException("No file par in .yaml file");
             }
-            DynamicsSource dynamicsSourceFactory = new DynamicsSource(true, true, true, true);
-            if ((fileFormat != null) && fileFormat.equalsIgnoreCase("mpk2")) {
-                if (dataFile == null) {
-                    throw new IllegalArgumentException("No file par in .yaml file");
+            if (!dataFile.isAbsolute()) {
+                dataFileName = dirPath.resolve(dataFileName).toString();
+            }
+            sections.add(readPeakFile(dataFileName, experiment, xConv, yConv, errorPars, delayCalc));
+
+        } else if ((fileFormat != null) && fileFormat.equalsIgnoreCase("ires")) {
+            List<Map<String, Object>> filesMaps = (List<Map<String, Object>>) dataMap3.get("files");
+            List<ResidueFile> residueFiles = new ArrayList<>();
+            for (Map<String, Object> filesMap : filesMaps) {
+                Map<String, List<Double>> constraintMap = getConstraints(dataMap3, filesMap);
+                experiment.setConstraints(constraintMap);
+                if (!filesMap.containsKey("residue")) {
+                    throw new IOException("No residue key in ires section");
                 }
-                if (!dataFile.isAbsolute()) {
-                    dataFileName = dirPath.resolve(dataFileName).toString();
+                String residueNum = filesMap.get("residue").toString();
+                String atomName = "H";
+                if (filesMap.containsKey("atom")) {
+                    atomName = filesMap.get("atom").toString();
                 }
-                loadPeakFile(dataFileName, experiment, experimentSet, xConv, yConv,
-                        errorPars, delayCalc, dynamicsSourceFactory);
-
-            } else if ((fileFormat != null) && fileFormat.equalsIgnoreCase("ires")) {
-                List<Map<String, Object>> filesMaps = (List<Map<String, Object>>) dataMap3.get("files");
-                for (Map<String, Object> filesMap : filesMaps) {
-                    Map<String, List<Double>> constraintMap = getConstraints(dataMap3, filesMap);
-                    experiment.setConstraints(constraintMap);
-                    if (!filesMap.containsKey("residue")) {
-                        throw new IOException("No residue key in ires section");
-                    }
-                    String residueNum = filesMap.get("residue").toString();
-                    String atomName = "H";
-                    if (filesMap.containsKey("atom")) {
-                        atomName = filesMap.get("atom").toString();
-                    }
 
-                    String dataFileName2 = (String) filesMap.get("file");
-                    double refIntensity = 1.0;
-                    if (filesMap.containsKey("refIntensity")) {
-                        refIntensity = ((Number) filesMap.get("refIntensity")).doubleValue();
-                    }
-                    File file = new File(dataFileName2).getAbsoluteFile();
-                    dataFileName2 = file.getName();
-                    String textFileName = FileSystems.getDefault().getPath(dirPath.toString(), dataFileName2).toString();
-                    loadResidueDataFile(textFileName, experiment, residueNum, atomName, experimentSet, nucleus,
-                            temperature, B0field, errorPars, xConv, yConv,
-                            refIntensity, dynamicsSourceFactory);
-                }
-            } else if (vcpmgList == null) {
-                File file = new File(dataFileName).getAbsoluteFile();
-                dataFileName = file.getName();
-                String textFileName = FileSystems.getDefault().getPath(dirPath.toString(), dataFileName).toString();
-                loadTextFile(experiment, textFileName, experimentSet, nucleus,
-                        temperature, B0field, xConv, expMode, dynamicsSourceFactory);
-            } else {
-                double[] vcpmgs = new double[vcpmgList.size()];
-                for (int i = 0; i < vcpmgs.length; i++) {
-                    vcpmgs[i] = vcpmgList.get(i).doubleValue();
+                String dataFileName2 = (String) filesMap.get("file");
+                double refIntensity = 1.0;
+                if (filesMap.containsKey("refIntensity")) {
+                    refIntensity = ((Number) filesMap.get("refIntensity")).doubleValue();
                 }
-                loadPeakFile(dataFileName, experiment, experimentSet, xConv, yConv,
-                        errorPars, delayCalc, dynamicsSourceFactory);
+                File file = new File(dataFileName2).getAbsoluteFile();
+                dataFileName2 = file.getName();
+                String textFileName = FileSystems.getDefault().getPath(dirPath.toString(), dataFileName2).toString();
+                residueFiles.add(new ResidueFile(textFileName, residueNum, atomName, refIntensity));
             }
+            // a file per residue, so the files of the section are read in parallel too
+            final XCONV residueXConv = xConv;
+            final YCONV residueYConv = yConv;
+            residueFiles.parallelStream()
+                    .map(residueFile -> readResidueDataFile(residueFile.fileName(), experiment,
+                            residueFile.residueNum(), residueFile.atomName(),
+                            residueXConv, residueYConv, residueFile.refIntensity()))
+                    .forEachOrdered(sections::add);
+        } else if (vcpmgList == null) {
+            File file = new File(dataFileName).getAbsoluteFile();
+            dataFileName = file.getName();
+            String textFileName = FileSystems.getDefault().getPath(dirPath.toString(), dataFileName).toString();
+            sections.add(readTextFile(experiment, textFileName, xConv, expMode));
+        } else {
+            double[] vcpmgs = new double[vcpmgList.size()];
+            for (int i = 0; i < vcpmgs.length; i++) {
+                vcpmgs[i] = vcpmgList.get(i).doubleValue();
+            }
+            sections.add(readPeakFile(dataFileName, experiment, xConv, yConv, errorPars, delayCalc));
         }
-
+        return sections;
     }
 
     public static ExperimentSet loadYAMLFile(String fileName) throws FileNotFoundException, IOException {
@@ -1517,6 +1620,18 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
         } catch (IOException ex) {
             Logger.getLogger(DataIO.class.getName()).log(Level.SEVERE, null, ex);
         }
+        ReplicateStore.Writer replicateWriter = new ReplicateStore.Writer().addFitResults(resProp);
+        Path replicatePath = ReplicateStore.pathFor(fileName);
+        try {
+            if (replicateWriter.isEmpty()) {
+                // a store left from an earlier save would be loaded with these results
+                Files.deleteIfExists(replicatePath);
+            } else {
+                replicateWriter.write(replicatePath);
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(DataIO.class.getName()).log(Level.SEVERE, null, ex);
+        }
 
     }
 
@@ -1599,56 +1714,60 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
         MoleculeBase mol = MoleculeFactory.getActive();
         if (mol != null) {
             double temperature = 25.0;
-            for (int f = 0; f < fields.length; f++) {
-                double dField = fields[f];
-                final int iList = f;
-                List<ExperimentResult> expResults = expSet.getExperimentResults();
-                Collections.sort(expResults, (a, b) -> Integer.compare(a.getAtom().getIndex(), b.getAtom().getIndex()));
+            int nFields = fields.length;
+            RelaxationSet[] relaxationSets = new RelaxationSet[nFields];
+            for (int f = 0; f < nFields; f++) {
                 Map<String, String> extras = new HashMap<>();
-                String coherenceType = "Sz";
-                String units = "s-1";
-                extras.put("coherenceType", coherenceType);
-                extras.put("units", units);
-                RelaxationSet relaxationSet = new RelaxationSet(datasetName, expType, dField, temperature, extras);
-                expResults.forEach(expResult -> {
+                extras.put("coherenceType", "Sz");
+                extras.put("units", "s-1");
+                relaxationSets[f] = new RelaxationSet(datasetName, expType, fields[f], temperature, extras);
+            }
+            // the state of each field and the residue order are found once,
+            // so adding the results is a single pass over the residues
+            String[] fieldStates = expSet.getFieldStates(expName);
+            List<ExperimentResult> expResults = expSet.getExperimentResults();
+            expResults.sort(Comparator.comparingInt(expResult -> expResult.getAtom().getIndex()));
+            for (ExperimentResult expResult : expResults) {
+                ResonanceSource resonanceSource = expResult.getResonanceSource();
+                if (resonanceSource.deleted()) {
+                    continue;
+                }
+                Map<String, CurveFit> parMap = expType == RelaxTypes.NOE ? null : expResult.curveFits.get(expName);
+                if ((expType != RelaxTypes.NOE) && (parMap == null)) {
+                    continue;
+                }
+                Atom atom = resonanceSource.getAtom();
+                for (int f = 0; f < nFields; f++) {
                     Double value = null;
                     Double error = null;
                     if (expType == RelaxTypes.NOE) {
                         value = expResult.value;
                         error = expResult.err;
-                    } else {
-                        final Map<String, CurveFit> parMap = expResult.curveFits.get(expName);
-                        if (parMap != null) {
-                            final Object[] states = parMap.keySet().toArray();
-                            if (expResults.indexOf(expResult) == 0) {
-                                Arrays.sort(states, (a, b) -> a.toString().compareTo(b.toString()));
-                            }
-                            CurveFit curveFit = parMap.get(states[iList].toString());
+                    } else if ((f < fieldStates.length) && (fieldStates[f] != null)) {
+                        CurveFit curveFit = parMap.get(fieldStates[f]);
+                        if (curveFit != null) {
                             Map<String, Double> fitPars = curveFit.getParMap();
                             value = fitPars.get("R");
                             error = fitPars.get("R.sd");
                         }
                     }
-                    if ((value != null)) {
-                        ResonanceSource resonanceSource = expResult.getResonanceSource();
-                        if (!resonanceSource.deleted()) {
-                            Atom atom = resonanceSource.getAtom();
-                            switch (expType) {
-                                case R1:
-                                case NOE: {
-                                    RelaxationData relaxData = new RelaxationData(relaxationSet, resonanceSource, value, error);
-                                    atom.getRelaxationData().put(relaxationSet, relaxData);
-                                    break;
-                                }
-                                default: {
-                                    RelaxationRex relaxData = new RelaxationRex(relaxationSet, resonanceSource, value, error, null, null);
-                                    atom.getRelaxationData().put(relaxationSet, relaxData);
-                                    break;
-                                }
+                    if (value != null) {
+                        RelaxationSet relaxationSet = relaxationSets[f];
+                        switch (expType) {
+                            case R1:
+                            case NOE: {
+                                RelaxationData relaxData = new RelaxationData(relaxationSet, resonanceSource, value, error);
+                                atom.getRelaxationData().put(relaxationSet, relaxData);
+                                break;
+                            }
+                            default: {
+                                RelaxationRex relaxData = new RelaxationRex(relaxationSet, resonanceSource, value, error, null, null);
+                                atom.getRelaxationData().put(relaxationSet, relaxData);
+                                break;
                             }
                         }
                     }
-                });
+                }
             }
             System.out.println(expType + " fit results added to molecule " + mol.getName());
         }
@@ -1726,8 +1845,8 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
         }
         Map<String, RelaxationSet> setMap = mol.relaxationSetMap();
 
-        try (BufferedReader fileReader = Files.newBufferedReader(path)) {
-            Optional<String> sepStr = Optional.empty();
+        try (LineTokenizer tokenizer = LineTokenizer.open(path)) {
+            char delimiter = 0;
             int iField = -1;
             int iRes = -1;
             int iResName = -1;
@@ -1736,30 +1855,18 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
             Map<String, Integer> typeMap = new HashMap<>();
             List<String> header;
             DynamicsSource dynamicsSourceFactory = new DynamicsSource(true, true, true, true);
-            while (true) {
-                String line = fileReader.readLine();
-                if (line == null) {
-                    break;
-                }
-
-                line = line.strip();
-                if (line.startsWith("#")) {
+            while (tokenizer.next()) {
+                char firstChar = tokenizer.firstChar();
+                if ((firstChar == 0) || (firstChar == '#')) {
                     continue;
                 }
-                if (sepStr.isEmpty()) {
-                    if (line.contains("\t")) {
-                        sepStr = Optional.of("\t");
-                    } else if (line.contains(",")) {
-                        sepStr = Optional.of(",");
-                    } else {
-                        sepStr = Optional.of(" ");
-                    }
-                    line = line.strip();
-                    String[] fields = CSVRE.parseLine(sepStr.get(), line);
+                if (delimiter == 0) {
+                    delimiter = tokenizer.detectDelimiter();
+                    int nFields = tokenizer.split(delimiter);
 
                     header = new ArrayList<>();
-                    for (var field : fields) {
-                        header.add(field.toUpperCase());
+                    for (int i = 0; i < nFields; i++) {
+                        header.add(tokenizer.get(i).toUpperCase());
                     }
                     iField = header.indexOf("FIELD");
                     iAtom = header.indexOf("ATOM");
@@ -1792,16 +1899,16 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
                         }
                     }
                 } else {
-                    String[] fields = CSVRE.parseLine(sepStr.get(), line);
-                    String residue = fields[iRes];
+                    tokenizer.split(delimiter);
+                    String residue = tokenizer.get(iRes);
                     if (residue.indexOf(".") != -1) {
                         residue = residue.substring(0, residue.indexOf("."));
                     }
-                    String resName = iResName == -1 ? "" : fields[iResName];
+                    String resName = iResName == -1 ? "" : tokenizer.get(iResName);
                     String[] atomNames;
                     if (iAtom != -1) {
                         atomNames = new String[1];
-                        atomNames[0] = fields[iAtom];
+                        atomNames[0] = tokenizer.get(iAtom);
                     } else {
                         atomNames = new String[2];
                         atomNames[0] = "N";
@@ -1815,8 +1922,8 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
                     ResonanceSource dynSource = resSourceOpt.get();
                     for (String type : typeMap.keySet()) {
                         int index = typeMap.get(type);
-                        double value = Double.parseDouble(fields[index]);
-                        double error = Double.parseDouble(fields[index + 1]);
+                        double value = tokenizer.getDouble(index);
+                        double error = tokenizer.getDouble(index + 1);
                         if (error < 1.0e-6) {
                             error = 1.0e-6;
                         }
@@ -1830,7 +1937,7 @@ Residue	 Peak	GrpSz	Group	Equation	   RMS	   AIC	Best	     R2	  R2.sd	    Rex	 R
                             subType = matcher.group(1);
                             b0Field = Double.parseDouble(matcher.group(2));
                         } else {
-                            b0Field = Double.parseDouble(fields[iField]);
+                            b0Field = tokenizer.getDouble(iField);
                             subType = type;
                         }
                         String id = fileName + "_" + subType + "_" + Math.round(b0Field);
@@ -0,0 +1,114 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.nmrfx.chemistry.relax.ResonanceSource;
+
+/**
+ * The data of an experiment read from one file, held until it is attached to
+ * an experiment set. Reading a file only touches its own {@link Experiment}
+ * and {@link ExperimentData}, so files can be read in parallel. Creating the
+ * resonance source of each row adds atoms and peaks to the shared molecule
+ * and peak lists, so that is left to {@link #attach}, which is run on one
+ * thread with the files in order.
+ *
+ * @author Bruce Johnson
+ */
+class DataSection {
+
+    private record Resonance(ExperimentData data, String peakSpecifier, String resSpecifier,
+                             String[] atomNames, Double value, Double err) {
+    }
+
+    private final String name;
+    private final Experiment experiment;
+    private final List<Resonance> resonances = new ArrayList<>();
+
+    /**
+     * @param name       the name the experiment is added to the set with
+     * @param experiment the experiment the data belong to
+     */
+    DataSection(String name, Experiment experiment) {
+        this.name = name;
+        this.experiment = experiment;
+    }
+
+    Experiment getExperiment() {
+        return experiment;
+    }
+
+    /**
+     * Adds the data of one resonance, whose source is created from the
+     * specifiers when the section is attached.
+     */
+    void add(ExperimentData data, String peakSpecifier, String resSpecifier, String... atomNames) {
+        resonances.add(new Resonance(data, peakSpecifier, resSpecifier, atomNames, null, null));
+    }
+
+    /**
+     * Adds the data of one resonance along with the value and error to set on
+     * its result, as for NOE experiments.
+     */
+    void add(ExperimentData data, double value, double err, String peakSpecifier, String resSpecifier, String... atomNames) {
+        resonances.add(new Resonance(data, peakSpecifier, resSpecifier, atomNames, value, err));
+    }
+
+    /**
+     * @return the data added so far, in order
+     */
+    List<ExperimentData> getData() {
+        return resonances.stream().map(Resonance::data).toList();
+    }
+
+    /**
+     * Adds the experiment to a set, creates the resonance source of each row
+     * and adds the data to the experiment and a result for each resonance to
+     * the set.
+     *
+     * @param experimentSet         the set to add to
+     * @param dynamicsSourceFactory creates the resonance sources
+     * @throws IllegalArgumentException if a resonance source can't be created
+     */
+    void attach(ExperimentSet experimentSet, DynamicsSource dynamicsSourceFactory) {
+        experimentSet.addExperimentData(name, experiment);
+        for (Resonance resonance : resonances) {
+            Optional<ResonanceSource> resSourceOpt = dynamicsSourceFactory.createFromSpecifiers(resonance.peakSpecifier(),
+                    resonance.resSpecifier(), resonance.atomNames());
+            if (!resSourceOpt.isPresent()) {
+                throw new IllegalArgumentException("Can't generate resonance source from peak " + resonance.peakSpecifier());
+            }
+            ResonanceSource resSource = resSourceOpt.get();
+            ExperimentData residueData = resonance.data();
+            residueData.dynSource = resSource;
+            experiment.addResidueData(resSource, residueData);
+
+            ExperimentResult residueInfo = experimentSet.getExperimentResult(resSource);
+            if (residueInfo == null) {
+                residueInfo = new ExperimentResult(experimentSet, resSource, 0, 0, 0);
+                experimentSet.addExperimentResult(resSource, residueInfo);
+            }
+            if (resonance.value() != null) {
+                residueInfo.value = resonance.value();
+                residueInfo.err = resonance.err();
+            }
+        }
+    }
+}
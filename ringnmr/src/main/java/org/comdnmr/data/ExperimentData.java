@@ -18,7 +18,9 @@
 package org.comdnmr.data;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 import org.comdnmr.util.DataUtil;
 import org.nmrfx.chemistry.Entity;
 import org.nmrfx.chemistry.Residue;
@@ -35,6 +37,7 @@ public class ExperimentData {
     double[][] xValues;
     double[] errValues;
     double[] yValues;
+    private volatile Supplier<double[][]> loader = null;
 
     public ExperimentData(Experiment experiment, ResonanceSource dynSource,
             double[][] x, double[] y, double[] err) {
@@ -76,23 +79,54 @@ public class ExperimentData {
         }
     }
 
+    /**
+     * Creates data whose values are only read when first used, as when a
+     * project is opened from a {@link ProjectFile}.
+     *
+     * @param loader returns the x rows followed by the y and error rows
+     */
+    ExperimentData(Experiment experiment, ResonanceSource dynSource, Supplier<double[][]> loader) {
+        this.experiment = experiment;
+        this.dynSource = dynSource;
+        this.loader = loader;
+    }
+
+    private void load() {
+        if (loader != null) {
+            synchronized (this) {
+                if (loader != null) {
+                    double[][] rows = loader.get();
+                    int nX = rows.length - 2;
+                    xValues = Arrays.copyOf(rows, nX);
+                    yValues = rows[nX];
+                    errValues = rows[nX + 1];
+                    loader = null;
+                }
+            }
+        }
+    }
+
     public ResonanceSource getSource() {
         return dynSource;
     }
 
     public double[][] getXValues() {
+        load();
         return xValues;
     }
 
     public double[] getYValues() {
+        load();
         return yValues;
     }
 
     public double[] getErrValues() {
+        load();
         return errValues;
     }
     
     public void setErrValue(int i, double value) {
+        load();
         errValues[i] = value;
     }
 
@@ -179,6 +213,7 @@ public class ExperimentData {
 
     public ArrayList<DataValue> getDataValues() {
         ArrayList<DataValue> dataValues = new ArrayList<>();
+        load();
         if (xValues != null) {
             for (int i = 0; i < xValues[0].length; i++) {
                 dataValues.add(new DataValue(this, i));
@@ -161,6 +161,23 @@ public class ExperimentResult {
         return fitResults.get(useEquationName);
     }
 
+    /**
+     * Returns the bootstrap replicates of a fit, from the fit itself or, for
+     * results loaded from a file, from the replicates saved with them.
+     *
+     * @param equationName the equation, or "best"
+     * @return the replicate values of each parameter, by parameter name
+     */
+    public Optional<Map<String, double[]>> getReplicates(String equationName) {
+        String useEquationName = equationName.startsWith("best") ? getBestEquationName() : equationName;
+        FitResult fitResult = fitResults.get(useEquationName);
+        if ((fitResult != null) && (fitResult.getSimsMap() != null)) {
+            return Optional.of(fitResult.getSimsMap());
+        }
+        return experimentSet.getReplicateStore().flatMap(store ->
+                store.get(getAtom().getShortName(), useEquationName, ReplicateStore.ALL_STATES));
+    }
+
     public Collection<CurveFit> getCurveSets(String equationName) {
         return curveFits.isEmpty() ? Collections.emptyList() : curveFits.get(equationName).values();
     }
@@ -19,6 +19,7 @@ package org.comdnmr.data;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import org.comdnmr.eqnfit.CurveFit;
 import org.nmrfx.chemistry.Atom;
 import org.nmrfx.chemistry.relax.RelaxationValues;
 import org.nmrfx.chemistry.relax.ResonanceSource;
@@ -46,6 +47,7 @@ public class ExperimentSet implements ValueSet {
     private String expMode = "cpmg";
 
     private boolean active = true;
+    private ReplicateStore replicateStore = null;
 
     public ExperimentSet(String name, String fileName) {
         this.name = name;
@@ -105,6 +107,18 @@ public class ExperimentSet implements ValueSet {
         this.expMode = expMode;
     }
 
+    /**
+     * @return the bootstrap replicates saved with the results of this set,
+     * if they were loaded
+     */
+    public Optional<ReplicateStore> getReplicateStore() {
+        return Optional.ofNullable(replicateStore);
+    }
+
+    public void setReplicateStore(ReplicateStore replicateStore) {
+        this.replicateStore = replicateStore;
+    }
+
     public void addExperimentData(String name, Experiment data) {
         expMaps.put(name, data);
     }
@@ -145,7 +159,7 @@ public class ExperimentSet implements ValueSet {
         return match;
     }
 
-    public List<String> getStateStrings() {
+    public synchronized List<String> getStateStrings() {
         if (fieldMap.isEmpty()) {
             setupMaps();
         }
@@ -166,7 +180,44 @@ public class ExperimentSet implements ValueSet {
         return builder.toString();
     }
 
-    public void setupMaps() {
+    /**
+     * Finds the state of each field among the curve fits of an equation. A
+     * state string starts with the index of its field; if a field has
+     * several states (temperatures or B1 fields), the first in sorted order
+     * is used.
+     *
+     * @param equationName the equation whose curve fits are searched
+     * @return the state of each field, indexed as {@link #getFields()}, with
+     * null for fields that have no fit
+     */
+    public synchronized String[] getFieldStates(String equationName) {
+        if (fieldMap.isEmpty()) {
+            setupMaps();
+        }
+        String[] fieldStates = new String[fieldList.size()];
+        for (ExperimentResult result : resultMap.values()) {
+            Map<String, CurveFit> fits = result.curveFits.get(equationName);
+            if (fits == null) {
+                continue;
+            }
+            for (String state : fits.keySet()) {
+                int colon = state.indexOf(':');
+                int field;
+                try {
+                    field = Integer.parseInt(colon == -1 ? state : state.substring(0, colon));
+                } catch (NumberFormatException nfE) {
+                    continue;
+                }
+                if ((field >= 0) && (field < fieldStates.length)
+                        && ((fieldStates[field] == null) || (state.compareTo(fieldStates[field]) < 0))) {
+                    fieldStates[field] = state;
+                }
+            }
+        }
+        return fieldStates;
+    }
+
+    public synchronized void setupMaps() {
         fieldMap.clear();
         tempMap.clear();
         b1Map.clear();
@@ -198,7 +249,7 @@ public class ExperimentSet implements ValueSet {
         }
     }
 
-    public int[] getStateIndices(int resIndex, Experiment experiment) {
+    public synchronized int[] getStateIndices(int resIndex, Experiment experiment) {
         if (fieldMap.isEmpty()) {
             setupMaps();
         }
@@ -219,7 +270,7 @@ public class ExperimentSet implements ValueSet {
         return state;
     }
 
-    public int[] getStateCount(int nResidues) {
+    public synchronized int[] getStateCount(int nResidues) {
         if (fieldMap.isEmpty()) {
             setupMaps();
         }
@@ -282,7 +333,7 @@ public class ExperimentSet implements ValueSet {
         return n;
     }
 
-    public double[] getFields() {
+    public synchronized double[] getFields() {
         double[] fields = new double[fieldList.size()];
         int i = 0;
         for (Double field : fieldList) {
@@ -291,7 +342,7 @@ public class ExperimentSet implements ValueSet {
         return fields;
     }
 
-    public double[] getTemperatures() {
+    public synchronized double[] getTemperatures() {
         double[] temperatures = new double[tempList.size()];
         int i = 0;
         for (Double temperature : tempList) {
@@ -300,7 +351,7 @@ public class ExperimentSet implements ValueSet {
         return temperatures;
     }
 
-    public double[] getB1Field() {
+    public synchronized double[] getB1Field() {
         double[] b1Fields = new double[b1List.size()];
         int i = 0;
         for (double b1Field : b1List) {
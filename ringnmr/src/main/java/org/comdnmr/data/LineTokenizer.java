@@ -0,0 +1,396 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.data;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads delimited text files a line at a time and splits each line into
+ * fields in place. Fields are kept as offsets into a reused line buffer, so
+ * numeric columns can be parsed without creating a String per field or an
+ * array of Strings per line. Files compressed with gzip are read
+ * transparently.
+ *
+ * @author Bruce Johnson
+ */
+public class LineTokenizer implements Closeable {
+
+    /**
+     * Delimiter value that splits fields at runs of spaces and tabs.
+     */
+    public static final char WHITESPACE = ' ';
+    private static final double[] POWERS_OF_TEN = {
+        1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7, 1.0e8, 1.0e9, 1.0e10,
+        1.0e11, 1.0e12, 1.0e13, 1.0e14, 1.0e15, 1.0e16, 1.0e17, 1.0e18, 1.0e19, 1.0e20,
+        1.0e21, 1.0e22
+    };
+
+    private final Reader reader;
+    private final char[] buffer = new char[1 << 16];
+    private int bufferPos = 0;
+    private int bufferEnd = 0;
+    private char[] line = new char[256];
+    private int lineLength = 0;
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int nFields = 0;
+
+    public LineTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Opens a text file, decompressing it if it starts with the gzip magic
+     * number.
+     *
+     * @param path the file to read
+     * @return a tokenizer over the lines of the file
+     * @throws IOException if the file can not be opened
+     */
+    public static LineTokenizer open(Path path) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(path));
+        try {
+            input.mark(2);
+            int b0 = input.read();
+            int b1 = input.read();
+            input.reset();
+            if ((b0 == 0x1f) && (b1 == 0x8b)) {
+                input = new GZIPInputStream(input, 1 << 16);
+            }
+        } catch (IOException ex) {
+            input.close();
+            throw ex;
+        }
+        return new LineTokenizer(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the name of a file without a trailing .gz, so the format of a
+     * compressed file can be checked by its extension.
+     *
+     * @param fileName the name of the file
+     * @return the name without .gz
+     */
+    public static String uncompressedName(String fileName) {
+        return fileName.endsWith(".gz") ? fileName.substring(0, fileName.length() - 3) : fileName;
+    }
+
+    /**
+     * Reads the next line. Any previous fields are cleared.
+     *
+     * @return false at the end of the file
+     * @throws IOException if the file can not be read
+     */
+    public boolean next() throws IOException {
+        lineLength = 0;
+        nFields = 0;
+        boolean gotChar = false;
+        while (true) {
+            if (bufferPos == bufferEnd) {
+                bufferEnd = reader.read(buffer);
+                bufferPos = 0;
+                if (bufferEnd <= 0) {
+                    bufferEnd = 0;
+                    return gotChar;
+                }
+            }
+            gotChar = true;
+            char c = buffer[bufferPos++];
+            if (c == '\n') {
+                if ((lineLength > 0) && (line[lineLength - 1] == '\r')) {
+                    lineLength--;
+                }
+                return true;
+            }
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = c;
+        }
+    }
+
+    /**
+     * @return the current line
+     */
+    public String line() {
+        return new String(line, 0, lineLength);
+    }
+
+    /**
+     * @return the first character of the current line that is not
+     * whitespace, or 0 if the line is blank
+     */
+    public char firstChar() {
+        for (int i = 0; i < lineLength; i++) {
+            if (!Character.isWhitespace(line[i])) {
+                return line[i];
+            }
+        }
+        return 0;
+    }
+
+    public boolean isBlank() {
+        return firstChar() == 0;
+    }
+
+    public boolean contains(char c) {
+        for (int i = 0; i < lineLength; i++) {
+            if (line[i] == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the delimiter to use for the current line: a tab if it has one,
+     * else a comma if it has one, else {@link #WHITESPACE}
+     */
+    public char detectDelimiter() {
+        if (contains('\t')) {
+            return '\t';
+        } else if (contains(',')) {
+            return ',';
+        } else {
+            return WHITESPACE;
+        }
+    }
+
+    /**
+     * Splits the current line into fields. With a tab or comma delimiter
+     * every delimiter starts a new field, so empty fields are kept, as by
+     * {@code String.split(delimiter, -1)}. With {@link #WHITESPACE}, fields
+     * are separated by runs of spaces and tabs. Fields are trimmed, and a
+     * field in double quotes may contain the delimiter.
+     *
+     * @param delimiter the field delimiter
+     * @return the number of fields
+     */
+    public int split(char delimiter) {
+        nFields = 0;
+        int i = 0;
+        if (delimiter == WHITESPACE) {
+            while (true) {
+                while ((i < lineLength) && ((line[i] == ' ') || (line[i] == '\t'))) {
+                    i++;
+                }
+                if (i == lineLength) {
+                    break;
+                }
+                i = addField(i, delimiter);
+            }
+        } else {
+            while (true) {
+                i = addField(i, delimiter);
+                if (i >= lineLength) {
+                    break;
+                }
+                i++;
+                if (i == lineLength) {
+                    addEmptyField(i);
+                    break;
+                }
+            }
+        }
+        return nFields;
+    }
+
+    private int addField(int start, char delimiter) {
+        int i = start;
+        boolean quoted = false;
+        while (i < lineLength) {
+            char c = line[i];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && ((c == delimiter) || ((delimiter == WHITESPACE) && (c == '\t')))) {
+                break;
+            }
+            i++;
+        }
+        int fieldStart = start;
+        int fieldEnd = i;
+        while ((fieldStart < fieldEnd) && Character.isWhitespace(line[fieldStart])) {
+            fieldStart++;
+        }
+        while ((fieldEnd > fieldStart) && Character.isWhitespace(line[fieldEnd - 1])) {
+            fieldEnd--;
+        }
+        if ((fieldEnd - fieldStart >= 2) && (line[fieldStart] == '"') && (line[fieldEnd - 1] == '"')) {
+            fieldStart++;
+            fieldEnd--;
+        }
+        if (nFields == starts.length) {
+            starts = Arrays.copyOf(starts, nFields * 2);
+            ends = Arrays.copyOf(ends, nFields * 2);
+        }
+        starts[nFields] = fieldStart;
+        ends[nFields] = fieldEnd;
+        nFields++;
+        return i;
+    }
+
+    private void addEmptyField(int position) {
+        if (nFields == starts.length) {
+            starts = Arrays.copyOf(starts, nFields * 2);
+            ends = Arrays.copyOf(ends, nFields * 2);
+        }
+        starts[nFields] = position;
+        ends[nFields] = position;
+        nFields++;
+    }
+
+    public int size() {
+        return nFields;
+    }
+
+    /**
+     * @param i the field index
+     * @return the trimmed field
+     */
+    public String get(int i) {
+        checkIndex(i);
+        return new String(line, starts[i], ends[i] - starts[i]);
+    }
+
+    public boolean isEmpty(int i) {
+        checkIndex(i);
+        return starts[i] == ends[i];
+    }
+
+    public boolean equalsIgnoreCase(int i, String value) {
+        checkIndex(i);
+        int length = ends[i] - starts[i];
+        if (length != value.length()) {
+            return false;
+        }
+        for (int j = 0; j < length; j++) {
+            if (Character.toUpperCase(line[starts[i] + j]) != Character.toUpperCase(value.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a field as a double. Plain decimal values with at most 15
+     * significant digits and a small exponent, by far the most common in
+     * data files, are converted directly from the characters; this is exact,
+     * as both the digits and the power of ten are exactly representable.
+     * Anything else is passed to {@link Double#parseDouble}.
+     *
+     * @param i the field index
+     * @return the value of the field
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double getDouble(int i) {
+        checkIndex(i);
+        int pos = starts[i];
+        int end = ends[i];
+        if (pos == end) {
+            throw new NumberFormatException("empty String");
+        }
+        boolean negative = false;
+        if ((line[pos] == '-') || (line[pos] == '+')) {
+            negative = line[pos] == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int nDigits = 0;
+        int scale = 0;
+        boolean gotDigit = false;
+        boolean inFraction = false;
+        for (; pos < end; pos++) {
+            char c = line[pos];
+            if ((c >= '0') && (c <= '9')) {
+                gotDigit = true;
+                if ((mantissa != 0) || (c != '0')) {
+                    if (nDigits == 15) {
+                        return Double.parseDouble(get(i));
+                    }
+                    nDigits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (inFraction) {
+                    scale--;
+                }
+            } else if ((c == '.') && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!gotDigit) {
+            return Double.parseDouble(get(i));
+        }
+        if ((pos < end) && ((line[pos] == 'e') || (line[pos] == 'E'))) {
+            pos++;
+            boolean negativeExponent = false;
+            if ((pos < end) && ((line[pos] == '-') || (line[pos] == '+'))) {
+                negativeExponent = line[pos] == '-';
+                pos++;
+            }
+            if (pos == end) {
+                return Double.parseDouble(get(i));
+            }
+            int exponent = 0;
+            for (; pos < end; pos++) {
+                char c = line[pos];
+                if ((c < '0') || (c > '9') || (exponent > 1000)) {
+                    return Double.parseDouble(get(i));
+                }
+                exponent = exponent * 10 + (c - '0');
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (pos != end) {
+            return Double.parseDouble(get(i));
+        }
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if ((scale >= 0) && (scale < POWERS_OF_TEN.length)) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else if ((scale < 0) && (-scale < POWERS_OF_TEN.length)) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            return Double.parseDouble(get(i));
+        }
+        return negative ? -value : value;
+    }
+
+    private void checkIndex(int i) {
+        if ((i < 0) || (i >= nFields)) {
+            throw new ArrayIndexOutOfBoundsException("Index " + i + " out of bounds for length " + nFields);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,687 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.data;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.comdnmr.eqnfit.CurveFit;
+import org.comdnmr.eqnfit.FitResult;
+import org.comdnmr.eqnfit.PlotEquation;
+import org.comdnmr.fit.FitQuality;
+import org.nmrfx.chemistry.Atom;
+import org.nmrfx.chemistry.relax.ResonanceSource;
+
+/**
+ * Binary project files holding an ExperimentSet with its data and fit results.
+ * A file is a small header of descriptive values (experiments, resonances,
+ * curve fits and fit statistics) followed by one block of columns: the
+ * x, y and error values of every ExperimentData and the bootstrap
+ * parameters of every FitResult, each stored as contiguous doubles. On
+ * loading only the header is decoded; the block of columns is memory mapped
+ * and each column is read the first time it is used.
+ *
+ * @author Bruce Johnson
+ */
+public class ProjectFile {
+
+    public static final String EXTENSION = ".rnp";
+    private static final byte[] MAGIC = "RINGNMRP".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+
+    private ProjectFile() {
+
+    }
+
+    /**
+     * Reads a project saved as a .yaml file with text data and results files
+     * and saves it as a binary project file.
+     *
+     * @param yamlFileName the .yaml file of the project
+     * @param projectFile  the binary file to write
+     * @return the loaded project
+     * @throws IOException if either file can not be read or written
+     */
+    public static ExperimentSet convertYAMLFile(String yamlFileName, Path projectFile) throws IOException {
+        ExperimentSet experimentSet = DataIO.loadYAMLFile(yamlFileName);
+        if (experimentSet == null) {
+            throw new IOException("No fit section in " + yamlFileName);
+        }
+        save(experimentSet, projectFile);
+        return experimentSet;
+    }
+
+    public static void save(ExperimentSet experimentSet, Path path) throws IOException {
+        Writer writer = new Writer();
+        writer.writeSet(experimentSet);
+        byte[] header = writer.header.toByteArray();
+        int headerEnd = MAGIC.length + 2 * Integer.BYTES + header.length;
+        int padding = (Double.BYTES - headerEnd % Double.BYTES) % Double.BYTES;
+        try (OutputStream output = Files.newOutputStream(path);
+             DataOutputStream dataOutput = new DataOutputStream(new BufferedOutputStream(output))) {
+            dataOutput.write(MAGIC);
+            dataOutput.writeInt(VERSION);
+            dataOutput.writeInt(header.length);
+            dataOutput.write(header);
+            dataOutput.write(new byte[padding]);
+            writer.columns.writeTo(dataOutput);
+        }
+    }
+
+    public static ExperimentSet load(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a project file " + path);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported project file version " + version);
+        }
+        int headerLength = buffer.getInt();
+        int headerEnd = buffer.position() + headerLength;
+        ByteBuffer header = buffer.duplicate().limit(headerEnd);
+        int columnStart = headerEnd + (Double.BYTES - headerEnd % Double.BYTES) % Double.BYTES;
+        DoubleBuffer columns = buffer.duplicate().position(columnStart).slice().asDoubleBuffer();
+        Reader reader = new Reader(new DataInputStream(new ByteBufferInputStream(header)), columns);
+        return reader.readSet(path.toString());
+    }
+
+    static class Writer {
+
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(header);
+        final ByteArrayOutputStream columns = new ByteArrayOutputStream();
+        final DataOutputStream columnOut = new DataOutputStream(columns);
+        final Map<CurveFit, Integer> curveFitIndices = new IdentityHashMap<>();
+        long nColumnValues = 0;
+
+        void writeSet(ExperimentSet experimentSet) throws IOException {
+            out.writeUTF(experimentSet.name());
+            writeString(experimentSet.fileName);
+            out.writeUTF(experimentSet.getExpMode());
+            out.writeUTF(experimentSet.getBootStrapMode());
+            out.writeBoolean(experimentSet.isAbsValueMode());
+            out.writeInt(experimentSet.getExperimentMap().size());
+            for (Map.Entry<String, Experiment> entry : experimentSet.getExperimentMap().entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeExperiment(entry.getValue());
+            }
+            List<ExperimentResult> results = experimentSet.getExperimentResults();
+            List<CurveFit> allCurveFits = new ArrayList<>();
+            for (ExperimentResult result : results) {
+                result.curveFits.values().forEach(fits -> fits.values().forEach(curveFit -> addCurveFit(allCurveFits, curveFit)));
+                for (FitResult fitResult : result.fitResults.values()) {
+                    for (int i = 0; i < fitResult.getNCurves(); i++) {
+                        addCurveFit(allCurveFits, fitResult.getCurveFit(i));
+                    }
+                }
+            }
+            out.writeInt(allCurveFits.size());
+            for (CurveFit curveFit : allCurveFits) {
+                writeCurveFit(curveFit);
+            }
+            out.writeInt(results.size());
+            for (ExperimentResult result : results) {
+                writeResult(result);
+            }
+        }
+
+        void addCurveFit(List<CurveFit> allCurveFits, CurveFit curveFit) {
+            if (!curveFitIndices.containsKey(curveFit)) {
+                curveFitIndices.put(curveFit, allCurveFits.size());
+                allCurveFits.add(curveFit);
+            }
+        }
+
+        void writeExperiment(Experiment experiment) throws IOException {
+            out.writeUTF(experiment.getClass().getSimpleName());
+            out.writeUTF(experiment.getName());
+            out.writeUTF(experiment.getNucleusName());
+            out.writeDouble(experiment.getB0Field());
+            out.writeDouble(experiment.getTemperature());
+            out.writeUTF(experiment.getExpMode());
+            out.writeDouble(experiment.getErrFraction());
+            out.writeUTF(experiment.getState());
+            writeDoubles(experiment.getExtras().stream().mapToDouble(Double::doubleValue).toArray());
+            Map<String, List<Double>> constraints = experiment.getConstraints();
+            out.writeInt(constraints == null ? -1 : constraints.size());
+            if (constraints != null) {
+                for (Map.Entry<String, List<Double>> entry : constraints.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    writeDoubles(entry.getValue().stream().mapToDouble(Double::doubleValue).toArray());
+                }
+            }
+            double tau = 0.0;
+            double b1Field = 0.0;
+            double[] xVals = null;
+            if (experiment instanceof CPMGExperiment cpmgExperiment) {
+                tau = cpmgExperiment.getTau();
+                xVals = cpmgExperiment.getXVals();
+            } else if (experiment instanceof OffsetExperiment offsetExperiment) {
+                tau = offsetExperiment.getTau();
+                b1Field = offsetExperiment.getB1Field();
+                xVals = offsetExperiment.getXVals();
+            } else if (experiment instanceof DoubleArrayExperiment doubleArrayExperiment) {
+                xVals = doubleArrayExperiment.getXVals();
+            }
+            out.writeDouble(tau);
+            out.writeDouble(b1Field);
+            writeDoubles(xVals);
+            boolean[] satMode = experiment instanceof NOEExperiment noeExperiment ? noeExperiment.getSatMode() : null;
+            out.writeInt(satMode == null ? -1 : satMode.length);
+            if (satMode != null) {
+                for (boolean value : satMode) {
+                    out.writeBoolean(value);
+                }
+            }
+            out.writeInt(experiment.experimentalDataSets.size());
+            for (ExperimentData data : experiment.experimentalDataSets.values()) {
+                writeSource(data.getSource());
+                double[][] xValues = data.getXValues();
+                double[] yValues = data.getYValues();
+                out.writeInt(xValues.length);
+                out.writeInt(yValues.length);
+                out.writeLong(nColumnValues);
+                for (double[] x : xValues) {
+                    writeColumn(x);
+                }
+                writeColumn(yValues);
+                writeColumn(data.getErrValues());
+            }
+        }
+
+        void writeCurveFit(CurveFit curveFit) throws IOException {
+            out.writeUTF(curveFit.getState());
+            writeSource(curveFit.getDynamicsSource());
+            Map<String, Double> parMap = curveFit.getParMap();
+            out.writeInt(parMap.size());
+            for (Map.Entry<String, Double> entry : parMap.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+            PlotEquation plotEquation = curveFit.getEquation();
+            out.writeUTF(plotEquation.getExpType());
+            out.writeUTF(plotEquation.getName());
+            writeDoubles(plotEquation.getPars());
+            writeDoubles(plotEquation.getErrs());
+            writeDoubles(plotEquation.getExtras());
+        }
+
+        void writeResult(ExperimentResult result) throws IOException {
+            writeSource(result.getResonanceSource());
+            out.writeInt(result.groupId);
+            out.writeInt(result.groupSize);
+            out.writeInt(result.peakNum);
+            int nCurveFits = result.curveFits.values().stream().mapToInt(Map::size).sum();
+            out.writeInt(nCurveFits);
+            for (Map<String, CurveFit> fits : result.curveFits.values()) {
+                for (CurveFit curveFit : fits.values()) {
+                    out.writeInt(curveFitIndices.get(curveFit));
+                    out.writeBoolean(curveFit.getEquation() == result.bestEquation);
+                }
+            }
+            out.writeInt(result.fitResults.size());
+            for (FitResult fitResult : result.fitResults.values()) {
+                writeFitResult(fitResult);
+            }
+        }
+
+        void writeFitResult(FitResult fitResult) throws IOException {
+            out.writeUTF(fitResult.getEquationName());
+            String[] parNames = fitResult.getFitParNames();
+            out.writeInt(parNames.length);
+            for (String parName : parNames) {
+                out.writeUTF(parName);
+            }
+            out.writeInt(fitResult.getnGroupPars());
+            out.writeBoolean(fitResult.exchangeValid());
+            out.writeInt(fitResult.getNCurves());
+            for (int i = 0; i < fitResult.getNCurves(); i++) {
+                out.writeInt(curveFitIndices.get(fitResult.getCurveFit(i)));
+            }
+            FitQuality fitQuality = fitResult.getFitQuality();
+            out.writeBoolean(fitQuality != null);
+            if (fitQuality != null) {
+                writeDouble(fitQuality.rms());
+                writeDouble(fitQuality.aic());
+                writeDouble(fitQuality.aicc());
+                writeDouble(fitQuality.rChiSq());
+                out.writeInt(fitQuality.n() == null ? -1 : fitQuality.n());
+            }
+            CurveFit.CurveFitStats stats = fitResult.getCurveFitStats();
+            out.writeBoolean(stats != null);
+            if (stats != null) {
+                writeString(stats.getRefineOptimizer());
+                writeString(stats.getBootstrapOptimizer());
+                out.writeLong(stats.getRefineTime());
+                out.writeLong(stats.getBootstrapTime());
+                out.writeInt(stats.nSamples());
+                out.writeBoolean(stats.isAbsMode());
+                out.writeBoolean(stats.isNonParametricMode());
+                out.writeDouble(stats.getStartRadius());
+                out.writeDouble(stats.getFinalRadius());
+                out.writeDouble(stats.getTolerance());
+                out.writeBoolean(stats.isWeight());
+            }
+            Map<String, double[]> simsMap = fitResult.getSimsMap();
+            out.writeInt(simsMap == null ? -1 : simsMap.size());
+            if (simsMap != null) {
+                for (Map.Entry<String, double[]> entry : simsMap.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    out.writeLong(nColumnValues);
+                    writeColumn(entry.getValue());
+                }
+            }
+        }
+
+        void writeSource(ResonanceSource source) throws IOException {
+            out.writeUTF(source.getPeak().getName());
+            Atom[] atoms = source.getAtoms();
+            out.writeInt(atoms.length);
+            for (Atom atom : atoms) {
+                out.writeUTF(atom.getShortName());
+            }
+        }
+
+        void writeColumn(double[] values) throws IOException {
+            for (double value : values) {
+                columnOut.writeDouble(value);
+            }
+            nColumnValues += values.length;
+        }
+
+        void writeDoubles(double[] values) throws IOException {
+            out.writeInt(values == null ? -1 : values.length);
+            if (values != null) {
+                for (double value : values) {
+                    out.writeDouble(value);
+                }
+            }
+        }
+
+        void writeDouble(Double value) throws IOException {
+            out.writeDouble(value == null ? Double.NaN : value);
+        }
+
+        void writeString(String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    static class Reader {
+
+        final DataInputStream in;
+        final DoubleBuffer columns;
+        final DynamicsSource dynamicsSourceFactory = new DynamicsSource(true, true, true, true);
+        final List<CurveFit> curveFits = new ArrayList<>();
+        final Map<String, ResonanceSource> sources = new HashMap<>();
+
+        Reader(DataInputStream in, DoubleBuffer columns) {
+            this.in = in;
+            this.columns = columns;
+        }
+
+        ExperimentSet readSet(String fileName) throws IOException {
+            String name = in.readUTF();
+            String setFileName = readString();
+            ExperimentSet experimentSet = new ExperimentSet(name, setFileName == null ? fileName : setFileName);
+            experimentSet.setExpMode(in.readUTF());
+            experimentSet.setBootStrapMode(in.readUTF());
+            experimentSet.setAbsValueMode(in.readBoolean());
+            int nExperiments = in.readInt();
+            for (int i = 0; i < nExperiments; i++) {
+                String key = in.readUTF();
+                experimentSet.addExperimentData(key, readExperiment(experimentSet));
+            }
+            int nCurveFits = in.readInt();
+            for (int i = 0; i < nCurveFits; i++) {
+                curveFits.add(readCurveFit());
+            }
+            int nResults = in.readInt();
+            for (int i = 0; i < nResults; i++) {
+                ExperimentResult result = readResult(experimentSet);
+                experimentSet.addExperimentResult(result.getResonanceSource(), result);
+            }
+            return experimentSet;
+        }
+
+        Experiment readExperiment(ExperimentSet experimentSet) throws IOException {
+            String type = in.readUTF();
+            String name = in.readUTF();
+            String nucleus = in.readUTF();
+            double b0Field = in.readDouble();
+            double temperature = in.readDouble();
+            String expMode = in.readUTF();
+            double errFraction = in.readDouble();
+            String state = in.readUTF();
+            double[] extras = readDoubles();
+            int nConstraints = in.readInt();
+            Map<String, List<Double>> constraints = null;
+            if (nConstraints >= 0) {
+                constraints = new LinkedHashMap<>();
+                for (int i = 0; i < nConstraints; i++) {
+                    String key = in.readUTF();
+                    constraints.put(key, toList(readDoubles()));
+                }
+            }
+            double tau = in.readDouble();
+            double b1Field = in.readDouble();
+            double[] xVals = readDoubles();
+            int nSatMode = in.readInt();
+            boolean[] satMode = nSatMode < 0 ? null : new boolean[nSatMode];
+            for (int i = 0; i < nSatMode; i++) {
+                satMode[i] = in.readBoolean();
+            }
+
+            Experiment experiment = switch (type) {
+                case "CPMGExperiment" -> new CPMGExperiment(experimentSet, name, nucleus, b0Field, tau, temperature);
+                case "CESTExperiment" -> new CESTExperiment(experimentSet, name, nucleus, b0Field, temperature, tau, b1Field);
+                case "R1rhoOffsetExperiment" -> new R1rhoOffsetExperiment(experimentSet, name, nucleus, b0Field, temperature, tau, b1Field);
+                case "OffsetExperiment" -> new OffsetExperiment(experimentSet, name, nucleus, b0Field, temperature, expMode, tau, b1Field);
+                case "T1Experiment" -> new T1Experiment(experimentSet, name, nucleus, b0Field, temperature);
+                case "T2Experiment" -> new T2Experiment(experimentSet, name, nucleus, b0Field, temperature);
+                case "T1orT2Experiment" -> new T1orT2Experiment(experimentSet, name, nucleus, b0Field, temperature, expMode);
+                case "NOEExperiment" -> new NOEExperiment(experimentSet, name, nucleus, b0Field, temperature);
+                case "DoubleArrayExperiment" -> new DoubleArrayExperiment(experimentSet, name, nucleus, b0Field, temperature, expMode);
+                default -> new Experiment(experimentSet, name, nucleus, b0Field, temperature, expMode);
+            };
+            if (xVals != null) {
+                if (experiment instanceof CPMGExperiment cpmgExperiment) {
+                    cpmgExperiment.setXVals(xVals);
+                } else if (experiment instanceof DoubleArrayExperiment doubleArrayExperiment) {
+                    doubleArrayExperiment.setXVals(xVals);
+                }
+            }
+            if ((satMode != null) && (experiment instanceof NOEExperiment noeExperiment)) {
+                noeExperiment.setSatMode(satMode);
+            }
+            experiment.setErrFraction(errFraction);
+            experiment.setState(state);
+            experiment.setExtras(toList(extras));
+            experiment.setConstraints(constraints);
+
+            int nData = in.readInt();
+            for (int i = 0; i < nData; i++) {
+                ResonanceSource source = readSource();
+                int nX = in.readInt();
+                int nValues = in.readInt();
+                long offset = in.readLong();
+                ExperimentData data = new ExperimentData(experiment, source, () -> {
+                    double[][] rows = new double[nX + 2][];
+                    for (int j = 0; j < rows.length; j++) {
+                        rows[j] = readColumn(offset + (long) j * nValues, nValues);
+                    }
+                    return rows;
+                });
+                experiment.addResidueData(source, data);
+            }
+            return experiment;
+        }
+
+        CurveFit readCurveFit() throws IOException {
+            String state = in.readUTF();
+            ResonanceSource source = readSource();
+            int nPars = in.readInt();
+            Map<String, Double> parMap = new LinkedHashMap<>();
+            for (int i = 0; i < nPars; i++) {
+                String key = in.readUTF();
+                parMap.put(key, in.readDouble());
+            }
+            String expType = in.readUTF();
+            String equationName = in.readUTF();
+            double[] pars = readDoubles();
+            double[] errs = readDoubles();
+            double[] extras = readDoubles();
+            PlotEquation plotEquation = new PlotEquation(expType, equationName, pars, errs, extras);
+            return new CurveFit(state, source, parMap, plotEquation);
+        }
+
+        ExperimentResult readResult(ExperimentSet experimentSet) throws IOException {
+            ResonanceSource source = readSource();
+            int groupId = in.readInt();
+            int groupSize = in.readInt();
+            int peakNum = in.readInt();
+            ExperimentResult result = new ExperimentResult(experimentSet, source, groupId, groupSize, peakNum);
+            int nCurveFits = in.readInt();
+            for (int i = 0; i < nCurveFits; i++) {
+                CurveFit curveFit = curveFits.get(in.readInt());
+                result.addCurveFit(curveFit, in.readBoolean());
+            }
+            int nFitResults = in.readInt();
+            for (int i = 0; i < nFitResults; i++) {
+                result.addFitResult(readFitResult());
+            }
+            return result;
+        }
+
+        FitResult readFitResult() throws IOException {
+            String equationName = in.readUTF();
+            String[] parNames = new String[in.readInt()];
+            for (int i = 0; i < parNames.length; i++) {
+                parNames[i] = in.readUTF();
+            }
+            int nGroupPars = in.readInt();
+            boolean hasExchange = in.readBoolean();
+            int nCurves = in.readInt();
+            List<CurveFit> fitCurves = new ArrayList<>();
+            for (int i = 0; i < nCurves; i++) {
+                fitCurves.add(curveFits.get(in.readInt()));
+            }
+            FitQuality fitQuality = null;
+            if (in.readBoolean()) {
+                double rms = in.readDouble();
+                double aic = in.readDouble();
+                double aicc = in.readDouble();
+                double rChiSq = in.readDouble();
+                int n = in.readInt();
+                fitQuality = new FitQuality(rms, aic, aicc, rChiSq, n < 0 ? null : n);
+            }
+            CurveFit.CurveFitStats stats = null;
+            if (in.readBoolean()) {
+                String refineOpt = readString();
+                String bootstrapOpt = readString();
+                long refineTime = in.readLong();
+                long bootstrapTime = in.readLong();
+                int nSamples = in.readInt();
+                boolean absMode = in.readBoolean();
+                boolean nonParametricMode = in.readBoolean();
+                double startRadius = in.readDouble();
+                double finalRadius = in.readDouble();
+                double tolerance = in.readDouble();
+                boolean weight = in.readBoolean();
+                stats = new CurveFit.CurveFitStats(refineOpt, bootstrapOpt, refineTime, bootstrapTime, nSamples,
+                        absMode, nonParametricMode, startRadius, finalRadius, tolerance, weight);
+            }
+            int nSims = in.readInt();
+            Map<String, double[]> simsMap = null;
+            if (nSims >= 0) {
+                String[] keys = new String[nSims];
+                int[] lengths = new int[nSims];
+                long[] offsets = new long[nSims];
+                for (int i = 0; i < nSims; i++) {
+                    keys[i] = in.readUTF();
+                    lengths[i] = in.readInt();
+                    offsets[i] = in.readLong();
+                }
+                simsMap = new ColumnMap(this, keys, offsets, lengths);
+            }
+            return new FitResult(parNames, fitCurves, equationName, nGroupPars, fitQuality, simsMap, hasExchange, stats);
+        }
+
+        ResonanceSource readSource() throws IOException {
+            String peakSpecifier = in.readUTF();
+            String[] atomSpecifiers = new String[in.readInt()];
+            for (int i = 0; i < atomSpecifiers.length; i++) {
+                atomSpecifiers[i] = in.readUTF();
+            }
+            String key = peakSpecifier + " " + String.join(" ", atomSpecifiers);
+            ResonanceSource source = sources.get(key);
+            if (source == null) {
+                Optional<ResonanceSource> resSourceOpt = dynamicsSourceFactory.createFromAtomSpecifiers(peakSpecifier, atomSpecifiers);
+                if (resSourceOpt.isEmpty()) {
+                    throw new IOException("Can't generate resonance source from peak " + peakSpecifier);
+                }
+                source = resSourceOpt.get();
+                sources.put(key, source);
+            }
+            return source;
+        }
+
+        double[] readColumn(long offset, int length) {
+            double[] values = new double[length];
+            // a duplicate per read, so columns can be decoded from several threads
+            columns.duplicate().position(Math.toIntExact(offset)).get(values);
+            return values;
+        }
+
+        double[] readDoubles() throws IOException {
+            int n = in.readInt();
+            if (n < 0) {
+                return null;
+            }
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = in.readDouble();
+            }
+            return values;
+        }
+
+        String readString() throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        static List<Double> toList(double[] values) {
+            List<Double> list = new ArrayList<>();
+            if (values != null) {
+                for (double value : values) {
+                    list.add(value);
+                }
+            }
+            return list;
+        }
+    }
+
+    /**
+     * The bootstrap parameters of a FitResult, read from the mapped columns
+     * the first time any of them is used.
+     */
+    static class ColumnMap extends AbstractMap<String, double[]> {
+
+        final Reader reader;
+        final String[] keys;
+        final long[] offsets;
+        final int[] lengths;
+        volatile Map<String, double[]> loaded = null;
+
+        ColumnMap(Reader reader, String[] keys, long[] offsets, int[] lengths) {
+            this.reader = reader;
+            this.keys = keys;
+            this.offsets = offsets;
+            this.lengths = lengths;
+        }
+
+        Map<String, double[]> load() {
+            if (loaded == null) {
+                synchronized (this) {
+                    if (loaded == null) {
+                        Map<String, double[]> map = new LinkedHashMap<>();
+                        for (int i = 0; i < keys.length; i++) {
+                            map.put(keys[i], reader.readColumn(offsets[i], lengths[i]));
+                        }
+                        loaded = map;
+                    }
+                }
+            }
+            return loaded;
+        }
+
+        @Override
+        public Set<Entry<String, double[]>> entrySet() {
+            return load().entrySet();
+        }
+
+        @Override
+        public double[] get(Object key) {
+            return load().get(key);
+        }
+
+        @Override
+        public double[] put(String key, double[] value) {
+            return load().put(key, value);
+        }
+
+        @Override
+        public int size() {
+            return loaded == null ? keys.length : loaded.size();
+        }
+    }
+
+    static class ByteBufferInputStream extends InputStream {
+
+        final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.data;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.comdnmr.eqnfit.FitResult;
+import org.comdnmr.modelfree.ModelFitResult;
+import org.comdnmr.modelfree.OrderParValues;
+
+/**
+ * A file of bootstrap replicate distributions, so percentile intervals and
+ * parameter correlations can be examined without repeating the bootstrap.
+ * Entries are keyed by residue, equation (or model) and state, and each holds
+ * named rows of replicate values. Values are stored as 32 bit floats, which
+ * halves the size of the file and is ample precision for a sampled
+ * distribution.
+ * <p>
+ * Only the index of entries is read when a store is opened; the file is
+ * memory mapped and the values of an entry are decoded when it is requested.
+ *
+ * @author Bruce Johnson
+ */
+public class ReplicateStore {
+
+    public static final String EXTENSION = ".reps";
+    /**
+     * The state of entries from equation fits, whose replicates cover every
+     * state of the fit. The rows are named as in {@link FitResult#getSimsMap()}.
+     */
+    public static final String ALL_STATES = "*";
+    private static final int MAGIC = 0x52455053; // "REPS"
+    private static final int VERSION = 1;
+
+    public record Key(String residue, String equation, String state) {
+    }
+
+    record Entry(String[] names, int nSamples, int offset) {
+    }
+
+    private final Map<Key, Entry> index;
+    private final FloatBuffer values;
+
+    private ReplicateStore(Map<Key, Entry> index, FloatBuffer values) {
+        this.index = index;
+        this.values = values;
+    }
+
+    /**
+     * Returns the path of the replicate store written with a results file:
+     * the results file with its extension replaced.
+     *
+     * @param resultsFileName name of the results file
+     * @return the path of the store
+     */
+    public static Path pathFor(String resultsFileName) {
+        Path path = Path.of(resultsFileName);
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        return path.resolveSibling(name + EXTENSION);
+    }
+
+    public static ReplicateStore open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a replicate file " + path);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replicate file version " + version);
+        }
+        int nEntries = buffer.getInt();
+        Map<Key, Entry> index = new LinkedHashMap<>();
+        for (int i = 0; i < nEntries; i++) {
+            Key key = new Key(readString(buffer), readString(buffer), readString(buffer));
+            String[] names = new String[buffer.getInt()];
+            for (int j = 0; j < names.length; j++) {
+                names[j] = readString(buffer);
+            }
+            int nSamples = buffer.getInt();
+            int offset = buffer.getInt();
+            index.put(key, new Entry(names, nSamples, offset));
+        }
+        FloatBuffer values = buffer.slice().asFloatBuffer();
+        return new ReplicateStore(index, values);
+    }
+
+    public Set<Key> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Returns the replicates of one entry.
+     *
+     * @param key the residue, equation and state
+     * @return the replicate values of each parameter, by parameter name
+     */
+    public Optional<Map<String, double[]>> get(Key key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        Map<String, double[]> rows = new LinkedHashMap<>();
+        // a duplicate per read, so entries can be decoded from several threads
+        FloatBuffer floats = values.duplicate().position(entry.offset());
+        float[] row = new float[entry.nSamples()];
+        for (String name : entry.names()) {
+            floats.get(row);
+            double[] doubleRow = new double[row.length];
+            for (int i = 0; i < row.length; i++) {
+                doubleRow[i] = row[i];
+            }
+            rows.put(name, doubleRow);
+        }
+        return Optional.of(rows);
+    }
+
+    public Optional<Map<String, double[]>> get(String residue, String equation, String state) {
+        return get(new Key(residue, equation, state));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Collects replicate distributions and writes them as a store.
+     */
+    public static class Writer {
+
+        private final Map<Key, Map<String, double[]>> entries = new LinkedHashMap<>();
+
+        /**
+         * Adds an entry. Every row must have the same number of samples.
+         *
+         * @param key  the residue, equation and state
+         * @param rows the replicate values of each parameter, by name
+         * @return this writer
+         */
+        public Writer add(Key key, Map<String, double[]> rows) {
+            int nSamples = -1;
+            for (double[] row : rows.values()) {
+                if ((nSamples >= 0) && (row.length != nSamples)) {
+                    throw new IllegalArgumentException("Rows of " + key + " differ in length");
+                }
+                nSamples = row.length;
+            }
+            entries.put(key, rows);
+            return this;
+        }
+
+        /**
+         * Adds the bootstrap replicates of every equation fit of an
+         * experiment set, keyed by the residue of each result and
+         * {@link #ALL_STATES}.
+         *
+         * @param experimentSet the fit experiments
+         * @return this writer
+         */
+        public Writer addFitResults(ExperimentSet experimentSet) {
+            for (ExperimentResult result : experimentSet.getExperimentResults()) {
+                String residue = result.getAtom().getShortName();
+                for (FitResult fitResult : result.fitResults.values()) {
+                    Map<String, double[]> simsMap = fitResult.getSimsMap();
+                    if ((simsMap != null) && !simsMap.isEmpty()) {
+                        add(new Key(residue, fitResult.getEquationName(), ALL_STATES), new LinkedHashMap<>(simsMap));
+                    }
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Adds the bootstrap replicates of model-free fits, keyed by residue,
+         * the selected model and the name of its order parameter set. Rows are
+         * named by the model's parameters.
+         *
+         * @param results the fit of each residue, by residue key
+         * @return this writer
+         */
+        public Writer addModelFitResults(Map<String, ModelFitResult> results) {
+            results.forEach((residue, result) -> {
+                double[][] replicateData = result.replicateData();
+                List<OrderParValues> orderParValues = result.orderParValues();
+                if ((replicateData == null) || (replicateData.length == 0)) {
+                    return;
+                }
+                String model = result.orderPar().getModel();
+                String state = "";
+                List<String> parNames = List.of();
+                if (!orderParValues.isEmpty()) {
+                    OrderParValues values = orderParValues.get(orderParValues.size() - 1);
+                    state = values.setName();
+                    parNames = values.parNames();
+                }
+                Map<String, double[]> rows = new LinkedHashMap<>();
+                for (int i = 0; i < replicateData.length; i++) {
+                    String name = i < parNames.size() ? parNames.get(i) : "p" + i;
+                    rows.put(name, replicateData[i]);
+                }
+                add(new Key(residue, model, state), rows);
+            });
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        public void write(Path path) throws IOException {
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(header);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            int offset = 0;
+            List<double[]> rows = new ArrayList<>();
+            for (Map.Entry<Key, Map<String, double[]>> entry : entries.entrySet()) {
+                Key key = entry.getKey();
+                writeString(out, key.residue());
+                writeString(out, key.equation());
+                writeString(out, key.state());
+                Map<String, double[]> entryRows = entry.getValue();
+                out.writeInt(entryRows.size());
+                int nSamples = 0;
+                for (Map.Entry<String, double[]> row : entryRows.entrySet()) {
+                    writeString(out, row.getKey());
+                    nSamples = row.getValue().length;
+                    rows.add(row.getValue());
+                }
+                out.writeInt(nSamples);
+                out.writeInt(offset);
+                offset = Math.addExact(offset, Math.multiplyExact(nSamples, entryRows.size()));
+            }
+            try (DataOutputStream fileOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                header.writeTo(fileOut);
+                for (double[] row : rows) {
+                    for (double value : row) {
+                        fileOut.writeFloat((float) value);
+                    }
+                }
+            }
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("String too long " + value.substring(0, 32) + "...");
+            }
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
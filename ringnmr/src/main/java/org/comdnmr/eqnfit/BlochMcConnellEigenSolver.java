@@ -0,0 +1,441 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.eqnfit;
+
+import java.util.Arrays;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+
+/**
+ * Finds the least negative real eigenvalue of a Bloch-McConnell matrix, which
+ * gives -R1rho. The eigenpair found for one offset is used to start shifted
+ * inverse iteration for the next, which is normally much cheaper than a full
+ * eigen decomposition as neighbouring offsets have close eigenvalues.
+ * <p>
+ * The result of the inverse iteration is only accepted if it converged and a
+ * Sturm sequence of the characteristic polynomial shows that no real
+ * eigenvalue lies above it. If the iteration fails, an eigenvalue is found
+ * above it, or rounding makes the count doubtful, the full decomposition is
+ * used instead. An instance keeps its workspaces and the last eigenpair
+ * between calls so one instance should be used for all the offsets of a
+ * profile. Instances are not thread safe.
+ *
+ * @author Bruce Johnson
+ */
+public class BlochMcConnellEigenSolver {
+
+    private static final int MAX_ITERATIONS = 30;
+    private static final double TOLERANCE = 1.0e-12;
+    // relative size below which a Sturm sequence value or coefficient is
+    // treated as lost to rounding
+    private static final double STURM_TOLERANCE = 1.0e-12;
+
+    final int n;
+    private final double[] lu;
+    private final int[] pivot;
+    private final double[] v;
+    private final double[] y;
+    private final double[] b;
+    private final double[] m;
+    private final double[] am;
+    private final double[][] sturm;
+    private final int[] sturmDegree;
+    private boolean hasEigenPair = false;
+    private double lambda;
+    private int nFull = 0;
+
+    public BlochMcConnellEigenSolver(int n) {
+        this.n = n;
+        lu = new double[n * n];
+        pivot = new int[n];
+        v = new double[n];
+        y = new double[n];
+        b = new double[n * n];
+        m = new double[n * n];
+        am = new double[n * n];
+        sturm = new double[n + 1][n + 1];
+        sturmDegree = new int[n + 1];
+    }
+
+    /**
+     * Forget the last eigenpair, so the next call does a full decomposition.
+     */
+    public void reset() {
+        hasEigenPair = false;
+    }
+
+    /**
+     * @return the number of calls that needed a full eigen decomposition
+     */
+    public int getFullDecompositions() {
+        return nFull;
+    }
+
+    /**
+     * Returns the least negative real eigenvalue of Z.
+     *
+     * @param Z the Bloch-McConnell matrix
+     * @return the eigenvalue
+     * @throws IllegalStateException if Z has no real eigenvalue
+     */
+    public double leastNegativeEigenvalue(DMatrixRMaj Z) {
+        double[] z = Z.getData();
+        if (hasEigenPair && inverseIteration(z)) {
+            return lambda;
+        }
+        fullDecomposition(Z);
+        return lambda;
+    }
+
+    private boolean inverseIteration(double[] z) {
+        double norm = 0.0;
+        for (int i = 0; i < n * n; i++) {
+            norm += z[i] * z[i];
+        }
+        norm = Math.sqrt(norm);
+        double shift = lambda + 1.0e-8 * Math.max(1.0, Math.abs(lambda));
+        if (factor(z, shift) == 0.0) {
+            return false;
+        }
+        double mu = lambda;
+        boolean converged = false;
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            solve(v, y);
+            double yy = 0.0;
+            double vy = 0.0;
+            for (int i = 0; i < n; i++) {
+                yy += y[i] * y[i];
+                vy += v[i] * y[i];
+            }
+            if (!(yy > 0.0) || !Double.isFinite(yy)) {
+                return false;
+            }
+            mu = shift + vy / yy;
+            double yNorm = Math.sqrt(yy);
+            for (int i = 0; i < n; i++) {
+                v[i] = y[i] / yNorm;
+            }
+            if (residual(z, v, mu) <= TOLERANCE * norm) {
+                converged = true;
+                break;
+            }
+        }
+        if (!converged) {
+            return false;
+        }
+        // the iteration may have locked onto a real eigenvalue below the
+        // largest, so check that none is above it
+        if (countRealEigenvaluesAbove(z, mu + 1.0e-6 * Math.max(1.0, Math.abs(mu))) != 0) {
+            return false;
+        }
+        lambda = mu;
+        return true;
+    }
+
+    /**
+     * Counts the distinct real eigenvalues of Z above t with a Sturm sequence
+     * of the characteristic polynomial of B = (Z - tI) / |Z - tI|, whose
+     * eigenvalues all lie within the unit circle. The eigenvalues of Z above t
+     * are then the roots of the polynomial in (0, 1.5]. The polynomial is
+     * found by the Faddeev-LeVerrier recurrence, except for its value at 0,
+     * which is taken from the LU factorization of Z - tI as it is small when
+     * t is close to an eigenvalue.
+     *
+     * @return the count, or -1 if rounding makes it doubtful
+     */
+    private int countRealEigenvaluesAbove(double[] z, double t) {
+        double norm = 0.0;
+        for (int i = 0; i < n * n; i++) {
+            b[i] = z[i];
+        }
+        for (int i = 0; i < n; i++) {
+            b[i * n + i] -= t;
+        }
+        for (int i = 0; i < n * n; i++) {
+            norm += b[i] * b[i];
+        }
+        norm = Math.sqrt(norm);
+        if (!(norm > 0.0) || !Double.isFinite(norm)) {
+            return -1;
+        }
+        for (int i = 0; i < n * n; i++) {
+            b[i] /= norm;
+        }
+        // det(xI - B) = sum of c[k] x^k with M(0) = 0,
+        // M(k) = B M(k - 1) + c[n - k + 1] I and c[n - k] = -tr(B M(k)) / k
+        double[] c = sturm[0];
+        c[n] = 1.0;
+        Arrays.fill(m, 0.0);
+        for (int k = 1; k <= n; k++) {
+            multiply(b, m, am);
+            for (int i = 0; i < n; i++) {
+                am[i * n + i] += c[n - k + 1];
+            }
+            System.arraycopy(am, 0, m, 0, n * n);
+            double trace = 0.0;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    trace += b[i * n + j] * m[j * n + i];
+                }
+            }
+            c[n - k] = -trace / k;
+        }
+        sturmDegree[0] = n;
+        double[] dc = sturm[1];
+        for (int k = 1; k <= n; k++) {
+            dc[k - 1] = k * c[k];
+        }
+        sturmDegree[1] = n - 1;
+        int nSturm = 2;
+        while (sturmDegree[nSturm - 1] > 0) {
+            if (!negatedRemainder(nSturm)) {
+                return -1;
+            }
+            nSturm++;
+        }
+
+        // det(0 I - B) = (-1)^n det(Z - tI) / norm^n
+        double det = factor(z, t);
+        if (!(det != 0.0) || !Double.isFinite(det)) {
+            return -1;
+        }
+        double signAtZero = ((n % 2) == 0) ? Math.signum(det) : -Math.signum(det);
+        int changesAtZero = signChanges(nSturm, 0.0, signAtZero);
+        int changesAtEnd = signChanges(nSturm, 1.5, sturmSign(0, 1.5));
+        if ((changesAtZero < 0) || (changesAtEnd < 0)) {
+            return -1;
+        }
+        return changesAtZero - changesAtEnd;
+    }
+
+    /**
+     * @param nSturm    the length of the Sturm sequence
+     * @param x         where the sequence is evaluated
+     * @param firstSign the sign of the first polynomial at x
+     * @return the number of sign changes of the sequence at x, or -1 if a
+     * sign is lost to rounding
+     */
+    private int signChanges(int nSturm, double x, double firstSign) {
+        if (firstSign == 0.0) {
+            return -1;
+        }
+        int changes = 0;
+        double lastSign = firstSign;
+        for (int k = 1; k < nSturm; k++) {
+            double sign = sturmSign(k, x);
+            if (sign == 0.0) {
+                return -1;
+            }
+            if (sign != lastSign) {
+                changes++;
+            }
+            lastSign = sign;
+        }
+        return changes;
+    }
+
+    /**
+     * Sets the next polynomial of the Sturm sequence to minus the remainder of
+     * the division of the two before it.
+     *
+     * @param k the index of the polynomial to set
+     * @return false if the remainder or its leading coefficient is lost to
+     * rounding, as with (nearly) repeated roots
+     */
+    private boolean negatedRemainder(int k) {
+        double[] dividend = sturm[k];
+        double[] divisor = sturm[k - 1];
+        int dDividend = sturmDegree[k - 2];
+        int dDivisor = sturmDegree[k - 1];
+        System.arraycopy(sturm[k - 2], 0, dividend, 0, dDividend + 1);
+        double scale = maxAbs(dividend, dDividend);
+        for (int i = dDividend; i >= dDivisor; i--) {
+            double f = dividend[i] / divisor[dDivisor];
+            for (int j = 0; j <= dDivisor; j++) {
+                dividend[i - dDivisor + j] -= f * divisor[j];
+            }
+        }
+        int degree = dDivisor - 1;
+        for (int i = 0; i <= degree; i++) {
+            dividend[i] = -dividend[i];
+        }
+        double remainderScale = maxAbs(dividend, degree);
+        if ((remainderScale <= STURM_TOLERANCE * scale)
+                || (Math.abs(dividend[degree]) <= STURM_TOLERANCE * remainderScale)) {
+            return false;
+        }
+        sturmDegree[k] = degree;
+        return true;
+    }
+
+    /**
+     * @return the sign of polynomial k of the Sturm sequence at x, or 0 if it
+     * is lost to rounding
+     */
+    private double sturmSign(int k, double x) {
+        double[] p = sturm[k];
+        double value = 0.0;
+        double size = 0.0;
+        double ax = Math.abs(x);
+        for (int i = sturmDegree[k]; i >= 0; i--) {
+            value = value * x + p[i];
+            size = size * ax + Math.abs(p[i]);
+        }
+        return Math.abs(value) <= STURM_TOLERANCE * size ? 0.0 : Math.signum(value);
+    }
+
+    private static double maxAbs(double[] p, int degree) {
+        double max = 0.0;
+        for (int i = 0; i <= degree; i++) {
+            max = Math.max(max, Math.abs(p[i]));
+        }
+        return max;
+    }
+
+    private void multiply(double[] a, double[] bm, double[] result) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < n; k++) {
+                    sum += a[i * n + k] * bm[k * n + j];
+                }
+                result[i * n + j] = sum;
+            }
+        }
+    }
+
+    private void fullDecomposition(DMatrixRMaj Z) {
+        nFull++;
+        WatchedDoubleStepQRDecomposition_DDRM eig = (WatchedDoubleStepQRDecomposition_DDRM) DecompositionFactory_DDRM.eig(Z.getNumCols(), true, false);
+        eig.decompose(Z);
+        int numEigVec = eig.getNumberOfEigenvalues();
+        int best = -1;
+        double maxValue = Double.NEGATIVE_INFINITY;
+        for (int iEig = 0; iEig < numEigVec; iEig++) {
+            Complex_F64 zEigVal = eig.getEigenvalue(iEig);
+            if (zEigVal.isReal() && (zEigVal.getReal() > maxValue)) {
+                maxValue = zEigVal.getReal();
+                best = iEig;
+            }
+        }
+        hasEigenPair = false;
+        if (best < 0) {
+            throw new IllegalStateException("Bloch-McConnell matrix has no real eigenvalue");
+        }
+        lambda = maxValue;
+        DMatrixRMaj eigVec = eig.getEigenVector(best);
+        if (eigVec != null) {
+            double sum = 0.0;
+            for (int i = 0; i < n; i++) {
+                v[i] = eigVec.get(i, 0);
+                sum += v[i] * v[i];
+            }
+            if (sum > 0.0) {
+                sum = Math.sqrt(sum);
+                for (int i = 0; i < n; i++) {
+                    v[i] /= sum;
+                }
+                hasEigenPair = true;
+            }
+        }
+    }
+
+    private double residual(double[] z, double[] vec, double mu) {
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            double zv = 0.0;
+            for (int j = 0; j < n; j++) {
+                zv += z[i * n + j] * vec[j];
+            }
+            double delta = zv - mu * vec[i];
+            sum += delta * delta;
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * LU factor Z - shift * I with partial pivoting.
+     *
+     * @return the determinant of Z - shift * I
+     */
+    private double factor(double[] z, double shift) {
+        System.arraycopy(z, 0, lu, 0, n * n);
+        for (int i = 0; i < n; i++) {
+            lu[i * n + i] -= shift;
+            pivot[i] = i;
+        }
+        double det = 1.0;
+        for (int col = 0; col < n; col++) {
+            int maxRow = col;
+            double maxValue = Math.abs(lu[col * n + col]);
+            for (int row = col + 1; row < n; row++) {
+                double value = Math.abs(lu[row * n + col]);
+                if (value > maxValue) {
+                    maxValue = value;
+                    maxRow = row;
+                }
+            }
+            if (maxValue == 0.0) {
+                return 0.0;
+            }
+            if (maxRow != col) {
+                for (int j = 0; j < n; j++) {
+                    double tmp = lu[col * n + j];
+                    lu[col * n + j] = lu[maxRow * n + j];
+                    lu[maxRow * n + j] = tmp;
+                }
+                int tmp = pivot[col];
+                pivot[col] = pivot[maxRow];
+                pivot[maxRow] = tmp;
+                det = -det;
+            }
+            double diag = lu[col * n + col];
+            det *= diag;
+            for (int row = col + 1; row < n; row++) {
+                double factor = lu[row * n + col] / diag;
+                lu[row * n + col] = factor;
+                if (factor != 0.0) {
+                    for (int j = col + 1; j < n; j++) {
+                        lu[row * n + j] -= factor * lu[col * n + j];
+                    }
+                }
+            }
+        }
+        return det;
+    }
+
+    private void solve(double[] rhs, double[] result) {
+        for (int i = 0; i < n; i++) {
+            double sum = rhs[pivot[i]];
+            for (int k = 0; k < i; k++) {
+                sum -= lu[i * n + k] * result[k];
+            }
+            result[i] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = result[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= lu[i * n + k] * result[k];
+            }
+            result[i] = sum / lu[i * n + i];
+        }
+    }
+}
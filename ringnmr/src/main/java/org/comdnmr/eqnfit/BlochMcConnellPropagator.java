@@ -0,0 +1,321 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.eqnfit;
+
+import java.util.Arrays;
+
+/**
+ * Propagates magnetization under a Bloch-McConnell matrix of fixed size (6x6
+ * or 7x7 for two-site exchange). The matrix exponential uses the same Pade
+ * approximant (degree 6) and scaling-and-squaring rule as MtxExp, but works
+ * on preallocated row-major arrays, skips the zero elements of the sparse
+ * generator when forming its powers and only forms w<sup>T</sup> exp(Z) in
+ * the last squaring step, as the CEST and R1rho equations only read one
+ * projection of the propagator.
+ * <p>
+ * An instance keeps its workspaces between calls so one instance should be
+ * used for all the offsets of a profile. Instances are not thread safe.
+ *
+ * @author Bruce Johnson
+ */
+public class BlochMcConnellPropagator {
+
+    private static final int PADE_Q = 6;
+
+    final int n;
+    final double[] z;
+    private final double[] a;
+    private final double[] x;
+    private final double[] x1;
+    private final double[] e;
+    private final double[] d;
+    private final double[] p;
+    private final double[] v;
+    private final double[] wExp;
+    private final int[] pivot;
+
+    public BlochMcConnellPropagator(int n) {
+        this.n = n;
+        z = new double[n * n];
+        a = new double[n * n];
+        x = new double[n * n];
+        x1 = new double[n * n];
+        e = new double[n * n];
+        d = new double[n * n];
+        p = new double[n * n];
+        v = new double[n];
+        wExp = new double[n];
+        pivot = new int[n];
+    }
+
+    /**
+     * @return the dimension of the matrix
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Set all the elements of the generator matrix Z to zero.
+     */
+    public void clear() {
+        Arrays.fill(z, 0.0);
+    }
+
+    /**
+     * Set an element of the generator matrix Z.
+     *
+     * @param row the row
+     * @param col the column
+     * @param value the value
+     */
+    public void set(int row, int col, double value) {
+        z[row * n + col] = value;
+    }
+
+    /**
+     * Get an element of the generator matrix Z.
+     *
+     * @param row the row
+     * @param col the column
+     * @return the value
+     */
+    public double get(int row, int col) {
+        return z[row * n + col];
+    }
+
+    /**
+     * Set the generator matrix Z from the elements of another matrix, scaled
+     * by a factor.
+     *
+     * @param values row-major matrix elements
+     * @param scale the factor to multiply each element by
+     */
+    public void set(double[] values, double scale) {
+        for (int i = 0; i < z.length; i++) {
+            z[i] = values[i] * scale;
+        }
+    }
+
+    /**
+     * Calculate row of exp(Z).
+     *
+     * @param row the row of exp(Z) to calculate
+     * @param result array (n long) that receives the row
+     * @return result
+     */
+    public double[] expRow(int row, double[] result) {
+        Arrays.fill(v, 0.0);
+        v[row] = 1.0;
+        return leftMultiplyExp(v, result);
+    }
+
+    /**
+     * Calculate w<sup>T</sup> exp(Z).
+     *
+     * @param w the vector to project the propagator on. May be the same array
+     * as result.
+     * @param result array (n long) that receives the product
+     * @return result
+     */
+    public double[] leftMultiplyExp(double[] w, double[] result) {
+        int s = padeExp();
+        // p holds exp(Z / 2^s), square it s - 1 times and apply the last
+        // squaring to the vector only: w^T (P P) = (w^T P) P
+        for (int k = 1; k < s; k++) {
+            multiply(p, p, x);
+            System.arraycopy(x, 0, p, 0, p.length);
+        }
+        vectorMultiply(w, p, x1);
+        if (s > 0) {
+            vectorMultiply(x1, p, result);
+        } else {
+            System.arraycopy(x1, 0, result, 0, n);
+        }
+        return result;
+    }
+
+    /**
+     * Calculate w<sup>T</sup> exp(Z) u.
+     *
+     * @param w the left vector
+     * @param u the right vector
+     * @return the projection
+     */
+    public double project(double[] w, double[] u) {
+        leftMultiplyExp(w, wExp);
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += wExp[i] * u[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Scale Z by 2^-s and calculate the Pade approximant of its exponential
+     * into p.
+     *
+     * @return s
+     */
+    private int padeExp() {
+        double norm = 0.0;
+        for (double value : z) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        int exponent = (int) (Math.log(norm) / Math.log(2));
+        int s = Math.max(0, exponent + 1);
+        double scale = Math.pow(2, s);
+        for (int i = 0; i < a.length; i++) {
+            a[i] = z[i] / scale;
+        }
+        System.arraycopy(a, 0, x1, 0, a.length);
+        double c = 0.5;
+        for (int i = 0; i < a.length; i++) {
+            e[i] = c * a[i];
+            d[i] = -c * a[i];
+        }
+        for (int i = 0; i < n; i++) {
+            e[i * n + i] += 1.0;
+            d[i * n + i] += 1.0;
+        }
+        boolean positive = true;
+        double q = PADE_Q;
+        for (int k = 2; k <= PADE_Q; k++) {
+            c = c * (q - k + 1) / (k * (2 * q - k + 1));
+            sparseMultiply(a, x1, x);
+            System.arraycopy(x, 0, x1, 0, x.length);
+            for (int i = 0; i < x.length; i++) {
+                double cx = c * x[i];
+                e[i] += cx;
+                if (positive) {
+                    d[i] += cx;
+                } else {
+                    d[i] -= cx;
+                }
+            }
+            positive = !positive;
+        }
+        solve(d, e, p);
+        return s;
+    }
+
+    /**
+     * result = left * right, skipping the zero elements of left.
+     */
+    private void sparseMultiply(double[] left, double[] right, double[] result) {
+        Arrays.fill(result, 0.0);
+        for (int i = 0; i < n; i++) {
+            int iRow = i * n;
+            for (int k = 0; k < n; k++) {
+                double lik = left[iRow + k];
+                if (lik != 0.0) {
+                    int kRow = k * n;
+                    for (int j = 0; j < n; j++) {
+                        result[iRow + j] += lik * right[kRow + j];
+                    }
+                }
+            }
+        }
+    }
+
+    private void multiply(double[] left, double[] right, double[] result) {
+        for (int i = 0; i < n; i++) {
+            int iRow = i * n;
+            for (int j = 0; j < n; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < n; k++) {
+                    sum += left[iRow + k] * right[k * n + j];
+                }
+                result[iRow + j] = sum;
+            }
+        }
+    }
+
+    private void vectorMultiply(double[] w, double[] m, double[] result) {
+        for (int j = 0; j < n; j++) {
+            double sum = 0.0;
+            for (int k = 0; k < n; k++) {
+                sum += w[k] * m[k * n + j];
+            }
+            result[j] = sum;
+        }
+    }
+
+    /**
+     * Solve lhs * result = rhs by LU decomposition with partial pivoting. lhs
+     * is overwritten with its factors.
+     */
+    private void solve(double[] lhs, double[] rhs, double[] result) {
+        for (int i = 0; i < n; i++) {
+            pivot[i] = i;
+        }
+        for (int col = 0; col < n; col++) {
+            int maxRow = col;
+            double maxValue = Math.abs(lhs[col * n + col]);
+            for (int row = col + 1; row < n; row++) {
+                double value = Math.abs(lhs[row * n + col]);
+                if (value > maxValue) {
+                    maxValue = value;
+                    maxRow = row;
+                }
+            }
+            if (maxRow != col) {
+                swapRows(lhs, col, maxRow);
+                int tmp = pivot[col];
+                pivot[col] = pivot[maxRow];
+                pivot[maxRow] = tmp;
+            }
+            double diag = lhs[col * n + col];
+            for (int row = col + 1; row < n; row++) {
+                double factor = lhs[row * n + col] / diag;
+                lhs[row * n + col] = factor;
+                if (factor != 0.0) {
+                    for (int j = col + 1; j < n; j++) {
+                        lhs[row * n + j] -= factor * lhs[col * n + j];
+                    }
+                }
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            // forward substitution with the permuted rhs column
+            for (int i = 0; i < n; i++) {
+                double sum = rhs[pivot[i] * n + j];
+                for (int k = 0; k < i; k++) {
+                    sum -= lhs[i * n + k] * result[k * n + j];
+                }
+                result[i * n + j] = sum;
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = result[i * n + j];
+                for (int k = i + 1; k < n; k++) {
+                    sum -= lhs[i * n + k] * result[k * n + j];
+                }
+                result[i * n + j] = sum / lhs[i * n + i];
+            }
+        }
+    }
+
+    private void swapRows(double[] m, int row1, int row2) {
+        for (int j = 0; j < n; j++) {
+            double tmp = m[row1 * n + j];
+            m[row1 * n + j] = m[row2 * n + j];
+            m[row2 * n + j] = tmp;
+        }
+    }
+}
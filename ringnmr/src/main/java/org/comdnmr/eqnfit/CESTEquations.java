@@ -22,7 +22,6 @@
  */
 package org.comdnmr.eqnfit;
 
-import org.comdnmr.util.MtxExp;
 import org.comdnmr.util.ANNLoader;
 import org.comdnmr.util.SavitzkyGolay;
 import org.comdnmr.util.Utilities;
@@ -31,11 +30,8 @@ import java.util.*;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import static org.comdnmr.util.Utilities.TWO_PI;
-import org.ejml.data.Complex_F64;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.CommonOps_DDRM;
-import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
-import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
 import org.ojalgo.ann.ArtificialNeuralNetwork;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.structure.Access1D;
@@ -155,37 +151,38 @@ public class CESTEquations {
         {0, 0, 0, 0, 0, -R2B, 0}, //{0, 0, 0, 0, deltaB, -R2B, -omegaB1[i]}
         {2 * R1B * pb, 0, 0, 0, 0, 0, -R1B}}; //{2 * R1B * pb, 0, 0, 0, 0, omegaB1[i], -R1B}
 
-        DMatrixRMaj La1 = new DMatrixRMaj(La);
-        DMatrixRMaj Lb1 = new DMatrixRMaj(Lb);
-        DMatrixRMaj K1 = new DMatrixRMaj(K);
-
-        DMatrixRMaj Z = new DMatrixRMaj(La.length, La[0].length);
+        int n = La.length;
+        double[] zBase = new double[n * n];
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                zBase[row * n + col] = La[row][col] + Lb[row][col] + K[row][col];
+            }
+        }
+        BlochMcConnellPropagator propagator = new BlochMcConnellPropagator(n);
+        double[] at = new double[n];
 
         for (int i = 0; i < omegarf.length; i++) {
             double omegaB1 = b1Field[i] * TWO_PI;
             double deltaA = (deltaA0 - omegarf[i]) * fields[i] * TWO_PI;
             double deltaB = (deltaB0 - omegarf[i]) * fields[i] * TWO_PI;
 
-            La1.set(1, 2, -deltaA);
-            La1.set(2, 1, deltaA);
-            La1.set(2, 3, -omegaB1);
-            La1.set(3, 2, omegaB1);
+            propagator.set(zBase, tdelay);
+            propagator.set(1, 2, -deltaA * tdelay);
+            propagator.set(2, 1, deltaA * tdelay);
+            propagator.set(2, 3, -omegaB1 * tdelay);
+            propagator.set(3, 2, omegaB1 * tdelay);
 
-            Lb1.set(4, 5, -deltaB);
-            Lb1.set(5, 4, deltaB);
-            Lb1.set(5, 6, -omegaB1);
-            Lb1.set(6, 5, omegaB1);
+            propagator.set(4, 5, -deltaB * tdelay);
+            propagator.set(5, 4, deltaB * tdelay);
+            propagator.set(5, 6, -omegaB1 * tdelay);
+            propagator.set(6, 5, omegaB1 * tdelay);
 
-            CommonOps_DDRM.add(La1, Lb1, Z);
-            CommonOps_DDRM.addEquals(Z, K1);
-
-            CommonOps_DDRM.scale(tdelay, Z);
-
-            DMatrixRMaj at = MtxExp.matrixExp(Z);
+            // only row 3 (A state z magnetization) of the propagator is used
+            propagator.expRow(3, at);
 
-            double a30 = at.get(3, 0);
-            double a33 = at.get(3, 3);
-            double a36 = at.get(3, 6);
+            double a30 = at[0];
+            double a33 = at[3];
+            double a36 = at[6];
             double magA = a30 * m0[0] + a33 * m0[3] + a36 * m0[6];
             magA = magA - (a30 * m1[0] + a33 * m1[3] + a36 * m1[6]);
             magA = magA / 2;
@@ -267,6 +264,7 @@ public class CESTEquations {
         DMatrixRMaj K1 = new DMatrixRMaj(K);
 
         DMatrixRMaj Z = new DMatrixRMaj(La.length, La[0].length);
+        BlochMcConnellEigenSolver eigenSolver = new BlochMcConnellEigenSolver(La.length);
 
         for (int i = 0; i < omegarf.length; i++) {
             double omegaB1 = b1Field[i] * TWO_PI;
@@ -290,18 +288,7 @@ public class CESTEquations {
             CommonOps_DDRM.add(La1, Lb1, Z);
             CommonOps_DDRM.addEquals(Z, K1);
 
-            List<Double> r1rho1 = new ArrayList<>();
-            WatchedDoubleStepQRDecomposition_DDRM eig = (WatchedDoubleStepQRDecomposition_DDRM) DecompositionFactory_DDRM.eig(Z.getNumCols(), true, false);
-            eig.decompose(Z);
-            int numEigVec = eig.getNumberOfEigenvalues();
-            for (int v = 0; v < numEigVec; v++) {
-                Complex_F64 ZEigVal = eig.getEigenvalue(v);
-                if (ZEigVal.isReal()) {
-                    r1rho1.add(ZEigVal.getReal());
-                }
-            }
-
-            double r1rho = Math.abs(Collections.max(r1rho1));
+            double r1rho = Math.abs(eigenSolver.leastNegativeEigenvalue(Z));
 
             cest[i] = cost * cost * Math.exp(-tdelay * r1rho);
         }
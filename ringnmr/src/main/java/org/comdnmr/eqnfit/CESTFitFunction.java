@@ -23,24 +23,28 @@ import java.util.stream.IntStream;
 
 import org.apache.commons.math3.optim.PointValuePair;
 import org.apache.commons.math3.random.RandomGenerator;
-import org.apache.commons.math3.random.SynchronizedRandomGenerator;
-import org.apache.commons.math3.random.Well19937c;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.util.FastMath;
 import org.comdnmr.util.CoMDOptions;
 
 public class CESTFitFunction extends FitFunction {
 
-    static RandomGenerator random = new SynchronizedRandomGenerator(new Well19937c());
-
     int[] r2Mask = {0, 1, 3};
     double[] rexErrors = new double[nID];
+    double[][][] idXValues = null;
+    int[][] idIndices = null;
+    double[] yCalcBuffer = new double[0];
 
     public CESTFitFunction(CoMDOptions options) {
         super(options);
         this.equation = CESTEquation.TROTT_PALMER;
     }
 
+    @Override
+    FitFunction newInstance() {
+        return new CESTFitFunction(options);
+    }
+
     @Override
     public void setEquation(String eqName) {
         equation = CESTEquation.valueOf(eqName.toUpperCase());
@@ -81,17 +85,40 @@ public class CESTFitFunction extends FitFunction {
         return r2Mask;
     }
 
+    @Override
+    void dataChanged() {
+        idXValues = null;
+        idIndices = null;
+    }
+
+    /**
+     * Split the x values and indices by dataset id once, rather than on every
+     * evaluation of the objective function.
+     */
+    void setupIdValues() {
+        if ((idXValues == null) || (idXValues.length != map.length) || (yCalcBuffer.length != yValues.length)) {
+            idXValues = new double[map.length][][];
+            idIndices = new int[map.length][];
+            for (int id = 0; id < map.length; id++) {
+                idXValues[id] = CESTEquations.getXValues(xValues, idNums, id);
+                idIndices[id] = CESTEquations.getIndicies(idNums, id);
+            }
+            yCalcBuffer = new double[yValues.length];
+        }
+    }
+
     @Override
     public double value(double[] normPar) {
-        double[] par = deNormalize(normPar);
+        double[] par = deNormalizeToBuffer(normPar);
 
         double sumAbs = 0.0;
         double sumSq = 0.0;
-        double[] yCalc = new double[yValues.length];
+        setupIdValues();
+        double[] yCalc = yCalcBuffer;
         for (int id = 0; id < map.length; id++) {
-            double[][] x = CESTEquations.getXValues(xValues, idNums, id);
+            double[][] x = idXValues[id];
             double[] yCalc1 = equation.calculate(par, map[id], x, id);
-            int[] indicies = CESTEquations.getIndicies(idNums, id);
+            int[] indicies = idIndices[id];
             for (int i = 0; i < indicies.length; i++) {
                 yCalc[indicies[i]] = yCalc1[i];
             }
@@ -132,11 +159,13 @@ public class CESTFitFunction extends FitFunction {
         double[] yValuesOrig = yValues.clone();
         rexErrors = new double[nID];
         String optimizer = options.getBootStrapOptimizer();
+        long seed = bootstrapSeed();
         for (int i = 0; i < nSim; i++) {
+            RandomGenerator random = replicateRandom(seed, i);
             for (int k = 0; k < yValues.length; k++) {
                 yValues[k] = yPred[k] + errValues[k] * random.nextGaussian();
             }
-            var resultOpt = refine(start, lowerBounds, upperBounds,
+            var resultOpt = refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 return Optional.empty();
@@ -179,7 +208,9 @@ public class CESTFitFunction extends FitFunction {
         String optimizer = options.getBootStrapOptimizer();
         AtomicBoolean hadError = new AtomicBoolean(false);
 
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
             CESTFitFunction rDisp = new CESTFitFunction(options, xValues, yPred, errValues, idNums);
             rDisp.setEquation(equation.getName());
             double[] newY = new double[yValues.length];
@@ -189,8 +220,9 @@ public class CESTFitFunction extends FitFunction {
             rDisp.setXY(xValues, newY);
             rDisp.setIds(idNums);
             rDisp.setMap(map);
+            rDisp.setProfile(profile);
 
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
 
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
@@ -226,7 +258,9 @@ public class CESTFitFunction extends FitFunction {
         String optimizer = options.getBootStrapOptimizer();
 
         AtomicBoolean hadError = new AtomicBoolean(false);
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
             CESTFitFunction rDisp = new CESTFitFunction(options, xValues, yValues, errValues, idNums);
             rDisp.setEquation(equation.getName());
             double[][] newX = new double[xValues.length][yValues.length];
@@ -251,8 +285,9 @@ public class CESTFitFunction extends FitFunction {
             rDisp.setErr(newErr);
             rDisp.setIds(newID);
             rDisp.setMap(map);
+            rDisp.setProfile(profile);
 
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 hadError.set(true);
@@ -92,7 +92,6 @@ public class CESTFitter implements EquationFitter {
         }
         this.dynSources = dynSources.clone();
         nResidues = dynSources.length;
-        experimentSet.setupMaps();
         stateCount = experimentSet.getStateCount(dynSources.length);
         Collection<Experiment> expDataList = experimentSet.getExperimentData();
         nCurves = experimentSet.getDataCount(dynSources);
@@ -248,6 +247,7 @@ public class CESTFitter implements EquationFitter {
 
         if (!peaks.isEmpty()) {
             setupFit(eqn);
+            startProfile(eqn, options);
             int[][] map = calcCEST.getMap();
             double[] guesses;
             if (sliderguesses != null) {
@@ -259,8 +259,10 @@ public class CESTFitter implements EquationFitter {
             if (guesses != null) {
                 double[][] boundaries = calcCEST.boundaries(guesses);
                 double sigma = options.getStartRadius();
-                var resultOpt = calcCEST.refine(guesses, boundaries[0],
-                        boundaries[1], sigma, options.getOptimizer());
+                MultiStartSearch multiStart = new MultiStartSearch(calcCEST, sigma, options.getOptimizer());
+                multiStart.setEarlyExit(options.getMultiStartConverged(), Math.pow(10.0, options.getTolerance()));
+                var resultOpt = multiStart.search(List.of(new MultiStartSearch.Start(guesses, boundaries[0], boundaries[1])))
+                        .map(MultiStartSearch.Result::best);
                 PointValuePair result;
                 if (resultOpt.isEmpty()) {
                     return Optional.empty();
@@ -268,20 +270,7 @@ public class CESTFitter implements EquationFitter {
                     result = resultOpt.get();
                 }
                 double[] pars = result.getPoint();
-                System.out.println(eqn);
-
-                for (int[] map1 : map) {
-                    for (int i : map1) {
-                        System.out.printf(" %3d", i);
-                    }
-                    System.out.println();
-                }
-
-                System.out.print("Fit pars \n");
-                for (int i = 0; i < pars.length; i++) {
-                    System.out.printf("%d %.3f %.3f %.3f %.3f\n", i, guesses[i], boundaries[0][i], pars[i], boundaries[1][i]);
-                }
-                System.out.println();
+                recordParameters(guesses, boundaries, pars);
 
                 FitQuality fitQuality = calcCEST.getFitQuality(pars);
 
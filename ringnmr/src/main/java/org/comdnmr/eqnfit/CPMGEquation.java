@@ -53,6 +53,19 @@ public enum CPMGEquation implements EquationType {
             return par[map[0]];
         }
 
+        @Override
+        public void calculate(double[] par, int[][] map, double[][] x, int[] idNums, double[] yCalc) {
+            for (int i = 0; i < idNums.length; i++) {
+                yCalc[i] = par[map[idNums[i]][0]];
+            }
+        }
+
+        @Override
+        public double gradient(double[] par, int[] map, double[] x, int idNum, double[] grad) {
+            grad[0] = 1.0;
+            return par[map[0]];
+        }
+
         @Override
         public double[] guessRubric(double[][] xValues, double[] yValues, int[][] map, int[] idNums, int nID) {
             double[] guesses = new double[getNPars(map)];
@@ -119,6 +132,67 @@ public enum CPMGEquation implements EquationType {
             return value;
         }
 
+        @Override
+        public void calculate(double[] par, int[][] map, double[][] x, int[] idNums, double[] yCalc) {
+            double[] vus = x[0];
+            double[] fields = x[1];
+            int lastId = -1;
+            double lastField = Double.NaN;
+            double kEx = 0.0;
+            double R2 = 0.0;
+            double dPPMminRadPerField = 0.0;
+            double Rex = 0.0;
+            for (int i = 0; i < idNums.length; i++) {
+                int id = idNums[i];
+                double field = fields[i];
+                if (id != lastId) {
+                    int[] idMap = map[id];
+                    kEx = par[idMap[0]];
+                    R2 = par[idMap[1]];
+                    dPPMminRadPerField = 2.0 * Math.PI * par[idMap[2]];
+                    lastField = Double.NaN;
+                    lastId = id;
+                }
+                if (kEx <= 0.0) {
+                    yCalc[i] = R2;
+                    continue;
+                }
+                if (field != lastField) {
+                    double dPPMMinRad = dPPMminRadPerField * field;
+                    Rex = dPPMMinRad * dPPMMinRad / 4.0 / kEx;
+                    lastField = field;
+                }
+                double tauCP = 1.0 / (2.0 * vus[i]);
+                yCalc[i] = R2 + Rex * (1 - 2.0 * FastMath.tanh(0.5 * kEx * tauCP) / (kEx * tauCP));
+            }
+        }
+
+        @Override
+        public double gradient(double[] par, int[] map, double[] x, int idNum, double[] grad) {
+            double kEx = par[map[0]];
+            double R2 = par[map[1]];
+            double dPPMmin = par[map[2]];
+            double vu = x[0];
+            double field = x[1];
+            grad[1] = 1.0;
+            if (kEx <= 0.0) {
+                grad[0] = 0.0;
+                grad[2] = 0.0;
+                return R2;
+            }
+            double tauCP = 1.0 / (2.0 * vu);
+            double radPerPPM = 2.0 * Math.PI * field;
+            double dPPMMinRad = radPerPPM * dPPMmin;
+            double Rex = dPPMMinRad * dPPMMinRad / 4.0 / kEx;
+            double u = kEx * tauCP;
+            double tanh = FastMath.tanh(0.5 * u);
+            double f = 1 - 2.0 * tanh / u;
+            double dfdu = (2.0 * tanh - u * (1.0 - tanh * tanh)) / (u * u);
+            grad[0] = -Rex / kEx * f + Rex * tauCP * dfdu;
+            grad[2] = dPPMMinRad * radPerPPM / (2.0 * kEx) * f;
+            return R2 + Rex * f;
+        }
+
         @Override
         public double[] guessRubric(double[][] xValues, double[] yValues, int[][] map, int[] idNums, int nID) {
             double[] guesses = new double[getNPars(map)];
@@ -557,6 +631,55 @@ public enum CPMGEquation implements EquationType {
             return r2 + rexContrib;
         }
 
+        @Override
+        public void calculate(double[] par, int[][] map, double[][] x, int[] idNums, double[] yCalc) {
+            double[] nus = x[0];
+            double[] fields = x[1];
+            int lastId = -1;
+            double lastField = Double.NaN;
+            double kEx = 0.0;
+            double pA = 0.0;
+            double r2 = 0.0;
+            double dPPM = 0.0;
+            double sqrtP = 0.0;
+            double sqrtM = 0.0;
+            double dP = 0.0;
+            double dM = 0.0;
+            for (int i = 0; i < idNums.length; i++) {
+                int id = idNums[i];
+                double field = fields[i];
+                if (id != lastId) {
+                    int[] idMap = map[id];
+                    kEx = par[idMap[0]];
+                    pA = par[idMap[1]];
+                    r2 = par[idMap[2]];
+                    dPPM = par[idMap[3]];
+                    lastField = Double.NaN;
+                    lastId = id;
+                }
+                if (field != lastField) {
+                    double pB = 1.0 - pA;
+                    double pDelta = pA - pB;
+                    double dW = dPPM * field * 2.0 * Math.PI;
+                    double psi = (pDelta * kEx) * (pDelta * kEx) - dW * dW + 4.0 * pA * pB * kEx * kEx;
+                    double zeta = -2.0 * dW * kEx * pDelta;
+                    double eta1 = Math.sqrt(psi * psi + zeta * zeta);
+                    sqrtP = Math.sqrt(eta1 + psi);
+                    sqrtM = Math.sqrt(eta1 - psi);
+                    double d1 = (psi + 2.0 * dW * dW) / Math.sqrt(psi * psi + zeta * zeta);
+                    dP = 0.5 * (d1 + 1);
+                    dM = 0.5 * (d1 - 1);
+                    lastField = field;
+                }
+                double tauCP = 1.0 / (2.0 * nus[i]);
+                double etaP = (1.0 / Math.sqrt(2.0)) * tauCP * sqrtP;
+                double etaM = (1.0 / Math.sqrt(2.0)) * tauCP * sqrtM;
+                double ch = dP * Math.cosh(etaP) - dM * Math.cos(etaM);
+                double rexContrib = 0.5 * (kEx - (1.0 / tauCP) * FastMath.acosh(ch));
+                yCalc[i] = r2 + rexContrib;
+            }
+        }
+
         @Override
         public double[] guessRubric(double[][] xValues, double[] yValues, int[][] map, int[] idNums, int nID) {
             double[] guesses = new double[getNPars(map)];
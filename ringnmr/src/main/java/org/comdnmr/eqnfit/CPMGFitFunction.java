@@ -24,23 +24,26 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.IntStream;
 import org.apache.commons.math3.optim.PointValuePair;
 import org.apache.commons.math3.random.RandomGenerator;
-import org.apache.commons.math3.random.SynchronizedRandomGenerator;
-import org.apache.commons.math3.random.Well19937c;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.util.FastMath;
 import org.comdnmr.util.CoMDOptions;
 
 public class CPMGFitFunction extends FitFunction {
 
-    static RandomGenerator random = new SynchronizedRandomGenerator(new Well19937c());
     int[] r2Mask = {0, 1, 3};
     double[] rexErrors = new double[nID];
+    double[] yCalcBuffer = new double[0];
 
     public CPMGFitFunction(CoMDOptions options) {
         super(options);
         this.equation = CPMGEquation.CPMGFAST;
     }
 
+    @Override
+    FitFunction newInstance() {
+        return new CPMGFitFunction(options);
+    }
+
     @Override
     public void setEquation(String eqName) {
         equation = CPMGEquation.valueOf(eqName.toUpperCase());
@@ -74,6 +77,11 @@ public class CPMGFitFunction extends FitFunction {
         return maxIndex + 1;
     }
 
+    @Override
+    boolean hasPointResiduals() {
+        return true;
+    }
+
     @Override
     public int[] getMask() {
         return r2Mask;
@@ -86,17 +94,16 @@ public class CPMGFitFunction extends FitFunction {
 
     @Override
     public double value(double[] normPar) {
-        double[] par = deNormalize(normPar);
+        double[] par = deNormalizeToBuffer(normPar);
         double sumAbs = 0.0;
         double sumSq = 0.0;
-        double[] ax = new double[4];
+        if (yCalcBuffer.length != yValues.length) {
+            yCalcBuffer = new double[yValues.length];
+        }
+        double[] yCalc = yCalcBuffer;
+        equation.calculate(par, map, xValues, idNums, yCalc);
         for (int i = 0; i < yValues.length; i++) {
-            final double value;
-            for (int j = 0; j < xValues.length; j++) {
-                ax[j] = xValues[j][i];
-            }
-            value = equation.calculate(par, map[idNums[i]], ax, idNums[i]);
-            double delta = (value - yValues[i]);
+            double delta = (yCalc[i] - yValues[i]);
             if (weightFit) {
                 delta /= errValues[i];
             }
@@ -121,14 +128,8 @@ public class CPMGFitFunction extends FitFunction {
 
     @Override
     public double[] simY(double[] par) {
-        double[] ax = new double[4];
         double[] yv = new double[yValues.length];
-        for (int i = 0; i < yValues.length; i++) {
-            for (int j = 0; j < xValues.length; j++) {
-                ax[j] = xValues[j][i];
-            }
-            yv[i] = equation.calculate(par, map[idNums[i]], ax, idNums[i]);
-        }
+        equation.calculate(par, map, xValues, idNums, yv);
         return yv;
     }
 
@@ -187,11 +188,13 @@ public class CPMGFitFunction extends FitFunction {
         rexErrors = new double[nID];
         String optimizer = options.getBootStrapOptimizer();
 
+        long seed = bootstrapSeed();
         for (int i = 0; i < nSim; i++) {
+            RandomGenerator random = replicateRandom(seed, i);
             for (int k = 0; k < yValues.length; k++) {
                 yValues[k] = yPred[k] + errValues[k] * random.nextGaussian();
             }
-            var resultOpt = refine(start, lowerBounds, upperBounds,
+            var resultOpt = refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             PointValuePair result;
             if (resultOpt.isEmpty()) {
@@ -226,7 +229,7 @@ public class CPMGFitFunction extends FitFunction {
         return Optional.of(parSDev);
     }
 
-    private synchronized CPMGFitFunction setupParametricBootstrap(double[] yPred) {
+    private CPMGFitFunction setupParametricBootstrap(double[] yPred, RandomGenerator random) {
         double[] newY = new double[yValues.length];
         for (int k = 0; k < yValues.length; k++) {
             newY[k] = yPred[k] + errValues[k] * random.nextGaussian();
@@ -236,10 +239,11 @@ public class CPMGFitFunction extends FitFunction {
         rDisp.setXY(xValues, newY);
         rDisp.setIds(idNums);
         rDisp.setMap(map);
+        rDisp.setProfile(profile);
         return rDisp;
     }
 
-    private CPMGFitFunction setupNonParametricBootstrap(double[] yPred) {
+    private CPMGFitFunction setupNonParametricBootstrap(double[] yPred, RandomGenerator random) {
         CPMGFitFunction rDisp = new CPMGFitFunction(options, xValues, yValues, errValues, idNums);
         rDisp.setEquation(equation.getName());
         double[][] newX = new double[xValues.length][yValues.length];
@@ -264,6 +268,7 @@ public class CPMGFitFunction extends FitFunction {
         rDisp.setErr(newErr);
         rDisp.setIds(newID);
         rDisp.setMap(map);
+        rDisp.setProfile(profile);
         return rDisp;
     }
 
@@ -278,15 +283,17 @@ public class CPMGFitFunction extends FitFunction {
         double[] yPred = simY(start);
         String optimizer = options.getBootStrapOptimizer();
         AtomicBoolean hadError = new AtomicBoolean(false);
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
             CPMGFitFunction rDisp;
             if (options.getNonParametricBootstrap()) {
-                rDisp = setupNonParametricBootstrap(yPred);
+                rDisp = setupNonParametricBootstrap(yPred, random);
             } else {
-                rDisp = setupParametricBootstrap(yPred);
+                rDisp = setupParametricBootstrap(yPred, random);
             }
 
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 hadError.set(true);
@@ -235,6 +235,7 @@ public class CPMGFitter implements EquationFitter {
     @Override
     public Optional<FitResult> doFit(String eqn, double[] sliderguesses, CoMDOptions options) {
         setupFit(eqn);
+        startProfile(eqn, options);
         int[][] map = calcR.getMap();
         double[] startGuesses;
         if (sliderguesses != null) {
@@ -242,54 +243,23 @@ public class CPMGFitter implements EquationFitter {
         } else {
             startGuesses = calcR.guess();
         }
-        double[] guesses = startGuesses.clone();
         boolean hasKex = calcR.equation != CPMGEquation.NOEX;
         int nTries = hasKex ? 20 : 1;
-        PointValuePair bestResult = null;
-        double bestScore = Double.MAX_VALUE;
-
-        double[][] boundaries = calcR.boundaries(startGuesses);
-        double[][] startBoundaries = calcR.boundaries(startGuesses);
         double sigma = options.getStartRadius();
 
-        for (int iTry=0;iTry< nTries;iTry++) {
-            double[][] testBoundaries;
-            if (nTries > 1) {
-                double maxVal = Math.log10(startBoundaries[1][0]);
-                double del10 = (maxVal - 2.0) / (nTries + 1);
-                double guessValue = Math.pow(10.0, 2.0 + del10 * iTry);
-                double guessPrev = iTry == 0 ? 0.0 : Math.pow(10.0, 2.0 + del10 * (iTry - 1.5));
-                double guessNext = Math.pow(10.0, 2.0 + del10 * (iTry + 1.5));
-                startGuesses[0] = guessValue;
-                testBoundaries = calcR.boundaries(startGuesses);
-                testBoundaries[0][0] = Math.max(0.0, guessPrev);
-                testBoundaries[1][0] = guessNext;
-            } else {
-                testBoundaries = boundaries;
-            }
-            var resultOpt = calcR.refine(startGuesses, testBoundaries[0],
-                    testBoundaries[1], sigma, options.getOptimizer());
-            PointValuePair result;
-            if (resultOpt.isEmpty()) {
-                return Optional.empty();
-            } else {
-                result = resultOpt.get();
-                double value = result.getValue();
-                if (value < bestScore) {
-                    bestScore = value;
-                    bestResult = result;
-                    boundaries = startBoundaries;
-                    guesses = startGuesses;
-                }
-            }
+        double[][] boundaries = calcR.boundaries(startGuesses);
+        List<MultiStartSearch.Start> starts = MultiStartSearch.kexStarts(calcR, startGuesses, nTries);
+        MultiStartSearch multiStart = new MultiStartSearch(calcR, sigma, options.getOptimizer());
+        multiStart.setEarlyExit(options.getMultiStartConverged(), Math.pow(10.0, options.getTolerance()));
+        var searchOpt = multiStart.search(starts);
+        if (searchOpt.isEmpty()) {
+            return Optional.empty();
         }
+        PointValuePair bestResult = searchOpt.get().best();
+        double[] guesses = starts.get(searchOpt.get().bestTry()).guess();
 
         double[] pars = bestResult.getPoint();
-        System.out.print("Fit pars \n");
-        for (int i = 0; i < pars.length; i++) {
-            System.out.printf("%d %.3f %.3f %.3f %.3f\n", i, guesses[i], boundaries[0][i], pars[i], boundaries[1][i]);
-        }
-        System.out.println();
+        recordParameters(guesses, boundaries, pars);
 
         FitQuality fitQuality = calcR.getFitQuality(pars);
 
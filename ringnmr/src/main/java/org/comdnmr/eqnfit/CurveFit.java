@@ -115,6 +115,30 @@ public class CurveFit {
             return nBootstrapSamples;
         }
 
+        public boolean isAbsMode() {
+            return absMode;
+        }
+
+        public boolean isNonParametricMode() {
+            return nonParametricMode;
+        }
+
+        public double getStartRadius() {
+            return startRadius;
+        }
+
+        public double getFinalRadius() {
+            return finalRadius;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public boolean isWeight() {
+            return weight;
+        }
+
         @Override
         public String toString() {
             char sep = '\t';
@@ -68,6 +68,26 @@ public interface EquationFitter extends BasicFitter {
         return values;
     }
 
+    /**
+     * Create the profile for a fit of an equation, if fit profiling is turned
+     * on, and attach it to the fit model. Call after the fit model is set up.
+     *
+     * @param eqn the equation name
+     * @param options the fit options
+     */
+    default void startProfile(String eqn, CoMDOptions options) {
+        FitProfile profile = options.getFitProfiling() ? new FitProfile(getExpType(), eqn) : null;
+        getFitModel().setProfile(profile);
+    }
+
+    /**
+     * Record the starting point, bounds and best-fit parameters in the profile
+     * of the fit model, if there is one.
+     */
+    default void recordParameters(double[] guesses, double[][] boundaries, double[] pars) {
+        getFitModel().getProfile().ifPresent(profile -> profile.setParameters(guesses, boundaries[0], boundaries[1], pars));
+    }
+
     default FitResult getResults(EquationFitter fitter, String eqn, String[] parNames, ResonanceSource[] dynSources, int[][] map, int[][] states,
                                  double[][] allExtras, int nGroupPars, double[] pars, double[] errEstimates, FitQuality fitQuality, double[][] simPars,
                                  boolean hasExchange, CurveFit.CurveFitStats curveStats) {
@@ -120,6 +140,19 @@ public interface EquationFitter extends BasicFitter {
             CurveFit curveFit = new CurveFit(stateString, dynSources[states[iCurve][0]], parMap, plotEquation);
             curveFits.add(curveFit);
         }
-        return new FitResult(parNames, curveFits, eqn, nGroupPars, fitQuality, simsMap, hasExchange, curveStats);
+        FitResult fitResult = new FitResult(parNames, curveFits, eqn, nGroupPars, fitQuality, simsMap, hasExchange, curveStats);
+        getFitModel().getProfile().ifPresent(profile -> {
+            StringBuilder sources = new StringBuilder();
+            for (ResonanceSource dynSource : dynSources) {
+                if (!sources.isEmpty()) {
+                    sources.append(' ');
+                }
+                sources.append(dynSource.getAtom().getResidueNumber()).append('.').append(dynSource.getAtom().getName());
+            }
+            profile.setSources(sources.toString());
+            profile.setTimes(curveStats.refineTime, curveStats.bootstrapTime);
+            fitResult.setProfile(profile);
+        });
+        return fitResult;
     }
 }
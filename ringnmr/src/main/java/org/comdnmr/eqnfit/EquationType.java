@@ -42,6 +42,62 @@ public interface EquationType {
         return yValues;
     }
 
+    /**
+     * Calculate the values for a whole data set into a caller supplied array.
+     * Point i uses the x values x[j][i] and the parameter map of its id,
+     * map[idNums[i]]. Equations override this to hoist work that is the same
+     * for many points out of the loop. The values are identical to calling
+     * calculate for each point.
+     *
+     * @param par the parameters
+     * @param map the parameter map for each id
+     * @param x the x values, indexed by x variable then point
+     * @param idNums the id of each point
+     * @param yCalc array (at least idNums.length long) that receives the
+     * calculated values
+     */
+    default void calculate(double[] par, int[][] map, double[][] x, int[] idNums, double[] yCalc) {
+        double[] ax = new double[x.length];
+        for (int i = 0; i < idNums.length; i++) {
+            for (int j = 0; j < ax.length; j++) {
+                ax[j] = x[j][i];
+            }
+            yCalc[i] = calculate(par, map[idNums[i]], ax, idNums[i]);
+        }
+    }
+
+    /**
+     * Calculate the value at a single point together with its derivatives with
+     * respect to the parameters used at that point. On return grad[k] holds
+     * the derivative with respect to par[map[k]]. Equations with a closed form
+     * override this with analytic derivatives, the default uses central
+     * differences.
+     *
+     * @param par the parameters
+     * @param map the indices into par of the parameters used at this point
+     * @param x the x values of the point
+     * @param idNum the id of the point
+     * @param grad array (at least map.length long) that receives the
+     * derivatives
+     * @return the calculated value
+     */
+    default double gradient(double[] par, int[] map, double[] x, int idNum, double[] grad) {
+        final double relStep = 1.0e-6;
+        double[] work = par.clone();
+        for (int k = 0; k < map.length; k++) {
+            int iPar = map[k];
+            double p = work[iPar];
+            double h = relStep * Math.max(Math.abs(p), relStep);
+            work[iPar] = p + h;
+            double vPlus = calculate(work, map, x, idNum);
+            work[iPar] = p - h;
+            double vMinus = calculate(work, map, x, idNum);
+            work[iPar] = p;
+            grad[k] = (vPlus - vMinus) / (2.0 * h);
+        }
+        return calculate(par, map, x, idNum);
+    }
+
     default void constrain(String parName, double[] guesses, double[][] boundaries, int[][] map, int id, double lower, double upper) {
         String[] parNames = getParNames();
         int index = -1;
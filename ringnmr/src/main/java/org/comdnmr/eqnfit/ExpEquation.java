@@ -42,6 +42,26 @@ public enum ExpEquation implements EquationType {
             return value;
         }
 
+        @Override
+        public void calculate(double[] par, int[][] map, double[][] x, int[] idNums, double[] yCalc) {
+            double[] delays = x[0];
+            for (int i = 0; i < idNums.length; i++) {
+                int[] idMap = map[idNums[i]];
+                yCalc[i] = par[idMap[0]] * Math.exp(-par[idMap[1]] * delays[i]);
+            }
+        }
+
+        @Override
+        public double gradient(double[] par, int[] map, double[] x, int idNum, double[] grad) {
+            double A = par[map[0]];
+            double R = par[map[1]];
+            double delay = x[0];
+            double expValue = Math.exp(-R * delay);
+            grad[0] = expValue;
+            grad[1] = -delay * A * expValue;
+            return A * expValue;
+        }
+
         @Override
         public double[] guess(double[][] xValues, double[] yValues, int[][] map, int[] idNums, int nID) {
             int nPars = ExpFitFunction.getNPars(map);
@@ -112,6 +132,28 @@ public enum ExpEquation implements EquationType {
             return value;
         }
 
+        @Override
+        public void calculate(double[] par, int[][] map, double[][] x, int[] idNums, double[] yCalc) {
+            double[] delays = x[0];
+            for (int i = 0; i < idNums.length; i++) {
+                int[] idMap = map[idNums[i]];
+                yCalc[i] = par[idMap[0]] * Math.exp(-par[idMap[1]] * delays[i]) + par[idMap[2]];
+            }
+        }
+
+        @Override
+        public double gradient(double[] par, int[] map, double[] x, int idNum, double[] grad) {
+            double A = par[map[0]];
+            double R = par[map[1]];
+            double C = par[map[2]];
+            double delay = x[0];
+            double expValue = Math.exp(-R * delay);
+            grad[0] = expValue;
+            grad[1] = -delay * A * expValue;
+            grad[2] = 1.0;
+            return A * expValue + C;
+        }
+
         @Override
         public double[] guess(double[][] xValues, double[] yValues, int[][] map, int[] idNums, int nID) {
             int nPars = ExpFitFunction.getNPars(map);
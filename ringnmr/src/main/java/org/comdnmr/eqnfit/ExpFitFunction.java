@@ -24,23 +24,26 @@ import java.util.stream.IntStream;
 
 import org.apache.commons.math3.optim.PointValuePair;
 import org.apache.commons.math3.random.RandomGenerator;
-import org.apache.commons.math3.random.SynchronizedRandomGenerator;
-import org.apache.commons.math3.random.Well19937c;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.util.FastMath;
 import org.comdnmr.util.CoMDOptions;
 
 public class ExpFitFunction extends FitFunction {
 
-    static RandomGenerator random = new SynchronizedRandomGenerator(new Well19937c());
     int[] r2Mask = {0, 1, 3};
     double[] rexErrors = new double[nID];
+    double[] yCalcBuffer = new double[0];
 
     public ExpFitFunction(CoMDOptions options) {
         super(options);
         this.equation = ExpEquation.EXPAB;
     }
 
+    @Override
+    FitFunction newInstance() {
+        return new ExpFitFunction(options);
+    }
+
     @Override
     public void setEquation(String eqName) {
         equation = ExpEquation.valueOf(eqName.toUpperCase());
@@ -74,6 +77,11 @@ public class ExpFitFunction extends FitFunction {
         return maxIndex + 1;
     }
 
+    @Override
+    boolean hasPointResiduals() {
+        return true;
+    }
+
     @Override
     public int[] getMask() {
         return r2Mask;
@@ -86,16 +94,16 @@ public class ExpFitFunction extends FitFunction {
 
     @Override
     public double value(double[] normPar) {
-        double[] par = deNormalize(normPar);
+        double[] par = deNormalizeToBuffer(normPar);
         double sumAbs = 0.0;
         double sumSq = 0.0;
-        double[] ax = new double[1];
+        if (yCalcBuffer.length != yValues.length) {
+            yCalcBuffer = new double[yValues.length];
+        }
+        double[] yCalc = yCalcBuffer;
+        equation.calculate(par, map, xValues, idNums, yCalc);
         for (int i = 0; i < yValues.length; i++) {
-            final double value;
-            ax[0] = xValues[0][i];
-            value = equation.calculate(par, map[idNums[i]], ax, idNums[i]);
-            //System.out.println( "xxxxxxxxxxx " + value + " " + yValues[i] + " " + equation.name());
-            double delta = (value - yValues[i]);
+            double delta = (yCalc[i] - yValues[i]);
             if (weightFit) {
                 delta /= errValues[i];
             }
@@ -141,11 +149,13 @@ public class ExpFitFunction extends FitFunction {
         rexErrors = new double[nID];
         String optimizer = options.getBootStrapOptimizer();
 
+        long seed = bootstrapSeed();
         for (int i = 0; i < nSim; i++) {
+            RandomGenerator random = replicateRandom(seed, i);
             for (int k = 0; k < yValues.length; k++) {
                 yValues[k] = yPred[k] + errValues[k] * random.nextGaussian();
             }
-            var resultOpt = refine(start, lowerBounds, upperBounds,
+            var resultOpt = refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 return Optional.empty();
@@ -190,7 +200,9 @@ public class ExpFitFunction extends FitFunction {
         String optimizer = options.getBootStrapOptimizer();
         AtomicBoolean failed = new AtomicBoolean(false);
 
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
 //        IntStream.range(0, nSim).forEach(i -> {
             ExpFitFunction rDisp = new ExpFitFunction(options, xValues, yPred, errValues, idNums);
             rDisp.setEquation(equation.getName());
@@ -201,8 +213,9 @@ public class ExpFitFunction extends FitFunction {
             rDisp.setXY(xValues, newY);
             rDisp.setIds(idNums);
             rDisp.setMap(map);
+            rDisp.setProfile(profile);
 
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 failed.set(true);
@@ -237,7 +250,9 @@ public class ExpFitFunction extends FitFunction {
         String optimizer = options.getBootStrapOptimizer();
         AtomicBoolean failed = new AtomicBoolean(false);
 
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
             ExpFitFunction rDisp = new ExpFitFunction(options, xValues, yValues, errValues, idNums);
             rDisp.setEquation(equation.getName());
             double[][] newX = new double[1][yValues.length];
@@ -260,8 +275,9 @@ public class ExpFitFunction extends FitFunction {
             rDisp.setErr(newErr);
             rDisp.setIds(newID);
             rDisp.setMap(map);
+            rDisp.setProfile(profile);
 
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 failed.set(true);
@@ -126,7 +126,6 @@ public class ExpFitter implements EquationFitter {
         this.dynSources = dynSources.clone();
         nResidues = dynSources.length;
         int id = 0;
-        experimentSet.setupMaps();
         stateCount = experimentSet.getStateCount(dynSources.length);
         Collection<Experiment> expDataList = experimentSet.getExperimentData();
         nCurves = dynSources.length * expDataList.size();
@@ -231,6 +230,7 @@ public class ExpFitter implements EquationFitter {
     @Override
     public Optional<FitResult> doFit(String eqn, double[] sliderguesses, CoMDOptions options) {
         setupFit(eqn);
+        startProfile(eqn, options);
 
         int[][] map = expModel.getMap();
         double[] guesses;
@@ -250,20 +250,7 @@ public class ExpFitter implements EquationFitter {
         }
         PointValuePair result = resultOpt.get();
         double[] pars = result.getPoint();
-        /*
-        for (int i = 0; i < map.length; i++) {
-            for (int j = 0; j < map[i].length; j++) {
-                System.out.printf(" %3d", map[i][j]);
-            }
-            System.out.println("");
-        }
-
-        System.out.print("Fit pars ");
-        for (int i = 0; i < pars.length; i++) {
-            System.out.printf(" %.3f", pars[i]);
-        }
-        System.out.println("");
-         */
+        recordParameters(guesses, boundaries, pars);
         FitQuality fitQuality = expModel.getFitQuality(pars);
 
 //        System.out.println("rms " + rms);
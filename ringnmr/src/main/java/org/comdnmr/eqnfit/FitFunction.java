@@ -19,6 +19,14 @@ package org.comdnmr.eqnfit;
 
 import org.apache.commons.math3.analysis.MultivariateFunction;
 import org.apache.commons.math3.exception.*;
+import org.apache.commons.math3.fitting.leastsquares.LeastSquaresBuilder;
+import org.apache.commons.math3.fitting.leastsquares.LeastSquaresOptimizer;
+import org.apache.commons.math3.fitting.leastsquares.LeastSquaresProblem;
+import org.apache.commons.math3.fitting.leastsquares.LevenbergMarquardtOptimizer;
+import org.apache.commons.math3.fitting.leastsquares.MultivariateJacobianFunction;
+import org.apache.commons.math3.fitting.leastsquares.ParameterValidator;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.optim.*;
 import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
 import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
@@ -26,7 +34,9 @@ import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.BOBYQAOptimizer;
 import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.CMAESOptimizer;
 import org.apache.commons.math3.random.MersenneTwister;
 import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 import org.apache.commons.math3.util.FastMath;
+import org.apache.commons.math3.util.Pair;
 import org.comdnmr.fit.FitQuality;
 import org.comdnmr.util.CoMDOptions;
 
@@ -40,7 +50,8 @@ import java.util.stream.IntStream;
  */
 public abstract class FitFunction implements MultivariateFunction {
 
-    // fixme is there a thread safe RandomGenerator
+    // Each instance owns its generator and is refined by one thread at a time;
+    // use copy() to refine the same data concurrently
     public final RandomGenerator DEFAULT_RANDOMGENERATOR = new MersenneTwister(1);
     CoMDOptions options;
     int reportAt = 10;
@@ -63,6 +74,10 @@ public abstract class FitFunction implements MultivariateFunction {
     double[] lowerBounds;
     double[] upperBounds;
     final boolean weightFit;
+    long randomSeed = 1;
+    double[] parBuffer = new double[0];
+    FitProfile profile = null;
+    FitProfile.Phase profilePhase = FitProfile.Phase.FIT;
 
     public class Checker extends SimpleValueChecker {
 
@@ -95,9 +110,70 @@ public abstract class FitFunction implements MultivariateFunction {
 
     public abstract void setEquation(String eqName);
 
+    abstract FitFunction newInstance();
+
+    /**
+     * Returns a new fit function of the same type that shares the data, equation
+     * and parameter map of this one. The copy has its own bounds, timing and
+     * random generator so it can be refined concurrently with other copies.
+     *
+     * @return the copy
+     */
+    public FitFunction copy() {
+        FitFunction copy = newInstance();
+        copy.equation = equation;
+        copy.xValues = xValues;
+        copy.yValues = yValues;
+        copy.errValues = errValues;
+        copy.fieldValues = fieldValues;
+        copy.idNums = idNums;
+        copy.nID = nID;
+        copy.map = map;
+        copy.profile = profile;
+        return copy;
+    }
+
+    /**
+     * Set the profile that records the refinements done by this fit function.
+     * Copies share the profile of the fit function they were made from.
+     *
+     * @param profile the profile, or null to turn off recording
+     */
+    public void setProfile(FitProfile profile) {
+        this.profile = profile;
+    }
+
+    public Optional<FitProfile> getProfile() {
+        return Optional.ofNullable(profile);
+    }
+
+    long profileBytes() {
+        return profile == null ? -1 : FitProfile.allocatedBytes();
+    }
+
+    void addRefinement(String optimizer, int evaluations, int iterations, long startNanos, long startBytes, String convergence) {
+        if (profile != null) {
+            long bytes = startBytes < 0 ? -1 : FitProfile.allocatedBytes() - startBytes;
+            profile.addRefinement(new FitProfile.Refinement(profilePhase, optimizer, evaluations, iterations,
+                    System.nanoTime() - startNanos, bytes, convergence));
+        }
+    }
+
+    /**
+     * Set the seed used to initialize the random generator at the start of
+     * each CMA-ES refinement.
+     *
+     * @param seed the seed
+     */
+    public void setRandomSeed(long seed) {
+        randomSeed = seed;
+    }
+
     public Optional<PointValuePair> refine(double[] guess, double[] lowerBounds, double[] upperBounds, double inputSigma, String type) {
         if (type.equals("BOBYQA")) {
             return refineBOBYQA(guess, lowerBounds, upperBounds, inputSigma);
+        } else if (type.equals("LM")) {
+            return refineLM(guess, lowerBounds, upperBounds, inputSigma);
         } else {
             return refineCMAES(guess, lowerBounds, upperBounds, inputSigma);
 
@@ -108,7 +184,7 @@ public abstract class FitFunction implements MultivariateFunction {
         this.lowerBounds = lowerBounds.clone();
         this.upperBounds = upperBounds.clone();
         startTime = System.currentTimeMillis();
-        DEFAULT_RANDOMGENERATOR.setSeed(1);
+        DEFAULT_RANDOMGENERATOR.setSeed(randomSeed);
         double lambdaMul = 5.0;
         int lambda = (int) (lambdaMul * FastMath.round(4 + 3 * FastMath.log(guess.length)));
         //int nSteps = guess.length*1000;
@@ -131,6 +207,8 @@ public abstract class FitFunction implements MultivariateFunction {
                 DEFAULT_RANDOMGENERATOR, true,
                 new CPMGFitFunction.Checker(tol, tol, nSteps));
         PointValuePair result = null;
+        long startNanos = System.nanoTime();
+        long startBytes = profileBytes();
 
         try {
             result = optimizer.optimize(
@@ -144,6 +222,8 @@ public abstract class FitFunction implements MultivariateFunction {
                   | MaxCountExceededException e) {
             e.printStackTrace();
         }
+        String convergence = result == null ? "failed" : optimizer.getIterations() >= nSteps ? "max iterations" : "converged";
+        addRefinement("CMA-ES", optimizer.getEvaluations(), optimizer.getIterations(), startNanos, startBytes, convergence);
         if (result == null) {
             return Optional.empty();
         }
@@ -158,7 +238,7 @@ public abstract class FitFunction implements MultivariateFunction {
         this.lowerBounds = lowerBounds.clone();
         this.upperBounds = upperBounds.clone();
         startTime = System.currentTimeMillis();
-        DEFAULT_RANDOMGENERATOR.setSeed(1);
+        DEFAULT_RANDOMGENERATOR.setSeed(randomSeed);
         double lambdaMul = 3.0;
         int lambda = (int) (lambdaMul * FastMath.round(4 + 3 * FastMath.log(guess.length)));
         //int nSteps = guess.length*1000;
@@ -181,6 +261,8 @@ public abstract class FitFunction implements MultivariateFunction {
 
         BOBYQAOptimizer optimizer = new BOBYQAOptimizer(nInterp, initialRadius, stopRadius);
         PointValuePair result = null;
+        long startNanos = System.nanoTime();
+        long startBytes = profileBytes();
 
         try {
             result = optimizer.optimize(
@@ -191,6 +273,9 @@ public abstract class FitFunction implements MultivariateFunction {
         } catch (Exception e) {
             e.printStackTrace();
         }
+        // BOBYQA has no iteration count, each evaluation is one step
+        String convergence = result == null ? "failed" : "stop radius";
+        addRefinement("BOBYQA", optimizer.getEvaluations(), optimizer.getEvaluations(), startNanos, startBytes, convergence);
         if (result == null) {
             return Optional.empty();
         }
@@ -201,6 +286,145 @@ public abstract class FitFunction implements MultivariateFunction {
         return Optional.of(deNormResult);
     }
 
+    /**
+     * Refine a bootstrap replicate. Replicates are small perturbations of the
+     * data, so when warm starting is enabled the replicate is first refined
+     * locally from the best-fit point with refineLM, which uses BOBYQA with a
+     * small trust radius where least squares can not be used. The
+     * bootstrap optimizer is run from the same point, with the full radius,
+     * only if that refinement fails.
+     *
+     * @param start the best-fit parameters
+     * @param lowerBounds the lower bounds
+     * @param upperBounds the upper bounds
+     * @param inputSigma the search radius used by the bootstrap optimizer
+     * @param type the bootstrap optimizer
+     * @return the refined parameters and objective value
+     */
+    public Optional<PointValuePair> refineReplicate(double[] start, double[] lowerBounds, double[] upperBounds, double inputSigma, String type) {
+        FitProfile.Phase phase = profilePhase;
+        profilePhase = FitProfile.Phase.BOOTSTRAP;
+        long startNanos = System.nanoTime();
+        try {
+            if (options.getWarmStartBootstrap()) {
+                double radius = Math.min(inputSigma, options.getWarmStartRadius());
+                var resultOpt = refineLM(start, lowerBounds, upperBounds, radius);
+                if (resultOpt.isPresent() && Double.isFinite(resultOpt.get().getValue())) {
+                    return resultOpt;
+                }
+            }
+            return refine(start, lowerBounds, upperBounds, inputSigma, type);
+        } finally {
+            profilePhase = phase;
+            if (profile != null) {
+                profile.addReplicate(System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    /**
+     * Returns true if the objective is a sum over data points that can each be
+     * calculated (with derivatives) by the equation, so the fit can be refined
+     * by least squares in refineLM.
+     *
+     * @return true if refineLM can be used
+     */
+    boolean hasPointResiduals() {
+        return false;
+    }
+
+    /**
+     * Refine with a Levenberg-Marquardt least squares optimizer using the
+     * derivatives supplied by EquationType.gradient. Parameters are kept within
+     * the bounds by clamping each trial point. Fits that can not be expressed
+     * as least squares (absolute value fits, or fit functions without point
+     * residuals) and fits where the optimizer fails are refined with BOBYQA
+     * instead.
+     *
+     * @param guess the starting parameters
+     * @param lowerBounds the lower bounds
+     * @param upperBounds the upper bounds
+     * @param inputSigma the search radius used if falling back to BOBYQA
+     * @return the refined parameters and objective value
+     */
+    public Optional<PointValuePair> refineLM(double[] guess, double[] lowerBounds, double[] upperBounds, double inputSigma) {
+        if (absMode || !hasPointResiduals()) {
+            return refineBOBYQA(guess, lowerBounds, upperBounds, inputSigma);
+        }
+        this.lowerBounds = lowerBounds.clone();
+        this.upperBounds = upperBounds.clone();
+        startTime = System.currentTimeMillis();
+        int nSteps = 1000;
+        double tol = Math.pow(10.0, options.getTolerance());
+        int nPoints = yValues.length;
+        int nPar = guess.length;
+        double[] target = new double[nPoints];
+        double[] scale = new double[nPoints];
+        for (int i = 0; i < nPoints; i++) {
+            scale[i] = weightFit ? 1.0 / errValues[i] : 1.0;
+            target[i] = yValues[i] * scale[i];
+        }
+        double[] start = new double[nPar];
+        for (int i = 0; i < nPar; i++) {
+            start[i] = Math.min(upperBounds[i], Math.max(lowerBounds[i], guess[i]));
+        }
+        MultivariateJacobianFunction model = point -> {
+            double[] par = point.toArray();
+            double[] values = new double[nPoints];
+            double[][] jacobian = new double[nPoints][nPar];
+            double[] ax = new double[xValues.length];
+            double[] grad = new double[nPar];
+            for (int i = 0; i < nPoints; i++) {
+                for (int j = 0; j < ax.length; j++) {
+                    ax[j] = xValues[j][i];
+                }
+                int[] parMap = map[idNums[i]];
+                values[i] = equation.gradient(par, parMap, ax, idNums[i], grad) * scale[i];
+                for (int k = 0; k < parMap.length; k++) {
+                    jacobian[i][parMap[k]] += grad[k] * scale[i];
+                }
+            }
+            return new Pair<>(new ArrayRealVector(values, false), new Array2DRowRealMatrix(jacobian, false));
+        };
+        ParameterValidator validator = point -> {
+            for (int i = 0; i < nPar; i++) {
+                double v = point.getEntry(i);
+                point.setEntry(i, Math.min(this.upperBounds[i], Math.max(this.lowerBounds[i], v)));
+            }
+            return point;
+        };
+        LeastSquaresProblem problem = new LeastSquaresBuilder()
+                .start(start)
+                .model(model)
+                .target(target)
+                .parameterValidator(validator)
+                .maxEvaluations(nSteps)
+                .maxIterations(nSteps)
+                .build();
+        LevenbergMarquardtOptimizer optimizer = new LevenbergMarquardtOptimizer()
+                .withCostRelativeTolerance(tol)
+                .withParameterRelativeTolerance(tol);
+        long startNanos = System.nanoTime();
+        long startBytes = profileBytes();
+        LeastSquaresOptimizer.Optimum optimum;
+        try {
+            optimum = optimizer.optimize(problem);
+        } catch (MathIllegalStateException | MathIllegalArgumentException e) {
+            addRefinement("LM", 0, 0, startNanos, startBytes, "failed");
+            return refineBOBYQA(guess, lowerBounds, upperBounds, inputSigma);
+        }
+        double[] point = optimum.getPoint().toArray();
+        double value = value(normalize(point));
+        String convergence = Double.isFinite(value) ? "converged" : "failed";
+        addRefinement("LM", optimum.getEvaluations(), optimum.getIterations(), startNanos, startBytes, convergence);
+        if (!Double.isFinite(value)) {
+            return refineBOBYQA(guess, lowerBounds, upperBounds, inputSigma);
+        }
+        endTime = System.currentTimeMillis();
+        fitTime = endTime - startTime;
+        return Optional.of(new PointValuePair(point, value));
+    }
+
     void fixGuesses(double[] guesses) {
         for (int i = 0; i < guesses.length; i++) {
             if (guesses[i] > 98.0) {
@@ -220,13 +444,62 @@ public abstract class FitFunction implements MultivariateFunction {
     }
 
     double[] deNormalize(double[] normPars) {
-        double[] pars = new double[normPars.length];
+        return deNormalize(normPars, new double[normPars.length]);
+    }
+
+    double[] deNormalize(double[] normPars, double[] pars) {
         for (int i = 0; i < pars.length; i++) {
             pars[i] = normPars[i] / 100.0 * (upperBounds[i] - lowerBounds[i]) + lowerBounds[i];
         }
         return pars;
     }
 
+    /**
+     * Denormalize parameters into a buffer owned by this instance, so the
+     * objective function can be evaluated without allocating. The returned
+     * array is overwritten on the next call.
+     *
+     * @param normPars the normalized parameters
+     * @return the parameters
+     */
+    double[] deNormalizeToBuffer(double[] normPars) {
+        if (parBuffer.length != normPars.length) {
+            parBuffer = new double[normPars.length];
+        }
+        return deNormalize(normPars, parBuffer);
+    }
+
+    /**
+     * Returns the seed from which the bootstrap replicate streams are derived.
+     * It combines the seed of this fit with the data being fit, so different
+     * residues draw different replicates while refitting the same data gives
+     * the same replicates.
+     *
+     * @return the seed
+     */
+    long bootstrapSeed() {
+        return mixSeed(31 * randomSeed + Arrays.hashCode(yValues));
+    }
+
+    /**
+     * Returns the random generator for one bootstrap replicate. Each replicate
+     * draws from its own stream, so the draws do not depend on which thread
+     * runs the replicate or in what order.
+     *
+     * @param seed the seed returned by bootstrapSeed
+     * @param iReplicate the replicate index
+     * @return the random generator
+     */
+    static RandomGenerator replicateRandom(long seed, int iReplicate) {
+        return new Well19937c(mixSeed(seed + 0x9E3779B97F4A7C15L * (iReplicate + 1)));
+    }
+
+    static long mixSeed(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     public double[] simY(double[] par) {
         double[] yCalc = equation.calculate(par, map[0], xValues, idNums[0]);
         return yCalc;
@@ -253,6 +526,14 @@ public abstract class FitFunction implements MultivariateFunction {
         this.xValues = x;
         this.yValues = y;
         this.idNums = new int[x[0].length];
+        dataChanged();
+    }
+
+    /**
+     * Called when the x values, ids or parameter map change, so subclasses
+     * can discard values cached from them.
+     */
+    void dataChanged() {
     }
 
     public void setErr(double[] err) {
@@ -276,6 +557,7 @@ public abstract class FitFunction implements MultivariateFunction {
 
     public void setIds(int[] idNums) throws IllegalArgumentException {
         this.idNums = idNums;
+        dataChanged();
         if (setNID()) {
             //for (int id : idNums) {
             //System.out.print(id + " ");
@@ -375,6 +657,7 @@ public abstract class FitFunction implements MultivariateFunction {
 
     public void setMap(int[][] map) {
         this.map = map;
+        dataChanged();
     }
 
     public void setMap(int[] stateCount, int[][] states) {
@@ -392,6 +675,7 @@ public abstract class FitFunction implements MultivariateFunction {
 //        System.out.println(" ");
         this.map = new int[states.length][stateCount.length];
         this.map = equation.makeMap(stateCount, states, getMask());
+        dataChanged();
 //        System.out.println("map ");
 //        for (int i = 0; i < map.length; i++) {
 //            for (int j = 0; j < map[i].length; j++) {
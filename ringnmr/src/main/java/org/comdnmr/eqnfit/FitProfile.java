@@ -0,0 +1,315 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.eqnfit;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records the work done by the optimizers while fitting one equation to one
+ * group of resonances: each refinement (optimizer, objective evaluations,
+ * iterations, time, allocated bytes and why it stopped), the multi-start
+ * tries, the bootstrap replicate times and the best-fit parameters. A profile
+ * is only created when fit profiling is turned on in CoMDOptions, and is
+ * shared by the copies and bootstrap replicates of the fit function, so the
+ * recording methods are synchronized.
+ *
+ * @author Bruce Johnson
+ */
+public class FitProfile {
+
+    public enum Phase {
+        FIT,
+        BOOTSTRAP
+    }
+
+    /**
+     * One optimizer run. allocatedBytes is -1 if the JVM can not measure
+     * allocation per thread.
+     */
+    public record Refinement(Phase phase, String optimizer, int evaluations, int iterations,
+                             long timeNanos, long allocatedBytes, String convergence) {
+    }
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+    private final String expType;
+    private final String equationName;
+    private String sources = "";
+    private final List<Refinement> refinements = new ArrayList<>();
+    private final List<Long> replicateNanos = new ArrayList<>();
+    private int nStarts = 0;
+    private int nTried = 0;
+    private int bestTry = -1;
+    private double[] guesses = new double[0];
+    private double[] lowerBounds = new double[0];
+    private double[] upperBounds = new double[0];
+    private double[] pars = new double[0];
+    private long fitTime = 0;
+    private long bootstrapTime = 0;
+
+    public FitProfile(String expType, String equationName) {
+        this.expType = expType;
+        this.equationName = equationName;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        return null;
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or -1 if this
+     * can not be measured
+     */
+    public static long allocatedBytes() {
+        return THREAD_BEAN == null ? -1 : THREAD_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    public String getExpType() {
+        return expType;
+    }
+
+    public String getEquationName() {
+        return equationName;
+    }
+
+    public synchronized String getSources() {
+        return sources;
+    }
+
+    public synchronized void setSources(String sources) {
+        this.sources = sources;
+    }
+
+    public synchronized void addRefinement(Refinement refinement) {
+        refinements.add(refinement);
+    }
+
+    public synchronized void addReplicate(long timeNanos) {
+        replicateNanos.add(timeNanos);
+    }
+
+    /**
+     * Record the outcome of a multi-start search.
+     *
+     * @param nStarts the number of starting points
+     * @param nTried the number of tries that were run
+     * @param bestTry the index of the best try
+     */
+    public synchronized void setSearch(int nStarts, int nTried, int bestTry) {
+        this.nStarts = nStarts;
+        this.nTried = nTried;
+        this.bestTry = bestTry;
+    }
+
+    /**
+     * Record the starting point, bounds and result of the best refinement.
+     */
+    public synchronized void setParameters(double[] guesses, double[] lowerBounds, double[] upperBounds, double[] pars) {
+        this.guesses = guesses.clone();
+        this.lowerBounds = lowerBounds.clone();
+        this.upperBounds = upperBounds.clone();
+        this.pars = pars.clone();
+    }
+
+    /**
+     * Record the wall clock times (ms) of the fit and the bootstrap, as
+     * reported in CurveFit.CurveFitStats.
+     */
+    public synchronized void setTimes(long fitTime, long bootstrapTime) {
+        this.fitTime = fitTime;
+        this.bootstrapTime = bootstrapTime;
+    }
+
+    public synchronized List<Refinement> getRefinements() {
+        return new ArrayList<>(refinements);
+    }
+
+    public synchronized int getRefinementCount(Phase phase) {
+        return (int) refinements.stream().filter(r -> r.phase() == phase).count();
+    }
+
+    public synchronized long getEvaluations(Phase phase) {
+        return refinements.stream().filter(r -> r.phase() == phase).mapToLong(Refinement::evaluations).sum();
+    }
+
+    public synchronized long getIterations(Phase phase) {
+        return refinements.stream().filter(r -> r.phase() == phase).mapToLong(Refinement::iterations).sum();
+    }
+
+    /**
+     * @return the summed optimizer time (ns) of the refinements in a phase,
+     * which can exceed the wall clock time when refinements run concurrently
+     */
+    public synchronized long getRefinementNanos(Phase phase) {
+        return refinements.stream().filter(r -> r.phase() == phase).mapToLong(Refinement::timeNanos).sum();
+    }
+
+    /**
+     * @return the bytes allocated by all refinements, or -1 if allocation
+     * could not be measured
+     */
+    public synchronized long getAllocatedBytes() {
+        long sum = 0;
+        for (Refinement refinement : refinements) {
+            if (refinement.allocatedBytes() < 0) {
+                return -1;
+            }
+            sum += refinement.allocatedBytes();
+        }
+        return sum;
+    }
+
+    /**
+     * @return the number of refinements in a phase that stopped for each
+     * reason
+     */
+    public synchronized Map<String, Integer> getConvergenceCounts(Phase phase) {
+        Map<String, Integer> counts = new TreeMap<>();
+        refinements.stream().filter(r -> r.phase() == phase)
+                .forEach(r -> counts.merge(r.convergence(), 1, Integer::sum));
+        return counts;
+    }
+
+    /**
+     * @return the time (ms) taken by each bootstrap replicate, in the order
+     * they finished
+     */
+    public synchronized double[] getReplicateTimes() {
+        return replicateNanos.stream().mapToDouble(t -> t / 1.0e6).toArray();
+    }
+
+    public synchronized int getStarts() {
+        return nStarts;
+    }
+
+    public synchronized int getTried() {
+        return nTried;
+    }
+
+    public synchronized int getBestTry() {
+        return bestTry;
+    }
+
+    public synchronized double[] getPars() {
+        return pars.clone();
+    }
+
+    public synchronized long getFitTime() {
+        return fitTime;
+    }
+
+    public synchronized long getBootstrapTime() {
+        return bootstrapTime;
+    }
+
+    public static String csvHeader() {
+        return "sources,expType,equation,fitTime,bootstrapTime,nStarts,nTried,bestTry,"
+                + "fitRefinements,fitEvaluations,fitIterations,fitConvergence,"
+                + "nReplicates,meanReplicateTime,maxReplicateTime,bootstrapEvaluations,bootstrapIterations,bootstrapConvergence,"
+                + "allocatedBytes";
+    }
+
+    /**
+     * @return a summary of the profile as one CSV row, with the columns in
+     * csvHeader
+     */
+    public synchronized String toCSV() {
+        double[] replicateTimes = getReplicateTimes();
+        double meanTime = 0.0;
+        double maxTime = 0.0;
+        for (double time : replicateTimes) {
+            meanTime += time;
+            maxTime = Math.max(maxTime, time);
+        }
+        if (replicateTimes.length > 0) {
+            meanTime /= replicateTimes.length;
+        }
+        StringBuilder sBuilder = new StringBuilder();
+        sBuilder.append('"').append(sources).append('"').append(',');
+        sBuilder.append(expType).append(',').append(equationName).append(',');
+        sBuilder.append(fitTime).append(',').append(bootstrapTime).append(',');
+        sBuilder.append(nStarts).append(',').append(nTried).append(',').append(bestTry).append(',');
+        sBuilder.append(getRefinementCount(Phase.FIT)).append(',');
+        sBuilder.append(getEvaluations(Phase.FIT)).append(',');
+        sBuilder.append(getIterations(Phase.FIT)).append(',');
+        sBuilder.append(convergenceString(Phase.FIT)).append(',');
+        sBuilder.append(replicateTimes.length).append(',');
+        sBuilder.append(String.format("%.3f", meanTime)).append(',');
+        sBuilder.append(String.format("%.3f", maxTime)).append(',');
+        sBuilder.append(getEvaluations(Phase.BOOTSTRAP)).append(',');
+        sBuilder.append(getIterations(Phase.BOOTSTRAP)).append(',');
+        sBuilder.append(convergenceString(Phase.BOOTSTRAP)).append(',');
+        sBuilder.append(getAllocatedBytes());
+        return sBuilder.toString();
+    }
+
+    private String convergenceString(Phase phase) {
+        StringBuilder sBuilder = new StringBuilder();
+        getConvergenceCounts(phase).forEach((reason, count) -> {
+            if (!sBuilder.isEmpty()) {
+                sBuilder.append(';');
+            }
+            sBuilder.append(reason).append(':').append(count);
+        });
+        return sBuilder.toString();
+    }
+
+    /**
+     * @return the full profile as nested maps and lists, suitable for writing
+     * as JSON
+     */
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("sources", sources);
+        map.put("expType", expType);
+        map.put("equation", equationName);
+        map.put("fitTime", fitTime);
+        map.put("bootstrapTime", bootstrapTime);
+        map.put("nStarts", nStarts);
+        map.put("nTried", nTried);
+        map.put("bestTry", bestTry);
+        map.put("guesses", guesses);
+        map.put("lowerBounds", lowerBounds);
+        map.put("upperBounds", upperBounds);
+        map.put("pars", pars);
+        map.put("allocatedBytes", getAllocatedBytes());
+        for (Phase phase : Phase.values()) {
+            Map<String, Object> phaseMap = new LinkedHashMap<>();
+            phaseMap.put("refinements", getRefinementCount(phase));
+            phaseMap.put("evaluations", getEvaluations(phase));
+            phaseMap.put("iterations", getIterations(phase));
+            phaseMap.put("refinementTime", getRefinementNanos(phase) / 1.0e6);
+            phaseMap.put("convergence", getConvergenceCounts(phase));
+            map.put(phase.name().toLowerCase(), phaseMap);
+        }
+        map.put("replicateTimes", getReplicateTimes());
+        return map;
+    }
+}
@@ -20,6 +20,7 @@ package org.comdnmr.eqnfit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.comdnmr.fit.FitQuality;
 import org.nmrfx.chemistry.relax.ResonanceSource;
@@ -110,6 +111,18 @@ public class FitResult {
         return curveFitStats;
     }
 
+    /**
+     * @return the optimizer profile of this fit, present only if fit profiling
+     * was turned on
+     */
+    public Optional<FitProfile> getProfile() {
+        return Optional.ofNullable(profile);
+    }
+
+    void setProfile(FitProfile profile) {
+        this.profile = profile;
+    }
+
     private final String[] fitParNames;
     private final List<CurveFit> curveFits = new ArrayList<>();
 
@@ -119,6 +132,7 @@ public class FitResult {
     private final Map<String, double[]> simsMap;
     private final boolean hasExchange;
     private final CurveFit.CurveFitStats curveFitStats;
+    private FitProfile profile = null;
 
     public FitResult(String[] fitParNames, List<CurveFit> curveFits, String equationName, int nGroupPars, FitQuality fitQuality,
             Map<String, double[]> simsMap, boolean hasExchange, CurveFit.CurveFitStats curveStats) {
@@ -0,0 +1,201 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.eqnfit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import org.apache.commons.math3.optim.PointValuePair;
+
+/**
+ * Runs a set of independent refinements of a FitFunction, each from its own
+ * starting point and bounds, and keeps the best. Each try is refined on its
+ * own copy of the fit function with its own random seed, so the tries can run
+ * concurrently and the result does not depend on the order they finish in.
+ *
+ * @author Bruce Johnson
+ */
+public class MultiStartSearch {
+
+    /**
+     * A starting point for one try, with the bounds used for that try.
+     */
+    public record Start(double[] guess, double[] lower, double[] upper) {
+    }
+
+    /**
+     * The best refinement found, the index of the try that produced it and the
+     * number of tries that were run.
+     */
+    public record Result(PointValuePair best, int bestTry, int nTried, long fitTime) {
+    }
+
+    final FitFunction fitFunction;
+    final double sigma;
+    final String optimizer;
+    boolean parallel = true;
+    int nConverged = 0;
+    double tolerance = 1.0e-5;
+
+    public MultiStartSearch(FitFunction fitFunction, double sigma, String optimizer) {
+        this.fitFunction = fitFunction;
+        this.sigma = sigma;
+        this.optimizer = optimizer;
+    }
+
+    /**
+     * Set whether the tries are refined concurrently.
+     *
+     * @param parallel true to run the tries in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Set the early exit rule. Once nConverged tries have reached the best
+     * objective value (within the relative tolerance) the tries that have not
+     * yet started are skipped. A value less than 1 runs all tries. As the
+     * skipped tries depend on which tries finish first, parallel searches that
+     * use early exit are not guaranteed to be reproducible.
+     *
+     * @param nConverged number of tries that must agree on the best value
+     * @param tolerance relative tolerance used to compare objective values
+     */
+    public void setEarlyExit(int nConverged, double tolerance) {
+        this.nConverged = nConverged;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Build starting points that spread the first parameter (kex) log-uniformly
+     * from 100 up to its upper bound, each with bounds that overlap the
+     * neighbouring tries.
+     *
+     * @param fitFunction the fit function used to calculate boundaries
+     * @param guesses the initial guesses
+     * @param nTries the number of tries
+     * @return the starting points
+     */
+    public static List<Start> kexStarts(FitFunction fitFunction, double[] guesses, int nTries) {
+        List<Start> starts = new ArrayList<>();
+        double[][] startBoundaries = fitFunction.boundaries(guesses);
+        if (nTries < 2) {
+            starts.add(new Start(guesses.clone(), startBoundaries[0], startBoundaries[1]));
+            return starts;
+        }
+        double maxVal = Math.log10(startBoundaries[1][0]);
+        double del10 = (maxVal - 2.0) / (nTries + 1);
+        for (int iTry = 0; iTry < nTries; iTry++) {
+            double[] startGuesses = guesses.clone();
+            double guessValue = Math.pow(10.0, 2.0 + del10 * iTry);
+            double guessPrev = iTry == 0 ? 0.0 : Math.pow(10.0, 2.0 + del10 * (iTry - 1.5));
+            double guessNext = Math.pow(10.0, 2.0 + del10 * (iTry + 1.5));
+            startGuesses[0] = guessValue;
+            double[][] testBoundaries = fitFunction.boundaries(startGuesses);
+            testBoundaries[0][0] = Math.max(0.0, guessPrev);
+            testBoundaries[1][0] = guessNext;
+            starts.add(new Start(startGuesses, testBoundaries[0], testBoundaries[1]));
+        }
+        return starts;
+    }
+
+    /**
+     * Refine from each of the starting points and return the best result. Ties
+     * are resolved in favour of the earliest try.
+     *
+     * @param starts the starting points
+     * @return the best result, or empty if any of the tries that ran failed
+     */
+    public Optional<Result> search(List<Start> starts) {
+        int nTries = starts.size();
+        PointValuePair[] results = new PointValuePair[nTries];
+        boolean[] tried = new boolean[nTries];
+        AtomicBoolean hadError = new AtomicBoolean(false);
+        AtomicBoolean done = new AtomicBoolean(false);
+        long startTime = System.currentTimeMillis();
+        IntStream tryStream = IntStream.range(0, nTries);
+        if (parallel && (nTries > 1)) {
+            tryStream = tryStream.parallel();
+        }
+        tryStream.forEach(iTry -> {
+            if (done.get() || hadError.get()) {
+                return;
+            }
+            Start start = starts.get(iTry);
+            FitFunction tryFunction = nTries == 1 ? fitFunction : fitFunction.copy();
+            tryFunction.setRandomSeed(iTry + 1L);
+            var resultOpt = tryFunction.refine(start.guess(), start.lower(), start.upper(), sigma, optimizer);
+            if (resultOpt.isEmpty()) {
+                hadError.set(true);
+            } else {
+                synchronized (results) {
+                    results[iTry] = resultOpt.get();
+                    tried[iTry] = true;
+                    if (converged(results)) {
+                        done.set(true);
+                    }
+                }
+            }
+        });
+        if (hadError.get()) {
+            return Optional.empty();
+        }
+        int bestTry = -1;
+        int nTried = 0;
+        for (int iTry = 0; iTry < nTries; iTry++) {
+            if (tried[iTry]) {
+                nTried++;
+                if ((bestTry == -1) || (results[iTry].getValue() < results[bestTry].getValue())) {
+                    bestTry = iTry;
+                }
+            }
+        }
+        if (bestTry == -1) {
+            return Optional.empty();
+        }
+        long fitTime = System.currentTimeMillis() - startTime;
+        fitFunction.fitTime = fitTime;
+        int best = bestTry;
+        int tried = nTried;
+        fitFunction.getProfile().ifPresent(profile -> profile.setSearch(nTries, tried, best));
+        return Optional.of(new Result(results[bestTry], bestTry, nTried, fitTime));
+    }
+
+    boolean converged(PointValuePair[] results) {
+        if (nConverged < 1) {
+            return false;
+        }
+        double best = Double.MAX_VALUE;
+        for (PointValuePair result : results) {
+            if ((result != null) && (result.getValue() < best)) {
+                best = result.getValue();
+            }
+        }
+        double limit = best + tolerance * Math.abs(best);
+        int nAtBest = 0;
+        for (PointValuePair result : results) {
+            if ((result != null) && (result.getValue() <= limit)) {
+                nAtBest++;
+            }
+        }
+        return nAtBest >= nConverged;
+    }
+}
@@ -104,6 +104,7 @@ public class NOEFit implements EquationFitter {
     @Override
     public Optional<FitResult> doFit(String eqn, double[] sliderguesses, CoMDOptions options) {
         setupFit(eqn);
+        startProfile(eqn, options);
 
         int[][] map = noeModel.getMap();
         double[] guesses;
@@ -125,6 +126,7 @@ public class NOEFit implements EquationFitter {
             result = resultOpt.get();
         }
         double[] pars = result.getPoint();
+        recordParameters(guesses, boundaries, pars);
 
         FitQuality fitQuality = noeModel.getFitQuality(pars);
 
@@ -214,7 +216,6 @@ public class NOEFit implements EquationFitter {
         this.dynSources = dynSources.clone();
         nResidues = dynSources.length;
         int id = 0;
-        experimentSet.setupMaps();
         stateCount = experimentSet.getStateCount(dynSources.length);
         Collection<Experiment> expDataList = experimentSet.getExperimentData();
         nCurves = dynSources.length * expDataList.size();
@@ -58,7 +58,7 @@ class NetworkLoader {
         return instance;
     }
 
-    public SavedModelBundle fetchNetwork(String path) {
+    public synchronized SavedModelBundle fetchNetwork(String path) {
         SavedModelBundle network;
         if (loadedNetworks.containsKey(path)) {
             network = loadedNetworks.get(path);
@@ -309,6 +309,7 @@ public enum R1RhoEquation implements R1RhoEquationType {
             DMatrixRMaj K1 = new DMatrixRMaj(K);
 
             DMatrixRMaj Z = new DMatrixRMaj(La.length, La[0].length);
+            BlochMcConnellEigenSolver eigenSolver = new BlochMcConnellEigenSolver(La.length);
             for (int i = 0; i < yCalc.length; i++) {
                 double omegaB1 = X[1][i] * TWO_PI;
                 double deltaA = (deltaA0 - X[0][i]) * X[3][i] * TWO_PI;
@@ -328,7 +329,7 @@ public enum R1RhoEquation implements R1RhoEquationType {
                 double delay = X[2][0];
 
 //                        yCalc[i] = R1RhoEquations.r1rhoExact(omegaB1, pb, kex, deltaA, deltaB, R1A, R1B, R2A, R2B);
-                yCalc[i] = R1RhoEquations.r1rhoExact(Z);
+                yCalc[i] = R1RhoEquations.r1rhoExact(eigenSolver, Z);
                 if (calCorr) {
                     double corr = calcInitialStateCorr(delay, omegaB1, deltaA, deltaB, pb);
                     yCalc[i] += corr;
@@ -399,13 +400,16 @@ public enum R1RhoEquation implements R1RhoEquationType {
             {0, 0, 0, 0, -R2B, 0}, //{0, 0, 0, deltaB, -R2B, -omegaB1[i]}
             {0, 0, 0, 0, 0, -R1B}}; //{0, 0, 0, 0, omegaB1[i], -R1B}
 
-            DMatrixRMaj La1 = new DMatrixRMaj(La);
-            DMatrixRMaj Lb1 = new DMatrixRMaj(Lb);
-            DMatrixRMaj K1 = new DMatrixRMaj(K);
-
-            DMatrixRMaj Z = new DMatrixRMaj(La.length, La[0].length);
-            double[] m0 = new double[La.length];
-            double[] m1 = new double[La.length];
+            int n = La.length;
+            double[] zBase = new double[n * n];
+            for (int row = 0; row < n; row++) {
+                for (int col = 0; col < n; col++) {
+                    zBase[row * n + col] = La[row][col] + Lb[row][col] + K[row][col];
+                }
+            }
+            BlochMcConnellPropagator propagator = new BlochMcConnellPropagator(n);
+            double[] m0 = new double[n];
+            double[] m1 = new double[n];
             for (int i = 0; i < yCalc.length; i++) {
                 double omegaB1 = X[1][i] * TWO_PI;
                 double deltaA = (deltaA0 - X[0][i]) * X[3][i] * TWO_PI;
@@ -419,21 +423,18 @@ public enum R1RhoEquation implements R1RhoEquationType {
                 m1[0] = sinA;
                 m1[2] = cosA;
 
-                La1.set(0, 1, -deltaA);
-                La1.set(1, 0, deltaA);
-                La1.set(1, 2, -omegaB1);
-                La1.set(2, 1, omegaB1);
-
-                Lb1.set(3, 4, -deltaB);
-                Lb1.set(4, 3, deltaB);
-                Lb1.set(4, 5, -omegaB1);
-                Lb1.set(5, 4, omegaB1);
+                propagator.set(zBase, delay);
+                propagator.set(0, 1, -deltaA * delay);
+                propagator.set(1, 0, deltaA * delay);
+                propagator.set(1, 2, -omegaB1 * delay);
+                propagator.set(2, 1, omegaB1 * delay);
 
-                CommonOps_DDRM.add(La1, Lb1, Z);
-                CommonOps_DDRM.addEquals(Z, K1);
-                CommonOps_DDRM.scale(delay, Z);
+                propagator.set(3, 4, -deltaB * delay);
+                propagator.set(4, 3, deltaB * delay);
+                propagator.set(4, 5, -omegaB1 * delay);
+                propagator.set(5, 4, omegaB1 * delay);
 //                        double r1rho = R1RhoEquations.r1rhoExact0(delay, omegaB1, pb, kex, deltaA, deltaB, R1A, R1B, R2A, R2B);
-                double r1rho = R1RhoEquations.r1rhoExact0(Z, m0, m1, delay);
+                double r1rho = R1RhoEquations.r1rhoExact0(propagator, m0, m1, delay);
                 yCalc[i] = r1rho;
             }
             return yCalc;
@@ -17,15 +17,7 @@
  */
 package org.comdnmr.eqnfit;
 
-import org.comdnmr.util.MtxExp;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import org.ejml.data.Complex_F64;
 import org.ejml.data.DMatrixRMaj;
-import org.ejml.dense.row.CommonOps_DDRM;
-import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
-import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
 
 /**
  *
@@ -154,13 +146,27 @@ public class R1RhoEquations {
         // R2A, R2B: R20 relaxation rate constants of A and B states
 
         // time delay is hard-coded below
-        DMatrixRMaj at = MtxExp.matrixExp(Z);
-        DMatrixRMaj v = new DMatrixRMaj(m0);
-        CommonOps_DDRM.mult(at, new DMatrixRMaj(m0), v);
-        double magA = 0.0;
+        int n = Z.getNumRows();
+        BlochMcConnellPropagator propagator = new BlochMcConnellPropagator(n);
+        propagator.set(Z.getData(), 1.0);
+        return r1rhoExact0(propagator, m0, m1, tdelay);
+    }
+
+    /**
+     * Exact R1rho from the decay of the magnetization along the effective
+     * field, using a propagator whose generator matrix (already multiplied by
+     * the delay) has been set by the caller.
+     *
+     * @param propagator the propagator
+     * @param m0 the initial magnetization
+     * @param m1 the direction the magnetization is detected along
+     * @param tdelay the relaxation delay
+     * @return R1rho
+     */
+    public static double r1rhoExact0(BlochMcConnellPropagator propagator, double[] m0, double[] m1, double tdelay) {
+        double magA = propagator.project(m1, m0);
         double magA0 = 0.0;
-        for (int i = 0; i < v.getNumRows(); i++) {
-            magA += m1[i] * v.get(i, 0);
+        for (int i = 0; i < m0.length; i++) {
             magA0 += m1[i] * m0[i];
         }
 
@@ -183,17 +189,22 @@ public class R1RhoEquations {
         // deltaB: offset of B state (angular units, 1/s)
         // R1A, R1B: R10 relaxation rate constants of A and B states
         // R2A, R2B: R20 relaxation rate constants of A and B states
-        List<Double> r1rho1 = new ArrayList<>();
-        WatchedDoubleStepQRDecomposition_DDRM eig = (WatchedDoubleStepQRDecomposition_DDRM) DecompositionFactory_DDRM.eig(Z.getNumCols(), true, false);
-        eig.decompose(Z);
-        int numEigVec = eig.getNumberOfEigenvalues();
-        for (int v = 0; v < numEigVec; v++) {
-            Complex_F64 ZEigVal = eig.getEigenvalue(v);
-            if (ZEigVal.isReal()) {
-                r1rho1.add(ZEigVal.getReal());
-            }
-        }
-        double r1rho = Math.abs(Collections.max(r1rho1));
+        return r1rhoExact(new BlochMcConnellEigenSolver(Z.getNumCols()), Z);
+    }
+
+    /**
+     * Exact R1rho from the least negative real eigenvalue of the
+     * Bloch-McConnell matrix. The solver is warm started from the eigenpair it
+     * found on its previous call, so one solver should be used for all the
+     * offsets of a profile.
+     *
+     * @param eigenSolver the eigenvalue solver
+     * @param Z the Bloch-McConnell matrix
+     * @return R1rho
+     * @throws IllegalStateException if Z has no real eigenvalue
+     */
+    public static double r1rhoExact(BlochMcConnellEigenSolver eigenSolver, DMatrixRMaj Z) {
+        double r1rho = Math.abs(eigenSolver.leastNegativeEigenvalue(Z));
         // original Python code for the above, starting from Z = ...:
         // Z = La+Lb+K
         // lam = np.linalg.eigvals(Z)
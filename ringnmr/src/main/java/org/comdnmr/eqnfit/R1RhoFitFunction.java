@@ -23,17 +23,17 @@ import java.util.stream.IntStream;
 
 import org.apache.commons.math3.optim.PointValuePair;
 import org.apache.commons.math3.random.RandomGenerator;
-import org.apache.commons.math3.random.SynchronizedRandomGenerator;
-import org.apache.commons.math3.random.Well19937c;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.util.FastMath;
 import org.comdnmr.util.CoMDOptions;
 
 public class R1RhoFitFunction extends FitFunction {
 
-    static RandomGenerator random = new SynchronizedRandomGenerator(new Well19937c());
     int[] r2Mask = {0, 1, 3};
     double[] rexErrors = new double[nID];
+    double[][][] idXValues = null;
+    int[][] idIndices = null;
+    double[] yCalcBuffer = new double[0];
     R1RhoEquations r1rhoEq = new R1RhoEquations();
 
     public R1RhoFitFunction(CoMDOptions options) {
@@ -41,6 +41,11 @@ public class R1RhoFitFunction extends FitFunction {
         this.equation = R1RhoEquation.TROTT_PALMER;
     }
 
+    @Override
+    FitFunction newInstance() {
+        return new R1RhoFitFunction(options);
+    }
+
     @Override
     public void setEquation(String eqName) {
         equation = R1RhoEquation.valueOf(eqName.toUpperCase());
@@ -81,17 +86,40 @@ public class R1RhoFitFunction extends FitFunction {
         return r2Mask;
     }
 
+    @Override
+    void dataChanged() {
+        idXValues = null;
+        idIndices = null;
+    }
+
+    /**
+     * Split the x values and indices by dataset id once, rather than on every
+     * evaluation of the objective function.
+     */
+    void setupIdValues() {
+        if ((idXValues == null) || (idXValues.length != map.length) || (yCalcBuffer.length != yValues.length)) {
+            idXValues = new double[map.length][][];
+            idIndices = new int[map.length][];
+            for (int id = 0; id < map.length; id++) {
+                idXValues[id] = CESTEquations.getXValues(xValues, idNums, id);
+                idIndices[id] = CESTEquations.getIndicies(idNums, id);
+            }
+            yCalcBuffer = new double[yValues.length];
+        }
+    }
+
     @Override
     public double value(double[] normPar) {
-        double[] par = deNormalize(normPar);
+        double[] par = deNormalizeToBuffer(normPar);
 
         double sumAbs = 0.0;
         double sumSq = 0.0;
-        double[] yCalc = new double[yValues.length];
+        setupIdValues();
+        double[] yCalc = yCalcBuffer;
         for (int id = 0; id < map.length; id++) {
-            double[][] x = CESTEquations.getXValues(xValues, idNums, id);
+            double[][] x = idXValues[id];
             double[] yCalc1 = equation.calculate(par, map[id], x, id);
-            int[] indicies = CESTEquations.getIndicies(idNums, id);
+            int[] indicies = idIndices[id];
             for (int i = 0; i < indicies.length; i++) {
                 yCalc[indicies[i]] = yCalc1[i];
             }
@@ -136,11 +164,13 @@ public class R1RhoFitFunction extends FitFunction {
         rexErrors = new double[nID];
         String optimizer = options.getBootStrapOptimizer();
 
+        long seed = bootstrapSeed();
         for (int i = 0; i < nSim; i++) {
+            RandomGenerator random = replicateRandom(seed, i);
             for (int k = 0; k < yValues.length; k++) {
                 yValues[k] = yPred[k] + errValues[k] * random.nextGaussian();
             }
-            var resultOpt = refine(start, lowerBounds, upperBounds,
+            var resultOpt = refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 return Optional.empty();
@@ -184,7 +214,9 @@ public class R1RhoFitFunction extends FitFunction {
         double[] yPred = getPredicted(start);
         String optimizer = options.getBootStrapOptimizer();
         AtomicBoolean foundError = new AtomicBoolean(false);
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
             R1RhoFitFunction rDisp = new R1RhoFitFunction(options, xValues, yPred, errValues, idNums);
             rDisp.setEquation(equation.getName());
             double[] newY = new double[yValues.length];
@@ -194,7 +226,8 @@ public class R1RhoFitFunction extends FitFunction {
             rDisp.setXY(xValues, newY);
             rDisp.setIds(idNums);
             rDisp.setMap(map);
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            rDisp.setProfile(profile);
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 foundError.set(true);
@@ -230,7 +263,9 @@ public class R1RhoFitFunction extends FitFunction {
         String optimizer = options.getBootStrapOptimizer();
         AtomicBoolean foundError = new AtomicBoolean(false);
 
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
             R1RhoFitFunction rDisp = new R1RhoFitFunction(options, xValues, yValues, errValues, idNums);
             rDisp.setEquation(equation.getName());
             double[][] newX = new double[xValues.length][yValues.length];
@@ -255,8 +290,9 @@ public class R1RhoFitFunction extends FitFunction {
             rDisp.setErr(newErr);
             rDisp.setIds(newID);
             rDisp.setMap(map);
+            rDisp.setProfile(profile);
 
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 foundError.set(true);
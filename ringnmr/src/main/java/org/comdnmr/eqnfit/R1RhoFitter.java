@@ -112,7 +112,6 @@ public class R1RhoFitter implements EquationFitter {
         }
         this.dynSources = dynSources.clone();
         nResidues = dynSources.length;
-        experimentSet.setupMaps();
         stateCount = experimentSet.getStateCount(dynSources.length);
         Collection<Experiment> expDataList = experimentSet.getExperimentData();
         nCurves = experimentSet.getDataCount(dynSources);
@@ -273,6 +272,7 @@ public class R1RhoFitter implements EquationFitter {
         List<CESTPeak> peaks = CESTEquations.cestPeakGuess(xy, "r1rho");
         if (peaks.size() >= 1) {
             setupFit(eqn);
+            startProfile(eqn, options);
             int[][] map = calcR1Rho.getMap();
             double[] guesses;
             if (sliderguesses != null) {
@@ -296,12 +296,10 @@ public class R1RhoFitter implements EquationFitter {
                         }
                     }
                 }
-
-                for (int i = 0; i < guesses.length; i++) {
-                    System.out.println(i + " bou0 " + boundaries[0][i] + " bou1 " + boundaries[1][i] + " gue " + guesses[i]);
-                }
-                var resultOpt = calcR1Rho.refine(guesses, boundaries[0],
-                        boundaries[1], sigma, options.getOptimizer());
+                MultiStartSearch multiStart = new MultiStartSearch(calcR1Rho, sigma, options.getOptimizer());
+                multiStart.setEarlyExit(options.getMultiStartConverged(), Math.pow(10.0, options.getTolerance()));
+                var resultOpt = multiStart.search(List.of(new MultiStartSearch.Start(guesses, boundaries[0], boundaries[1])))
+                        .map(MultiStartSearch.Result::best);
                 PointValuePair result;
 
                 if (resultOpt.isEmpty()) {
@@ -310,20 +308,7 @@ public class R1RhoFitter implements EquationFitter {
                     result = resultOpt.get();
                 }
                 double[] pars = result.getPoint();
-                System.out.println(eqn);
-
-                for (int[] map1 : map) {
-                    for (int j = 0; j < map1.length; j++) {
-                        System.out.printf(" %3d", map1[j]);
-                    }
-                    System.out.println("");
-                }
-
-                System.out.print("Fit pars ");
-                for (int i = 0; i < pars.length; i++) {
-                    System.out.printf(" %.3f", pars[i]);
-                }
-                System.out.println("");
+                recordParameters(guesses, boundaries, pars);
 
                 FitQuality fitQuality = calcR1Rho.getFitQuality(pars);
 
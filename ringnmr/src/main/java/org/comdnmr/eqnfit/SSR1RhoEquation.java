@@ -32,78 +32,58 @@ import org.comdnmr.util.CoMDPreferences;
 public enum SSR1RhoEquation implements EquationType {
 
     CSA("CSA", 0, "tauc", "s2") {
-
         @Override
-        // nu1 and nuR are both provided in kHz
-        public double calculate(double[] par, int[] map, double[] x, int idNum) {
-            // FIXME: During simulations, getting map = [1, 0]... not sure why
-            // expected tauc = par[map[0]] and s2 = par[map[1]]
-            double tauc = par[map[0]];
-            double s2 = par[map[1]];
-            double nu1kHz = x[0];
-            double nuRkHz = x[3];
-            double omega1 = 2.0e3 * Math.PI * nu1kHz;
-            double omegaR = 2.0e3 * Math.PI * nuRkHz;
-
+        RelaxEquations relaxEquations() {
             double b0 = 1.0e6 * CoMDPreferences.getRefField();
             // TODO: currently fixed to carbon
-            RelaxEquations relaxEquations = new RelaxEquations(b0, "H", "C");
-            double r1rho = relaxEquations.r1RhoCSA(omegaR, omega1, tauc, s2);
-            return r1rho;
+            return new RelaxEquations(b0, "H", "C");
+        }
+
+        @Override
+        double r1Rho(RelaxEquations relaxEquations, double omegaR, double omega1, double tauc, double s2) {
+            return relaxEquations.r1RhoCSA(omegaR, omega1, tauc, s2);
         }
     },
 
     DIPOLAR_IS("DIPOLAR_IS", 0, "tauc", "s2") {
         @Override
-        public double calculate(double[] par, int[] map, double[] x, int idNum) {
-            double tauc = par[map[0]];
-            double s2 = par[map[1]];
-            double nu1kHz = x[0];
-            double nuRkHz = x[3];
-            double omega1 = 2.0e3 * Math.PI * nu1kHz;
-            double omegaR = 2.0e3 * Math.PI * nuRkHz;
-
+        RelaxEquations relaxEquations() {
             double b0 = 1.0e6 * CoMDPreferences.getRefField();
             // TODO: Get nuclei
-            RelaxEquations relaxEquations = new RelaxEquations(b0, "H", "C");
-            double r1rho = relaxEquations.r1RhoIS(omegaR, omega1, tauc, s2);
-            return r1rho;
+            return new RelaxEquations(b0, "H", "C");
+        }
+
+        @Override
+        double r1Rho(RelaxEquations relaxEquations, double omegaR, double omega1, double tauc, double s2) {
+            return relaxEquations.r1RhoIS(omegaR, omega1, tauc, s2);
         }
     },
 
     DIPOLAR_AB("DIPOLAR_AB", 0, "tauc", "s2") {
         @Override
-        public double calculate(double[] par, int[] map, double[] x, int idNum) {
-            double tauc = par[map[0]];
-            double s2 = par[map[1]];
-            double nu1kHz = x[0];
-            double nuRkHz = x[3];
-            double omega1 = 2.0e3 * Math.PI * nu1kHz;
-            double omegaR = 2.0e3 * Math.PI * nuRkHz;
-
+        RelaxEquations relaxEquations() {
             double b0 = 1.0e6 * CoMDPreferences.getRefField();
             // TODO: Get nuclei
-            RelaxEquations relaxEquations = new RelaxEquations(b0, "H", "H");
-            double r1rho = relaxEquations.r1RhoAB(omegaR, omega1, tauc, s2);
-            return r1rho;
+            return new RelaxEquations(b0, "H", "H");
+        }
+
+        @Override
+        double r1Rho(RelaxEquations relaxEquations, double omegaR, double omega1, double tauc, double s2) {
+            return relaxEquations.r1RhoAB(omegaR, omega1, tauc, s2);
         }
     },
 
     DIPOLAR_AA("DIPOLAR_AA", 0, "tauc", "s2") {
         @Override
-        public double calculate(double[] par, int[] map, double[] x, int idNum) {
-            double tauc = par[map[0]];
-            double s2 = par[map[1]];
-            double nu1kHz = x[0];
-            double nuRkHz = x[3];
-            double omega1 = 2.0e3 * Math.PI * nu1kHz;
-            double omegaR = 2.0e3 * Math.PI * nuRkHz;
-
+        RelaxEquations relaxEquations() {
             double b0 = 1.0e6 * CoMDPreferences.getRefField();
             // TODO: Get nuclei
-            RelaxEquations relaxEquations = new RelaxEquations(b0, "H", "H");
-            double r1rho = relaxEquations.r1RhoAA(omegaR, omega1, tauc, s2);
-            return r1rho;
+            return new RelaxEquations(b0, "H", "H");
+        }
+
+        @Override
+        double r1Rho(RelaxEquations relaxEquations, double omegaR, double omega1, double tauc, double s2) {
+            return relaxEquations.r1RhoAA(omegaR, omega1, tauc, s2);
         }
     };
 
@@ -137,6 +117,37 @@ public enum SSR1RhoEquation implements EquationType {
         return nGroupPars;
     }
 
+    abstract RelaxEquations relaxEquations();
+
+    abstract double r1Rho(RelaxEquations relaxEquations, double omegaR, double omega1, double tauc, double s2);
+
+    // nu1 and nuR are both provided in kHz
+    @Override
+    public double calculate(double[] par, int[] map, double[] x, int idNum) {
+        // FIXME: During simulations, getting map = [1, 0]... not sure why
+        // expected tauc = par[map[0]] and s2 = par[map[1]]
+        double tauc = par[map[0]];
+        double s2 = par[map[1]];
+        double nu1kHz = x[0];
+        double nuRkHz = x[3];
+        double omega1 = 2.0e3 * Math.PI * nu1kHz;
+        double omegaR = 2.0e3 * Math.PI * nuRkHz;
+        return r1Rho(relaxEquations(), omegaR, omega1, tauc, s2);
+    }
+
+    @Override
+    public void calculate(double[] par, int[][] map, double[][] X, int[] idNums, double[] yCalc) {
+        RelaxEquations relaxEquations = relaxEquations();
+        double[] nu1kHz = X[0];
+        double[] nuRkHz = X[3];
+        for (int i = 0; i < idNums.length; i++) {
+            int[] idMap = map[idNums[i]];
+            double omega1 = 2.0e3 * Math.PI * nu1kHz[i];
+            double omegaR = 2.0e3 * Math.PI * nuRkHz[i];
+            yCalc[i] = r1Rho(relaxEquations, omegaR, omega1, par[idMap[0]], par[idMap[1]]);
+        }
+    }
+
     public double getMinX() {
         return 1.0;
     }
@@ -150,16 +161,28 @@ public enum SSR1RhoEquation implements EquationType {
         // TODO: should this be X.length or X[0].length?
         int n = X[0].length;
         double[] yCalc = new double[n];
-        double[] x = new double[X.length];
-        for (int i = 0; i < n; i++) {
-            for (int j=0;j<x.length;j++) {
-                x[j] = X[j][i];
-            }
-            yCalc[i] = calculate(par, map, x, idNum);
-        }
+        calculate(par, map, X, yCalc);
         return yCalc;
     }
 
+    /**
+     * Calculates every point with the same parameter map, as the single
+     * residue fits of {@link SSR1RhoFitFunction} do.
+     *
+     * @param par   the parameters
+     * @param map   the map of parameters used for every point
+     * @param X     the x values
+     * @param yCalc receives the value of each point
+     */
+    void calculate(double[] par, int[] map, double[][] X, double[] yCalc) {
+        RelaxEquations relaxEquations = relaxEquations();
+        for (int i = 0; i < X[0].length; i++) {
+            double omega1 = 2.0e3 * Math.PI * X[0][i];
+            double omegaR = 2.0e3 * Math.PI * X[3][i];
+            yCalc[i] = r1Rho(relaxEquations, omegaR, omega1, par[map[0]], par[map[1]]);
+        }
+    }
+
     // TODO: integrate with `map`
     public double[][] boundaries(
         double[] guesses,
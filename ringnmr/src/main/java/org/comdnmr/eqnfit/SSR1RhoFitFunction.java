@@ -2,8 +2,6 @@ package org.comdnmr.eqnfit;
 
 import org.apache.commons.math3.optim.PointValuePair;
 import org.apache.commons.math3.random.RandomGenerator;
-import org.apache.commons.math3.random.SynchronizedRandomGenerator;
-import org.apache.commons.math3.random.Well19937c;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.util.FastMath;
 import org.comdnmr.util.CoMDOptions;
@@ -14,7 +12,7 @@ import java.util.stream.IntStream;
 
 public class SSR1RhoFitFunction extends FitFunction {
 
-    static RandomGenerator random = new SynchronizedRandomGenerator(new Well19937c());
+    double[] yCalcBuffer = new double[0];
 
     public SSR1RhoFitFunction(CoMDOptions options) {
         super(options);
@@ -39,6 +37,11 @@ public class SSR1RhoFitFunction extends FitFunction {
         }
     }
 
+    @Override
+    FitFunction newInstance() {
+        return new SSR1RhoFitFunction(options);
+    }
+
     @Override
     public void setEquation(String eqName) {
         equation = SSR1RhoEquation.valueOf(eqName.toUpperCase());
@@ -62,9 +65,13 @@ public class SSR1RhoFitFunction extends FitFunction {
     // Currently only set up for simple case, without any mappings/IDs
     @Override
     public double value(double[] normPar) {
-        double[] par = deNormalize(normPar);
-        double[][] x = xValues;
-        double[] ys = equation.calculate(par, map[0], x, 0);
+        double[] par = deNormalizeToBuffer(normPar);
+        if (yCalcBuffer.length != yValues.length) {
+            yCalcBuffer = new double[yValues.length];
+        }
+        double[] ys = yCalcBuffer;
+        // every point uses the parameters of the first id
+        ((SSR1RhoEquation) equation).calculate(par, map[0], xValues, ys);
 
         double result = 0.0;
         for (int i = 0; i < ys.length; i++) {
@@ -101,7 +108,9 @@ public class SSR1RhoFitFunction extends FitFunction {
         String optimizer = options.getBootStrapOptimizer();
         AtomicBoolean failed = new AtomicBoolean(false);
 
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
 //        IntStream.range(0, nSim).forEach(i -> {
             ExpFitFunction rDisp = new ExpFitFunction(options, xValues, yPred, errValues, idNums);
             rDisp.setEquation(equation.getName());
@@ -112,8 +121,9 @@ public class SSR1RhoFitFunction extends FitFunction {
             rDisp.setXY(xValues, newY);
             rDisp.setIds(idNums);
             rDisp.setMap(map);
+            rDisp.setProfile(profile);
 
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 failed.set(true);
@@ -146,7 +156,9 @@ public class SSR1RhoFitFunction extends FitFunction {
         String optimizer = options.getBootStrapOptimizer();
         AtomicBoolean failed = new AtomicBoolean(false);
 
+        long seed = bootstrapSeed();
         IntStream.range(0, nSim).parallel().forEach(i -> {
+            RandomGenerator random = replicateRandom(seed, i);
             SSR1RhoFitFunction rDisp = new SSR1RhoFitFunction(options, xValues, yValues, errValues, idNums);
             rDisp.setEquation(equation.getName());
             double[][] newX = new double[xValues.length][yValues.length];
@@ -171,8 +183,9 @@ public class SSR1RhoFitFunction extends FitFunction {
             rDisp.setErr(newErr);
             rDisp.setIds(newID);
             rDisp.setMap(map);
+            rDisp.setProfile(profile);
 
-            var resultOpt = rDisp.refine(start, lowerBounds, upperBounds,
+            var resultOpt = rDisp.refineReplicate(start, lowerBounds, upperBounds,
                     inputSigma, optimizer);
             if (resultOpt.isEmpty()) {
                 failed.set(true);
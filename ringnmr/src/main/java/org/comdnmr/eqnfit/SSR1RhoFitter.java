@@ -52,6 +52,7 @@ public class SSR1RhoFitter implements EquationFitter {
     @Override
     public Optional<FitResult> doFit(String eqn, double[] sliderGuesses, CoMDOptions options) {
         setupFit(eqn);
+        startProfile(eqn, options);
         int[][] map = fitFunc.getMap();
         double[] guesses;
         if (sliderGuesses != null) {
@@ -68,6 +69,7 @@ public class SSR1RhoFitter implements EquationFitter {
         }
         PointValuePair result = resultOpt.get();
         double[] pars = result.getPoint();
+        recordParameters(guesses, boundaries, pars);
         FitQuality fitQuality = fitFunc.getFitQuality(pars);
         int nGroupPars = fitFunc.getNGroupPars();
         sigma /= 2.0;
@@ -22,6 +22,7 @@ import org.comdnmr.eqnfit.R1RhoFitter;
 import org.comdnmr.eqnfit.CESTEquation;
 import org.comdnmr.eqnfit.ExpEquation;
 import org.comdnmr.eqnfit.EquationType;
+import org.comdnmr.eqnfit.FitProfile;
 import org.comdnmr.eqnfit.FitResult;
 import org.comdnmr.eqnfit.R1RhoEquation;
 import org.comdnmr.eqnfit.SSR1RhoEquation;
@@ -34,13 +35,31 @@ import org.comdnmr.eqnfit.CPMGEquation;
 import org.comdnmr.util.ProcessingStatus;
 import org.comdnmr.data.ExperimentSet;
 import org.comdnmr.data.ExperimentResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
@@ -65,7 +84,8 @@ public class ResidueFitter {
     Function<Double, Double> updaterFunction;
     Function<ProcessingStatus, Double> statusFunction;
     List<List<ResonanceSource>> atomFitGroups = null;
-    FitResult fitResult;
+    final ConcurrentLinkedQueue<FitProfile> fitProfiles = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger fitRun = new AtomicInteger(0);
 
     public ResidueFitter(CoMDOptions options) {
         this.options = options;
@@ -82,6 +102,7 @@ public class ResidueFitter {
         experimentSet.setupMaps();
         this.atomFitGroups = null;
         experimentSet.clearResidueMap();
+        clearFitProfiles();
         fitAllAtoms(null);
         RelaxTypes relaxType = RelaxTypes.valueOf(experimentSet.getExpMode().toUpperCase());
         DataIO.addRelaxationFitResults(experimentSet, relaxType);
@@ -95,6 +116,7 @@ public class ResidueFitter {
         this.experimentSet = experimentSet;
         experimentSet.setupMaps();
         this.atomFitGroups = residueFitGroups;
+        clearFitProfiles();
         setProcessingOn();
         updateProgress(0.0);
         if (residueFitGroups == null) {
@@ -160,23 +182,14 @@ public class ResidueFitter {
     }
 
     public void fitAllResidueGroups(Task task) {
-        for (List<ResonanceSource> dynFitGroup : atomFitGroups) {
-            int nResidues = dynFitGroup.size();
-            int nFit = 0;
-            if (task.isCancelled()) {
-                break;
-            }
-            ResonanceSource[] dynGroup = new ResonanceSource[dynFitGroup.size()];
-            dynFitGroup.toArray(dynGroup);
-            List<ExperimentResult> resInfoList = fitResidues(experimentSet, dynGroup, nFit, null);
+        List<List<ExperimentResult>> groupResults = fitGroups(task, atomFitGroups);
+        for (List<ExperimentResult> resInfoList : groupResults) {
             resInfoList.forEach((resInfo) -> {
                 ResonanceSource dynSource = resInfo.getResonanceSource();
                 if (!dynSource.deleted()) {
                     experimentSet.addExperimentResult(dynSource, resInfo);
                 }
             });
-            nFit++;
-            updateProgress((1.0 * nFit) / nResidues);
         }
     }
 
@@ -218,28 +231,147 @@ public class ResidueFitter {
 
     public void fitAllAtoms(Task task) {
         List<List<ResonanceSource>> allAtoms = getAllAtoms();
-        int nGroups = allAtoms.size();
-        int nFit = 0;
-        for (List<ResonanceSource> atomList : allAtoms) {
-            if ((task != null) && task.isCancelled()) {
-                break;
-            }
-            ResonanceSource[] atomGroup = new ResonanceSource[atomList.size()];
-            atomList.toArray(atomGroup);
-            List<ExperimentResult> resInfoList = fitResidues(experimentSet, atomGroup, nFit, null);
+        List<List<ExperimentResult>> groupResults = fitGroups(task, allAtoms);
+        for (List<ExperimentResult> resInfoList : groupResults) {
             resInfoList.forEach((resInfo) -> {
                 ResonanceSource fitAtom = resInfo.getResonanceSource();
                 experimentSet.addExperimentResult(fitAtom, resInfo);
             });
-            nFit++;
-            if (task != null) {
-                updateProgress((1.0 * nFit) / nGroups);
+        }
+    }
+
+    /**
+     * Fit each group of resonance sources, running independent groups
+     * concurrently on a pool of {@link CoMDOptions#getFitThreads()} threads.
+     * The pool is a ForkJoinPool so the parallel bootstrap streams started
+     * within each fit run on the same threads rather than competing with them
+     * in the common pool. The state maps of the ExperimentSet are built once
+     * here, before any group is fit; the fitters only read them, as their
+     * setData methods do not rebuild the maps. Results are returned in group
+     * order, with only the groups completed before cancellation included, so
+     * they can be merged into the ExperimentSet on the calling thread.
+     * <p>
+     * If the calling thread is interrupted, as when the task is cancelled,
+     * groups that have not started are skipped and the groups in progress are
+     * waited for, so no group reports progress or changes the results after
+     * this returns. The profiles of the completed groups are added to those of
+     * the run, unless a new run has been started in the meantime.
+     *
+     * @param task the task used to check for cancellation and report progress,
+     * may be null
+     * @param groups the groups of resonance sources to fit
+     * @return the fit results for each completed group, in group order
+     */
+    List<List<ExperimentResult>> fitGroups(Task task, List<List<ResonanceSource>> groups) {
+        int nGroups = groups.size();
+        int run = fitRun.get();
+        AtomicReferenceArray<List<ExperimentResult>> groupResults = new AtomicReferenceArray<>(nGroups);
+        AtomicReferenceArray<List<FitProfile>> groupProfiles = new AtomicReferenceArray<>(nGroups);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        AtomicInteger nFit = new AtomicInteger(0);
+        experimentSet.setupMaps();
+        IntConsumer groupFitter = iGroup -> {
+            if (interrupted.get() || ((task != null) && task.isCancelled())) {
+                return;
+            }
+            List<ResonanceSource> atomList = groups.get(iGroup);
+            ResonanceSource[] atomGroup = new ResonanceSource[atomList.size()];
+            atomList.toArray(atomGroup);
+            List<FitProfile> profiles = new ArrayList<>();
+            List<ExperimentResult> results = fitGroup(experimentSet, atomGroup, iGroup, null, profiles);
+            // the profiles are set first, so they are there for every group
+            // with results
+            groupProfiles.set(iGroup, profiles);
+            groupResults.set(iGroup, results);
+            int nDone = nFit.incrementAndGet();
+            if ((task != null) && !task.isCancelled() && !interrupted.get()) {
+                updateProgress((1.0 * nDone) / nGroups);
+            }
+        };
+        int nThreads = Math.max(1, options.getFitThreads());
+        if ((nThreads == 1) || (nGroups < 2)) {
+            for (int iGroup = 0; iGroup < nGroups; iGroup++) {
+                groupFitter.accept(iGroup);
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(nThreads);
+            try {
+                // waiting on a CompletableFuture, unlike ForkJoinTask.get, never
+                // runs the stream on this thread, where its subtasks would go
+                // to the common pool
+                CompletableFuture.runAsync(() -> IntStream.range(0, nGroups).parallel().forEach(groupFitter), pool).get();
+            } catch (InterruptedException iE) {
+                interrupted.set(true);
+                pool.shutdownNow();
+                awaitTermination(pool);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException eE) {
+                Throwable cause = eE.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(cause);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        List<List<ExperimentResult>> results = new ArrayList<>();
+        List<FitProfile> profiles = new ArrayList<>();
+        for (int iGroup = 0; iGroup < nGroups; iGroup++) {
+            List<ExperimentResult> resInfoList = groupResults.get(iGroup);
+            if (resInfoList != null) {
+                results.add(resInfoList);
+                profiles.addAll(groupProfiles.get(iGroup));
             }
         }
+        addFitProfiles(run, profiles);
+        return results;
+    }
 
+    /**
+     * Waits for the groups in progress on a pool that has been shut down. The
+     * fits do not respond to interruption, so this waits until they finish,
+     * keeping any interrupt of the calling thread for later.
+     */
+    private static void awaitTermination(ForkJoinPool pool) {
+        boolean interrupted = false;
+        while (!pool.isTerminated()) {
+            try {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException iE) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts a new run of fits, forgetting the profiles of the previous one.
+     * A cancelled run that is still finishing its groups can then no longer
+     * add its profiles to those of the new run.
+     */
+    void clearFitProfiles() {
+        synchronized (fitProfiles) {
+            fitRun.incrementAndGet();
+            fitProfiles.clear();
+        }
+    }
+
+    private void addFitProfiles(int run, List<FitProfile> profiles) {
+        synchronized (fitProfiles) {
+            if (fitRun.get() == run) {
+                fitProfiles.addAll(profiles);
+            }
+        }
     }
 
     EquationFitter getFitter(CoMDOptions options) {
+        return getFitter(experimentSet, options);
+    }
+
+    EquationFitter getFitter(ExperimentSet experimentSet, CoMDOptions options) {
         EquationFitter fitter;
         switch (experimentSet.getExpMode()) {
             case "cpmg":
@@ -280,6 +412,23 @@ public class ResidueFitter {
     public List<ExperimentResult> fitResidues(ExperimentSet experimentSet, ResonanceSource[] dynSources, int groupId, String useEquation) {
         this.experimentSet = experimentSet;
         experimentSet.setupMaps();
+        List<FitProfile> profiles = new ArrayList<>();
+        List<ExperimentResult> results = fitGroup(experimentSet, dynSources, groupId, useEquation, profiles);
+        addFitProfiles(fitRun.get(), profiles);
+        return results;
+    }
+
+    /**
+     * Fit one group of resonance sources with each candidate equation. Unlike
+     * {@link #fitResidues(ExperimentSet, ResonanceSource[], int, String)} this
+     * does not rebuild the state maps of the ExperimentSet, so it can be called
+     * concurrently for different groups once the maps are set up. The profiles
+     * of the fits are added to {@code profiles} in the order of the equations
+     * rather than to those of the run, which are only added to once the
+     * group is known to belong to the current run.
+     */
+    List<ExperimentResult> fitGroup(ExperimentSet experimentSet, ResonanceSource[] dynSources, int groupId, String useEquation,
+                                    List<FitProfile> profiles) {
         Map<String, FitResult> fitResults = new HashMap<>();
         double aicMin = Double.MAX_VALUE;
         String bestEquation = "NOEX";
@@ -308,17 +457,24 @@ public class ResidueFitter {
             default:
                 throw new IllegalArgumentException("Invalid mode " + experimentSet.getExpMode());
         }
-        for (String equationName : equationNames) {
-            if ((useEquation != null) && !equationName.equals(useEquation)) {
-                continue;
-            }
-
-            EquationFitter equationFitter = getFitter(options);
-            equationFitter.setData(experimentSet, dynSources);
-            CoMDOptions options = new CoMDOptions(true);
-            var fitResultOpt = equationFitter.doFit(equationName, null, options);
-            if (fitResultOpt.isPresent()) {
-                fitResult = fitResultOpt.get();
+        List<String> fitEquations = equationNames.stream()
+                .filter(equationName -> (useEquation == null) || equationName.equals(useEquation))
+                .toList();
+        FitResult[] equationResults = new FitResult[fitEquations.size()];
+        IntConsumer equationFitter = iEqn -> {
+            var fitResultOpt = fitEquation(experimentSet, dynSources, fitEquations.get(iEqn));
+            fitResultOpt.ifPresent(fitResult -> equationResults[iEqn] = fitResult);
+        };
+        if (options.getParallelEquations() && (fitEquations.size() > 1)) {
+            IntStream.range(0, fitEquations.size()).parallel().forEach(equationFitter);
+        } else {
+            IntStream.range(0, fitEquations.size()).forEach(equationFitter);
+        }
+        for (int iEqn = 0; iEqn < fitEquations.size(); iEqn++) {
+            FitResult fitResult = equationResults[iEqn];
+            if (fitResult != null) {
+                fitResult.getProfile().ifPresent(profiles::add);
+                String equationName = fitEquations.get(iEqn);
                 fitResults.put(equationName, fitResult);
                 if (fitResult.getAicc() < aicMin) {
                     aicMin = fitResult.getAicc();
@@ -343,7 +499,7 @@ public class ResidueFitter {
             if ((useEquation != null) && !equationName.equals(useEquation)) {
                 continue;
             }
-            fitResult = fitResults.get(equationName);
+            FitResult fitResult = fitResults.get(equationName);
             if (fitResult != null) {
                 int nCurves = fitResult.getNCurves();
                 for (int iCurve = 0; iCurve < nCurves; iCurve++) {
@@ -357,8 +513,55 @@ public class ResidueFitter {
         return resInfoList;
     }
 
-    public FitResult getFitResult() {
-        return fitResult;
+    /**
+     * Fit one candidate equation to a group of resonance sources. Each call
+     * builds its own EquationFitter so the candidate equations for a group can
+     * be fit concurrently.
+     */
+    Optional<FitResult> fitEquation(ExperimentSet experimentSet, ResonanceSource[] dynSources, String equationName) {
+        EquationFitter equationFitter = getFitter(experimentSet, options);
+        equationFitter.setData(experimentSet, dynSources);
+        CoMDOptions options = new CoMDOptions(true);
+        return equationFitter.doFit(equationName, null, options);
+    }
+
+    /**
+     * Returns the profiles recorded by the fits since fitting was last
+     * started, with the most expensive fits (fit plus bootstrap time) first.
+     * Profiles are only recorded if fit profiling is turned on in the
+     * preferences.
+     *
+     * @return the profiles
+     */
+    public List<FitProfile> getFitProfiles() {
+        List<FitProfile> profiles = new ArrayList<>(fitProfiles);
+        profiles.sort(Comparator.comparingLong((FitProfile profile) -> profile.getFitTime() + profile.getBootstrapTime()).reversed());
+        return profiles;
+    }
+
+    /**
+     * Write a run report of the fit profiles. The report is JSON, with the
+     * details of each profile, if the file name ends with .json and otherwise
+     * CSV, with one summary row for each residue and equation.
+     *
+     * @param path the file to write
+     * @throws IOException if the file can't be written
+     */
+    public void writeProfileReport(Path path) throws IOException {
+        List<FitProfile> profiles = getFitProfiles();
+        if (path.getFileName().toString().toLowerCase().endsWith(".json")) {
+            ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            mapper.writeValue(path.toFile(), profiles.stream().map(FitProfile::toMap).toList());
+        } else {
+            try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+                writer.write(FitProfile.csvHeader());
+                writer.newLine();
+                for (FitProfile profile : profiles) {
+                    writer.write(profile.toCSV());
+                    writer.newLine();
+                }
+            }
+        }
     }
 
     private class FitResidues {
@@ -4,6 +4,9 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+
 /**
  * Nonparametric bootstrap sampler based on the spectral-density selection patterns
  * described by Crawley and Palmer (2021).
@@ -89,7 +92,18 @@ public class AmideNonparametricSampler<T extends RelaxDataValue> extends WeightS
      * @param data the relaxation data to be resampled
      */
     public AmideNonparametricSampler(MolDataValues<T> data) {
-        super(data);
+        this(data, RandomSource.XO_SHI_RO_128_PP.create());
+    }
+
+    /**
+     * Constructs a {@code AmideNonparametricSampler} that shuffles the bootstrap
+     * index space with the given RNG.
+     *
+     * @param data the relaxation data to be resampled
+     * @param rng  the random source
+     */
+    public AmideNonparametricSampler(MolDataValues<T> data, UniformRandomProvider rng) {
+        super(data, rng);
         iterator = generateIterator();
     }
 
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.comdnmr.modelfree.models.MFModelIso;
@@ -134,6 +135,12 @@ public class BaggingFitSpec extends FitSpec {
      *       {@code "BAGGING"}.</li>
      * </ol>
      *
+     * <p>The replicates are drawn from a random stream derived from the seed
+     * and residue key before any are fit, and the model fits of all replicates
+     * then run concurrently, so the result does not depend on the number of
+     * threads. The replicate time reported is the summed time of its model
+     * fits.</p>
+     *
      * <p><strong>Note on Score:</strong> The {@link Score} stored in the
      * returned {@link ModelFitResult} and passed to {@link #makeOrderPar} is
      * taken from the first replicate's best fit. This is a known limitation —
@@ -149,9 +156,9 @@ public class BaggingFitSpec extends FitSpec {
      */
     @Override
     public ModelFitResult fit(String key, MolDataValues<?> data, Map<String, OrderParSet> orderParSetMap) {
-        RelaxFit relaxFit = initRelaxFit(key, data);
-
+        List<String> names = getModelNames();
         List<MFModelIso> models = getModels(data);
+        int nModels = models.size();
         MFModelIso2sf model2sf = (MFModelIso2sf) getModel("2sf", data);
 
         // nParameters is 5 when tauM is free, 4 when it is fixed
@@ -159,22 +166,34 @@ public class BaggingFitSpec extends FitSpec {
         int nWeights = data.getNSpectralDensities();
         double[][] parameters = new double[nParameters][nReplicates];
         double[][] weights = new double[nWeights][nReplicates];
-        BootstrapSampler<? extends RelaxDataValue> sampler = getBootstrapSampler(data);
+        BootstrapSampler<? extends RelaxDataValue> sampler = getBootstrapSampler(data, getRandomSource(key, KEY));
+        List<MolDataValues<?>> replicates = drawReplicates(sampler);
+
+        // Fit every (replicate, model) pair concurrently, each task with its
+        // own copy of the replicate data, model and RelaxFit
+        Score[][] scores = new Score[nReplicates][nModels];
+        double[][] fitTimes = new double[nReplicates][nModels];
+        IntStream.range(0, nReplicates * nModels).parallel().forEach(task -> {
+            int i = task / nModels;
+            int iModel = task % nModels;
+            long startNs = System.nanoTime();
+            MolDataValues<?> replicateData = nModels == 1 ? replicates.get(i) : replicates.get(i).copy();
+            MFModelIso model = getModel(names.get(iModel), data);
+            replicateData.setTestModel(model);
+            scores[i][iModel] = runFit(initRelaxFit(key, replicateData), model);
+            fitTimes[i][iModel] = (System.nanoTime() - startNs) / 1_000_000.0;
+        });
 
         Score[] bestScores = new Score[nReplicates];
         double[] replicateTimes = new double[nReplicates];
         for (int i = 0; i < nReplicates; i++) {
-            long startNs = System.nanoTime();
-            MolDataValues<? extends RelaxDataValue> replicateData = sampler.sample();
-            relaxFit.setRelaxData(key, replicateData);
-
             Optional<Pair<Score, MFModelIso>> bestScoreModel = Optional.empty();
-            for (MFModelIso model : models) {
-                data.setTestModel(model);
-                Score score = runFit(relaxFit, model);
+            for (int iModel = 0; iModel < nModels; iModel++) {
+                Score score = scores[i][iModel];
                 if (bestScoreModel.isEmpty() || score.aicc().get() < bestScoreModel.get().getLeft().aicc().get()) {
-                    bestScoreModel = Optional.of(Pair.of(score, model));
+                    bestScoreModel = Optional.of(Pair.of(score, models.get(iModel)));
                 }
+                replicateTimes[i] += fitTimes[i][iModel];
             }
 
             if (bestScoreModel.isEmpty()) {
@@ -186,30 +205,31 @@ public class BaggingFitSpec extends FitSpec {
             // Convert the winning model's parameters to the canonical 2sf
             // representation so that all replicates are on a common scale.
             double[] replicateParameters = bestModel.getStandardPars(bestScores[i].getPars());
-            double[] replicateWeights = replicateData.getWeights();
+            double[] replicateWeights = replicates.get(i).getWeights();
             for (int k = 0; k < nParameters; k++) parameters[k][i] = replicateParameters[k];
             for (int j = 0; j < nWeights; j++) weights[j][i] = replicateWeights[j];
-            replicateTimes[i] = (System.nanoTime() - startNs) / 1_000_000.0;
         }
 
         Pair<double[], double[]> parameterEstimates = computeStatistics(parameters, weights);
         double[] fitParameters = parameterEstimates.getLeft();
         double[] fitErrors = parameterEstimates.getRight();
 
-        orderParSetMap.computeIfAbsent(KEY, ky -> new OrderParSet(ky));
+        List<OrderParValues> orderParValues = new ArrayList<>();
         // FIXME: the Score used here (bestScores[0]) is from the first
         // replicate's best fit. For bagging, there is no single score
         // over the original data; this should be revisited.
         OrderPar orderPar = makeOrderPar(
-            orderParSetMap.get(KEY),
+            orderParSetMap,
+            KEY,
             sampler.getOriginalData(),
             key,
             bestScores[0],
             model2sf,
             fitParameters,
-            fitErrors
+            fitErrors,
+            orderParValues
         );
 
-        return new ModelFitResult(orderPar, parameters, null, replicateTimes);
+        return new ModelFitResult(orderPar, parameters, null, replicateTimes, orderParValues);
     }
 }
@@ -1,6 +1,8 @@
 package org.comdnmr.modelfree;
 
+import org.apache.commons.rng.UniformRandomProvider;
 import org.apache.commons.rng.sampling.distribution.DirichletSampler;
+import org.apache.commons.rng.simple.RandomSource;
 
 /**
  * Bayesian bootstrap sampler that draws observation weights from a symmetric
@@ -29,7 +31,17 @@ public class BayesianSampler<T extends RelaxDataValue> extends WeightSampler<T>
      * @param data the relaxation data to be resampled
      */
     public BayesianSampler(MolDataValues<T> data) {
-        super(data);
+        this(data, RandomSource.XO_SHI_RO_128_PP.create());
+    }
+
+    /**
+     * Constructs a {@code BayesianSampler} that draws from the given RNG.
+     *
+     * @param data the relaxation data to be resampled
+     * @param rng  the random source
+     */
+    public BayesianSampler(MolDataValues<T> data, UniformRandomProvider rng) {
+        super(data, rng);
         dirichlet = DirichletSampler.symmetric(rng, getNSpectralDensities(), ALPHA);
     }
 
@@ -27,7 +27,8 @@ import org.apache.commons.rng.simple.RandomSource;
  *
  * <p>The RNG is an XoShiRo128++ generator from Apache Commons RNG. Passing
  * {@code seed = true} to the two-argument constructor fixes the seed to a
- * hard-coded value for reproducible results (e.g., in tests).
+ * hard-coded value for reproducible results (e.g., in tests). A seeded
+ * generator can also be supplied directly, as {@link FitSpec} does.
  */
 public abstract class BootstrapSampler<T extends RelaxDataValue> implements ObjectSampler<MolDataValues<T>> {
 
@@ -51,10 +52,21 @@ public abstract class BootstrapSampler<T extends RelaxDataValue> implements Obje
      *             reproducibility; if {@code false}, uses a random seed
      */
     public BootstrapSampler(MolDataValues<T> data, boolean seed) {
-        this.data = data;
-        this.rng = (seed) ?
+        this(data, (seed) ?
             RandomSource.XO_SHI_RO_128_PP.create(SEED) :
-            RandomSource.XO_SHI_RO_128_PP.create();
+            RandomSource.XO_SHI_RO_128_PP.create());
+    }
+
+    /**
+     * Constructs a {@code BootstrapSampler} that draws from the given RNG, so
+     * the replicates can be reproduced from the seed of that RNG.
+     *
+     * @param data the relaxation data to be resampled
+     * @param rng  the random source; must not be shared with other threads
+     */
+    public BootstrapSampler(MolDataValues<T> data, UniformRandomProvider rng) {
+        this.data = data;
+        this.rng = rng;
     }
 
     /**
@@ -10,6 +10,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.comdnmr.modelfree.models.MFModelIso;
 
@@ -240,7 +241,8 @@ public class ConventionalFitSpec extends FitSpec {
      * <ol>
      *   <li>Fits the original (non-resampled) data to obtain the reported
      *       parameter values.</li>
-     *   <li>Generates {@code nReplicates} bootstrap samples and fits each
+     *   <li>Generates {@code nReplicates} bootstrap samples, from a random
+     *       stream derived from the seed, residue key and model, and fits each
      *       to obtain a series of parameter estimates.</li>
      *   <li>Computes parameter errors from the bootstrap distribution
      *       (via the configured {@link BootstrapMode} strategy).</li>
@@ -249,6 +251,11 @@ public class ConventionalFitSpec extends FitSpec {
      *   <li>Compares the AICc to the current best and updates if improved.</li>
      * </ol>
      *
+     * <p>The fits to the original data and the replicate fits of all models
+     * run concurrently, each on its own copy of the data with its own
+     * {@link RelaxFit} and model instance. The replicates are drawn before any
+     * are fit, so the result does not depend on the number of threads.</p>
+     *
      * @param key            identifier for the relaxation data set
      * @param data           measured relaxation values for the residue
      * @param orderParSetMap mutable map to which {@link OrderParSet} entries
@@ -260,14 +267,22 @@ public class ConventionalFitSpec extends FitSpec {
      */
     @Override
     public ModelFitResult fit(String key, MolDataValues<?> data, Map<String, OrderParSet> orderParSetMap) {
-        RelaxFit relaxFit = initRelaxFit(key, data);
+        List<String> names = getModelNames();
         List<MFModelIso> models = getModels(data);
+        int nModels = models.size();
 
+        // Each task fits its own copy of the data with its own model and
+        // RelaxFit, as both are mutated while fitting
+        Score[] originalScores = new Score[nModels];
+        IntStream.range(0, nModels).parallel().forEach(iModel -> {
+            MolDataValues<?> modelData = data.copy();
+            MFModelIso model = getModel(names.get(iModel), data);
+            modelData.setTestModel(model);
+            originalScores[iModel] = runFit(initRelaxFit(key, modelData), model);
+        });
         Map<String, Score> originalFits = new HashMap<>();
-        for (MFModelIso model : models) {
-            data.setTestModel(model);
-            Score score = runFit(relaxFit, model);
-            originalFits.put(model.getName(), score);
+        for (int iModel = 0; iModel < nModels; iModel++) {
+            originalFits.put(models.get(iModel).getName(), originalScores[iModel]);
         }
         Map.Entry<String, Score> bestOriginalFit = Collections.min(
             originalFits.entrySet(),
@@ -284,64 +299,86 @@ public class ConventionalFitSpec extends FitSpec {
         );
         String bestModelName = bestOriginalFit.getKey();
 
+        // Draw the replicates for every model up front, each model from its own
+        // seeded stream, then fit all (model, replicate) pairs concurrently.
         int nWeights = data.getNSpectralDensities();
-        Optional<ModelFitResult> result =  Optional.empty();
+        List<BootstrapSampler<? extends RelaxDataValue>> samplers = new ArrayList<>();
+        List<List<MolDataValues<?>>> replicates = new ArrayList<>();
         for (MFModelIso model : models) {
-            data.setTestModel(model);
-            int nParameters = model.getNPars();
+            BootstrapSampler<? extends RelaxDataValue> sampler = getBootstrapSampler(data, getRandomSource(key, model.getName()));
+            samplers.add(sampler);
+            replicates.add(drawReplicates(sampler));
+        }
+        double[][][] parameters = new double[nModels][][];
+        double[][][] weights = new double[nModels][nWeights][nReplicates];
+        double[][] replicateTimes = new double[nModels][nReplicates];
+        for (int iModel = 0; iModel < nModels; iModel++) {
+            parameters[iModel] = new double[models.get(iModel).getNPars()][nReplicates];
+        }
+        IntStream.range(0, nModels * nReplicates).parallel().forEach(task -> {
+            int iModel = task / nReplicates;
+            int i = task % nReplicates;
+            long startNs = System.nanoTime();
+            MolDataValues<?> replicateData = replicates.get(iModel).get(i);
+            MFModelIso model = getModel(names.get(iModel), data);
+            replicateData.setTestModel(model);
+            Score replicateScore = runFit(initRelaxFit(key, replicateData), model);
+            double[] replicateParameters = replicateScore.getPars();
+            double[] replicateWeights = replicateData.getWeights();
+            for (int k = 0; k < parameters[iModel].length; k++) parameters[iModel][k][i] = replicateParameters[k];
+            for (int j = 0; j < nWeights; j++) weights[iModel][j][i] = replicateWeights[j];
+            replicateTimes[iModel][i] = (System.nanoTime() - startNs) / 1_000_000.0;
+        });
 
-            // Perform bootstrapping to estimate parameter errors
-            double[][] parameters = new double[nParameters][nReplicates];
-            double[][] weights = new double[nWeights][nReplicates];
-            double[] currentReplicateTimes = new double[nReplicates];
-            BootstrapSampler<? extends RelaxDataValue> sampler = getBootstrapSampler(data);
-            for (int i = 0; i < nReplicates; i++) {
-                long startNs = System.nanoTime();
-                MolDataValues<? extends RelaxDataValue> replicateData = sampler.sample();
-                relaxFit.setRelaxData(key, replicateData);
-                Score replicateScore = runFit(relaxFit, model);
-                double[] replicateParameters = replicateScore.getPars();
-                double[] replicateWeights = replicateData.getWeights();
-                for (int k = 0; k < nParameters; k++) parameters[k][i] = replicateParameters[k];
-                for (int j = 0; j < nWeights; j++) weights[j][i] = replicateWeights[j];
-                currentReplicateTimes[i] = (System.nanoTime() - startNs) / 1_000_000.0;
-            }
+        List<OrderParValues> orderParValues = new ArrayList<>();
+        int iBest = -1;
+        double[] bestErrors = null;
+        for (int iModel = 0; iModel < nModels; iModel++) {
+            MFModelIso model = models.get(iModel);
+            data.setTestModel(model);
+            BootstrapSampler<? extends RelaxDataValue> sampler = samplers.get(iModel);
 
             String modelName = model.getName();
             double[] fitParameters = originalFits.get(modelName).pars;
-            double[] fitErrors = computeStatistics(parameters, weights).getRight();
+            double[] fitErrors = computeStatistics(parameters[iModel], weights[iModel]).getRight();
 
-            String resultKey = makeKey(model.getName());
-            orderParSetMap.computeIfAbsent(resultKey, ky -> new OrderParSet(ky));
             makeOrderPar(
-                orderParSetMap.get(resultKey),
+                orderParSetMap,
+                makeKey(model.getName()),
                 sampler.getOriginalData(),
                 key,
                 originalFits.get(modelName),
                 model,
                 fitParameters,
-                fitErrors
+                fitErrors,
+                orderParValues
             );
-
-            // Bit hacky, but I'm simply making a duplicate element in the
-            // OrderParSetMap for the "optimal" model.
-            if (modelName == bestModelName) {
-                String bestKey = KEY + "-BEST";
-                orderParSetMap.computeIfAbsent(bestKey, ky -> new OrderParSet(ky));
-                OrderPar bestOrderPar = makeOrderPar(
-                    orderParSetMap.get(bestKey),
-                    sampler.getOriginalData(),
-                    key,
-                    originalFits.get(modelName),
-                    model,
-                    fitParameters,
-                    fitErrors
-                );
-                result = Optional.of(new ModelFitResult(bestOrderPar, parameters, null, currentReplicateTimes));
+            if (modelName.equals(bestModelName)) {
+                iBest = iModel;
+                bestErrors = fitErrors;
             }
         }
+        if (iBest < 0) {
+            throw new AssertionError("`result` shouldn't be empty here");
+        }
 
-        return result.orElseThrow(() -> new AssertionError("`result` shouldn't be empty here"));
+        // Bit hacky, but I'm simply making a duplicate element in the
+        // OrderParSetMap for the "optimal" model. It is made last so that it
+        // is the last of the stored order parameter values.
+        MFModelIso bestModel = models.get(iBest);
+        data.setTestModel(bestModel);
+        OrderPar bestOrderPar = makeOrderPar(
+            orderParSetMap,
+            KEY + "-BEST",
+            samplers.get(iBest).getOriginalData(),
+            key,
+            originalFits.get(bestModelName),
+            bestModel,
+            originalFits.get(bestModelName).pars,
+            bestErrors,
+            orderParValues
+        );
+        return new ModelFitResult(bestOrderPar, parameters[iBest], null, replicateTimes[iBest], orderParValues);
     }
 
     /**
@@ -31,6 +31,11 @@ public class DeuteriumDataValue extends RelaxDataValue {
     @Override public double[] getObservableErrors()  { return new double[]{R1err, R2err, rQError, rAPError}; }
     @Override public void setObservables(double[] v) { R1 = v[0]; R2 = v[1]; rQ = v[2]; rAP = v[3]; }
 
+    @Override
+    public DeuteriumDataValue copy(MolDataValues<?> molDataValue) {
+        return new DeuteriumDataValue(molDataValue, R1, R1err, R2, R2err, rQ, rQError, rAP, rAPError, relaxObj);
+    }
+
     public void randomize(MolDataValues<DeuteriumDataValue> molData, double r1, double r2,
                           double rQ, double rAP, Random random, double scale) {
         double newR1 = r1 + random.nextGaussian() * scale * R1err;
@@ -2,6 +2,8 @@ package org.comdnmr.modelfree;
 
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 
@@ -9,9 +11,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class DeuteriumMapping {
-    static Random random = new Random();
+    static final int N_REPLICATES = 500;
     static double[][] elements = {
             {0.0, 1.0, 4.0},
             {3.0 / 2.0, 5.0 / 2.0, 1.0},
@@ -56,6 +59,27 @@ public class DeuteriumMapping {
     }
 
     public static double[][] jointMapping(List<Double> rValueList, List<Double> errValueList, List<Double> fields, boolean[] typeUsage) {
+        return jointMapping(rValueList, errValueList, fields, typeUsage, N_REPLICATES, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Maps the spectral densities jointly over all fields. Errors come from a
+     * parametric bootstrap: replicates perturb the back-calculated rates by
+     * their errors and are refit. Only the right-hand side differs between
+     * replicates, so the weighted design matrix is factored once and all
+     * replicates are solved together.
+     *
+     * @param rValueList   relaxation rates, grouped by field
+     * @param errValueList errors of the rates
+     * @param fields       deuterium frequency of each field
+     * @param typeUsage    which of R1, R2, RQ and RAP are present
+     * @param nReplicates  number of bootstrap replicates, including the fit
+     *                     to the data; with 1 the regression errors are used
+     * @param random       source of the perturbations
+     * @return fields, J values, errors, the same per input frequency, and weights
+     */
+    public static double[][] jointMapping(List<Double> rValueList, List<Double> errValueList, List<Double> fields,
+                                          boolean[] typeUsage, int nReplicates, Random random) {
         int nRows = rValueList.size();
         double[] rValues = rValueList.stream()
                 .mapToDouble(Double::doubleValue)
@@ -139,35 +163,35 @@ public class DeuteriumMapping {
         }
 
         try {
-            int nReplicates = 500;
             double[][] jValuesRep = new double[nCols][nReplicates];
-            double[][] errs = new double[nCols][nReplicates];
             double[] jValues = new double[nCols];
+            double[] rTemp = new double[nRows];
+            for (int i = 0; i < nRows; i++) {
+                rTemp[i] = rValues[i] / errValueList.get(i);
+            }
             OLSMultipleLinearRegression olsMultipleLinearRegression = new OLSMultipleLinearRegression();
             olsMultipleLinearRegression.setNoIntercept(true);
-            for (int iRep = 0; iRep < nReplicates; iRep++) {
-                double[] rTemp = new double[rValues.length];
-                if (iRep == 0) {
-                    for (int i = 0; i < nRows; i++) {
-                        rTemp[i] = rValues[i] / errValueList.get(i);
-                    }
-                } else {
+            olsMultipleLinearRegression.newSampleData(rTemp, matrix.getData());
+            double[] jValues0 = olsMultipleLinearRegression.estimateRegressionParameters();
+            double[] errs0 = olsMultipleLinearRegression.estimateRegressionParametersStandardErrors();
+            for (int i = 0; i < nCols; i++) {
+                jValuesRep[i][0] = jValues0[i];
+            }
+            if (nReplicates > 1) {
+                // the weighted back-calculated rates plus unit normal noise,
+                // one column per replicate
+                double[] rFit = matrix.operate(jValues0);
+                double[][] rReplicates = new double[nRows][nReplicates - 1];
+                for (int iRep = 0; iRep < nReplicates - 1; iRep++) {
                     for (int row = 0; row < nRows; row++) {
-                        rTemp[row] = (rValues[row] + random.nextGaussian() * errValueList.get(row)) / errValueList.get(row);
-
+                        rReplicates[row][iRep] = rFit[row] + random.nextGaussian();
                     }
                 }
-                olsMultipleLinearRegression.newSampleData(rTemp, matrix.getData());
-                double[] jValues1 = olsMultipleLinearRegression.estimateRegressionParameters();
-                double[] errs1 = olsMultipleLinearRegression.estimateRegressionParametersStandardErrors();
-                for (int i = 0; i < jValues1.length; i++) {
-                    jValuesRep[i][iRep] = jValues1[i];
-                    errs[i][iRep] = errs1[i];
-                }
-                if (iRep == 0) {
-                    rValues = matrix.operate(jValues1);
-                    for (int ii = 0; ii < rValues.length; ii++) {
-                        rValues[ii] *= errValueList.get(ii);
+                RealMatrix solution = new QRDecomposition(matrix).getSolver()
+                        .solve(new Array2DRowRealMatrix(rReplicates, false));
+                for (int i = 0; i < nCols; i++) {
+                    for (int iRep = 0; iRep < nReplicates - 1; iRep++) {
+                        jValuesRep[i][iRep + 1] = solution.getEntry(i, iRep);
                     }
                 }
             }
@@ -177,7 +201,7 @@ public class DeuteriumMapping {
             for (int i = 0; i < jValues.length; i++) {
                 if (nReplicates == 1) {
                     jValues[i] = jValuesRep[i][0] / scale;
-                    jErrors[i] = errs[i][0] / scale;
+                    jErrors[i] = errs0[i] / scale;
                 } else {
                     DescriptiveStatistics sumStat = new DescriptiveStatistics(jValuesRep[i]);
                     jValues[i] = sumStat.getMean() / scale;
@@ -12,6 +12,7 @@ public class DeuteriumMolDataValues extends MolDataValues<DeuteriumDataValue> {
     }
     public DeuteriumMolDataValues(Atom atom, double[] vector) { super(atom, vector); }
     public DeuteriumMolDataValues(Atom atom)                  { super(atom); }
+    private DeuteriumMolDataValues(DeuteriumMolDataValues source) { super(source); }
 
     @Override
     public double[][] calcJ() {
@@ -60,4 +61,9 @@ public class DeuteriumMolDataValues extends MolDataValues<DeuteriumDataValue> {
     public MolDataValues<DeuteriumDataValue> createEmpty() {
         return new DeuteriumMolDataValues(atom, vector);
     }
+
+    @Override
+    protected MolDataValues<DeuteriumDataValue> emptyCopy() {
+        return new DeuteriumMolDataValues(this);
+    }
 }
@@ -2,6 +2,9 @@ package org.comdnmr.modelfree;
 
 import java.util.*;
 
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+
 /**
  * Nonparametric bootstrap sampler for deuterium relaxation data.
  *
@@ -21,7 +24,11 @@ public class DeuteriumNonparametricSampler extends WeightSampler<DeuteriumDataVa
     private final int nBootstraps;
 
     public DeuteriumNonparametricSampler(MolDataValues<DeuteriumDataValue> data) {
-        super(data);
+        this(data, RandomSource.XO_SHI_RO_128_PP.create());
+    }
+
+    public DeuteriumNonparametricSampler(MolDataValues<DeuteriumDataValue> data, UniformRandomProvider rng) {
+        super(data, rng);
         List<int[]> allWeights = enumerate(getNSpectralDensities());
         Collections.shuffle(allWeights, new Random(rng.nextLong()));
         nBootstraps = allWeights.size();
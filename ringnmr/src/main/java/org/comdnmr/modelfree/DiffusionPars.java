@@ -6,8 +6,6 @@
 package org.comdnmr.modelfree;
 
 import org.comdnmr.modelfree.RelaxFit.DiffusionType;
-import org.ejml.data.DMatrixRMaj;
-import org.ejml.dense.row.CommonOps_DDRM;
 
 /**
  *
@@ -19,6 +17,9 @@ public class DiffusionPars {
     public double[] dDiff;
     public double[] a;
     public double[] v;
+    // reused by getDf, so a model can be updated and evaluated repeatedly
+    // without allocating
+    private double[] df;
 
     public DiffusionPars(DiffusionType diffType, double[] v) {
         this.diffType = diffType;
@@ -53,10 +54,12 @@ public class DiffusionPars {
         double Dy = D[1][1];
         double Dz = D[2][2];
 //        System.out.println("Dx = " + Dx + " Dy = " + Dy + " Dz = " + Dz);
-        dDiff = new double[3];
+        int nTerms = diffType == DiffusionType.ANISOTROPIC ? 5 : 3;
+        if (dDiff == null || dDiff.length != nTerms) {
+            dDiff = new double[nTerms];
+        }
         switch (diffType) {
             case ANISOTROPIC:
-                dDiff = new double[5];
                 double[] k = {Dy - Dx, Dz - Dx, (Dx + Dy + Dz) / 3.0, 0};
                 k[3] = Math.sqrt(k[0] * k[0] - k[0] * k[1] + k[1] * k[1]);
                 dDiff[0] = 4.0 * Dx + Dy + Dz;
@@ -103,20 +106,19 @@ public class DiffusionPars {
         double Dx = D[0][0];
         double Dy = D[1][1];
         double Dz = D[2][2];
-        DMatrixRMaj vec1 = new DMatrixRMaj(vec);
-        DMatrixRMaj VT1 = new DMatrixRMaj(VT);
-        DMatrixRMaj v = new DMatrixRMaj(vec1.numRows, vec1.numCols);
-        CommonOps_DDRM.mult(VT1, vec1, v);
-        double vx = v.get(0, 0); //vec[0]; //vec.getX();
-        double vy = v.get(1, 0); //vec[1]; //vec.getY();
-        double vz = v.get(2, 0); //vec[2]; //vec.getZ();
+        // direction cosines of the bond vector in the diffusion frame
+        double vx = VT[0][0] * vec[0] + VT[0][1] * vec[1] + VT[0][2] * vec[2];
+        double vy = VT[1][0] * vec[0] + VT[1][1] * vec[1] + VT[1][2] * vec[2];
+        double vz = VT[2][0] * vec[0] + VT[2][1] * vec[1] + VT[2][2] * vec[2];
         double vx2 = vx * vx;
         double vy2 = vy * vy;
         double vz2 = vz * vz;
-        a = new double[3];
+        int nTerms = diffType == DiffusionType.ANISOTROPIC ? 5 : 3;
+        if (a == null || a.length != nTerms) {
+            a = new double[nTerms];
+        }
         switch (diffType) {
             case ANISOTROPIC:
-                a = new double[5];
                 double[] k = {Dy - Dx, Dz - Dx, (Dx + Dy + Dz) / 3.0, 0.0};
                 k[3] = Math.sqrt(k[0] * k[0] - k[0] * k[1] + k[1] * k[1]);
                 double[] delta = {(-k[0] - k[1]) / k[3], (2.0 * k[0] - k[1]) / k[3], (2.0 * k[1] - k[0]) / k[3]};
@@ -174,8 +176,18 @@ public class DiffusionPars {
         return e;
     }
 
+    /**
+     * Calculate the Df array for the diffusion J(w) calculations. The returned
+     * array is reused by the next call.
+     *
+     * @param w2 double. The squared angular frequency.
+     * @return double[]. The Df array.
+     */
     public double[] getDf(double w2) {
-        double[] Df = new double[dDiff.length];
+        if (df == null || df.length != dDiff.length) {
+            df = new double[dDiff.length];
+        }
+        double[] Df = df;
         for (int d = 0; d < Df.length; d++) {
             if (w2 > 0.0) {
                 Df[d] = dDiff[d] / (dDiff[d] * dDiff[d] + w2);
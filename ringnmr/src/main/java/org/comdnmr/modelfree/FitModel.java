@@ -7,9 +7,12 @@ import javafx.concurrent.Worker;
 import org.apache.commons.rng.UniformRandomProvider;
 import org.apache.commons.rng.simple.RandomSource;
 import org.comdnmr.BasicFitter;
+import org.comdnmr.data.ReplicateStore;
 import org.comdnmr.eqnfit.ParValueInterface;
 import org.comdnmr.util.ProcessingStatus;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -21,6 +24,11 @@ import org.nmrfx.chemistry.MoleculeFactory;
 import org.nmrfx.chemistry.relax.OrderParSet;
 
 public abstract class FitModel implements BasicFitter {
+    /**
+     * @deprecated shared by every residue fit, so draws depend on thread
+     * scheduling; use {@link FitSpec#getRandomStreams()}
+     */
+    @Deprecated
     public static UniformRandomProvider rng = null;
 
     protected FitSpec fitSpec = new ConventionalFitSpec.Builder()
@@ -29,6 +37,15 @@ public abstract class FitModel implements BasicFitter {
 
     protected StructureValues molData = null;
 
+    protected ModelFitCache cache = null;
+
+    // Incremental mode: the result and data hash of each residue at its last
+    // fit, with the specification and molecule those fits used
+    boolean incremental = false;
+    final IncrementalFitState fittedState = new IncrementalFitState();
+    int lastRefitCount = 0;
+    Map<String, ModelFitResult> lastResults = Map.of();
+
     // >>>>>>>>>>>>>>>>>>>>>>>>
     // TODO: transition to not needing these attributes. It is all contained
     // within FitSpec
@@ -80,6 +97,66 @@ public abstract class FitModel implements BasicFitter {
 
     public void setData(StructureValues molData) { this.molData = molData; }
 
+    /**
+     * Sets the cache of per-residue results consulted by {@link #testIsoModel()},
+     * or {@code null} to always refit.
+     */
+    public void setCache(ModelFitCache cache) { this.cache = cache; }
+
+    public Optional<ModelFitCache> getCache() { return Optional.ofNullable(cache); }
+
+    /**
+     * Turns incremental fitting on or off. In incremental mode each call of
+     * {@link #testIsoModel()} reloads the data from the active molecule and
+     * refits only the residues whose data changed since they were last fit,
+     * merging the new order parameters into those already on the molecule.
+     * Every residue is refit when any setting of the fit specification
+     * changes, which includes a change of tau_M or of the use of the median,
+     * or when the active molecule changes. A fit restricted to one residue
+     * with {@link #setup(String, List)} keeps the state of the other residues.
+     * Turning the mode off forgets the fitted state.
+     */
+    public void setIncremental(boolean value) {
+        incremental = value;
+        if (!value) {
+            invalidate();
+        }
+    }
+
+    public boolean isIncremental() { return incremental; }
+
+    /**
+     * Forgets which residues have been fit, so the next incremental fit
+     * refits every residue.
+     */
+    public void invalidate() {
+        fittedState.clear();
+    }
+
+    /**
+     * Returns the number of residues actually fit (not taken from the
+     * incremental state or the cache) by the last call of {@link #testIsoModel()}.
+     */
+    public int getLastRefitCount() { return lastRefitCount; }
+
+    /**
+     * Returns the results of the last call of {@link #testIsoModel()}, by
+     * residue key.
+     */
+    public Map<String, ModelFitResult> getLastResults() { return lastResults; }
+
+    /**
+     * Writes the bootstrap replicates of the last fit to a
+     * {@link ReplicateStore}, so their distributions can be examined later
+     * without refitting.
+     *
+     * @param path the file to write
+     * @throws IOException if the file can not be written
+     */
+    public void saveReplicates(Path path) throws IOException {
+        new ReplicateStore.Writer().addModelFitResults(lastResults).write(path);
+    }
+
     /**
      * Loads relaxation data from the active molecule. Called when {@link #molData}
      * is null or empty at the start of {@link #testIsoModel()}.
@@ -109,11 +186,19 @@ public abstract class FitModel implements BasicFitter {
         return new double[0];
     }
 
-
+    /**
+     * @deprecated use {@link FitSpec#getRandomStreams()}, which gives each
+     * residue, model and replicate set its own reproducible stream
+     */
+    @Deprecated
     public static UniformRandomProvider getRandomSource() {
         return getRandomSource(false);
     }
 
+    /**
+     * @deprecated use {@link FitSpec#getRandomStreams()}
+     */
+    @Deprecated
     public static UniformRandomProvider getRandomSource(boolean init) {
         if (init || rng == null) {
             final int[] seed = new int[] { 196, 9, 0, 226 };
@@ -156,9 +241,12 @@ public abstract class FitModel implements BasicFitter {
     }
 
     public Map<String, ModelFitResult> testIsoModel() {
-        if ((molData == null) || (molData.isEmpty())) {
+        if (incremental || (molData == null) || (molData.isEmpty())) {
             molData = loadData();
         }
+        // every residue with data, before the data are restricted to the
+        // search key, so the incremental state of the others is kept
+        Set<String> allKeys = new HashSet<>(molData.keySet());
         if ((searchKey != null) && molData.containsKey(searchKey)) {
             var keepVal = molData.get(searchKey);
             molData.clear();
@@ -167,28 +255,79 @@ public abstract class FitModel implements BasicFitter {
         if (!molData.isEmpty()) {
             if (fitSpec.tauMNeedsComputing()) setTauMFromData();
             AtomicInteger counts = new AtomicInteger();
-            int n = molData.size();
+            AtomicInteger refitCounts = new AtomicInteger();
             MoleculeBase moleculeBase = MoleculeFactory.getActive();
             Map<String, OrderParSet> orderParSetMap = new ConcurrentHashMap<>();
             orderParSetMap.putAll(moleculeBase.orderParSetMap());
             Map<String, ModelFitResult> results = new ConcurrentHashMap<>();
-            new ArrayList<>(molData.entrySet())
+            String specFingerprint = cache == null ? null : fitSpec.stateFingerprintHex(64);
+            List<Map.Entry<String, MolDataValues<? extends RelaxDataValue>>> residues = new ArrayList<>(molData.entrySet());
+            Map<String, String> dataHashes = new HashMap<>();
+            if (incremental) {
+                fittedState.update(fitSpec.canonicalStateString(), moleculeBase, allKeys);
+                for (var residue : residues) {
+                    dataHashes.put(residue.getKey(), ModelFitCache.dataHash(residue.getKey(), residue.getValue()));
+                }
+                residues.removeIf(residue -> {
+                    String key = residue.getKey();
+                    Optional<ModelFitResult> clean = fittedState.getClean(key, dataHashes.get(key));
+                    clean.ifPresent(result -> results.put(key, result));
+                    return clean.isPresent();
+                });
+            }
+            int n = residues.size();
+            residues
                 .parallelStream()
                 .forEach(residue -> {
                     updateProgress((double) counts.get() / n);
                     if (cancelled.get()) return;
                     String key = residue.getKey();
                     MolDataValues<? extends RelaxDataValue> data = residue.getValue();
-                    if (!data.getData().isEmpty()) results.put(key, fitSpec.fit(key, data, orderParSetMap));
+                    if (!data.getData().isEmpty()) {
+                        ModelFitResult result = fitResidue(specFingerprint, key, data, orderParSetMap, refitCounts);
+                        results.put(key, result);
+                        if (incremental) {
+                            fittedState.put(key, dataHashes.get(key), result);
+                        }
+                    }
                     counts.incrementAndGet();
                 });
+            lastRefitCount = refitCounts.get();
+            lastResults = results;
             moleculeBase.orderParSetMap().putAll(orderParSetMap);
+            if (cache != null) {
+                try {
+                    cache.evict();
+                } catch (IOException e) {
+                    System.err.println("Could not evict model-free cache entries: " + e.getMessage());
+                }
+            }
             return results;
         } else {
             throw new IllegalStateException(getNoDataMessage());
         }
     }
 
+    /**
+     * Fits one residue, or registers its cached result when the cache holds
+     * one for the same specification and data.
+     */
+    private ModelFitResult fitResidue(String specFingerprint, String key, MolDataValues<?> data,
+                                      Map<String, OrderParSet> orderParSetMap, AtomicInteger refitCounts) {
+        if (cache != null) {
+            Optional<ModelFitResult> cached = cache.get(specFingerprint, key, data, orderParSetMap);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        refitCounts.incrementAndGet();
+        ModelFitResult result = fitSpec.fit(key, data, orderParSetMap);
+        if (cache != null) {
+            cache.put(specFingerprint, key, data, result);
+        }
+        return result;
+    }
+
     public void setUseMedian(boolean value) {
         useMedian = value;
     }
@@ -360,7 +499,11 @@ public abstract class FitModel implements BasicFitter {
     }
 
     void finishProcessing() {
-        updateStatus("Done: fit " + lastFitCount + " residues");
+        if (incremental) {
+            updateStatus("Done: fit " + lastRefitCount + " of " + lastFitCount + " residues");
+        } else {
+            updateStatus("Done: fit " + lastFitCount + " residues");
+        }
     }
 
     public void fitAll(Task task) {
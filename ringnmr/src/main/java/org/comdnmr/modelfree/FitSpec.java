@@ -8,6 +8,7 @@ import java.util.*;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.math3.optim.PointValuePair;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.rng.UniformRandomProvider;
 import org.comdnmr.modelfree.models.MFModelIso;
 import org.nmrfx.chemistry.Atom;
 import org.nmrfx.chemistry.relax.OrderPar;
@@ -92,6 +93,12 @@ public abstract class FitSpec {
      */
     protected final boolean useMedian;
 
+    /**
+     * Master seed from which the random streams used to draw bootstrap
+     * replicates are derived, so that fits are reproducible.
+     */
+    protected final long seed;
+
     /**
      * Registry mapping human-readable method names to their corresponding
      * {@code FitSpec} subclass. Insertion order is preserved via
@@ -126,6 +133,7 @@ public abstract class FitSpec {
         this.r2Limit = builder.r2Limit;
         this.nReplicates = builder.nReplicates;
         this.useMedian = builder.useMedian;
+        this.seed = builder.seed;
     }
 
     /**
@@ -258,6 +266,7 @@ public abstract class FitSpec {
         builder.append(String.format("bootstrapMode = \"%s\"%n", bootstrapMode.toString().toLowerCase()));
         builder.append(String.format("nReplicates = %d%n", nReplicates));
         builder.append(String.format("useMedian = %b%n", useMedian));
+        builder.append(String.format("seed = %d%n", seed));
         return builder;
     }
 
@@ -392,6 +401,69 @@ public abstract class FitSpec {
         };
     }
 
+    /**
+     * Creates a {@link BootstrapSampler} for the configured bootstrap mode that
+     * draws from the given RNG.
+     *
+     * @param data the relaxation data to be resampled
+     * @param rng  the random source used by the sampler
+     * @return a sampler matching {@link #bootstrapMode}
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends RelaxDataValue> BootstrapSampler<T> getBootstrapSampler(MolDataValues<T> data, UniformRandomProvider rng) {
+        return switch (bootstrapMode) {
+            case PARAMETRIC    -> new ParametricSampler<>(data, rng);
+            case NONPARAMETRIC -> switch (moietyType) {
+                case DEUTERATED_METHYL -> (BootstrapSampler<T>) new DeuteriumNonparametricSampler((MolDataValues<DeuteriumDataValue>) data, rng);
+                case AMIDE             -> new AmideNonparametricSampler<>(data, rng);
+            };
+            case BAYESIAN      -> new BayesianSampler<>(data, rng);
+        };
+    }
+
+    /**
+     * Returns the root of the random stream tree for this specification,
+     * keyed on its fingerprint (which includes {@link #seed}). Specifications
+     * with the same state share the same streams.
+     *
+     * @return the root stream
+     */
+    public RandomStreams getRandomStreams() {
+        return RandomStreams.of(stateFingerprintHex(16));
+    }
+
+    /**
+     * Returns a random source for one stream of a residue fit, derived from
+     * {@link #getRandomStreams()} by the residue key and then the stream name.
+     * The same arguments always give the same sequence, and no state is shared
+     * between the sources returned.
+     *
+     * @param key    residue identifier
+     * @param stream name of the stream within the residue fit (e.g. the model)
+     * @return a new random source
+     */
+    protected UniformRandomProvider getRandomSource(String key, String stream) {
+        return getRandomStreams().stream(key).stream(stream).create();
+    }
+
+    /**
+     * Draws {@link #nReplicates} bootstrap replicates, copying each so that
+     * they can be fit concurrently, then restores the original data.
+     * Drawing is sequential, so the replicates depend only on the sampler's
+     * random source and not on how the fits are scheduled.
+     *
+     * @param sampler the sampler to draw from
+     * @return the replicates, in the order drawn
+     */
+    protected List<MolDataValues<?>> drawReplicates(BootstrapSampler<?> sampler) {
+        List<MolDataValues<?>> replicates = new ArrayList<>(nReplicates);
+        for (int i = 0; i < nReplicates; i++) {
+            replicates.add(sampler.sample().copy());
+        }
+        sampler.getOriginalData();
+        return replicates;
+    }
+
     /**
      * Initializes a {@link RelaxFit} instance configured with the spectral
      * density fitting flag and the given relaxation data.
@@ -509,49 +581,58 @@ public abstract class FitSpec {
 
     /**
      * Constructs an {@link OrderPar} from the fit results and attaches it
-     * (along with the corresponding {@link SpectralDensity}) to the atom.
+     * (along with the corresponding {@link SpectralDensity}) to the atom. The
+     * values it was built from are appended to {@code orderParValues}, so that
+     * the fit can be stored in a {@link ModelFitCache}, and the set named
+     * {@code setName} is created in {@code orderParSetMap} if it is absent.
      *
      * <p><strong>Side effects:</strong> This method calls
      * {@link Atom#addOrderPar(OrderParSet, OrderPar)} and
      * {@link Atom#addSpectralDensity(String, SpectralDensity)} on the atom
      * contained within {@code data}.</p>
      *
-     * @param orderParSet the set to which the new order parameter belongs
-     * @param data        relaxation data for the residue
-     * @param key         data-set identifier
-     * @param score       fit quality metrics
-     * @param model       the model that was selected
-     * @param parameters  best-fit parameter values
-     * @param errors      parameter error estimates
+     * @param orderParSetMap map of order parameter sets by name
+     * @param setName        name of the set to which the new order parameter belongs
+     * @param data           relaxation data for the residue
+     * @param key            data-set identifier
+     * @param score          fit quality metrics
+     * @param model          the model that was selected
+     * @param parameters     best-fit parameter values
+     * @param errors         parameter error estimates
+     * @param orderParValues list to which the values are appended
      * @return the newly created {@link OrderPar}
      */
     protected OrderPar makeOrderPar(
-        OrderParSet orderParSet,
+        Map<String, OrderParSet> orderParSetMap,
+        String setName,
         MolDataValues<?> data,
         String key,
         Score score,
         MFModelIso model,
         double[] parameters,
-        double[] errors
+        double[] errors,
+        List<OrderParValues> orderParValues
     ) {
-        ResonanceSource resSource = new ResonanceSource(data.getAtom());
-        Atom atom = data.getAtom();
-        List<String> names = model.getParNames();
-        OrderPar orderPar = new OrderPar(
-            orderParSet, resSource, score.rss, score.nValues, score.nPars, model.getName()
-        );
-
-        int nParameters = parameters.length;
-        for (int k = 0; k < nParameters; k++) {
-            orderPar = orderPar.set(names.get(k), parameters[k], errors[k]);
-        }
-
-        // If tauM is fixed, set it to the fixed value with zero error
-        if (!model.fitTau()) {
-            orderPar = orderPar.set("Tau_e", model.getTau(), 0.0);
-        }
+        OrderParSet orderParSet = orderParSetMap.computeIfAbsent(setName, ky -> new OrderParSet(ky));
+        OrderParValues values = OrderParValues.of(setName, score, model, parameters, errors);
+        orderParValues.add(values);
+        return addOrderPar(orderParSet, data, key, values);
+    }
 
-        orderPar = orderPar.set("model", (double) model.getNumber(), null);
+    /**
+     * Builds the {@link OrderPar} described by {@code values} and attaches it,
+     * with the {@link SpectralDensity} of {@code data}, to the atom of
+     * {@code data}.
+     *
+     * @param orderParSet the set to which the order parameter belongs
+     * @param data        relaxation data for the residue
+     * @param key         data-set identifier
+     * @param values      the values of the order parameter
+     * @return the newly created {@link OrderPar}
+     */
+    public static OrderPar addOrderPar(OrderParSet orderParSet, MolDataValues<?> data, String key, OrderParValues values) {
+        Atom atom = data.getAtom();
+        OrderPar orderPar = values.toOrderPar(orderParSet, new ResonanceSource(atom));
         atom.addOrderPar(orderParSet, orderPar);
 
         SpectralDensity spectralDensity = new SpectralDensity(key, data.getJValues());
@@ -580,6 +661,7 @@ public abstract class FitSpec {
         sb.append(this.getClass().getName()).append('|');
 
         // Core FitSpec fields in a fixed order
+        sb.append("moietyType=").append(moietyType == null ? "null" : moietyType.name()).append('|');
         sb.append("tauM=").append(Double.doubleToLongBits(tauM)).append('|');
         sb.append("tauMNeedsComputing=").append(tauMNeedsComputing).append('|');
         sb.append("fitTauM=").append(fitTauM).append('|');
@@ -589,6 +671,8 @@ public abstract class FitSpec {
         sb.append("tauMFraction=").append(Double.doubleToLongBits(tauMFraction)).append('|');
         sb.append("r2Limit=").append(Double.doubleToLongBits(r2Limit)).append('|');
         sb.append("nReplicates=").append(nReplicates).append('|');
+        sb.append("useMedian=").append(useMedian).append('|');
+        sb.append("seed=").append(seed).append('|');
 
         // Hook for subclasses
         appendSubclassState(sb);
@@ -724,6 +808,9 @@ public abstract class FitSpec {
         /** By default, use the mean (not median) as the central estimator. */
         private static final boolean DEFAULT_USE_MEDIAN = false;
 
+        /** Default master seed for the bootstrap random streams. */
+        private static final long DEFAULT_SEED = 196L;
+
         // ── Mutable state ───────────────────────────────────────────────
 
         protected MoietyType moietyType = DEFAULT_MOIETY_TYPE;
@@ -736,6 +823,7 @@ public abstract class FitSpec {
         protected double r2Limit = DEFAULT_R2_LIMIT;
         protected int nReplicates = DEFAULT_N_REPLICATES;
         protected boolean useMedian = DEFAULT_USE_MEDIAN;
+        protected long seed = DEFAULT_SEED;
 
         // ── Default-value accessors ─────────────────────────────────────
 
@@ -760,6 +848,9 @@ public abstract class FitSpec {
         /** Returns the default useMedian flag ({@code false}). */
         public static boolean getDefaultUseMedian() { return DEFAULT_USE_MEDIAN; }
 
+        /** Returns the default master seed (196). */
+        public static long getDefaultSeed() { return DEFAULT_SEED; }
+
         // ── CRTP self-type helper ───────────────────────────────────────
 
         /**
@@ -934,6 +1025,19 @@ public abstract class FitSpec {
             return self();
         }
 
+        /**
+         * Sets the master seed from which the bootstrap random streams are
+         * derived. Fits with the same specification and seed give the same
+         * result whatever the number of threads used.
+         *
+         * @param seed the master seed
+         * @return this builder
+         */
+        public T seed(long seed) {
+            this.seed = seed;
+            return self();
+        }
+
         /**
          * Validates cross-field constraints. Called by {@link #build()} before
          * constructing the {@code FitSpec} instance.
@@ -0,0 +1,148 @@
+package org.comdnmr.modelfree;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.PointValuePair;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.univariate.BrentOptimizer;
+import org.apache.commons.math3.optim.univariate.SearchInterval;
+import org.apache.commons.math3.optim.univariate.UnivariateObjectiveFunction;
+import org.apache.commons.math3.optim.univariate.UnivariatePointValuePair;
+
+import org.comdnmr.modelfree.models.MFModelIso;
+
+/**
+ * Fits one overall correlation time, tau_M, shared by many residues.
+ *
+ * <p>Unlike {@link RelaxFit#fitMultiResidueToModel}, which optimizes tau_M
+ * together with every residue's parameters in a single vector, the problem is
+ * split by its structure: for a trial tau_M the residues are independent, so
+ * each is fit on its own (in parallel) with tau_M fixed. The summed residual
+ * sum of squares is then a function of tau_M alone, and that one-dimensional
+ * profile is minimized with Brent's method. The cost of a global step grows
+ * linearly with the number of residues, so whole-protein fits are
+ * tractable.</p>
+ *
+ * <p>Each residue's best parameters are kept and used as the start of its
+ * next local fit, so later profile evaluations converge in few iterations.
+ * Every residue must have its own {@link MFModelIso} test model with tau_M
+ * fixed (see {@link MolDataValues#setTestModel}); the models' tau is set to
+ * each trial value.</p>
+ */
+public class GlobalTauFitter {
+
+    /**
+     * The outcome of a global fit.
+     *
+     * @param tauM         the best shared correlation time (ns)
+     * @param rss          summed residual sum of squares at {@code tauM}
+     * @param nEvaluations number of tau_M values at which all residues were fit
+     * @param scores       per-residue scores at {@code tauM}, including the
+     *                     best parameters
+     */
+    public record Result(double tauM, double rss, int nEvaluations, Map<String, Score> scores) {
+    }
+
+    private final Map<String, MolDataValues<?>> molData;
+    private final Map<String, double[]> starts = new ConcurrentHashMap<>();
+    private boolean fitJ = false;
+    private double relativeTolerance = 1.0e-3;
+    private double absoluteTolerance = 1.0e-3;
+    private int maxEvaluations = 50;
+
+    /**
+     * @param molData residue data, each with its own isotropic test model
+     */
+    public GlobalTauFitter(Map<String, ? extends MolDataValues<?>> molData) {
+        this.molData = new LinkedHashMap<>();
+        molData.forEach((key, data) -> {
+            if (!data.getData().isEmpty()) {
+                this.molData.put(key, data);
+            }
+        });
+    }
+
+    public void setFitJ(boolean value) {
+        fitJ = value;
+    }
+
+    /**
+     * Sets the convergence tolerances of the tau_M search.
+     *
+     * @param relative relative tolerance on tau_M
+     * @param absolute absolute tolerance on tau_M (ns)
+     */
+    public void setTolerance(double relative, double absolute) {
+        relativeTolerance = relative;
+        absoluteTolerance = absolute;
+    }
+
+    public void setMaxEvaluations(int value) {
+        maxEvaluations = value;
+    }
+
+    /**
+     * Finds the shared tau_M within the given interval, then fits every
+     * residue at that value.
+     *
+     * @param tauLower lower limit of tau_M (ns)
+     * @param tauUpper upper limit of tau_M (ns)
+     * @param tauStart initial value of tau_M (ns)
+     * @return the best tau_M and the per-residue fits at it
+     */
+    public Result fit(double tauLower, double tauUpper, double tauStart) {
+        starts.clear();
+        BrentOptimizer optimizer = new BrentOptimizer(relativeTolerance, absoluteTolerance);
+        UnivariatePointValuePair best = optimizer.optimize(new MaxEval(maxEvaluations),
+                new UnivariateObjectiveFunction(this::value), GoalType.MINIMIZE,
+                new SearchInterval(tauLower, tauUpper, tauStart));
+        Map<String, Score> scores = fitLocal(best.getPoint());
+        double rss = scores.values().stream().mapToDouble(Score::chiSq).sum();
+        return new Result(best.getPoint(), rss, optimizer.getEvaluations() + 1, scores);
+    }
+
+    /**
+     * Fits every residue with tau_M fixed and returns the summed residual sum
+     * of squares: the profile objective of the global step.
+     *
+     * @param tauM the shared correlation time (ns)
+     * @return summed residual sum of squares over all residues
+     */
+    public double value(double tauM) {
+        return fitLocal(tauM).values().stream().mapToDouble(Score::chiSq).sum();
+    }
+
+    Map<String, Score> fitLocal(double tauM) {
+        Map<String, Score> scores = new ConcurrentHashMap<>();
+        molData.entrySet().parallelStream().forEach(entry ->
+                scores.put(entry.getKey(), fitResidue(entry.getKey(), entry.getValue(), tauM)));
+        Map<String, Score> ordered = new LinkedHashMap<>();
+        molData.keySet().forEach(key -> ordered.put(key, scores.get(key)));
+        return ordered;
+    }
+
+    private Score fitResidue(String key, MolDataValues<?> data, double tauM) {
+        MFModelIso model = (MFModelIso) data.getTestModel();
+        model.setTau(tauM);
+        double[] lower = model.getLower();
+        double[] upper = model.getUpper();
+        double[] start = starts.containsKey(key) ? starts.get(key).clone() : model.getStart();
+        for (int i = 0; i < start.length; i++) {
+            start[i] = Math.min(upper[i], Math.max(lower[i], start[i]));
+        }
+        RelaxFit relaxFit = new RelaxFit();
+        relaxFit.setFitJ(fitJ);
+        relaxFit.setRelaxData(key, data);
+        Optional<PointValuePair> result = relaxFit.fitResidueToModel(start, lower, upper);
+        if (result.isEmpty()) {
+            throw new RuntimeException("Could not generate fit result for " + key);
+        }
+        double[] point = result.get().getPoint();
+        starts.put(key, point.clone());
+        return relaxFit.score(point, true);
+    }
+}
@@ -0,0 +1,78 @@
+package org.comdnmr.modelfree;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What incremental fitting remembers between fits: the result of each
+ * residue and the hash of the data it was fit to, along with the complete
+ * state of the fit specification and the molecule those fits belong to.
+ *
+ * <p>A residue is clean, and its result can be reused, when its data hash is
+ * unchanged and neither the specification nor the molecule has changed since
+ * it was fit. Results can be stored from several threads.</p>
+ */
+class IncrementalFitState {
+
+    private final Map<String, String> dataHashes = new ConcurrentHashMap<>();
+    private final Map<String, ModelFitResult> results = new ConcurrentHashMap<>();
+    private String specState = null;
+    private Object molecule = null;
+
+    /**
+     * Prepares for a fit. Everything is forgotten if the specification or
+     * the molecule differ from those of the stored results; otherwise only
+     * the residues that no longer have data are forgotten.
+     *
+     * @param specState the canonical state of the fit specification, see
+     *                  {@link FitSpec#canonicalStateString()}
+     * @param molecule  the molecule the residues belong to
+     * @param keys      the keys of every residue that has data, including
+     *                  those that will not be fit this time
+     */
+    void update(String specState, Object molecule, Set<String> keys) {
+        if (!specState.equals(this.specState) || (molecule != this.molecule)) {
+            clear();
+            this.specState = specState;
+            this.molecule = molecule;
+        }
+        dataHashes.keySet().retainAll(keys);
+        results.keySet().retainAll(keys);
+    }
+
+    /**
+     * Returns the stored result of a residue if its data are unchanged.
+     *
+     * @param key      residue identifier
+     * @param dataHash hash of the residue's current data, see
+     *                 {@link ModelFitCache#dataHash(String, MolDataValues)}
+     * @return the result, or empty if the residue must be refit
+     */
+    Optional<ModelFitResult> getClean(String key, String dataHash) {
+        if (!dataHash.equals(dataHashes.get(key))) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(results.get(key));
+    }
+
+    void put(String key, String dataHash, ModelFitResult result) {
+        results.put(key, result);
+        dataHashes.put(key, dataHash);
+    }
+
+    /**
+     * Forgets every residue, the specification and the molecule.
+     */
+    void clear() {
+        dataHashes.clear();
+        results.clear();
+        specState = null;
+        molecule = null;
+    }
+
+    int size() {
+        return results.size();
+    }
+}
@@ -0,0 +1,393 @@
+package org.comdnmr.modelfree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.nmrfx.chemistry.relax.OrderPar;
+import org.nmrfx.chemistry.relax.OrderParSet;
+
+/**
+ * Persistent on-disk cache of per-residue model-free fit results.
+ *
+ * <p>An entry is keyed by the fingerprint of the {@link FitSpec} (see
+ * {@link FitSpec#stateFingerprintHex(int)}) together with a hash of the
+ * residue's {@link MolDataValues} (see {@link #dataHash(String, MolDataValues)}),
+ * so a residue is only refit when its data or the specification change. An
+ * entry stores the {@link OrderParValues} of every order parameter the fit
+ * registered, the replicate parameters and the replicate times; on a hit the
+ * order parameters are registered again exactly as the fit would have done.</p>
+ *
+ * <p>Each entry is one file in the cache directory. Files are written to a
+ * temporary name and then moved into place, so concurrent residue fits can
+ * share a cache. {@link #evict()} removes entries older than the maximum age,
+ * then the least recently used entries until the cache is within its size
+ * limit. Reading an entry counts as using it.</p>
+ *
+ * <p>I/O errors never fail a fit: an unreadable entry is treated as a miss
+ * and a failed write just leaves the residue uncached.</p>
+ */
+public class ModelFitCache {
+
+    /** Default maximum total size of the cache files (256 MB). */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    /** Default maximum age of an entry. */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(30);
+
+    private static final int MAGIC = 0x4d464331; // "MFC1"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".mfc";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration maxAge;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Creates a cache in the given directory, which is created if needed when
+     * the first entry is written.
+     *
+     * @param directory the cache directory
+     * @param maxBytes  maximum total size of the cache files
+     * @param maxAge    maximum age of an entry
+     */
+    public ModelFitCache(Path directory, long maxBytes, Duration maxAge) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Creates a cache in the given directory with the default limits.
+     *
+     * @param directory the cache directory
+     */
+    public ModelFitCache(Path directory) {
+        this(directory, DEFAULT_MAX_BYTES, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Returns the default cache directory, {@code .ringnmr/modelfree-cache} in
+     * the user's home directory.
+     *
+     * @return the default cache directory
+     */
+    public static Path getDefaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".ringnmr", "modelfree-cache");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Computes a SHA-256 hex digest of everything in a residue's data that a
+     * fit depends on: the residue key, the bond vector and, for each field,
+     * the type of the data value, the field strength, the dipolar and CSA
+     * constants and the observables with their errors.
+     *
+     * @param key  residue identifier
+     * @param data relaxation data of the residue
+     * @return the hex digest
+     */
+    public static String dataHash(String key, MolDataValues<?> data) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+        md.update(key.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES * 4);
+        for (double v : data.getVector()) {
+            updateDouble(md, buffer, v);
+        }
+        md.update((byte) (SpectralDensityCalculator.useRQ ? 1 : 0));
+        for (RelaxDataValue value : data.getData()) {
+            md.update(value.getClass().getName().getBytes(StandardCharsets.UTF_8));
+            RelaxEquations relaxObj = value.getRelaxEquations();
+            updateDouble(md, buffer, relaxObj.getSF());
+            updateDouble(md, buffer, relaxObj.getD());
+            updateDouble(md, buffer, relaxObj.getC2());
+            for (double v : value.getObservables()) {
+                updateDouble(md, buffer, v);
+            }
+            for (double v : value.getObservableErrors()) {
+                updateDouble(md, buffer, v);
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static void updateDouble(MessageDigest md, ByteBuffer buffer, double v) {
+        buffer.clear();
+        buffer.putDouble(v);
+        md.update(buffer.array(), 0, Double.BYTES);
+    }
+
+    private Path entryPath(String specFingerprint, String dataHash) {
+        return directory.resolve(specFingerprint.substring(0, Math.min(16, specFingerprint.length()))
+                + "-" + dataHash.substring(0, Math.min(32, dataHash.length())) + SUFFIX);
+    }
+
+    /**
+     * Looks up a residue and, on a hit, registers the cached order parameters
+     * in {@code orderParSetMap} and on the residue's atom as the fit would.
+     *
+     * @param specFingerprint fingerprint of the fit specification
+     * @param key             residue identifier
+     * @param data            relaxation data of the residue
+     * @param orderParSetMap  map to which the order parameter sets are added
+     * @return the cached result, or empty on a miss
+     */
+    public Optional<ModelFitResult> get(String specFingerprint, String key, MolDataValues<?> data,
+                                        Map<String, OrderParSet> orderParSetMap) {
+        String dataHash = dataHash(key, data);
+        Path path = entryPath(specFingerprint, dataHash);
+        Optional<Entry> entry = Optional.empty();
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                entry = read(in, specFingerprint, dataHash);
+                Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            } catch (NoSuchFileException e) {
+                // evicted after the existence check
+            } catch (IOException e) {
+                System.err.println("Could not read model-free cache entry " + path + ": " + e.getMessage());
+            }
+        }
+        if (entry.isEmpty() || entry.get().orderParValues().isEmpty()) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        OrderPar orderPar = null;
+        for (OrderParValues values : entry.get().orderParValues()) {
+            OrderParSet orderParSet = orderParSetMap.computeIfAbsent(values.setName(), ky -> new OrderParSet(ky));
+            orderPar = FitSpec.addOrderPar(orderParSet, data, key, values);
+        }
+        return Optional.of(new ModelFitResult(orderPar, entry.get().replicateData(), entry.get().validationValue(),
+                entry.get().replicateTimes(), entry.get().orderParValues()));
+    }
+
+    /**
+     * Stores the result of fitting a residue. Results that do not carry their
+     * {@link OrderParValues} can not be replayed and are not stored.
+     *
+     * @param specFingerprint fingerprint of the fit specification
+     * @param key             residue identifier
+     * @param data            relaxation data the residue was fit to
+     * @param result          the fit result
+     */
+    public void put(String specFingerprint, String key, MolDataValues<?> data, ModelFitResult result) {
+        if (result.orderParValues().isEmpty()) {
+            return;
+        }
+        String dataHash = dataHash(key, data);
+        Path path = entryPath(specFingerprint, dataHash);
+        Path tmpPath = null;
+        try {
+            Files.createDirectories(directory);
+            tmpPath = Files.createTempFile(directory, "entry", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmpPath)) {
+                write(out, specFingerprint, dataHash, result);
+            }
+            Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write model-free cache entry " + path + ": " + e.getMessage());
+            if (tmpPath != null) {
+                try {
+                    Files.deleteIfExists(tmpPath);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes entries older than the maximum age, then the least recently
+     * used entries until the total size is within the limit.
+     *
+     * @return the number of entries removed
+     * @throws IOException if the cache directory can not be listed
+     */
+    public int evict() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        record CacheFile(Path path, long size, long lastModified) {
+        }
+        List<CacheFile> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : paths.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                try {
+                    files.add(new CacheFile(path, Files.size(path), Files.getLastModifiedTime(path).toMillis()));
+                } catch (NoSuchFileException e) {
+                    // removed concurrently
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(CacheFile::lastModified));
+        long oldest = Instant.now().minus(maxAge).toEpochMilli();
+        long totalBytes = files.stream().mapToLong(CacheFile::size).sum();
+        int nRemoved = 0;
+        for (CacheFile file : files) {
+            if (file.lastModified() >= oldest && totalBytes <= maxBytes) {
+                break;
+            }
+            Files.deleteIfExists(file.path());
+            totalBytes -= file.size();
+            nRemoved++;
+        }
+        return nRemoved;
+    }
+
+    /**
+     * Removes every entry.
+     *
+     * @throws IOException if the cache directory can not be listed
+     */
+    public void clear() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : paths.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private record Entry(List<OrderParValues> orderParValues, double[][] replicateData, Double validationValue,
+                         double[] replicateTimes) {
+    }
+
+    private static void write(OutputStream outputStream, String specFingerprint, String dataHash, ModelFitResult result)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(specFingerprint);
+        out.writeUTF(dataHash);
+        double[][] replicateData = result.replicateData();
+        out.writeInt(replicateData == null ? -1 : replicateData.length);
+        if (replicateData != null) {
+            for (double[] row : replicateData) {
+                writeDoubles(out, row);
+            }
+        }
+        out.writeBoolean(result.validationValue() != null);
+        if (result.validationValue() != null) {
+            out.writeDouble(result.validationValue());
+        }
+        writeDoubles(out, result.replicateTimes());
+        out.writeInt(result.orderParValues().size());
+        for (OrderParValues values : result.orderParValues()) {
+            out.writeUTF(values.setName());
+            out.writeUTF(values.modelName());
+            out.writeDouble(values.rss());
+            out.writeInt(values.nValues());
+            out.writeInt(values.nPars());
+            out.writeInt(values.parNames().size());
+            for (String name : values.parNames()) {
+                out.writeUTF(name);
+            }
+            writeDoubles(out, values.values());
+            writeDoubles(out, values.errors());
+        }
+        out.flush();
+    }
+
+    private static Optional<Entry> read(InputStream inputStream, String specFingerprint, String dataHash)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return Optional.empty();
+        }
+        // the file name only holds a prefix of the fingerprint and hash
+        if (!in.readUTF().equals(specFingerprint) || !in.readUTF().equals(dataHash)) {
+            return Optional.empty();
+        }
+        int nRows = in.readInt();
+        double[][] replicateData = null;
+        if (nRows >= 0) {
+            replicateData = new double[nRows][];
+            for (int i = 0; i < nRows; i++) {
+                replicateData[i] = readDoubles(in);
+            }
+        }
+        Double validationValue = in.readBoolean() ? in.readDouble() : null;
+        double[] replicateTimes = readDoubles(in);
+        int nOrderPars = in.readInt();
+        List<OrderParValues> orderParValues = new ArrayList<>(nOrderPars);
+        for (int i = 0; i < nOrderPars; i++) {
+            String setName = in.readUTF();
+            String modelName = in.readUTF();
+            double rss = in.readDouble();
+            int nValues = in.readInt();
+            int nPars = in.readInt();
+            int nNames = in.readInt();
+            List<String> parNames = new ArrayList<>(nNames);
+            for (int k = 0; k < nNames; k++) {
+                parNames.add(in.readUTF());
+            }
+            double[] values = readDoubles(in);
+            double[] errors = readDoubles(in);
+            orderParValues.add(new OrderParValues(setName, modelName, rss, nValues, nPars,
+                    List.copyOf(parNames), values, errors));
+        }
+        return Optional.of(new Entry(orderParValues, replicateData, validationValue, replicateTimes));
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values == null ? -1 : values.length);
+        if (values != null) {
+            for (double v : values) {
+                out.writeDouble(v);
+            }
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) {
+            return null;
+        }
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+}
@@ -1,11 +1,27 @@
 package org.comdnmr.modelfree;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.StringJoiner;
 
 import org.nmrfx.chemistry.relax.OrderPar;
 
-public record ModelFitResult(OrderPar orderPar, double[][] replicateData, Double validationValue, double[] replicateTimes) {
+/**
+ * The result of fitting one residue.
+ *
+ * @param orderPar        the order parameters of the selected model
+ * @param replicateData   parameters fit to each bootstrap replicate
+ * @param validationValue validation score, or {@code null}
+ * @param replicateTimes  time (ms) taken by each replicate, or {@code null}
+ * @param orderParValues  the values of every {@link OrderPar} the fit
+ *                        registered, in order; the last is {@code orderPar}
+ */
+public record ModelFitResult(OrderPar orderPar, double[][] replicateData, Double validationValue, double[] replicateTimes,
+                             List<OrderParValues> orderParValues) {
+
+    public ModelFitResult(OrderPar orderPar, double[][] replicateData, Double validationValue, double[] replicateTimes) {
+        this(orderPar, replicateData, validationValue, replicateTimes, List.of());
+    }
 
     public String toToml(boolean includeReplicates) {
         StringBuilder builder = new StringBuilder("[fit_result]\n");
@@ -48,6 +48,12 @@ public abstract class MolDataValues<T extends RelaxDataValue> {
         this.specifier = atom.getFullName();
     }
 
+    protected MolDataValues(MolDataValues<T> source) {
+        this.atom = source.atom;
+        this.specifier = source.specifier;
+        System.arraycopy(source.vector, 0, this.vector, 0, 3);
+    }
+
     public Atom getAtom() {
         return atom;
     }
@@ -142,6 +148,31 @@ public abstract class MolDataValues<T extends RelaxDataValue> {
 
     public abstract MolDataValues<T> createEmpty();
 
+    /**
+     * @return a new instance for the same atom with no data values
+     */
+    protected abstract MolDataValues<T> emptyCopy();
+
+    /**
+     * Returns a copy with its own data values, holding the current (possibly
+     * resampled) observables and weights, so a bootstrap replicate can be
+     * kept and fit while the sampler that produced it moves on.
+     *
+     * @return the copy
+     */
+    @SuppressWarnings("unchecked")
+    public MolDataValues<T> copy() {
+        MolDataValues<T> copy = emptyCopy();
+        for (T value : dataValues) {
+            copy.addData((T) value.copy(copy));
+        }
+        copy.model = model;
+        copy.bootstrapSet = bootstrapSet;
+        copy.bootstrapAggregator = bootstrapAggregator;
+        copy.weights = weights == null ? null : weights.clone();
+        return copy;
+    }
+
     public void setJValues(double[][] jValuesSet) {
         jValues = Arrays.stream(jValuesSet).map(double[]::clone).toArray(double[][]::new);
     }
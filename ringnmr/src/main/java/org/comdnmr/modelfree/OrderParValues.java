@@ -0,0 +1,82 @@
+package org.comdnmr.modelfree;
+
+import java.util.List;
+
+import org.comdnmr.modelfree.models.MFModelIso;
+import org.nmrfx.chemistry.relax.OrderPar;
+import org.nmrfx.chemistry.relax.OrderParSet;
+import org.nmrfx.chemistry.relax.ResonanceSource;
+
+/**
+ * The values from which an {@link OrderPar} is built, kept so that a fit
+ * result can be stored and the {@link OrderPar} registered again later
+ * without refitting (see {@link ModelFitCache}).
+ *
+ * @param setName   name of the {@link OrderParSet} the order parameter belongs to
+ * @param modelName name of the model-free model (e.g. {@code "model2sf"})
+ * @param rss       residual sum of squares of the fit to the original data
+ * @param nValues   number of fitted values
+ * @param nPars     number of fitted parameters
+ * @param parNames  names of the stored values, in the order they are set
+ * @param values    parameter values
+ * @param errors    parameter errors; {@code NaN} for a value without an error
+ */
+public record OrderParValues(String setName, String modelName, double rss, int nValues, int nPars,
+                             List<String> parNames, double[] values, double[] errors) {
+
+    /**
+     * Collects the values of a fitted model as {@link FitSpec#makeOrderPar}
+     * sets them: the model parameters, tau_M with zero error when it is fixed,
+     * and the model number.
+     *
+     * @param setName    name of the order parameter set
+     * @param score      score of the fit to the original data
+     * @param model      the fitted model
+     * @param parameters parameter values, in the order of the model's parameter names
+     * @param errors     parameter errors
+     * @return the collected values
+     */
+    public static OrderParValues of(String setName, Score score, MFModelIso model,
+                                    double[] parameters, double[] errors) {
+        List<String> modelParNames = model.getParNames();
+        int nParameters = parameters.length;
+        int nStored = nParameters + (model.fitTau() ? 1 : 2);
+        String[] names = new String[nStored];
+        double[] storedValues = new double[nStored];
+        double[] storedErrors = new double[nStored];
+        for (int k = 0; k < nParameters; k++) {
+            names[k] = modelParNames.get(k);
+            storedValues[k] = parameters[k];
+            storedErrors[k] = errors[k];
+        }
+        int k = nParameters;
+        // If tauM is fixed, set it to the fixed value with zero error
+        if (!model.fitTau()) {
+            names[k] = "Tau_e";
+            storedValues[k] = model.getTau();
+            storedErrors[k] = 0.0;
+            k++;
+        }
+        names[k] = "model";
+        storedValues[k] = model.getNumber();
+        storedErrors[k] = Double.NaN;
+        return new OrderParValues(setName, model.getName(), score.rss, score.nValues, score.nPars,
+                List.of(names), storedValues, storedErrors);
+    }
+
+    /**
+     * Builds the {@link OrderPar} described by these values.
+     *
+     * @param orderParSet the set the order parameter belongs to
+     * @param resSource   the resonance the order parameter describes
+     * @return the new order parameter
+     */
+    public OrderPar toOrderPar(OrderParSet orderParSet, ResonanceSource resSource) {
+        OrderPar orderPar = new OrderPar(orderParSet, resSource, rss, nValues, nPars, modelName);
+        for (int k = 0; k < values.length; k++) {
+            Double error = Double.isNaN(errors[k]) ? null : errors[k];
+            orderPar = orderPar.set(parNames.get(k), values[k], error);
+        }
+        return orderPar;
+    }
+}
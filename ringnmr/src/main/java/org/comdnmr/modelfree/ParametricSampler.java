@@ -2,8 +2,10 @@ package org.comdnmr.modelfree;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import org.apache.commons.rng.UniformRandomProvider;
 import org.apache.commons.rng.sampling.distribution.NormalizedGaussianSampler;
 import org.apache.commons.rng.sampling.distribution.ZigguratSampler;
+import org.apache.commons.rng.simple.RandomSource;
 
 /**
  * Parametric bootstrap sampler that generates synthetic observations by adding
@@ -34,7 +36,17 @@ public class ParametricSampler<T extends RelaxDataValue> extends BootstrapSample
      * @param data the relaxation data to be resampled; must contain at least one entry
      */
     public ParametricSampler(MolDataValues<T> data) {
-        super(data);
+        this(data, RandomSource.XO_SHI_RO_128_PP.create());
+    }
+
+    /**
+     * Constructs a {@code ParametricSampler} that draws from the given RNG.
+     *
+     * @param data the relaxation data to be resampled; must contain at least one entry
+     * @param rng  the random source
+     */
+    public ParametricSampler(MolDataValues<T> data, UniformRandomProvider rng) {
+        super(data, rng);
         gaussian = ZigguratSampler.NormalizedGaussian.of(rng);
         originalObservables = data.getData().stream()
             .map(T::getObservables)
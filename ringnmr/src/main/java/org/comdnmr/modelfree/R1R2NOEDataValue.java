@@ -25,6 +25,13 @@ public class R1R2NOEDataValue extends RelaxDataValue {
     @Override public double[] getObservableErrors()  { return new double[]{R1err, R2err, NOEerr}; }
     @Override public void setObservables(double[] v) { R1 = v[0]; R2 = v[1]; NOE = v[2]; }
 
+    @Override
+    public R1R2NOEDataValue copy(MolDataValues<?> molDataValue) {
+        R1R2NOEDataValue copy = new R1R2NOEDataValue(molDataValue, R1, R1err, R2, R2err, NOE, NOEerr, relaxObj);
+        copy.rhoError = rhoError;
+        return copy;
+    }
+
     public void randomize(MolDataValues<R1R2NOEDataValue> molData, double r1, double r2,
                           double noe, Random random, double scale) {
         double newR1 = r1 + random.nextGaussian() * scale * R1err;
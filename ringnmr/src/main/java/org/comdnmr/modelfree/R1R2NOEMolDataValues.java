@@ -12,6 +12,7 @@ public class R1R2NOEMolDataValues extends MolDataValues<R1R2NOEDataValue> {
     }
     public R1R2NOEMolDataValues(Atom atom, double[] vector) { super(atom, vector); }
     public R1R2NOEMolDataValues(Atom atom)                  { super(atom); }
+    private R1R2NOEMolDataValues(R1R2NOEMolDataValues source) { super(source); }
 
     @Override
     public double[][] calcJ() {
@@ -37,4 +38,9 @@ public class R1R2NOEMolDataValues extends MolDataValues<R1R2NOEDataValue> {
     public MolDataValues<R1R2NOEDataValue> createEmpty() {
         return new R1R2NOEMolDataValues(atom, vector);
     }
+
+    @Override
+    protected MolDataValues<R1R2NOEDataValue> emptyCopy() {
+        return new R1R2NOEMolDataValues(this);
+    }
 }
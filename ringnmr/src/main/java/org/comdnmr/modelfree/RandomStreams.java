@@ -0,0 +1,78 @@
+package org.comdnmr.modelfree;
+
+import java.util.HexFormat;
+
+import org.apache.commons.rng.SplittableUniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+
+/**
+ * A node in a tree of independent, reproducible random streams.
+ *
+ * <p>The root is keyed on the fingerprint of a {@link FitSpec} and each child is
+ * derived from its parent by name, e.g. residue &rarr; model. A node holds only a
+ * 64-bit key, so deriving streams needs no shared state and no locking, and the
+ * generator created for a given path is the same whatever the order in which
+ * the paths are visited or the number of threads visiting them.</p>
+ *
+ * <p>Generators are {@link SplittableUniformRandomProvider}s, so a task that
+ * needs further independent streams can {@code split()} its own generator.</p>
+ */
+public final class RandomStreams {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long key;
+
+    private RandomStreams(long key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the root stream for a specification fingerprint.
+     *
+     * @param fingerprintHex hex digest, e.g. from {@link FitSpec#stateFingerprintHex(int)}
+     * @return the root of the stream tree
+     */
+    public static RandomStreams of(String fingerprintHex) {
+        long rootKey = HexFormat.fromHexDigitsToLong(fingerprintHex, 0, Math.min(16, fingerprintHex.length()));
+        return new RandomStreams(mix(rootKey));
+    }
+
+    /**
+     * Returns the child stream with the given name.
+     *
+     * @param name name of the child, e.g. a residue key or model name
+     * @return the child stream
+     */
+    public RandomStreams stream(String name) {
+        long childKey = key;
+        for (int i = 0; i < name.length(); i++) {
+            childKey = mix(childKey + GOLDEN_GAMMA * (name.charAt(i) + 1));
+        }
+        return new RandomStreams(mix(childKey ^ name.length()));
+    }
+
+    /**
+     * Creates a new generator for this stream. Each call returns a generator
+     * at the start of the same sequence.
+     *
+     * @return a generator that must not be shared between threads
+     */
+    public SplittableUniformRandomProvider create() {
+        long[] seed = {mix(key), mix(key + GOLDEN_GAMMA), mix(key + 2 * GOLDEN_GAMMA), mix(key + 3 * GOLDEN_GAMMA)};
+        return (SplittableUniformRandomProvider) RandomSource.L64_X128_MIX.create(seed);
+    }
+
+    long getKey() {
+        return key;
+    }
+
+    /**
+     * The SplitMix64 finalizer (Stafford variant 13).
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,5 +1,7 @@
 package org.comdnmr.modelfree;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -392,7 +394,7 @@ public class RegularizationFitSpec extends FitSpec {
         int nWeights = data.getNSpectralDensities();
         double[][] parameters = new double[nParameters][nReplicates];
         double[][] weights = new double[nWeights][nReplicates];
-        BootstrapSampler<? extends RelaxDataValue> sampler = getBootstrapSampler(data);
+        BootstrapSampler<? extends RelaxDataValue> sampler = getBootstrapSampler(data, getRandomSource(key, KEY));
 
         Score[] scores = new Score[nReplicates];
         double[] replicateTimes = new double[nReplicates];
@@ -412,20 +414,22 @@ public class RegularizationFitSpec extends FitSpec {
         double[] fitParameters = parameterEstimates.getLeft();
         double[] fitErrors = parameterEstimates.getRight();
 
-        orderParSetMap.computeIfAbsent(KEY, ky -> new OrderParSet(ky));
+        List<OrderParValues> orderParValues = new ArrayList<>();
         // FIXME: the Score used here (scores[0]) is from the first replicate.
         // For bootstrap fitting, there is no single score over the original
         // data; this should be revisited.
         OrderPar orderPar = makeOrderPar(
-            orderParSetMap.get(KEY),
+            orderParSetMap,
+            KEY,
             sampler.getOriginalData(),
             key,
             scores[0],
             model,
             fitParameters,
-            fitErrors
+            fitErrors,
+            orderParValues
         );
 
-        return new ModelFitResult(orderPar, parameters, null, replicateTimes);
+        return new ModelFitResult(orderPar, parameters, null, replicateTimes, orderParValues);
     }
 }
@@ -50,4 +50,10 @@ public abstract class RelaxDataValue  {
     public abstract double[] getObservableErrors();
     public abstract void setObservables(double[] values);
 
+    /**
+     * @param molDataValue the MolDataValues the copy belongs to
+     * @return a copy of this value with its current observables
+     */
+    public abstract RelaxDataValue copy(MolDataValues<?> molDataValue);
+
 }
@@ -20,6 +20,7 @@ package org.comdnmr.modelfree;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.comdnmr.modelfree.RelaxFit.DiffusionType;
 import static org.comdnmr.modelfree.RelaxFit.DiffusionType.ISOTROPIC;
@@ -30,7 +31,7 @@ import static org.comdnmr.modelfree.RelaxFit.DiffusionType.ISOTROPIC;
  */
 public class RelaxEquations {
 
-    static Map<String, RelaxEquations> relaxMap = new HashMap<>();
+    static Map<String, RelaxEquations> relaxMap = new ConcurrentHashMap<>();
 
     static final int S = 1;
     static final int ImS = 2;
@@ -123,11 +124,8 @@ public class RelaxEquations {
     public static RelaxEquations getRelaxEquations(double sf, String elem1, String elem2) {
         int sfI = (int) Math.round(sf / 1.0e6);
         String key = sfI + elem1 + elem2;
-        if (!relaxMap.containsKey(key)) {
-            RelaxEquations rObj = new RelaxEquations(sf, elem1, elem2);
-            relaxMap.put(key, rObj);
-        }
-        return relaxMap.get(key);
+        // reached from the parallel spectral density and model fits
+        return relaxMap.computeIfAbsent(key, k -> new RelaxEquations(sf, elem1, elem2));
     }
 
     public static void setR(String elem1, String elem2, double value) {
@@ -1,6 +1,7 @@
 package org.comdnmr.modelfree;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 import org.apache.commons.math3.geometry.euclidean.threed.NotARotationMatrixException;
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
@@ -9,6 +10,7 @@ import org.apache.commons.math3.geometry.euclidean.threed.RotationOrder;
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.optim.PointValuePair;
 import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.CMAESOptimizer;
+import org.apache.commons.math3.random.SobolSequenceGenerator;
 
 import org.comdnmr.data.Fitter;
 import static org.comdnmr.modelfree.RelaxFit.DiffusionType.ANISOTROPIC;
@@ -66,6 +68,15 @@ public class RelaxFit {
     double globalTau = 4.0e-9;
     boolean useGlobalTau = false;
 
+    // squared frequencies keyed by the identity of the frequency array they
+    // were computed from, and a buffer for the spectral densities, so that
+    // scoring an isotropic model neither squares nor allocates per evaluation
+    private static final int MAX_OMEGA2_ARRAYS = 256;
+    private final Map<double[], double[]> omega2Arrays = new IdentityHashMap<>();
+    private double[] jBuffer = new double[0];
+    // residues in a fixed order for the parallel diffusion score
+    private List<MolDataValues> residues = null;
+
     public double getGlobalTau() {
         return globalTau;
     }
@@ -136,10 +147,14 @@ public class RelaxFit {
     @SuppressWarnings("unchecked")
     public void setRelaxData(Map<String, ? extends MolDataValues> molDataValues) {
         this.molDataValues = (Map<String, MolDataValues>) molDataValues;
+        omega2Arrays.clear();
+        residues = null;
     }
     public void setRelaxData(String key, MolDataValues data) {
         Map<String, MolDataValues> map = new HashMap<>() {{ put(key, data); }};
         molDataValues = map;
+        omega2Arrays.clear();
+        residues = null;
     }
 
     public void setDiffusionType(DiffusionType type) {
@@ -383,11 +398,49 @@ public class RelaxFit {
         return new Array2DRowRealMatrix(rot.getMatrix()).transpose().getData();
     }
 
+    private double[] omega2s(double[] omegas) {
+        double[] omega2s = omega2Arrays.get(omegas);
+        if (omega2s == null) {
+            if (omega2Arrays.size() >= MAX_OMEGA2_ARRAYS) {
+                omega2Arrays.clear();
+            }
+            omega2s = new double[omegas.length];
+            for (int i = 0; i < omegas.length; i++) {
+                omega2s[i] = omegas[i] * omegas[i];
+            }
+            omega2Arrays.put(omegas, omega2s);
+        }
+        return omega2s;
+    }
+
+    private double[] jBuffer(int n) {
+        if (jBuffer.length != n) {
+            jBuffer = new double[n];
+        }
+        return jBuffer;
+    }
+
+    /**
+     * Evaluates the spectral density of a model at the given frequencies. For
+     * isotropic models the squared frequencies are looked up rather than
+     * recomputed and the result is written to a reused buffer, so the returned
+     * array is only valid until the next call.
+     */
+    private double[] calcJ(MFModel testModel, double[] omegas, double[] resPars) {
+        if (testModel instanceof MFModelIso isoModel) {
+            double[] js = jBuffer(omegas.length);
+            isoModel.calcOmega2(omega2s(omegas), resPars, js);
+            return js;
+        } else {
+            return testModel.calc(omegas, resPars);
+        }
+    }
+
     double[] calcDeltaSqJ(MolDataValues molData, double[] resPars, MFModel testModel, boolean report) {
         double sumSq = 0.0;
         double sumSqNW = 0.0;
         double[][] jValues = molData.getJValues();
-        double[] jCalc = testModel.calc(jValues[0], resPars);
+        double[] jCalc = calcJ(testModel, jValues[0], resPars);
         int nValues = jCalc.length;
         double[] weights = jValues[jValues.length - 1];
         for (int i=0;i< jCalc.length;i++) {
@@ -434,7 +487,7 @@ public class RelaxFit {
         for (RelaxDataValue value : molData.getData()) {
             R1R2NOEDataValue dValue  = (R1R2NOEDataValue) value;
             RelaxEquations relaxObj = dValue.relaxObj;
-            double[] J = testModel.calc(relaxObj.wValues, resPars);
+            double[] J = calcJ(testModel, relaxObj.wValues, resPars);
             sumComplexityS += testModel.getComplexityS();
             sumComplexityTauF += testModel.getComplexityTauF();
             sumComplexityTauS += testModel.getComplexityTauS();
@@ -602,56 +655,92 @@ public class RelaxFit {
         return rms;
     }
 
+    /**
+     * Scores a diffusion tensor against the relaxation data of all residues.
+     * The per-residue sums are computed in parallel and added in residue
+     * order, so the result does not depend on the number of threads. Each
+     * residue must have its own test model, as it is updated with the tensor.
+     *
+     * @param pars   diffusion parameters and angles; not modified
+     * @param values unused
+     * @return rms deviation between predicted and experimental rho
+     */
     public double valueDMat(double[] pars, double[][] values) {
-        if (diffusionType == OBLATE || diffusionType == PROLATE) {
-            Arrays.sort(pars, 0, 2);
-        } else if (diffusionType == ANISOTROPIC) {
-            Arrays.sort(pars, 0, 3);
-        }
+        double[] dPars = pars.clone();
+        sortDiffusionPars(dPars);
         double[][] valD = null;
         double[][] valVT = null;
         if (diffusionType != DiffusionType.ISOTROPIC) {
-            valD = parsToD(pars, diffusionType);
-            valVT = parsToVT(pars, diffusionType);
+            valD = parsToD(dPars, diffusionType);
+            valVT = parsToVT(dPars, diffusionType);
         }
+        double[][] D = valD;
+        double[][] VT = valVT;
+        List<MolDataValues> residues = getResidues();
+        double[] residueSumSq = new double[residues.size()];
+        IntStream.range(0, residues.size()).parallel().forEach(i
+                -> residueSumSq[i] = sumSqDMat(residues.get(i), dPars, D, VT));
         double sumSq = 0.0;
-        int nDiffPars = diffusionType.getNDiffusionPars() + diffusionType.getNAnglePars();
         int n = 0;
-        for (MolDataValues molData : molDataValues.values()) {
-            MFModel model = molData.getTestModel();
-            for (Object rawValue : molData.getData()) {
-                R1R2NOEDataValue dValue  = (R1R2NOEDataValue) rawValue;
-                RelaxEquations relaxObj = dValue.relaxObj;
-                double[] v = molData.getVector();
-                int nModelPars = model.getNPars();
-                double[] resPars = new double[nModelPars + nDiffPars];
-                System.arraycopy(pars, 0, resPars, 0, nDiffPars);
-                resPars[resPars.length - 1] = 1.0; //Model 0: S2 = 1.0, all others null.
-                double[] valJ;
-                if (model instanceof MFModelIso) {
-                    resPars[0] = 1.0 / (6.0 * resPars[0]);
-                    valJ = model.calc(relaxObj.wValues, resPars);
-                } else {
-                    valJ = getJDiffusion(resPars, relaxObj, (MFModelAniso) model, v, valD, valVT);
-                }
-                double rhoExp = dValue.calcExpRho(valJ);
-                double rhoPred = dValue.calcPredRho(valJ);
-                double delta = rhoPred - rhoExp;
-                sumSq += delta * delta;
-                n++;
-            }
+        for (int i = 0; i < residueSumSq.length; i++) {
+            sumSq += residueSumSq[i];
+            n += residues.get(i).getData().size();
         }
-
         return n == 0 ? 0.0 : Math.sqrt(sumSq / n);
+    }
 
+    private double sumSqDMat(MolDataValues<?> molData, double[] pars, double[][] D, double[][] VT) {
+        MFModel model = molData.getTestModel();
+        int nDiffPars = diffusionType.getNDiffusionPars() + diffusionType.getNAnglePars();
+        int nModelPars = model.getNPars();
+        double[] resPars = new double[nModelPars + nDiffPars];
+        System.arraycopy(pars, 0, resPars, 0, nDiffPars);
+        resPars[resPars.length - 1] = 1.0; //Model 0: S2 = 1.0, all others null.
+        MFModelAniso anisoModel = null;
+        double[] modelPars = null;
+        if (model instanceof MFModelIso) {
+            resPars[0] = 1.0 / (6.0 * resPars[0]);
+        } else {
+            // the tensor is the same for every field, so update the model once
+            anisoModel = (MFModelAniso) model;
+            anisoModel.update(D, VT);
+            modelPars = Arrays.copyOfRange(resPars, nDiffPars, nDiffPars + nModelPars);
+        }
+        double sumSq = 0.0;
+        for (RelaxDataValue rawValue : molData.getData()) {
+            R1R2NOEDataValue dValue = (R1R2NOEDataValue) rawValue;
+            RelaxEquations relaxObj = dValue.relaxObj;
+            double[] valJ;
+            if (anisoModel == null) {
+                valJ = model.calc(relaxObj.wValues, resPars);
+            } else {
+                valJ = anisoModel.calc(relaxObj.wValues, modelPars);
+            }
+            double rhoExp = dValue.calcExpRho(valJ);
+            double rhoPred = dValue.calcPredRho(valJ);
+            double delta = rhoPred - rhoExp;
+            sumSq += delta * delta;
+        }
+        return sumSq;
     }
 
-    public void dumpValues(double[] pars) {
+    private void sortDiffusionPars(double[] pars) {
         if (diffusionType == OBLATE || diffusionType == PROLATE) {
             Arrays.sort(pars, 0, 2);
         } else if (diffusionType == ANISOTROPIC) {
             Arrays.sort(pars, 0, 3);
         }
+    }
+
+    private List<MolDataValues> getResidues() {
+        if (residues == null || residues.size() != molDataValues.size()) {
+            residues = new ArrayList<>(molDataValues.values());
+        }
+        return residues;
+    }
+
+    public void dumpValues(double[] pars) {
+        sortDiffusionPars(pars);
         double[][] valD = parsToD(pars, diffusionType);
         double[][] valVT = parsToVT(pars, diffusionType);
         int modelNum = 1;
@@ -749,6 +838,70 @@ public class RelaxFit {
     }
 
     public PointValuePair fitDiffusion(double[] guesses) {
+        PointValuePair result = refineDiffusion(guesses);
+        if (result != null) {
+            bestPars = result.getPoint();
+            bestChiSq = result.getValue();
+        }
+        return result;
+    }
+
+    /**
+     * Fits the diffusion tensor from the best of a quasi-random scan rather
+     * than from a single start. The diffusion values are scanned log-uniformly
+     * over a factor of 2 either side of the guesses and the angles over
+     * [0, pi), with candidates drawn from a Sobol sequence so the coverage is
+     * even and the scan reproducible. Each candidate is scored with
+     * {@link #valueDMat} (itself parallel over residues). The guess itself is
+     * always refined, as in {@link #fitDiffusion(double[])}, and so are the
+     * best {@code nBest} candidates, so the result is never worse than that
+     * of refining the guess alone.
+     *
+     * @param guesses     diffusion values followed by angles
+     * @param nCandidates number of scanned candidates
+     * @param nBest       number of candidates refined in addition to the guess
+     * @return the best refined fit, or null if no refinement succeeded
+     */
+    public PointValuePair fitDiffusion(double[] guesses, int nCandidates, int nBest) {
+        int nDiffPars = diffusionType.getNDiffusionPars();
+        int nPars = nDiffPars + diffusionType.getNAnglePars();
+        List<PointValuePair> candidates = new ArrayList<>();
+        // the models are updated in place by valueDMat, so candidates are
+        // scored one at a time and the parallelism is over residues
+        SobolSequenceGenerator sobol = new SobolSequenceGenerator(nPars);
+        sobol.skipTo(1);
+        for (int iCandidate = 0; iCandidate < nCandidates; iCandidate++) {
+            double[] u = sobol.nextVector();
+            double[] candidate = new double[nPars];
+            for (int i = 0; i < nDiffPars; i++) {
+                candidate[i] = guesses[i] * Math.pow(2.0, 2.0 * u[i] - 1.0);
+            }
+            for (int i = nDiffPars; i < nPars; i++) {
+                candidate[i] = Math.PI * u[i];
+            }
+            candidates.add(new PointValuePair(candidate, valueDMat(candidate, null)));
+        }
+        candidates.sort(Comparator.comparingDouble(PointValuePair::getValue));
+        List<double[]> starts = new ArrayList<>();
+        starts.add(guesses);
+        for (int i = 0; i < Math.min(nBest, candidates.size()); i++) {
+            starts.add(candidates.get(i).getPoint());
+        }
+        PointValuePair best = null;
+        for (double[] start : starts) {
+            PointValuePair result = refineDiffusion(start);
+            if ((result != null) && ((best == null) || (result.getValue() < best.getValue()))) {
+                best = result;
+            }
+        }
+        if (best != null) {
+            bestPars = best.getPoint();
+            bestChiSq = best.getValue();
+        }
+        return best;
+    }
+
+    private PointValuePair refineDiffusion(double[] guesses) {
         Fitter fitter = Fitter.getArrayFitter(this::valueDMat);
         double[] lower = new double[guesses.length];
         double[] upper = new double[guesses.length];
@@ -763,10 +916,7 @@ public class RelaxFit {
             upper[i] = guesses[i] + Math.PI / 4.0;
         }
         try {
-            PointValuePair result = fitter.fit(guesses, lower, upper, 10.0);
-            bestPars = result.getPoint();
-            bestChiSq = result.getValue();
-            return result;
+            return fitter.fit(guesses, lower, upper, 10.0);
         } catch (Exception ex) {
             ex.printStackTrace();
             return null;
@@ -76,31 +76,18 @@ public class SpectralDensityCalculator {
         int stepSize = useAverage ? 2 : 3;
         int nFreq = useAverage ? 1 + stepSize * nDataValues : stepSize * nDataValues;
         double[][] result = new double[4][nFreq];
+        double[] mapped = new double[6];
         int iField = 0;
         for (R1R2NOEDataValue relaxDataValue : dataValues) {
             RelaxEquations relaxEq = relaxDataValue.relaxObj;
-            double r1 = relaxDataValue.R1;
-            double r2 = relaxDataValue.R2;
-            double noe = relaxDataValue.NOE;
-            double r1Err = relaxDataValue.R1err;
-            double r2Err = relaxDataValue.R2err;
-            double noeErr = relaxDataValue.NOEerr;
-            double sigma = (noe - 1.0) * r1 * RelaxEquations.GAMMA_N / RelaxEquations.GAMMA_H;
-            double sigmaErr = sigma * Math.sqrt(Math.pow((noeErr / (noe - 1.0)), 2) + Math.pow((r1Err / r1), 2));
-
-            double d2 = relaxEq.getD2();
-            double c2 = relaxEq.getC2();
-
-            double j87H = 4.0 * sigma / (5.0 * d2);
-            double j87Herr = 4.0 * sigmaErr / (5.0 * d2);
-
-            double jNMul = 4.0 / (3.0 * d2 + 4.0 * c2);
-            double jN = (r1 - 1.249 * sigma) * jNMul;
-            double jNerr = jNMul * Math.sqrt(Math.pow(r1Err, 2) + Math.pow(1.249 * sigmaErr, 2));
-
-            double j0Mul = 6.0 / (3.0 * d2 + 4.0 * c2);
-            double j0 = j0Mul * (r2 - 0.5 * r1 - 0.454 * sigma);
-            double j0Err = j0Mul * Math.sqrt(Math.pow(r2Err, 2) + Math.pow(0.5 * r1Err, 2) + Math.pow(0.454 * sigmaErr, 2));
+            reducedMapping(relaxEq, relaxDataValue.R1, relaxDataValue.R1err, relaxDataValue.R2, relaxDataValue.R2err,
+                    relaxDataValue.NOE, relaxDataValue.NOEerr, mapped);
+            double j0 = mapped[0];
+            double j0Err = mapped[1];
+            double j87H = mapped[2];
+            double j87Herr = mapped[3];
+            double jN = mapped[4];
+            double jNerr = mapped[5];
 
             if (useAverage) {
                 result[0][0] = 0.0;
@@ -129,6 +116,46 @@ public class SpectralDensityCalculator {
         return result;
     }
 
+    /**
+     * Reduced spectral density mapping of one set of R1, R2 and NOE values.
+     *
+     * @param relaxEq relaxation equations for the field
+     * @param r1      R1
+     * @param r1Err   error of R1
+     * @param r2      R2
+     * @param r2Err   error of R2
+     * @param noe     NOE
+     * @param noeErr  error of NOE
+     * @param result  receives J(0), its error, J(0.87 wH), its error, J(wN)
+     *                and its error
+     */
+    static void reducedMapping(RelaxEquations relaxEq, double r1, double r1Err, double r2, double r2Err,
+                               double noe, double noeErr, double[] result) {
+        double sigma = (noe - 1.0) * r1 * RelaxEquations.GAMMA_N / RelaxEquations.GAMMA_H;
+        double sigmaErr = sigma * Math.sqrt(Math.pow((noeErr / (noe - 1.0)), 2) + Math.pow((r1Err / r1), 2));
+
+        double d2 = relaxEq.getD2();
+        double c2 = relaxEq.getC2();
+
+        double j87H = 4.0 * sigma / (5.0 * d2);
+        double j87Herr = 4.0 * sigmaErr / (5.0 * d2);
+
+        double jNMul = 4.0 / (3.0 * d2 + 4.0 * c2);
+        double jN = (r1 - 1.249 * sigma) * jNMul;
+        double jNerr = jNMul * Math.sqrt(Math.pow(r1Err, 2) + Math.pow(1.249 * sigmaErr, 2));
+
+        double j0Mul = 6.0 / (3.0 * d2 + 4.0 * c2);
+        double j0 = j0Mul * (r2 - 0.5 * r1 - 0.454 * sigma);
+        double j0Err = j0Mul * Math.sqrt(Math.pow(r2Err, 2) + Math.pow(0.5 * r1Err, 2) + Math.pow(0.454 * sigmaErr, 2));
+
+        result[0] = j0;
+        result[1] = j0Err;
+        result[2] = j87H;
+        result[3] = j87Herr;
+        result[4] = jN;
+        result[5] = jNerr;
+    }
+
     public static int getNData(List<? extends RelaxDataValue> dataValues) {
         int n = 0;
         if (!dataValues.isEmpty()) {
@@ -0,0 +1,184 @@
+package org.comdnmr.modelfree;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.optim.PointValuePair;
+
+/**
+ * Spectral density mapping of R1, R2 and NOE data for many residues at once.
+ *
+ * <p>The input is columnar: row {@code i} of every array is one residue at one
+ * field, so a whole protein at several fields is passed as a handful of
+ * primitive arrays rather than as lists of {@link R1R2NOEDataValue}s. The
+ * result is a {@link Table} with the same rows.</p>
+ */
+public final class SpectralDensityMapping {
+
+    private SpectralDensityMapping() {
+
+    }
+
+    /**
+     * Mapped spectral densities, one row per input row.
+     *
+     * @param keys  residue of each row
+     * @param sfs   spectrometer frequency of each row (Hz)
+     * @param j0    J(0)
+     * @param j0Err error of J(0)
+     * @param wN    frequency of {@code jN}
+     * @param jN    J(wN)
+     * @param jNErr error of J(wN)
+     * @param wH    frequency at which {@code jH} is given: 0.87 wH for the
+     *              reduced mapping, wH for the fitted one
+     * @param jH    J at {@code wH}
+     * @param jHErr error of {@code jH}; NaN for the fitted mapping
+     */
+    public record Table(String[] keys, double[] sfs, double[] j0, double[] j0Err, double[] wN, double[] jN,
+                        double[] jNErr, double[] wH, double[] jH, double[] jHErr) {
+
+        public int size() {
+            return keys.length;
+        }
+
+        /**
+         * Returns a range of rows laid out as
+         * {@link SpectralDensityCalculator#calcJR1R2NOE} lays out the fields
+         * of one residue: frequencies, values, errors and weights, with
+         * J(0), J at {@code wH} and J(wN) for each row.
+         *
+         * @param start first row
+         * @param end   row after the last one
+         * @return the spectral densities of the rows
+         */
+        public double[][] jValues(int start, int end) {
+            int nFreq = 3 * (end - start);
+            double[][] result = new double[4][nFreq];
+            for (int i = start; i < end; i++) {
+                int k = 3 * (i - start);
+                result[0][k] = 0.0;
+                result[1][k] = j0[i];
+                result[2][k] = j0Err[i];
+                result[0][k + 1] = wH[i];
+                result[1][k + 1] = jH[i];
+                result[2][k + 1] = jHErr[i];
+                result[0][k + 2] = wN[i];
+                result[1][k + 2] = jN[i];
+                result[2][k + 2] = jNErr[i];
+            }
+            Arrays.fill(result[3], 1.0);
+            return result;
+        }
+    }
+
+    /**
+     * Closed-form reduced spectral density mapping of every row.
+     *
+     * @param keys   residue of each row
+     * @param sfs    spectrometer frequency of each row (Hz)
+     * @param r1     R1 of each row
+     * @param r1Err  errors of R1
+     * @param r2     R2 of each row
+     * @param r2Err  errors of R2
+     * @param noe    NOE of each row
+     * @param noeErr errors of NOE
+     * @param elem1  the detected nucleus' partner, e.g. "H"
+     * @param elem2  the detected nucleus, e.g. "N"
+     * @return the mapped values
+     */
+    public static Table reduced(String[] keys, double[] sfs, double[] r1, double[] r1Err,
+                                double[] r2, double[] r2Err, double[] noe, double[] noeErr,
+                                String elem1, String elem2) {
+        int n = checkLengths(keys, sfs, r1, r1Err, r2, r2Err, noe, noeErr);
+        RelaxEquations[] relaxEqs = getRelaxEquations(sfs, elem1, elem2);
+        Table table = newTable(keys, sfs);
+        double[] mapped = new double[6];
+        for (int i = 0; i < n; i++) {
+            SpectralDensityCalculator.reducedMapping(relaxEqs[i], r1[i], r1Err[i], r2[i], r2Err[i],
+                    noe[i], noeErr[i], mapped);
+            table.j0[i] = mapped[0];
+            table.j0Err[i] = mapped[1];
+            table.wN[i] = relaxEqs[i].getWS();
+            table.wH[i] = 0.87 * relaxEqs[i].getWI();
+            table.jH[i] = mapped[2];
+            table.jHErr[i] = mapped[3];
+            table.jN[i] = mapped[4];
+            table.jNErr[i] = mapped[5];
+        }
+        return table;
+    }
+
+    /**
+     * Spectral density mapping by fitting J(0), J(wN) and J(wH) to each row,
+     * as {@link SpectralDensityCalculator#fit} does, with the rows fit in
+     * parallel. The errors of the reduced mapping are reported for J(0) and
+     * J(wN); rows that can not be fit are NaN.
+     *
+     * @param keys   residue of each row
+     * @param sfs    spectrometer frequency of each row (Hz)
+     * @param r1     R1 of each row
+     * @param r1Err  errors of R1
+     * @param r2     R2 of each row
+     * @param r2Err  errors of R2
+     * @param noe    NOE of each row
+     * @param noeErr errors of NOE
+     * @param elem1  the detected nucleus' partner, e.g. "H"
+     * @param elem2  the detected nucleus, e.g. "N"
+     * @return the mapped values
+     */
+    public static Table fitted(String[] keys, double[] sfs, double[] r1, double[] r1Err,
+                               double[] r2, double[] r2Err, double[] noe, double[] noeErr,
+                               String elem1, String elem2) {
+        int n = checkLengths(keys, sfs, r1, r1Err, r2, r2Err, noe, noeErr);
+        RelaxEquations[] relaxEqs = getRelaxEquations(sfs, elem1, elem2);
+        Table reduced = reduced(keys, sfs, r1, r1Err, r2, r2Err, noe, noeErr, elem1, elem2);
+        Table table = newTable(keys, sfs);
+        IntStream.range(0, n).parallel().forEach(i -> {
+            R1R2NOEDataValue dValue = new R1R2NOEDataValue(null, r1[i], r1Err[i], r2[i], r2Err[i],
+                    noe[i], noeErr[i], relaxEqs[i]);
+            PointValuePair result = new SpectralDensityCalculator().fit(dValue);
+            table.wN[i] = relaxEqs[i].getWS();
+            table.wH[i] = relaxEqs[i].getWI();
+            table.jHErr[i] = Double.NaN;
+            if (result == null) {
+                table.j0[i] = Double.NaN;
+                table.j0Err[i] = Double.NaN;
+                table.jN[i] = Double.NaN;
+                table.jNErr[i] = Double.NaN;
+                table.jH[i] = Double.NaN;
+            } else {
+                // J(0), J(wN), J(wH - wN), J(wH), J(wH + wN)
+                double[] j = result.getPoint();
+                table.j0[i] = j[0];
+                table.j0Err[i] = reduced.j0Err[i];
+                table.jN[i] = j[1];
+                table.jNErr[i] = reduced.jNErr[i];
+                table.jH[i] = j[3];
+            }
+        });
+        return table;
+    }
+
+    private static Table newTable(String[] keys, double[] sfs) {
+        int n = keys.length;
+        return new Table(keys.clone(), sfs.clone(), new double[n], new double[n], new double[n], new double[n],
+                new double[n], new double[n], new double[n], new double[n]);
+    }
+
+    private static RelaxEquations[] getRelaxEquations(double[] sfs, String elem1, String elem2) {
+        // one lookup per row, shared by the mapping and the fits
+        return Arrays.stream(sfs)
+                .mapToObj(sf -> RelaxEquations.getRelaxEquations(sf, elem1, elem2))
+                .toArray(RelaxEquations[]::new);
+    }
+
+    private static int checkLengths(String[] keys, double[]... columns) {
+        int n = keys.length;
+        for (double[] column : columns) {
+            if (column.length != n) {
+                throw new IllegalArgumentException("All columns must have " + n + " rows");
+            }
+        }
+        return n;
+    }
+}
@@ -15,6 +15,7 @@ public abstract class StructureValues {
     public MolDataValues<? extends RelaxDataValue> get(String key) { return map.get(key); }
     public void put(String key, MolDataValues<? extends RelaxDataValue> value) { map.put(key, value); }
     public int size() { return map.size(); }
+    public Set<String> keySet() { return map.keySet(); }
     public Set<Map.Entry<String, MolDataValues<? extends RelaxDataValue>>> entrySet() { return map.entrySet(); }
     public Collection<MolDataValues<? extends RelaxDataValue>> values() { return map.values(); }
 
@@ -2,6 +2,8 @@ package org.comdnmr.modelfree;
 
 import java.util.Arrays;
 
+import org.apache.commons.rng.UniformRandomProvider;
+
 /**
  * Abstract base for weight-based bootstrap samplers.
  *
@@ -20,6 +22,8 @@ public abstract class WeightSampler<T extends RelaxDataValue> extends BootstrapS
 
     WeightSampler(MolDataValues<T> data) { super(data); }
 
+    WeightSampler(MolDataValues<T> data, UniformRandomProvider rng) { super(data, rng); }
+
     /**
      * Generates a weight vector for the next bootstrap replicate.
      *
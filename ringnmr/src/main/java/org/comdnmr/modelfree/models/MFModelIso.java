@@ -85,6 +85,19 @@ public abstract class MFModelIso extends MFModel {
         return tauM;
     }
 
+    /**
+     * Sets the target correlation time, which also becomes the fixed tauM
+     * when tauM is not fitted. The parameter bounds follow the new value.
+     *
+     * @param tau overall correlation time (ns)
+     */
+    public void setTau(double tau) {
+        targetTau = tau;
+        if (!fitTau) {
+            tauM = tau;
+        }
+    }
+
     public void setTauFraction(double value) {
         tauFrac = value;
     }
@@ -99,6 +112,42 @@ public abstract class MFModelIso extends MFModel {
 
     public abstract double[] getStart();
 
+    public abstract void pars(double[] pars);
+
+    /**
+     * Evaluates the spectral density, with the current parameters, at squared
+     * angular frequencies. Nothing is allocated, so callers that score many
+     * parameter sets against the same fields can square the frequencies once
+     * and reuse both arrays.
+     *
+     * @param omega2s squared angular frequencies
+     * @param js      receives J(omega) for each frequency; may be {@code omega2s}
+     */
+    public abstract void calcOmega2(double[] omega2s, double[] js);
+
+    /**
+     * Sets the parameters and evaluates the spectral density at squared
+     * angular frequencies.
+     *
+     * @param omega2s squared angular frequencies
+     * @param pars    model parameters
+     * @param js      receives J(omega) for each frequency; may be {@code omega2s}
+     */
+    public void calcOmega2(double[] omega2s, double[] pars, double[] js) {
+        pars(pars);
+        calcOmega2(omega2s, js);
+    }
+
+    @Override
+    public double[] calc(double[] omegas) {
+        double[] js = new double[omegas.length];
+        for (int i = 0; i < omegas.length; i++) {
+            js[i] = omegas[i] * omegas[i];
+        }
+        calcOmega2(js, js);
+        return js;
+    }
+
     protected double[] createStandardPars(double sf2, double tauf, double ss2, double taus) {
         double[] pars;
         int start;
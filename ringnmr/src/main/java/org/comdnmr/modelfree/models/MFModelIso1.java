@@ -55,20 +55,17 @@ public class MFModelIso1 extends MFModelIso {
     }
 
     @Override
-    public double[] calc(double[] omegas) {
+    public void calcOmega2(double[] omega2s, double[] js) {
         double tauM = 1.0e-9 * this.tauM;
         double sf2 = this.sf2 / sN;
 
         double sf2TauMTimesPt4 = 0.4 * sf2 * tauM;
         double tauM2 = tauM * tauM;
 
-        int index = 0;
-        double[] js = new double[omegas.length];
-        for (double omega : omegas) {
-            double omega2 = omega * omega;
-            js[index++] = sf2TauMTimesPt4 / (1.0 + omega2 * tauM2);
+        for (int i = 0; i < omega2s.length; i++) {
+            double omega2 = omega2s[i];
+            js[i] = sf2TauMTimesPt4 / (1.0 + omega2 * tauM2);
         }
-        return js;
     }
 
     @Override
@@ -52,7 +52,7 @@ public class MFModelIso1f extends MFModelIso1 {
     }
 
     @Override
-    public double[] calc(double[] omegas) {
+    public void calcOmega2(double[] omega2s, double[] js) {
         double tauM = 1.0e-9 * this.tauM;
         double tauF = 1.0e-9 * this.tauF;
         double sf2 = this.sf2 / sN;
@@ -64,16 +64,13 @@ public class MFModelIso1f extends MFModelIso1 {
         double tauMPlusTauF = tauM + tauF;
         double tauMPlusTauF2 = tauMPlusTauF * tauMPlusTauF;
 
-        int index = 0;
-        double[] js = new double[omegas.length];
-        for (double omega : omegas) {
-            double omega2 = omega * omega;
+        for (int i = 0; i < omega2s.length; i++) {
+            double omega2 = omega2s[i];
             double term1 = sf2 / (1.0 + omega2 * tauM2);
             double term2 = ((1.0 - sf2) * tauF * tauMPlusTauF) /
                 (omega2 * tauM2TimesTauF2 + tauMPlusTauF2);
-            js[index++] = tauMTimesPt4 * (term1 + term2);
+            js[i] = tauMTimesPt4 * (term1 + term2);
         }
-        return js;
     }
 
     @Override
@@ -53,7 +53,7 @@ public class MFModelIso1s extends MFModelIso {
     }
 
     @Override
-    public double[] calc(double[] omegas) {
+    public void calcOmega2(double[] omega2s, double[] js) {
         double tauM = 1.0e-9 * this.tauM;
         double tauS = 1.0e-9 * this.tauS;
         double ss2 = this.ss2;
@@ -65,16 +65,13 @@ public class MFModelIso1s extends MFModelIso {
         double tauMPlusTauS = tauM + tauS;
         double tauMPlusTauS2 = tauMPlusTauS * tauMPlusTauS;
 
-        int index = 0;
-        double[] js = new double[omegas.length];
-        for (double omega : omegas) {
-            double omega2 = omega * omega;
+        for (int i = 0; i < omega2s.length; i++) {
+            double omega2 = omega2s[i];
             double term1 = ss2 / (1.0 + omega2 * tauM2);
             double term2 = ((1.0 - ss2) * tauS * tauMPlusTauS) /
                 (omega2 * tauM2TimesTauS2 + tauMPlusTauS2);
-            js[index++] = tauMTimesPt4 * (term1 + term2);
+            js[i] = tauMTimesPt4 * (term1 + term2);
         }
-        return js;
     }
 
     @Override
@@ -54,7 +54,7 @@ public class MFModelIso1sf extends MFModelIso2f {
     }
 
     @Override
-    public double[] calc(double[] omegas) {
+    public void calcOmega2(double[] omega2s, double[] js) {
         double tauM = 1.0e-9 * this.tauM;
         double tauF = 1.0e-9 * this.tauF;
         double tauS = 1.0e-9 * this.tauS;
@@ -77,10 +77,8 @@ public class MFModelIso1sf extends MFModelIso2f {
         double tauM2TimesTauS2 = tauM2 * tauS2;
         double tauM2TimesTauF2TimesTauS2 = tauM2 * tauF2 * tauS2;
 
-        double[] js = new double[omegas.length];
-        int index = 0;
-        for (double omega : omegas) {
-            double omega2 = omega * omega;
+        for (int i = 0; i < omega2s.length; i++) {
+            double omega2 = omega2s[i];
             double term1 = s2 / (1.0 + omega2 * tauM2);
             double term2 = sf2 * (1.0 - ss2) * (
                 (tauS * tauMPlusTauS) / (omega2 * tauM2TimesTauS2 + tauMPlusTauS2)
@@ -91,9 +89,8 @@ public class MFModelIso1sf extends MFModelIso2f {
             double term4 = (1.0 - sf2) * (1.0 - ss2) * (
                 (tauFTimesTauS * tauPrime) / (omega2 * tauM2TimesTauF2TimesTauS2 + tauPrime2)
             );
-            js[index++] = tauMTimesPt4 * (term1 + term2 + term3 + term4);
+            js[i] = tauMTimesPt4 * (term1 + term2 + term3 + term4);
         }
-        return js;
     }
 
     @Override
@@ -52,7 +52,7 @@ public class MFModelIso2f extends MFModelIso1f {
     }
 
     @Override
-    public double[] calc(double[] omegas) {
+    public void calcOmega2(double[] omega2s, double[] js) {
         double tauM = 1.0e-9 * this.tauM;
         double tauF = 1.0e-9 * this.tauF;
         double ss2 = this.ss2;
@@ -66,17 +66,14 @@ public class MFModelIso2f extends MFModelIso1f {
         double tauMPlusTauF2 = tauMPlusTauF * tauMPlusTauF;
         double tauM2TimesTauF2 = tauM2 * tauF2;
 
-        double[] js = new double[omegas.length];
-        int index = 0;
-        for (double omega : omegas) {
-            double omega2 = omega * omega;
+        for (int i = 0; i < omega2s.length; i++) {
+            double omega2 = omega2s[i];
             double term1 = s2 / (1.0 + omega2 * tauM2);
             double term2 = (ss2 - s2) * (
                 (tauF * tauMPlusTauF) / (omega2 * tauM2TimesTauF2 + tauMPlusTauF2)
             );
-            js[index++] = tauMTimesPt4 * (term1 + term2);
+            js[i] = tauMTimesPt4 * (term1 + term2);
         }
-        return js;
     }
 
     @Override
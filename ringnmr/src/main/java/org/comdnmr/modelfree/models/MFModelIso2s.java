@@ -52,7 +52,7 @@ public class MFModelIso2s extends MFModelIso1s {
     }
 
     @Override
-    public double[] calc(double[] omegas) {
+    public void calcOmega2(double[] omega2s, double[] js) {
         double tauM = 1.0e-9 * this.tauM;
         double tauS = 1.0e-9 * this.tauS;
         double sf2 = this.sf2 / sN;
@@ -65,17 +65,14 @@ public class MFModelIso2s extends MFModelIso1s {
         double tauMPlusTauS2 = tauMPlusTauS * tauMPlusTauS;
         double tauM2TimesTauS2 = tauM2 * tauS2;
 
-        double[] js = new double[omegas.length];
-        int index = 0;
-        for (double omega : omegas) {
-            double omega2 = omega * omega;
+        for (int i = 0; i < omega2s.length; i++) {
+            double omega2 = omega2s[i];
             double term1 = s2 / (1.0 + omega2 * tauM2);
             double term2 = (sf2 - s2) * (
                 (tauS * tauMPlusTauS) / (omega2 * tauM2TimesTauS2 + tauMPlusTauS2)
             );
-            js[index++] = tauMTimesPt4 * (term1 + term2);
+            js[i] = tauMTimesPt4 * (term1 + term2);
         }
-        return js;
     }
 
     @Override
@@ -58,7 +58,7 @@ public class MFModelIso2sf extends MFModelIso2s {
     }
 
     @Override
-    public double[] calc(double[] omegas) {
+    public void calcOmega2(double[] omega2s, double[] js) {
         double tauM = 1.0e-9 * this.tauM;
         double tauF = 1.0e-9 * this.tauF;
         double tauS = 1.0e-9 * this.tauS;
@@ -81,10 +81,8 @@ public class MFModelIso2sf extends MFModelIso2s {
         double tauM2TimesTauS2 = tauM2 * tauS2;
         double tauM2TimesTauF2TimesTauS2 = tauM2 * tauF2 * tauS2;
 
-        double[] js = new double[omegas.length];
-        int index = 0;
-        for (double omega : omegas) {
-            double omega2 = omega * omega;
+        for (int i = 0; i < omega2s.length; i++) {
+            double omega2 = omega2s[i];
             double term1 = ((sf2 / sN) * ss2) / (1.0 + omega2 * tauM2);
             double term2 = (sf2 / sN) * (1.0 - ss2) * (
                 (tauS * tauMPlusTauS) / (omega2 * tauM2TimesTauS2 + tauMPlusTauS2)
@@ -99,14 +97,12 @@ public class MFModelIso2sf extends MFModelIso2s {
                     (tauFTimesTauS * tauPrime) / (omega2 * tauM2TimesTauF2TimesTauS2 + tauPrime2)
                 );
             }
-            js[index++] = tauMTimesPt4 * (term1 + term2 + term3 + term4);
+            js[i] = tauMTimesPt4 * (term1 + term2 + term3 + term4);
         }
 
         complexityS = Math.abs(1.0 - sf2) + Math.abs(1.0 - ss2);
         complexityTauF = Math.log10((tauF + TAU_PRIME) / TAU_PRIME);
         complexityTauS = Math.log10((tauS + TAU_PRIME) / TAU_PRIME);
-
-        return js;
     }
 
     @Override
@@ -1,12 +1,18 @@
 package org.comdnmr.modelfree.models;
 
 import org.comdnmr.modelfree.FitDeuteriumModel;
+import org.comdnmr.modelfree.FitR1R2NOEModel;
 import org.comdnmr.modelfree.MolDataValues;
+import org.comdnmr.modelfree.R1R2NOEDataValue;
+import org.comdnmr.modelfree.R1R2NOEStructureValues;
+import org.comdnmr.modelfree.RelaxDataValue;
+import org.comdnmr.modelfree.SpectralDensityMapping;
 import org.nmrfx.chemistry.Atom;
 import org.nmrfx.chemistry.MoleculeBase;
 import org.nmrfx.chemistry.MoleculeFactory;
 import org.nmrfx.chemistry.relax.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -18,19 +24,100 @@ public class OrderParameterTool {
 
     }
 
+    /**
+     * The spectral density of an atom, computed but not yet attached to it.
+     */
+    public record AtomSpectralDensity(Atom atom, String key, SpectralDensity spectralDensity) {
+    }
+
     public static void calculateSpectralDensities() {
+        setSpectralDensities(computeSpectralDensities());
+    }
+
+    /**
+     * Maps the relaxation data of the active molecule to spectral densities
+     * without changing its atoms, so it can be run off the FX thread. R1, R2
+     * and NOE data of every residue are mapped in one batch and deuterium
+     * data residue by residue in parallel.
+     *
+     * @return the spectral densities in key order, deuterium first
+     */
+    public static List<AtomSpectralDensity> computeSpectralDensities() {
+        List<AtomSpectralDensity> result = new ArrayList<>();
         var data = FitDeuteriumModel.getData(false);
+        data.values().parallelStream().forEach(resData -> {
+            resData.clearJ();
+            resData.getJValues();
+        });
         data.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
             MolDataValues resData = e.getValue();
-            Atom atom = resData.getAtom();
             String key = e.getKey();
-            resData.clearJ();
-            atom.getSpectralDensity().clear();
-            double[][] jValues = resData.getJValues();
-            SpectralDensity spectralDensity = new SpectralDensity(key, jValues);
-            atom.addSpectralDensity(key, spectralDensity);
+            result.add(new AtomSpectralDensity(resData.getAtom(), key, new SpectralDensity(key, resData.getJValues())));
         });
+        result.addAll(mapR1R2NOE(new FitR1R2NOEModel().getData(false)));
+        return result;
     }
+
+    private static List<AtomSpectralDensity> mapR1R2NOE(R1R2NOEStructureValues data) {
+        List<String> keyList = new ArrayList<>(data.keySet());
+        Collections.sort(keyList);
+        List<R1R2NOEDataValue> rows = new ArrayList<>();
+        int[] starts = new int[keyList.size() + 1];
+        for (int iKey = 0; iKey < keyList.size(); iKey++) {
+            starts[iKey] = rows.size();
+            for (RelaxDataValue value : data.get(keyList.get(iKey)).getData()) {
+                rows.add((R1R2NOEDataValue) value);
+            }
+        }
+        starts[keyList.size()] = rows.size();
+
+        int n = rows.size();
+        String[] keys = new String[n];
+        double[] sfs = new double[n];
+        double[] r1 = new double[n];
+        double[] r1Err = new double[n];
+        double[] r2 = new double[n];
+        double[] r2Err = new double[n];
+        double[] noe = new double[n];
+        double[] noeErr = new double[n];
+        for (int iKey = 0; iKey < keyList.size(); iKey++) {
+            for (int i = starts[iKey]; i < starts[iKey + 1]; i++) {
+                R1R2NOEDataValue value = rows.get(i);
+                keys[i] = keyList.get(iKey);
+                sfs[i] = value.getB0();
+                r1[i] = value.getR1();
+                r1Err[i] = value.getR1err();
+                r2[i] = value.getR2();
+                r2Err[i] = value.getR2err();
+                noe[i] = value.getNOE();
+                noeErr[i] = value.getNOEerr();
+            }
+        }
+        SpectralDensityMapping.Table table = SpectralDensityMapping.reduced(keys, sfs, r1, r1Err, r2, r2Err,
+                noe, noeErr, "H", "N");
+
+        List<AtomSpectralDensity> result = new ArrayList<>();
+        for (int iKey = 0; iKey < keyList.size(); iKey++) {
+            String key = keyList.get(iKey);
+            double[][] jValues = table.jValues(starts[iKey], starts[iKey + 1]);
+            result.add(new AtomSpectralDensity(data.get(key).getAtom(), key, new SpectralDensity(key, jValues)));
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the spectral densities of each atom with the computed ones.
+     *
+     * @param spectralDensities the values from {@link #computeSpectralDensities()}
+     */
+    public static void setSpectralDensities(List<AtomSpectralDensity> spectralDensities) {
+        for (AtomSpectralDensity atomDensity : spectralDensities) {
+            Atom atom = atomDensity.atom();
+            atom.getSpectralDensity().clear();
+            atom.addSpectralDensity(atomDensity.key(), atomDensity.spectralDensity());
+        }
+    }
+
     public static Map<Atom, List<double[][]>> calculateIndependentSpectralDensities() {
         var data = FitDeuteriumModel.getData(false);
         Map<Atom, List<double[][]>> result = new HashMap<>();
@@ -62,7 +62,7 @@ public class ANNLoader {
      *
      * @return ANNLoader object for given saved neural network.
      */
-    public static ANNLoader getInstance(String resource) {
+    public static synchronized ANNLoader getInstance(String resource) {
         if (singleInstance == null || !singleInstance.resourceName.equals(resource)) {
             singleInstance = new ANNLoader(resource);
         }
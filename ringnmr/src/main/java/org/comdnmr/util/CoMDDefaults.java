@@ -26,6 +26,13 @@ public class CoMDDefaults {
     static final Integer SAMPLE_SIZE = 50; // 
     static final String OPTIMIZER = "CMA-ES";
     static final String BOOTSTRAP_OPTIMIZER = "CMA-ES";
+    static final Boolean PARALLEL_EQUATIONS = true;
+    static final Integer MULTISTART_CONVERGED = 0;
+    static final Boolean WARM_START_BOOTSTRAP = false;
+    static final Double WARM_START_RADIUS = 2.0;
+    static final Boolean FIT_PROFILING = false;
+    static final Boolean MODEL_FREE_CACHE = false;
+    static final Integer FIT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
 
     /**
      * @return the refField
@@ -132,4 +139,57 @@ public class CoMDDefaults {
         return BOOTSTRAP_OPTIMIZER;
     }
 
+    /**
+     * @return the number of threads used when fitting residue groups
+     */
+    public static Integer getFitThreads() {
+        return FIT_THREADS;
+    }
+
+    /**
+     * @return whether the candidate equations for a residue are fit concurrently
+     */
+    public static Boolean getParallelEquations() {
+        return PARALLEL_EQUATIONS;
+    }
+
+    /**
+     * @return the number of multi-start tries that must reach the best value
+     * before the remaining tries are skipped (0 runs all tries)
+     */
+    public static Integer getMultiStartConverged() {
+        return MULTISTART_CONVERGED;
+    }
+
+    /**
+     * @return whether bootstrap replicates are refined locally from the best
+     * fit before falling back to the bootstrap optimizer
+     */
+    public static Boolean getWarmStartBootstrap() {
+        return WARM_START_BOOTSTRAP;
+    }
+
+    /**
+     * @return the initial trust radius (normalized units) of the warm started
+     * bootstrap refinement
+     */
+    public static Double getWarmStartRadius() {
+        return WARM_START_RADIUS;
+    }
+
+    /**
+     * @return whether each fit records a FitProfile of its optimizer work
+     */
+    public static Boolean getFitProfiling() {
+        return FIT_PROFILING;
+    }
+
+    /**
+     * @return whether model-free fits reuse cached results of residues whose
+     * data and fit specification are unchanged
+     */
+    public static Boolean getModelFreeCache() {
+        return MODEL_FREE_CACHE;
+    }
+
 }
@@ -113,4 +113,57 @@ public class CoMDOptions {
         return usePrefs ? CoMDPreferences.getBootStrapOptimizer() : CoMDDefaults.getBootStrapOptimizer();
     }
 
+    /**
+     * @return the number of threads used when fitting residue groups
+     */
+    public Integer getFitThreads() {
+        return usePrefs ? CoMDPreferences.getFitThreads() : CoMDDefaults.getFitThreads();
+    }
+
+    /**
+     * @return whether the candidate equations for a residue are fit concurrently
+     */
+    public Boolean getParallelEquations() {
+        return usePrefs ? CoMDPreferences.getParallelEquations() : CoMDDefaults.getParallelEquations();
+    }
+
+    /**
+     * @return the number of multi-start tries that must reach the best value
+     * before the remaining tries are skipped (0 runs all tries)
+     */
+    public Integer getMultiStartConverged() {
+        return usePrefs ? CoMDPreferences.getMultiStartConverged() : CoMDDefaults.getMultiStartConverged();
+    }
+
+    /**
+     * @return whether bootstrap replicates are refined locally from the best
+     * fit before falling back to the bootstrap optimizer
+     */
+    public Boolean getWarmStartBootstrap() {
+        return usePrefs ? CoMDPreferences.getWarmStartBootstrap() : CoMDDefaults.getWarmStartBootstrap();
+    }
+
+    /**
+     * @return the initial trust radius (normalized units) of the warm started
+     * bootstrap refinement
+     */
+    public Double getWarmStartRadius() {
+        return usePrefs ? CoMDPreferences.getWarmStartRadius() : CoMDDefaults.getWarmStartRadius();
+    }
+
+    /**
+     * @return whether each fit records a FitProfile of its optimizer work
+     */
+    public Boolean getFitProfiling() {
+        return usePrefs ? CoMDPreferences.getFitProfiling() : CoMDDefaults.getFitProfiling();
+    }
+
+    /**
+     * @return whether model-free fits reuse cached results of residues whose
+     * data and fit specification are unchanged
+     */
+    public Boolean getModelFreeCache() {
+        return usePrefs ? CoMDPreferences.getModelFreeCache() : CoMDDefaults.getModelFreeCache();
+    }
+
 }
@@ -49,6 +49,13 @@ public class CoMDPreferences {
     static private Integer sampleSize = null;
     static private String optimizer = null;
     static private String bootStrapOptimizer = null;
+    static private Integer fitThreads = null;
+    static private Boolean parallelEquations = null;
+    static private Integer multiStartConverged = null;
+    static private Boolean warmStartBootstrap = null;
+    static private Double warmStartRadius = null;
+    static private Boolean fitProfiling = null;
+    static private Boolean modelFreeCache = null;
     private static Map<String, Boolean> cestEqnMap = null;
     private static Map<String, Boolean> cpmgEqnMap = null;
     private static Map<String, Boolean> r1rhoEqnMap = null;
@@ -151,6 +158,125 @@ public class CoMDPreferences {
         }
     }
 
+    public static Integer getFitThreads() {
+        if (fitThreads == null) {
+            String value = getPrefs().get("FIT_THREADS", String.valueOf(CoMDDefaults.getFitThreads()));
+            fitThreads = Integer.parseInt(value);
+        }
+        return fitThreads;
+    }
+
+    public static void setFitThreads(Integer value) {
+        fitThreads = value;
+        if (value != null) {
+            getPrefs().put("FIT_THREADS", value.toString());
+        } else {
+            getPrefs().remove("FIT_THREADS");
+        }
+    }
+
+    public static Boolean getParallelEquations() {
+        if (parallelEquations == null) {
+            String value = getPrefs().get("PARALLEL_EQUATIONS", String.valueOf(CoMDDefaults.getParallelEquations()));
+            parallelEquations = Boolean.parseBoolean(value);
+        }
+        return parallelEquations;
+    }
+
+    public static void setParallelEquations(Boolean value) {
+        parallelEquations = value;
+        if (value != null) {
+            getPrefs().put("PARALLEL_EQUATIONS", value.toString());
+        } else {
+            getPrefs().remove("PARALLEL_EQUATIONS");
+        }
+    }
+
+    public static Integer getMultiStartConverged() {
+        if (multiStartConverged == null) {
+            String value = getPrefs().get("MULTISTART_CONVERGED", String.valueOf(CoMDDefaults.getMultiStartConverged()));
+            multiStartConverged = Integer.parseInt(value);
+        }
+        return multiStartConverged;
+    }
+
+    public static void setMultiStartConverged(Integer value) {
+        multiStartConverged = value;
+        if (value != null) {
+            getPrefs().put("MULTISTART_CONVERGED", value.toString());
+        } else {
+            getPrefs().remove("MULTISTART_CONVERGED");
+        }
+    }
+
+    public static Boolean getWarmStartBootstrap() {
+        if (warmStartBootstrap == null) {
+            String value = getPrefs().get("WARM_START_BOOTSTRAP", String.valueOf(CoMDDefaults.getWarmStartBootstrap()));
+            warmStartBootstrap = Boolean.parseBoolean(value);
+        }
+        return warmStartBootstrap;
+    }
+
+    public static void setWarmStartBootstrap(Boolean value) {
+        warmStartBootstrap = value;
+        if (value != null) {
+            getPrefs().put("WARM_START_BOOTSTRAP", value.toString());
+        } else {
+            getPrefs().remove("WARM_START_BOOTSTRAP");
+        }
+    }
+
+    public static Double getWarmStartRadius() {
+        if (warmStartRadius == null) {
+            String value = getPrefs().get("WARM_START_RADIUS", String.valueOf(CoMDDefaults.getWarmStartRadius()));
+            warmStartRadius = Double.parseDouble(value);
+        }
+        return warmStartRadius;
+    }
+
+    public static void setWarmStartRadius(Double value) {
+        warmStartRadius = value;
+        if (value != null) {
+            getPrefs().put("WARM_START_RADIUS", value.toString());
+        } else {
+            getPrefs().remove("WARM_START_RADIUS");
+        }
+    }
+
+    public static Boolean getFitProfiling() {
+        if (fitProfiling == null) {
+            String value = getPrefs().get("FIT_PROFILING", String.valueOf(CoMDDefaults.getFitProfiling()));
+            fitProfiling = Boolean.parseBoolean(value);
+        }
+        return fitProfiling;
+    }
+
+    public static void setFitProfiling(Boolean value) {
+        fitProfiling = value;
+        if (value != null) {
+            getPrefs().put("FIT_PROFILING", value.toString());
+        } else {
+            getPrefs().remove("FIT_PROFILING");
+        }
+    }
+
+    public static Boolean getModelFreeCache() {
+        if (modelFreeCache == null) {
+            String value = getPrefs().get("MODEL_FREE_CACHE", String.valueOf(CoMDDefaults.getModelFreeCache()));
+            modelFreeCache = Boolean.parseBoolean(value);
+        }
+        return modelFreeCache;
+    }
+
+    public static void setModelFreeCache(Boolean value) {
+        modelFreeCache = value;
+        if (value != null) {
+            getPrefs().put("MODEL_FREE_CACHE", value.toString());
+        } else {
+            getPrefs().remove("MODEL_FREE_CACHE");
+        }
+    }
+
     public static Double getRexRatio() {
         if (rexRatio == null) {
             String value = getPrefs().get("REX_RATIO", String.valueOf(CoMDDefaults.getRexRatio()));
@@ -0,0 +1,80 @@
+package org.comdnmr.data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.nmrfx.chemistry.relax.ResonanceSource;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DataIOTest {
+
+    @Test
+    public void testLoadYAMLSections() throws IOException {
+        Path dir = Files.createTempDirectory("yamltest");
+        try {
+            String[] names = {"yamltest_600", "yamltest_700", "yamltest_800"};
+            StringBuilder yaml = new StringBuilder("fit:\n  mode: r1\n  data:\n");
+            for (int i = 0; i < names.length; i++) {
+                StringBuilder data = new StringBuilder("Residue\t0.01\t0.01\t0.05\t0.05\n");
+                for (int res = 5; res < 8; res++) {
+                    data.append(res).append('\t').append(1.0 + i).append("\t0.01\t").append(0.5 * res).append("\t0.02\n");
+                }
+                Files.writeString(dir.resolve(names[i] + ".txt"), data.toString());
+                yaml.append("    - file: ").append(names[i]).append(".txt\n")
+                        .append("      B0: ").append(600 + 100 * i).append('\n')
+                        .append("      temperature: 25.0\n")
+                        .append("      nucleus: N\n");
+            }
+            Path yamlPath = dir.resolve("yamltest.yaml");
+            Files.writeString(yamlPath, yaml.toString());
+
+            ExperimentSet experimentSet = DataIO.loadYAMLFile(yamlPath.toString());
+            assertEquals(names.length, experimentSet.getExperimentMap().size());
+            assertEquals(3, experimentSet.getExperimentResults().size());
+            for (int i = 0; i < names.length; i++) {
+                Experiment experiment = experimentSet.getExperimentData(names[i]);
+                assertEquals(600.0 + 100 * i, experiment.getB0Field(), 0.0);
+                List<ResonanceSource> sources = List.copyOf(experiment.getDynamicsSources());
+                assertEquals(3, sources.size());
+                for (ResonanceSource source : sources) {
+                    ExperimentData data = experiment.getResidueData(source);
+                    assertSame(source, data.getSource());
+                    assertEquals(1.0 + i, data.getYValues()[0], 0.0);
+                    assertNotNull(experimentSet.getExperimentResult(source));
+                }
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testSaveResultsRemovesStaleReplicates() throws IOException {
+        Path dir = Files.createTempDirectory("repstest");
+        try {
+            Path resultsPath = dir.resolve("cpmg_out.txt");
+            Path replicatePath = ReplicateStore.pathFor(resultsPath.toString());
+            new ReplicateStore.Writer()
+                    .add(new ReplicateStore.Key("36.H", "CPMGFAST", ReplicateStore.ALL_STATES), Map.of("R2 0", new double[]{10.0}))
+                    .write(replicatePath);
+            assertTrue(Files.exists(replicatePath));
+
+            DataIO.saveResultsFile(resultsPath.toString(), new ExperimentSet("repstest", resultsPath.toString()), false);
+            assertTrue(Files.exists(resultsPath));
+            assertFalse(Files.exists(replicatePath));
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.comdnmr.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LineTokenizerTest {
+
+    @Test
+    public void testSplit() throws IOException {
+        LineTokenizer tokenizer = new LineTokenizer(new StringReader("a\t 1.5 \t\r\n\n x  \"y z\"\t3"));
+        assertTrue(tokenizer.next());
+        assertEquals(3, tokenizer.split('\t'));
+        assertEquals("a", tokenizer.get(0));
+        assertEquals(1.5, tokenizer.getDouble(1), 0.0);
+        assertTrue(tokenizer.isEmpty(2));
+        assertTrue(tokenizer.next());
+        assertTrue(tokenizer.isBlank());
+        assertTrue(tokenizer.next());
+        assertEquals('\t', tokenizer.detectDelimiter());
+        assertEquals(3, tokenizer.split(LineTokenizer.WHITESPACE));
+        assertEquals("y z", tokenizer.get(1));
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    public void testParseMatchesParseDouble() throws IOException {
+        Random random = new Random(7);
+        StringBuilder sBuilder = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10.0, random.nextInt(30) - 15);
+            sBuilder.append(value).append(',').append(String.format("%.4f", value)).append(',');
+        }
+        sBuilder.append("NaN,-0.0,1e3,.5");
+        LineTokenizer tokenizer = new LineTokenizer(new StringReader(sBuilder.toString()));
+        assertTrue(tokenizer.next());
+        int n = tokenizer.split(',');
+        for (int i = 0; i < n; i++) {
+            assertEquals(tokenizer.get(i), Double.parseDouble(tokenizer.get(i)), tokenizer.getDouble(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        Path path = Files.createTempFile("tokens", ".txt.gz");
+        try {
+            try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(path))) {
+                output.write("Res\t10\t20\n5\t0.9\t0.8\n".getBytes(StandardCharsets.UTF_8));
+            }
+            try (LineTokenizer tokenizer = LineTokenizer.open(path)) {
+                assertTrue(tokenizer.next());
+                assertEquals("Res", tokenizer.line().substring(0, 3));
+                assertTrue(tokenizer.next());
+                tokenizer.split('\t');
+                assertEquals(0.8, tokenizer.getDouble(2), 0.0);
+                assertFalse(tokenizer.next());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNotANumber() throws IOException {
+        LineTokenizer tokenizer = new LineTokenizer(new StringReader("1.2.3"));
+        tokenizer.next();
+        tokenizer.split('\t');
+        tokenizer.getDouble(0);
+    }
+}
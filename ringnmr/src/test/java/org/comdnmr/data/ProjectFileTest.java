@@ -0,0 +1,68 @@
+package org.comdnmr.data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.comdnmr.eqnfit.CurveFit;
+import org.comdnmr.eqnfit.FitResult;
+import org.comdnmr.eqnfit.PlotEquation;
+import org.comdnmr.fit.FitQuality;
+import org.nmrfx.chemistry.relax.ResonanceSource;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ProjectFileTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        DynamicsSource dynamicsSourceFactory = new DynamicsSource(true, true, true, true);
+        ResonanceSource source = dynamicsSourceFactory.createFromAtomSpecifiers("projtest.1", "5.N").orElseThrow();
+        ExperimentSet experimentSet = new ExperimentSet("projtest", "projtest.yaml");
+        experimentSet.setExpMode("r1");
+        double[] delays = {0.01, 0.05, 0.1, 0.2};
+        T1Experiment experiment = new T1Experiment(experimentSet, "r1_600", "N", 600.0, 298.0);
+        experiment.setXVals(delays);
+        double[] y = {0.99, 0.95, 0.9, 0.8};
+        double[] err = {0.01, 0.02, 0.01, 0.02};
+        experiment.addResidueData(source, new ExperimentData(experiment, source, new double[][]{delays}, y, err));
+        experimentSet.addExperimentData(experiment.getName(), experiment);
+
+        ExperimentResult result = new ExperimentResult(experimentSet, source, 0, 1, 1);
+        PlotEquation plotEquation = new PlotEquation("r1", "EXPAB", new double[]{1.0, 1.1}, new double[]{0.01, 0.02}, new double[]{600.0});
+        CurveFit curveFit = new CurveFit("0:0:0", source, Map.of("A", 1.0, "R", 1.1), plotEquation);
+        result.addCurveFit(curveFit, true);
+        double[] sims = {1.09, 1.1, 1.12};
+        FitResult fitResult = new FitResult(new String[]{"A", "R"}, List.of(curveFit), "EXPAB", 0,
+                new FitQuality(0.01, -5.0, -4.0, 1.2, 4), Map.of("R 0", sims), false, null);
+        result.addFitResult(fitResult);
+        experimentSet.addExperimentResult(source, result);
+
+        Path path = Files.createTempFile("projtest", ProjectFile.EXTENSION);
+        try {
+            ProjectFile.save(experimentSet, path);
+            ExperimentSet loaded = ProjectFile.load(path);
+            assertEquals("r1", loaded.getExpMode());
+            Experiment loadedExperiment = loaded.getExperimentData("r1_600");
+            assertTrue(loadedExperiment instanceof T1Experiment);
+            assertArrayEquals(delays, ((T1Experiment) loadedExperiment).getXVals(), 0.0);
+            ExperimentData data = loadedExperiment.getResidueData(loadedExperiment.getDynamicsSources().iterator().next());
+            assertArrayEquals(delays, data.getXValues()[0], 0.0);
+            assertArrayEquals(y, data.getYValues(), 0.0);
+            assertArrayEquals(err, data.getErrValues(), 0.0);
+
+            ExperimentResult loadedResult = loaded.getExperimentResults().get(0);
+            assertEquals("EXPAB", loadedResult.getBestEquationName());
+            CurveFit loadedFit = loadedResult.getCurveFit("EXPAB", "0:0:0");
+            assertArrayEquals(plotEquation.getPars(), loadedFit.getEquation().getPars(), 0.0);
+            assertEquals(1.1, loadedFit.getParMap().get("R"), 0.0);
+            FitResult loadedFitResult = loadedResult.getFitResult("EXPAB");
+            assertEquals(4, loadedFitResult.getFitQuality().n().intValue());
+            assertArrayEquals(sims, loadedFitResult.getSimsMap().get("R 0"), 0.0);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.comdnmr.data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ReplicateStoreTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Map<String, double[]> rows = new LinkedHashMap<>();
+        rows.put("R2 0", new double[]{10.1, 10.3, 9.8});
+        rows.put("Kex 0", new double[]{250.0, 310.5, 280.25});
+        ReplicateStore.Key key = new ReplicateStore.Key("36.H", "CPMGFAST", ReplicateStore.ALL_STATES);
+        Path path = Files.createTempFile("replicates", ReplicateStore.EXTENSION);
+        try {
+            new ReplicateStore.Writer()
+                    .add(key, rows)
+                    .add(new ReplicateStore.Key("37.H", "NOEX", ReplicateStore.ALL_STATES), Map.of("R2 0", new double[]{5.0}))
+                    .write(path);
+            ReplicateStore store = ReplicateStore.open(path);
+            assertEquals(2, store.keys().size());
+            Map<String, double[]> loaded = store.get("36.H", "CPMGFAST", ReplicateStore.ALL_STATES).orElseThrow();
+            assertEquals(rows.keySet(), loaded.keySet());
+            for (String name : rows.keySet()) {
+                assertArrayEquals(rows.get(name), loaded.get(name), 1.0e-4);
+            }
+            assertArrayEquals(new double[]{5.0}, store.get("37.H", "NOEX", ReplicateStore.ALL_STATES).orElseThrow().get("R2 0"), 0.0);
+            assertTrue(store.get("38.H", "NOEX", ReplicateStore.ALL_STATES).isEmpty());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testPathFor() {
+        assertEquals(Path.of("dir", "cpmg_out.reps"), ReplicateStore.pathFor(Path.of("dir", "cpmg_out.txt").toString()));
+    }
+}
@@ -0,0 +1,81 @@
+package org.comdnmr.eqnfit;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlochMcConnellEigenSolverTest {
+
+    static DMatrixRMaj bmMatrix(double offset, double b1, double kex) {
+        double pb = 0.05;
+        double R1A = 2.0;
+        double R1B = 2.0;
+        double R2A = 10.0;
+        double R2B = 30.0;
+        double omegaB1 = b1 * 2.0 * Math.PI;
+        double deltaA = (0.0 - offset) * 70.0 * 2.0 * Math.PI;
+        double deltaB = (3.0 - offset) * 70.0 * 2.0 * Math.PI;
+        double k1 = pb * kex;
+        double km1 = (1 - pb) * kex;
+        return new DMatrixRMaj(new double[][]{
+            {-R2A - k1, -deltaA, 0, km1, 0, 0},
+            {deltaA, -R2A - k1, -omegaB1, 0, km1, 0},
+            {0, omegaB1, -R1A - k1, 0, 0, km1},
+            {k1, 0, 0, -R2B - km1, -deltaB, 0},
+            {0, k1, 0, deltaB, -R2B - km1, -omegaB1},
+            {0, 0, k1, 0, omegaB1, -R1B - km1}});
+    }
+
+    static double fullEigenvalue(DMatrixRMaj Z) {
+        EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(Z.getNumCols(), false, false);
+        eig.decompose(Z.copy());
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < eig.getNumberOfEigenvalues(); i++) {
+            Complex_F64 value = eig.getEigenvalue(i);
+            if (value.isReal()) {
+                max = Math.max(max, value.getReal());
+            }
+        }
+        return max;
+    }
+
+    @Test
+    public void testOffsetSweep() {
+        for (double kex : new double[]{50.0, 400.0, 3000.0}) {
+            for (double b1 : new double[]{10.0, 25.0, 50.0}) {
+                BlochMcConnellEigenSolver solver = new BlochMcConnellEigenSolver(6);
+                int n = 0;
+                for (double offset = -6.0; offset <= 10.0; offset += 0.1) {
+                    DMatrixRMaj Z = bmMatrix(offset, b1, kex);
+                    double expected = fullEigenvalue(Z);
+                    double value = solver.leastNegativeEigenvalue(Z);
+                    Assert.assertEquals(expected, value, 1.0e-8 * Math.max(1.0, Math.abs(expected)));
+                    n++;
+                }
+                Assert.assertTrue(solver.getFullDecompositions() < n);
+            }
+        }
+    }
+
+    @Test
+    public void testEvenNumberMissed() {
+        BlochMcConnellEigenSolver solver = new BlochMcConnellEigenSolver(3);
+        Assert.assertEquals(-3.0, solver.leastNegativeEigenvalue(new DMatrixRMaj(new double[][]{
+            {-5, 0, 0}, {0, -6, 0}, {0, 0, -3}})), 1.0e-12);
+        // inverse iteration converges back to -3, with two real eigenvalues
+        // above it, so det(Z - tI) just above -3 has the expected sign
+        Assert.assertEquals(-1.0, solver.leastNegativeEigenvalue(new DMatrixRMaj(new double[][]{
+            {-1, 0, 0}, {0, -2, 0}, {0, 0, -3}})), 1.0e-12);
+        Assert.assertEquals(2, solver.getFullDecompositions());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoRealEigenvalue() {
+        BlochMcConnellEigenSolver solver = new BlochMcConnellEigenSolver(2);
+        solver.leastNegativeEigenvalue(new DMatrixRMaj(new double[][]{{-1, -5}, {5, -1}}));
+    }
+
+}
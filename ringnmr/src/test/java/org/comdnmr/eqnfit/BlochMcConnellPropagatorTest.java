@@ -0,0 +1,75 @@
+package org.comdnmr.eqnfit;
+
+import org.comdnmr.util.MtxExp;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlochMcConnellPropagatorTest {
+
+    static double[][] cestMatrix(double offset, double tdelay) {
+        double pb = 0.05;
+        double kex = 400.0;
+        double R1A = 2.0;
+        double R1B = 2.5;
+        double R2A = 10.0;
+        double R2B = 40.0;
+        double omegaB1 = 25.0 * 2.0 * Math.PI;
+        double deltaA = (0.0 - offset) * 70.0 * 2.0 * Math.PI;
+        double deltaB = (4.0 - offset) * 70.0 * 2.0 * Math.PI;
+        double k1 = pb * kex;
+        double km1 = (1 - pb) * kex;
+        double[][] z = {
+            {0, 0, 0, 0, 0, 0, 0},
+            {0, -R2A - k1, -deltaA, 0, km1, 0, 0},
+            {0, deltaA, -R2A - k1, -omegaB1, 0, km1, 0},
+            {2 * R1A * (1 - pb), 0, omegaB1, -R1A - k1, 0, 0, km1},
+            {0, k1, 0, 0, -R2B - km1, -deltaB, 0},
+            {0, 0, k1, 0, deltaB, -R2B - km1, -omegaB1},
+            {2 * R1B * pb, 0, 0, k1, 0, omegaB1, -R1B - km1}};
+        for (double[] row : z) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] *= tdelay;
+            }
+        }
+        return z;
+    }
+
+    @Test
+    public void testExpRowMatchesMatrixExp() {
+        for (double offset = -6.0; offset <= 10.0; offset += 0.5) {
+            double[][] z = cestMatrix(offset, 0.3);
+            BlochMcConnellPropagator propagator = new BlochMcConnellPropagator(7);
+            for (int i = 0; i < 7; i++) {
+                for (int j = 0; j < 7; j++) {
+                    propagator.set(i, j, z[i][j]);
+                }
+            }
+            double[][] expected = MtxExp.matrixExp(z);
+            double[] row = propagator.expRow(3, new double[7]);
+            for (int j = 0; j < 7; j++) {
+                Assert.assertEquals(expected[3][j], row[j], 1.0e-10);
+            }
+        }
+    }
+
+    @Test
+    public void testProject() {
+        double[][] z = cestMatrix(1.0, 0.1);
+        BlochMcConnellPropagator propagator = new BlochMcConnellPropagator(7);
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 7; j++) {
+                propagator.set(i, j, z[i][j]);
+            }
+        }
+        double[] w = {0.1, 0.2, 0.0, 1.0, 0.0, 0.3, 0.5};
+        double[] u = {0.5, 0.0, 0.1, 0.95, 0.0, 0.0, 0.05};
+        double[][] expected = MtxExp.matrixExp(z);
+        double sum = 0.0;
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 7; j++) {
+                sum += w[i] * expected[i][j] * u[j];
+            }
+        }
+        Assert.assertEquals(sum, propagator.project(w, u), 1.0e-10);
+    }
+}
@@ -0,0 +1,87 @@
+package org.comdnmr.eqnfit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EquationBatchTest {
+
+    void checkBatch(EquationType equation, double[] par, int[][] map, double[][] x, int[] idNums) {
+        double[] yCalc = new double[idNums.length];
+        equation.calculate(par, map, x, idNums, yCalc);
+        double[] ax = new double[x.length];
+        for (int i = 0; i < idNums.length; i++) {
+            for (int j = 0; j < x.length; j++) {
+                ax[j] = x[j][i];
+            }
+            double expected = equation.calculate(par, map[idNums[i]], ax, idNums[i]);
+            Assert.assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(yCalc[i]));
+        }
+    }
+
+    double[][] cpmgX(int n) {
+        double[][] x = new double[4][n];
+        for (int i = 0; i < n; i++) {
+            x[0][i] = 50.0 + 100.0 * (i % 10);
+            x[1][i] = (i % 20) < 10 ? 600.0 : 800.0;
+        }
+        return x;
+    }
+
+    @Test
+    public void testCPMGBatch() {
+        int n = 40;
+        double[][] x = cpmgX(n);
+        int[] idNums = new int[n];
+        for (int i = 0; i < n; i++) {
+            idNums[i] = i / 20;
+        }
+        checkBatch(CPMGEquation.NOEX, new double[]{10.0, 12.0}, new int[][]{{0}, {1}}, x, idNums);
+        checkBatch(CPMGEquation.CPMGFAST, new double[]{500.0, 10.0, 0.5, 12.0, 0.3},
+                new int[][]{{0, 1, 2}, {0, 3, 4}}, x, idNums);
+        checkBatch(CPMGEquation.CPMGFAST, new double[]{0.0, 10.0, 0.5, 12.0, 0.3},
+                new int[][]{{0, 1, 2}, {0, 3, 4}}, x, idNums);
+        checkBatch(CPMGEquation.CPMGSLOW, new double[]{300.0, 0.95, 10.0, 1.5, 12.0, 2.0},
+                new int[][]{{0, 1, 2, 3}, {0, 1, 4, 5}}, x, idNums);
+    }
+
+    @Test
+    public void testExpBatch() {
+        int n = 12;
+        double[][] x = new double[1][n];
+        int[] idNums = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[0][i] = 0.02 * (i % 6);
+            idNums[i] = i / 6;
+        }
+        checkBatch(ExpEquation.EXPAB, new double[]{100.0, 5.0, 7.0}, new int[][]{{0, 1}, {0, 2}}, x, idNums);
+        checkBatch(ExpEquation.EXPABC, new double[]{100.0, 5.0, 3.0, 7.0, 2.0}, new int[][]{{0, 1, 2}, {0, 3, 4}}, x, idNums);
+    }
+
+    @Test
+    public void testSSR1RhoBatch() {
+        int n = 12;
+        double[][] x = new double[4][n];
+        int[] idNums = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[0][i] = 3.0 + 2.5 * (i % 6);
+            x[3][i] = 10.0;
+            idNums[i] = i / 6;
+        }
+        double[] par = {10.0e-9, 0.33, 67.0e-6, 0.8};
+        int[][] map = {{0, 1}, {2, 3}};
+        checkBatch(SSR1RhoEquation.CSA, par, map, x, idNums);
+
+        // the fit function evaluates every point with the first map
+        double[] yCalc = new double[n];
+        SSR1RhoEquation.CSA.calculate(par, map[0], x, yCalc);
+        double[] ax = new double[x.length];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < x.length; j++) {
+                ax[j] = x[j][i];
+            }
+            double expected = SSR1RhoEquation.CSA.calculate(par, map[0], ax, 0);
+            Assert.assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(yCalc[i]));
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.comdnmr.eqnfit;
+
+import java.util.Optional;
+import org.apache.commons.math3.optim.PointValuePair;
+import org.comdnmr.util.CoMDOptions;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EquationGradientTest {
+
+    static double[] numericGradient(EquationType equation, double[] par, int[] map, double[] x) {
+        double[] grad = new double[map.length];
+        for (int k = 0; k < map.length; k++) {
+            double[] work = par.clone();
+            double h = 1.0e-6 * Math.max(Math.abs(par[map[k]]), 1.0e-3);
+            work[map[k]] = par[map[k]] + h;
+            double vPlus = equation.calculate(work, map, x, 0);
+            work[map[k]] = par[map[k]] - h;
+            double vMinus = equation.calculate(work, map, x, 0);
+            grad[k] = (vPlus - vMinus) / (2.0 * h);
+        }
+        return grad;
+    }
+
+    void checkGradient(EquationType equation, double[] par, double[] x) {
+        int[] map = new int[par.length];
+        for (int i = 0; i < map.length; i++) {
+            map[i] = i;
+        }
+        double[] grad = new double[map.length];
+        double value = equation.gradient(par, map, x, 0, grad);
+        Assert.assertEquals(equation.calculate(par, map, x, 0), value, 1.0e-12);
+        double[] expected = numericGradient(equation, par, map, x);
+        for (int k = 0; k < map.length; k++) {
+            Assert.assertEquals(expected[k], grad[k], 1.0e-5 * Math.max(1.0, Math.abs(expected[k])));
+        }
+    }
+
+    @Test
+    public void testCPMGFastGradient() {
+        checkGradient(CPMGEquation.CPMGFAST, new double[]{500.0, 10.0, 0.5}, new double[]{200.0, 600.0, 0.0, 0.0});
+        checkGradient(CPMGEquation.CPMGFAST, new double[]{2500.0, 12.0, 1.5}, new double[]{50.0, 800.0, 0.0, 0.0});
+    }
+
+    @Test
+    public void testExpGradient() {
+        checkGradient(ExpEquation.EXPAB, new double[]{100.0, 5.0}, new double[]{0.1});
+        checkGradient(ExpEquation.EXPABC, new double[]{100.0, 5.0, 3.0}, new double[]{0.3});
+    }
+
+    @Test
+    public void testRefineLM() {
+        FitFunction fitFunction = FitFunctionAllocationTest.cpmgFunction(new CoMDOptions(false));
+        double[] lower = fitFunction.lowerBounds.clone();
+        double[] upper = fitFunction.upperBounds.clone();
+        Optional<PointValuePair> result = fitFunction.refineLM(new double[]{1000.0, 8.0, 0.8}, lower, upper, 10.0);
+        Assert.assertTrue(result.isPresent());
+        double[] point = result.get().getPoint();
+        Assert.assertEquals(500.0, point[0], 1.0);
+        Assert.assertEquals(10.0, point[1], 0.01);
+        Assert.assertEquals(0.5, point[2], 0.001);
+    }
+}
@@ -0,0 +1,109 @@
+package org.comdnmr.eqnfit;
+
+import java.lang.management.ManagementFactory;
+import org.comdnmr.util.CoMDOptions;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class FitFunctionAllocationTest {
+
+    static final int N_CALLS = 10000;
+
+    static FitFunction cpmgFunction(CoMDOptions options) {
+        int n = 24;
+        double[][] x = new double[4][n];
+        double[] y = new double[n];
+        double[] err = new double[n];
+        double[] par = {500.0, 10.0, 0.5};
+        int[] map = {0, 1, 2};
+        double[] ax = new double[4];
+        for (int i = 0; i < n; i++) {
+            x[0][i] = 50.0 + 40.0 * (i % 12);
+            x[1][i] = i < 12 ? 600.0 : 800.0;
+            for (int j = 0; j < 4; j++) {
+                ax[j] = x[j][i];
+            }
+            y[i] = CPMGEquation.CPMGFAST.calculate(par, map, ax, 0);
+            err[i] = 0.5;
+        }
+        FitFunction fitFunction = new CPMGFitFunction(options);
+        fitFunction.setEquation("CPMGFAST");
+        fitFunction.setXY(x, y);
+        fitFunction.setIds(new int[n]);
+        fitFunction.setErr(err);
+        fitFunction.setMap(new int[][]{map});
+        fitFunction.lowerBounds = new double[]{0.0, 1.0, 0.0};
+        fitFunction.upperBounds = new double[]{5000.0, 50.0, 5.0};
+        return fitFunction;
+    }
+
+    static FitFunction expFunction(CoMDOptions options) {
+        int n = 10;
+        double[][] x = new double[1][n];
+        double[] y = new double[n];
+        double[] err = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[0][i] = 0.02 * i;
+            y[i] = 100.0 * Math.exp(-5.0 * x[0][i]);
+            err[i] = 1.0;
+        }
+        FitFunction fitFunction = new ExpFitFunction(options);
+        fitFunction.setEquation("EXPAB");
+        fitFunction.setXY(x, y);
+        fitFunction.setIds(new int[n]);
+        fitFunction.setErr(err);
+        fitFunction.setMap(new int[][]{{0, 1}});
+        fitFunction.lowerBounds = new double[]{0.0, 0.0};
+        fitFunction.upperBounds = new double[]{200.0, 50.0};
+        return fitFunction;
+    }
+
+    static double[] normalized(FitFunction fitFunction, double[] pars) {
+        return fitFunction.normalize(pars);
+    }
+
+    long allocatedBytes(FitFunction fitFunction, double[] normPars) {
+        com.sun.management.ThreadMXBean threadBean
+                = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double sum = 0.0;
+        for (int i = 0; i < N_CALLS; i++) {
+            sum += fitFunction.value(normPars);
+        }
+        long start = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < N_CALLS; i++) {
+            sum += fitFunction.value(normPars);
+        }
+        long used = threadBean.getCurrentThreadAllocatedBytes() - start;
+        Assert.assertTrue(Double.isFinite(sum));
+        return used;
+    }
+
+    @Test
+    public void testCPMGValueDoesNotAllocate() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        FitFunction fitFunction = cpmgFunction(new CoMDOptions(false));
+        double[] normPars = normalized(fitFunction, new double[]{500.0, 10.0, 0.5});
+        Assert.assertEquals(0.0, fitFunction.value(normPars), 1.0e-12);
+        Assert.assertTrue(allocatedBytes(fitFunction, normPars) < 1024);
+    }
+
+    @Test
+    public void testExpValueDoesNotAllocate() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        FitFunction fitFunction = expFunction(new CoMDOptions(false));
+        double[] normPars = normalized(fitFunction, new double[]{100.0, 5.0});
+        Assert.assertEquals(0.0, fitFunction.value(normPars), 1.0e-12);
+        Assert.assertTrue(allocatedBytes(fitFunction, normPars) < 1024);
+    }
+
+    @Test
+    public void testBootstrapReplicatesAreReproducible() {
+        long seed = FitFunction.mixSeed(17);
+        double a = FitFunction.replicateRandom(seed, 3).nextDouble();
+        double b = FitFunction.replicateRandom(seed, 3).nextDouble();
+        double c = FitFunction.replicateRandom(seed, 4).nextDouble();
+        Assert.assertEquals(a, b, 0.0);
+        Assert.assertNotEquals(a, c, 0.0);
+    }
+}
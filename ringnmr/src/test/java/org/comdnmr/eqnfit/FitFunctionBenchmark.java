@@ -0,0 +1,64 @@
+package org.comdnmr.eqnfit;
+
+import java.util.concurrent.TimeUnit;
+import org.comdnmr.util.CoMDOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of one objective evaluation. Run with the GC profiler
+ * (the main method does this) and check that gc.alloc.rate.norm is zero.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FitFunctionBenchmark {
+
+    FitFunction cpmgFunction;
+    FitFunction expFunction;
+    double[] cpmgPars;
+    double[] expPars;
+
+    @Setup
+    public void setup() {
+        CoMDOptions options = new CoMDOptions(false);
+        cpmgFunction = FitFunctionAllocationTest.cpmgFunction(options);
+        cpmgPars = FitFunctionAllocationTest.normalized(cpmgFunction, new double[]{500.0, 10.0, 0.5});
+        expFunction = FitFunctionAllocationTest.expFunction(options);
+        expPars = FitFunctionAllocationTest.normalized(expFunction, new double[]{100.0, 5.0});
+    }
+
+    @Benchmark
+    public double cpmgValue() {
+        return cpmgFunction.value(cpmgPars);
+    }
+
+    @Benchmark
+    public double expValue() {
+        return expFunction.value(expPars);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FitFunctionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,53 @@
+package org.comdnmr.eqnfit;
+
+import org.comdnmr.util.CoMDOptions;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FitProfileTest {
+
+    FitFunction expFunction(CoMDOptions options) {
+        int n = 10;
+        double[][] x = new double[1][n];
+        double[] y = new double[n];
+        double[] err = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[0][i] = 0.02 * i;
+            y[i] = 100.0 * Math.exp(-5.0 * x[0][i]);
+            err[i] = 1.0;
+        }
+        FitFunction fitFunction = new ExpFitFunction(options);
+        fitFunction.setEquation("EXPAB");
+        fitFunction.setXY(x, y);
+        fitFunction.setIds(new int[n]);
+        fitFunction.setErr(err);
+        fitFunction.setMap(new int[][]{{0, 1}});
+        return fitFunction;
+    }
+
+    @Test
+    public void testRefinementsRecorded() {
+        CoMDOptions options = new CoMDOptions(false);
+        FitFunction fitFunction = expFunction(options);
+        FitProfile profile = new FitProfile("exp", "EXPAB");
+        fitFunction.setProfile(profile);
+        double[] guesses = {90.0, 4.0};
+        double[][] boundaries = fitFunction.boundaries(guesses);
+        Assert.assertTrue(fitFunction.refine(guesses, boundaries[0], boundaries[1], 10.0, "BOBYQA").isPresent());
+        Assert.assertTrue(fitFunction.refineReplicate(guesses, boundaries[0], boundaries[1], 10.0, "BOBYQA").isPresent());
+
+        Assert.assertEquals(1, profile.getRefinementCount(FitProfile.Phase.FIT));
+        Assert.assertEquals(1, profile.getRefinementCount(FitProfile.Phase.BOOTSTRAP));
+        Assert.assertTrue(profile.getEvaluations(FitProfile.Phase.FIT) > 0);
+        Assert.assertEquals(1, profile.getReplicateTimes().length);
+        Assert.assertEquals(Integer.valueOf(1), profile.getConvergenceCounts(FitProfile.Phase.FIT).get("stop radius"));
+        Assert.assertEquals(FitProfile.csvHeader().split(",").length, profile.toCSV().split(",").length);
+    }
+
+    @Test
+    public void testNoProfileByDefault() {
+        FitFunction fitFunction = expFunction(new CoMDOptions(false));
+        Assert.assertTrue(fitFunction.getProfile().isEmpty());
+        Assert.assertTrue(fitFunction.copy().getProfile().isEmpty());
+    }
+}
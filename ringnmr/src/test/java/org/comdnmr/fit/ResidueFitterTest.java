@@ -0,0 +1,170 @@
+/*
+ * CoMD/NMR Software : A Program for Analyzing NMR Dynamics Data
+ * Copyright (C) 2018-2019 Bruce A Johnson
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.comdnmr.fit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javafx.concurrent.Task;
+import org.comdnmr.data.ExperimentResult;
+import org.comdnmr.data.ExperimentSet;
+import org.comdnmr.eqnfit.FitProfile;
+import org.comdnmr.util.CoMDOptions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.nmrfx.chemistry.relax.ResonanceSource;
+
+/**
+ *
+ * @author Bruce Johnson
+ */
+public class ResidueFitterTest {
+
+    static final int N_GROUPS = 8;
+    static final int N_THREADS = 2;
+
+    static class TwoThreadOptions extends CoMDOptions {
+
+        TwoThreadOptions() {
+            super(false);
+        }
+
+        @Override
+        public Integer getFitThreads() {
+            return N_THREADS;
+        }
+    }
+
+    /**
+     * Stands in for the fit of each group, holding every group that starts
+     * until it is released so a run can be cancelled part way through.
+     */
+    static class BlockingFitter extends ResidueFitter {
+
+        final CountDownLatch started = new CountDownLatch(N_THREADS);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger nStarted = new AtomicInteger(0);
+        final AtomicInteger nProgress = new AtomicInteger(0);
+        final AtomicBoolean released = new AtomicBoolean(false);
+        final AtomicInteger nProgressAfterRelease = new AtomicInteger(0);
+
+        BlockingFitter() {
+            super(new TwoThreadOptions());
+        }
+
+        @Override
+        public void updateProgress(Double f) {
+            nProgress.incrementAndGet();
+            if (released.get()) {
+                nProgressAfterRelease.incrementAndGet();
+            }
+        }
+
+        @Override
+        List<ExperimentResult> fitGroup(ExperimentSet experimentSet, ResonanceSource[] dynSources, int groupId, String useEquation,
+                                        List<FitProfile> profiles) {
+            nStarted.incrementAndGet();
+            started.countDown();
+            boolean done = false;
+            while (!done) {
+                try {
+                    release.await();
+                    done = true;
+                } catch (InterruptedException iE) {
+                    // keep fitting, as the real fits do
+                }
+            }
+            profiles.add(new FitProfile("r1", "EXPAB"));
+            return new ArrayList<>();
+        }
+    }
+
+    static class CancellableTask extends Task<Integer> {
+
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        @Override
+        protected Integer call() {
+            return 0;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    @Test
+    public void testCancelMidRun() throws InterruptedException {
+        BlockingFitter fitter = new BlockingFitter();
+        fitter.experimentSet = new ExperimentSet("test", "test");
+        List<List<ResonanceSource>> groups = new ArrayList<>();
+        for (int i = 0; i < N_GROUPS; i++) {
+            groups.add(new ArrayList<>());
+        }
+        CancellableTask task = new CancellableTask();
+        AtomicReference<List<List<ExperimentResult>>> results = new AtomicReference<>();
+        AtomicBoolean interruptKept = new AtomicBoolean(false);
+        Thread fitThread = new Thread(() -> {
+            results.set(fitter.fitGroups(task, groups));
+            interruptKept.set(Thread.currentThread().isInterrupted());
+        });
+        fitThread.start();
+        Assert.assertTrue(fitter.started.await(10, TimeUnit.SECONDS));
+
+        task.cancelled.set(true);
+        fitThread.interrupt();
+        fitter.clearFitProfiles();
+
+        // the groups in progress are waited for before the results are read
+        fitThread.join(200);
+        Assert.assertTrue(fitThread.isAlive());
+        Assert.assertNull(results.get());
+
+        fitter.released.set(true);
+        fitter.release.countDown();
+        fitThread.join(10000);
+        Assert.assertFalse(fitThread.isAlive());
+
+        Assert.assertEquals(N_THREADS, fitter.nStarted.get());
+        Assert.assertEquals(N_THREADS, results.get().size());
+        Assert.assertEquals(0, fitter.nProgressAfterRelease.get());
+        Assert.assertTrue(fitter.getFitProfiles().isEmpty());
+        Assert.assertTrue(interruptKept.get());
+    }
+
+    @Test
+    public void testFitAllGroups() {
+        BlockingFitter fitter = new BlockingFitter();
+        fitter.release.countDown();
+        fitter.experimentSet = new ExperimentSet("test", "test");
+        List<List<ResonanceSource>> groups = new ArrayList<>();
+        for (int i = 0; i < N_GROUPS; i++) {
+            groups.add(new ArrayList<>());
+        }
+        fitter.clearFitProfiles();
+        List<List<ExperimentResult>> results = fitter.fitGroups(null, groups);
+        Assert.assertEquals(N_GROUPS, results.size());
+        Assert.assertEquals(N_GROUPS, fitter.getFitProfiles().size());
+        Assert.assertEquals(0, fitter.nProgress.get());
+    }
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.math3.optim.PointValuePair;
 import org.comdnmr.data.DynamicsSource;
@@ -415,4 +416,65 @@ public class DRefineTest {
 
     }
 
+    @Test
+    public void testFitDiffusionScan() {
+        RelaxFit relaxFit = new RelaxFit();
+        Map<String, MolDataValues> molData = loadTestData();
+        DiffusionType diffType = DiffusionType.ANISOTROPIC;
+        for (MolDataValues molDataValue : molData.values()) {
+            molDataValue.setTestModel(new MFModelAniso1(diffType, molDataValue.getVector()));
+        }
+        relaxFit.setRelaxData(molData);
+        relaxFit.setDiffusionType(diffType);
+        double isoD = 1.0 / (6.0 * 3.3e-9);
+        int nDiffPars = diffType.getNDiffusionPars();
+        double[] guess = new double[nDiffPars + diffType.getNAnglePars()];
+        System.arraycopy(diffType.getGuess(isoD), 0, guess, 0, nDiffPars);
+        System.arraycopy(diffType.getAngles(0), 0, guess, nDiffPars, diffType.getNAnglePars());
+
+        PointValuePair single = relaxFit.fitDiffusion(guess);
+        PointValuePair scan = relaxFit.fitDiffusion(guess, 64, 4);
+        // the guess is refined by both, so the scan can only be worse by the
+        // scatter of the optimizer
+        Assert.assertTrue(scan.getValue() <= single.getValue() + 1.0e-3);
+
+        // the principal values of the tensor found by RotDif
+        double[] rotDifD = {4.4170, 4.5832, 6.0129};
+        Assert.assertEquals(0.1, scan.getValue(), 0.01);
+        double[] fitPars = scan.getPoint().clone();
+        Arrays.sort(fitPars, 0, nDiffPars);
+        double[] scaledPars = scalePars(fitPars, nDiffPars);
+        for (int i = 0; i < nDiffPars; i++) {
+            Assert.assertEquals(rotDifD[i], scaledPars[i], 0.125);
+        }
+    }
+
+    @Test
+    public void testValueDMatThreads() throws Exception {
+        RelaxFit relaxFit = new RelaxFit();
+        Map<String, MolDataValues> molData = loadTestData();
+        for (MolDataValues molDataValue : molData.values()) {
+            molDataValue.setTestModel(new MFModelAniso1(DiffusionType.ANISOTROPIC, molDataValue.getVector()));
+        }
+        relaxFit.setRelaxData(molData);
+        relaxFit.setDiffusionType(DiffusionType.ANISOTROPIC);
+        // unsorted diffusion values, which valueDMat sorts in its own copy
+        double[] pars = {6.0129 * 1e7, 4.4170 * 1e7, 4.5832 * 1e7, Math.toRadians(98.06),
+            Math.toRadians(68.64), Math.toRadians(77.42)};
+        double[] original = pars.clone();
+
+        ForkJoinPool onePool = new ForkJoinPool(1);
+        ForkJoinPool manyPool = new ForkJoinPool(4);
+        try {
+            double one = onePool.submit(() -> relaxFit.valueDMat(pars, null)).get();
+            double many = manyPool.submit(() -> relaxFit.valueDMat(pars, null)).get();
+            Assert.assertEquals(one, many, 0.0);
+            Assert.assertEquals(one, relaxFit.valueDMat(pars, null), 0.0);
+        } finally {
+            onePool.shutdown();
+            manyPool.shutdown();
+        }
+        Assert.assertArrayEquals(original, pars, 0.0);
+    }
+
 }
@@ -4,6 +4,7 @@ import java.util.*;
 
 import org.apache.commons.math3.distribution.ChiSquaredDistribution;
 import org.apache.commons.math3.stat.inference.TTest;
+import org.apache.commons.rng.simple.RandomSource;
 
 import org.comdnmr.data.DynamicsSource;
 
@@ -178,6 +179,30 @@ public class BootstrapSamplerTest {
         return hash;
     }
 
+    @Test
+    public void testSeededSamplerIsReproducible() {
+        ParametricSampler<R1R2NOEDataValue> sampler1 = new ParametricSampler<>(
+            data, RandomSource.XO_SHI_RO_128_PP.create(new long[]{196L, 1L}));
+        List<MolDataValues<R1R2NOEDataValue>> replicates = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            replicates.add(sampler1.sample().copy());
+        }
+        sampler1.getOriginalData();
+
+        // Copies must be unaffected by later samples
+        ParametricSampler<R1R2NOEDataValue> sampler2 = new ParametricSampler<>(
+            data, RandomSource.XO_SHI_RO_128_PP.create(new long[]{196L, 1L}));
+        for (int i = 0; i < 10; i++) {
+            MolDataValues<R1R2NOEDataValue> sample = sampler2.sample();
+            for (int j = 0; j < sample.getData().size(); j++) {
+                assertEquals(sample.getData().get(j).R1, replicates.get(i).getData().get(j).R1, 0.0);
+                assertEquals(sample.getData().get(j).R2, replicates.get(i).getData().get(j).R2, 0.0);
+            }
+        }
+        sampler2.getOriginalData();
+        assertEquals(ASP_3_DATA.get("R1").get(0), data.getData().get(0).R1, DELTA);
+    }
+
     @Test
     public void testAmideNonparametricSampler() {
         AmideNonparametricSampler<R1R2NOEDataValue> sampler = new AmideNonparametricSampler<>(data);
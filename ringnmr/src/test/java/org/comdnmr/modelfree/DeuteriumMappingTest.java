@@ -0,0 +1,52 @@
+package org.comdnmr.modelfree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DeuteriumMappingTest {
+
+    // J(0), J(w), J(2w) and J(4w) for two fields w and 2w
+    static final double[] J_VALUES = {4.0e-9, 2.0e-9, 1.0e-9, 0.4e-9};
+    static final double W = 2.0 * Math.PI * 92.0e6;
+
+    private static List<List<Double>> makeRates() {
+        double scale = 3.0 * RelaxEquations.QCC2;
+        List<Double> rValues = new ArrayList<>();
+        List<Double> errValues = new ArrayList<>();
+        int[][] columns = {{0, 1, 2}, {0, 2, 3}};
+        for (int[] fieldColumns : columns) {
+            for (double[] element : DeuteriumMapping.elements) {
+                double r = 0.0;
+                for (int k = 0; k < 3; k++) {
+                    r += element[k] * J_VALUES[fieldColumns[k]];
+                }
+                r *= scale;
+                rValues.add(r);
+                errValues.add(0.02 * r);
+            }
+        }
+        return List.of(rValues, errValues);
+    }
+
+    @Test
+    public void testJointMapping() {
+        List<List<Double>> rates = makeRates();
+        boolean[] typeUsage = {true, true, true, true};
+        List<Double> fields = List.of(W, 2.0 * W);
+
+        double[][] exact = DeuteriumMapping.jointMapping(rates.get(0), rates.get(1), fields, typeUsage, 1, new Random(1));
+        double[][] bootstrap = DeuteriumMapping.jointMapping(rates.get(0), rates.get(1), fields, typeUsage, 500, new Random(1));
+        double[][] repeat = DeuteriumMapping.jointMapping(rates.get(0), rates.get(1), fields, typeUsage, 500, new Random(1));
+        assertArrayEquals(new double[]{0.0, W, 2.0 * W, 4.0 * W}, exact[0], 1.0);
+        for (int i = 0; i < J_VALUES.length; i++) {
+            assertEquals(J_VALUES[i], exact[1][i], J_VALUES[i] * 1.0e-6);
+            assertEquals(J_VALUES[i], bootstrap[1][i], J_VALUES[i] * 0.05);
+            assertTrue(bootstrap[2][i] > 0.0);
+        }
+        assertArrayEquals(bootstrap[2], repeat[2], 0.0);
+    }
+}
@@ -0,0 +1,48 @@
+package org.comdnmr.modelfree;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.comdnmr.data.DynamicsSource;
+import org.comdnmr.modelfree.models.MFModelIso;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GlobalTauFitterTest {
+
+    Map<String, MolDataValues<R1R2NOEDataValue>> makeData(double tau, double[] s2s) {
+        DynamicsSource dynamicsSourceFactory = new DynamicsSource(true, true, true, true);
+        Map<String, MolDataValues<R1R2NOEDataValue>> molData = new LinkedHashMap<>();
+        for (int i = 0; i < s2s.length; i++) {
+            String key = (i + 1) + ".N";
+            MolDataValues<R1R2NOEDataValue> resData = new R1R2NOEMolDataValues(key, new double[3], dynamicsSourceFactory);
+            MFModelIso model = MFModelIso.buildModel("1", false, tau, 0.0, false);
+            for (double sf : new double[]{600.0e6, 800.0e6}) {
+                RelaxEquations rlxEq = RelaxEquations.getRelaxEquations(sf, "H", "N");
+                double[] valJ = model.calc(rlxEq.wValues, new double[]{s2s[i]});
+                double r1 = rlxEq.R1(valJ);
+                double r2 = rlxEq.R2(valJ, 0.0);
+                double noe = rlxEq.NOE(valJ);
+                resData.addData(new R1R2NOEDataValue(resData, r1, r1 * 0.03, r2, r2 * 0.03, noe, 0.05, rlxEq));
+            }
+            // fit starting from a different tau than the one generating the data
+            resData.setTestModel(MFModelIso.buildModel("1", false, 5.0, 0.0, false));
+            molData.put(key, resData);
+        }
+        return molData;
+    }
+
+    @Test
+    public void testSharedTau() {
+        double tau = 8.0;
+        double[] s2s = {0.85, 0.9, 0.7, 0.8, 0.95, 0.6};
+        GlobalTauFitter fitter = new GlobalTauFitter(makeData(tau, s2s));
+        GlobalTauFitter.Result result = fitter.fit(4.0, 16.0, 5.0);
+        Assert.assertEquals(tau, result.tauM(), 0.05);
+        Assert.assertEquals(s2s.length, result.scores().size());
+        int i = 0;
+        for (Score score : result.scores().values()) {
+            Assert.assertEquals(s2s[i++], score.getPars()[0], 0.01);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.comdnmr.modelfree;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IncrementalFitStateTest {
+
+    private static final Set<String> KEYS = Set.of("3.N", "4.N");
+
+    private static String specState(boolean useMedian) {
+        return new BaggingFitSpec.Builder().useMedian(useMedian).build().canonicalStateString();
+    }
+
+    private static ModelFitResult result(double s2) {
+        OrderParValues values = new OrderParValues("BAGGING-BEST", "model1", 0.5, 3, 1,
+            List.of("S2"), new double[]{s2}, new double[]{0.01});
+        return new ModelFitResult(null, null, null, null, List.of(values));
+    }
+
+    private static IncrementalFitState fitted(String specState, Object molecule) {
+        IncrementalFitState state = new IncrementalFitState();
+        state.update(specState, molecule, KEYS);
+        state.put("3.N", "hash3", result(0.8));
+        state.put("4.N", "hash4", result(0.9));
+        return state;
+    }
+
+    @Test
+    public void testCleanResultsCarriedOver() {
+        Object molecule = new Object();
+        IncrementalFitState state = fitted(specState(false), molecule);
+        ModelFitResult result3 = state.getClean("3.N", "hash3").orElseThrow();
+        state.update(specState(false), molecule, KEYS);
+        assertSame(result3, state.getClean("3.N", "hash3").orElseThrow());
+        assertTrue(state.getClean("4.N", "hash4").isPresent());
+    }
+
+    @Test
+    public void testDirtyResidues() {
+        IncrementalFitState state = fitted(specState(false), "mol");
+        assertTrue(state.getClean("3.N", "changed").isEmpty());
+        assertTrue(state.getClean("5.N", "hash5").isEmpty());
+        assertTrue(state.getClean("4.N", "hash4").isPresent());
+    }
+
+    @Test
+    public void testSpecChangeInvalidates() {
+        Object molecule = new Object();
+        IncrementalFitState state = fitted(specState(false), molecule);
+        state.update(specState(true), molecule, KEYS);
+        assertEquals(0, state.size());
+        assertTrue(state.getClean("3.N", "hash3").isEmpty());
+    }
+
+    @Test
+    public void testMoleculeChangeInvalidates() {
+        IncrementalFitState state = fitted(specState(false), new Object());
+        state.update(specState(false), new Object(), KEYS);
+        assertEquals(0, state.size());
+        assertTrue(state.getClean("4.N", "hash4").isEmpty());
+    }
+
+    @Test
+    public void testResiduesWithoutDataForgotten() {
+        Object molecule = new Object();
+        IncrementalFitState state = fitted(specState(false), molecule);
+        state.update(specState(false), molecule, Set.of("4.N"));
+        assertEquals(1, state.size());
+        assertTrue(state.getClean("3.N", "hash3").isEmpty());
+        assertTrue(state.getClean("4.N", "hash4").isPresent());
+    }
+}
@@ -0,0 +1,112 @@
+package org.comdnmr.modelfree;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.comdnmr.data.DynamicsSource;
+import org.nmrfx.chemistry.relax.OrderParSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+public class ModelFitCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static R1R2NOEMolDataValues makeData(double r1) {
+        R1R2NOEMolDataValues data = new R1R2NOEMolDataValues("3.N", new double[3], new DynamicsSource(true, true, true, true));
+        RelaxEquations relaxEquations = new RelaxEquations(600.133e6, "H", "N");
+        data.addData(new R1R2NOEDataValue(data, r1, 0.016, 3.05, 0.38, -0.75, 0.001, relaxEquations));
+        return data;
+    }
+
+    private static ModelFitResult makeResult() {
+        OrderParValues values = new OrderParValues("CONVENTIONAL-BEST", "model1", 0.5, 3, 2,
+            List.of("Sf2", "model"), new double[]{0.8, 1.0}, new double[]{0.02, Double.NaN});
+        return new ModelFitResult(null, new double[][]{{0.8, 0.81}}, null, new double[]{1.5, 1.7}, List.of(values));
+    }
+
+    private long countEntries(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(p -> p.toString().endsWith(".mfc")).count();
+        }
+    }
+
+    @Test
+    public void testDataHash() {
+        String hash = ModelFitCache.dataHash("3.N", makeData(1.11));
+        assertEquals(hash, ModelFitCache.dataHash("3.N", makeData(1.11)));
+        assertNotEquals(hash, ModelFitCache.dataHash("3.N", makeData(1.12)));
+        assertNotEquals(hash, ModelFitCache.dataHash("4.N", makeData(1.11)));
+    }
+
+    @Test
+    public void testMissAndEviction() throws IOException {
+        Path directory = folder.getRoot().toPath().resolve("cache");
+        ModelFitCache cache = new ModelFitCache(directory, 0L, Duration.ofDays(1));
+        R1R2NOEMolDataValues data = makeData(1.11);
+        assertTrue(cache.get("abc", "3.N", data, Map.of()).isEmpty());
+        assertEquals(1, cache.getMisses());
+
+        cache.put("abc", "3.N", data, makeResult());
+        cache.put("abc", "3.N", makeData(1.12), makeResult());
+        assertEquals(2, countEntries(directory));
+        // a result without order parameter values can not be replayed
+        cache.put("abd", "3.N", data, new ModelFitResult(null, null, null, null));
+        assertEquals(2, countEntries(directory));
+
+        assertEquals(2, cache.evict());
+        assertEquals(0, countEntries(directory));
+    }
+
+    @Test
+    public void testPutGetHit() {
+        Path directory = folder.getRoot().toPath().resolve("cache");
+        ModelFitCache cache = new ModelFitCache(directory);
+        R1R2NOEMolDataValues data = makeData(1.11);
+        ModelFitResult result = makeResult();
+        cache.put("abc", "3.N", data, result);
+
+        Map<String, OrderParSet> orderParSetMap = new HashMap<>();
+        Optional<ModelFitResult> cached = cache.get("abc", "3.N", makeData(1.11), orderParSetMap);
+        assertTrue(cached.isPresent());
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertArrayEquals(result.replicateData()[0], cached.get().replicateData()[0], 0.0);
+        assertArrayEquals(result.replicateTimes(), cached.get().replicateTimes(), 0.0);
+        OrderParValues values = result.orderParValues().get(0);
+        OrderParValues cachedValues = cached.get().orderParValues().get(0);
+        assertEquals(values.modelName(), cachedValues.modelName());
+        assertEquals(values.parNames(), cachedValues.parNames());
+        assertArrayEquals(values.values(), cachedValues.values(), 0.0);
+        assertTrue(orderParSetMap.containsKey("CONVENTIONAL-BEST"));
+        assertNotNull(cached.get().orderPar());
+    }
+
+    @Test
+    public void testUseMedianMisses() {
+        Path directory = folder.getRoot().toPath().resolve("cache");
+        ModelFitCache cache = new ModelFitCache(directory);
+        FitSpec meanSpec = new BaggingFitSpec.Builder().useMedian(false).build();
+        FitSpec medianSpec = new BaggingFitSpec.Builder().useMedian(true).build();
+        String meanFingerprint = meanSpec.stateFingerprintHex(64);
+        String medianFingerprint = medianSpec.stateFingerprintHex(64);
+        assertNotEquals(meanFingerprint, medianFingerprint);
+        assertEquals(meanFingerprint, new BaggingFitSpec.Builder().useMedian(false).build().stateFingerprintHex(64));
+
+        R1R2NOEMolDataValues data = makeData(1.11);
+        cache.put(meanFingerprint, "3.N", data, makeResult());
+        assertTrue(cache.get(medianFingerprint, "3.N", data, new HashMap<>()).isEmpty());
+        assertTrue(cache.get(meanFingerprint, "3.N", data, new HashMap<>()).isPresent());
+    }
+}
@@ -0,0 +1,37 @@
+package org.comdnmr.modelfree;
+
+import java.util.List;
+
+import org.apache.commons.rng.UniformRandomProvider;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RandomStreamsTest {
+
+    private static FitSpec fitSpec(long seed) {
+        return new ConventionalFitSpec.Builder()
+            .modelNames(List.of("1", "2sf"))
+            .seed(seed)
+            .build();
+    }
+
+    @Test
+    public void testSameSpecSameStream() {
+        UniformRandomProvider rng1 = fitSpec(196L).getRandomSource("12.N", "2sf");
+        UniformRandomProvider rng2 = fitSpec(196L).getRandomSource("12.N", "2sf");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(rng1.nextLong(), rng2.nextLong());
+        }
+    }
+
+    @Test
+    public void testStreamsDiffer() {
+        RandomStreams root = fitSpec(196L).getRandomStreams();
+        long residue = root.stream("12.N").getKey();
+        assertNotEquals(residue, root.stream("13.N").getKey());
+        assertNotEquals(residue, fitSpec(197L).getRandomStreams().stream("12.N").getKey());
+        assertNotEquals(root.stream("12.N").stream("1").getKey(), root.stream("12.N").stream("2sf").getKey());
+        assertNotEquals(root.stream("1").stream("2").getKey(), root.stream("12").getKey());
+    }
+}
@@ -0,0 +1,80 @@
+package org.comdnmr.modelfree;
+
+import java.util.concurrent.TimeUnit;
+import org.comdnmr.data.DynamicsSource;
+import org.comdnmr.modelfree.models.MFModelIso;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of scoring one parameter set of an isotropic model-free
+ * model against R1, R2 and NOE data at three fields. Run with the GC profiler
+ * (the main method does this) to see the allocation per score.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelaxFitBenchmark {
+
+    RelaxFit rFit;
+    RelaxFit jFit;
+    double[] pars;
+
+    static R1R2NOEMolDataValues makeData(MFModelIso model) {
+        R1R2NOEMolDataValues data = new R1R2NOEMolDataValues("3.N", new double[3], new DynamicsSource(true, true, true, true));
+        data.addData(new R1R2NOEDataValue(data, 1.11, 0.016, 3.05, 0.38, -0.75, 0.001, new RelaxEquations(600.133e6, "H", "N")));
+        data.addData(new R1R2NOEDataValue(data, 0.82, 0.014, 3.31, 0.41, -0.52, 0.001, new RelaxEquations(800.234e6, "H", "N")));
+        data.addData(new R1R2NOEDataValue(data, 0.63, 0.012, 3.58, 0.45, -0.36, 0.001, new RelaxEquations(950.0e6, "H", "N")));
+        data.setTestModel(model);
+        return data;
+    }
+
+    static RelaxFit makeRelaxFit(boolean fitJ) {
+        MFModelIso model = MFModelIso.buildModel("2sf", false, 8.0, 0.0, false);
+        RelaxFit relaxFit = new RelaxFit();
+        relaxFit.setFitJ(fitJ);
+        relaxFit.setRelaxData("3.N", makeData(model));
+        return relaxFit;
+    }
+
+    @Setup
+    public void setup() {
+        rFit = makeRelaxFit(false);
+        jFit = makeRelaxFit(true);
+        pars = new double[]{0.9, 0.05, 0.85, 1.5};
+    }
+
+    @Benchmark
+    public Score scoreR1R2NOE() {
+        return rFit.score(pars, false);
+    }
+
+    @Benchmark
+    public Score scoreJ() {
+        return jFit.score(pars, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RelaxFitBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
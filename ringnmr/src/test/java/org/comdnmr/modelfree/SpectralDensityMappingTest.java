@@ -0,0 +1,98 @@
+package org.comdnmr.modelfree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.optim.PointValuePair;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SpectralDensityMappingTest {
+
+    @Test
+    public void testReducedMatchesPerResidue() {
+        String[] keys = {"3.N", "3.N", "4.N", "4.N"};
+        double[] sfs = {600.0e6, 800.0e6, 600.0e6, 800.0e6};
+        double[] r1 = {1.11, 0.82, 1.05, 0.79};
+        double[] r1Err = {0.016, 0.014, 0.02, 0.015};
+        double[] r2 = {3.05, 3.31, 2.8, 3.1};
+        double[] r2Err = {0.38, 0.41, 0.3, 0.35};
+        double[] noe = {-0.75, -0.52, -0.6, -0.4};
+        double[] noeErr = {0.05, 0.05, 0.05, 0.05};
+        SpectralDensityMapping.Table table = SpectralDensityMapping.reduced(keys, sfs, r1, r1Err, r2, r2Err,
+                noe, noeErr, "H", "N");
+        assertEquals(keys.length, table.size());
+        for (int i = 0; i < keys.length; i++) {
+            RelaxEquations relaxEq = RelaxEquations.getRelaxEquations(sfs[i], "H", "N");
+            R1R2NOEDataValue dValue = new R1R2NOEDataValue(null, r1[i], r1Err[i], r2[i], r2Err[i], noe[i], noeErr[i], relaxEq);
+            double[][] jValues = SpectralDensityCalculator.calcJR1R2NOE(List.of(dValue));
+            assertEquals(jValues[1][0], table.j0()[i], 0.0);
+            assertEquals(jValues[2][0], table.j0Err()[i], 0.0);
+            assertEquals(jValues[0][1], table.wH()[i], 0.0);
+            assertEquals(jValues[1][1], table.jH()[i], 0.0);
+            assertEquals(jValues[1][2], table.jN()[i], 0.0);
+            assertEquals(jValues[2][2], table.jNErr()[i], 0.0);
+            assertArrayEquals(jValues, table.jValues(i, i + 1));
+        }
+    }
+
+    @Test
+    public void testJValuesOfSeveralFields() {
+        String[] keys = {"3.N", "3.N"};
+        double[] sfs = {600.0e6, 800.0e6};
+        double[] r1 = {1.11, 0.82};
+        double[] r1Err = {0.016, 0.014};
+        double[] r2 = {3.05, 3.31};
+        double[] r2Err = {0.38, 0.41};
+        double[] noe = {-0.75, -0.52};
+        double[] noeErr = {0.05, 0.05};
+        SpectralDensityMapping.Table table = SpectralDensityMapping.reduced(keys, sfs, r1, r1Err, r2, r2Err,
+                noe, noeErr, "H", "N");
+        List<R1R2NOEDataValue> dValues = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            RelaxEquations relaxEq = RelaxEquations.getRelaxEquations(sfs[i], "H", "N");
+            dValues.add(new R1R2NOEDataValue(null, r1[i], r1Err[i], r2[i], r2Err[i], noe[i], noeErr[i], relaxEq));
+        }
+        assertArrayEquals(SpectralDensityCalculator.calcJR1R2NOE(dValues), table.jValues(0, keys.length));
+    }
+
+    @Test
+    public void testFittedMatchesPerResidue() {
+        String[] keys = {"3.N", "3.N", "4.N"};
+        double[] sfs = {600.0e6, 800.0e6, 600.0e6};
+        double[] r1 = {1.11, 0.82, 1.05};
+        double[] r1Err = {0.016, 0.014, 0.02};
+        double[] r2 = {3.05, 3.31, 2.8};
+        double[] r2Err = {0.38, 0.41, 0.3};
+        double[] noe = {-0.75, -0.52, -0.6};
+        double[] noeErr = {0.05, 0.05, 0.05};
+        SpectralDensityMapping.Table reduced = SpectralDensityMapping.reduced(keys, sfs, r1, r1Err, r2, r2Err,
+                noe, noeErr, "H", "N");
+        SpectralDensityMapping.Table table = SpectralDensityMapping.fitted(keys, sfs, r1, r1Err, r2, r2Err,
+                noe, noeErr, "H", "N");
+        assertEquals(keys.length, table.size());
+        for (int i = 0; i < keys.length; i++) {
+            RelaxEquations relaxEq = RelaxEquations.getRelaxEquations(sfs[i], "H", "N");
+            R1R2NOEDataValue dValue = new R1R2NOEDataValue(null, r1[i], r1Err[i], r2[i], r2Err[i], noe[i], noeErr[i], relaxEq);
+            // the fits start from random points, so compare to a tolerance
+            PointValuePair result = new SpectralDensityCalculator().fit(dValue);
+            assertNotNull(result);
+            double[] j = result.getPoint();
+            assertEquals(j[0], table.j0()[i], 1.0e-2 * Math.abs(j[0]));
+            assertEquals(j[1], table.jN()[i], 1.0e-2 * Math.abs(j[1]));
+            assertEquals(j[3], table.jH()[i], 1.0e-2 * Math.abs(j[3]));
+            assertEquals(relaxEq.getWI(), table.wH()[i], 0.0);
+            assertEquals(relaxEq.getWS(), table.wN()[i], 0.0);
+            assertEquals(reduced.j0Err()[i], table.j0Err()[i], 0.0);
+            assertEquals(reduced.jNErr()[i], table.jNErr()[i], 0.0);
+            assertTrue(Double.isNaN(table.jHErr()[i]));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedColumns() {
+        double[] two = new double[2];
+        SpectralDensityMapping.reduced(new String[]{"3.N"}, two, two, two, two, two, two, two, "H", "N");
+    }
+}